@@ -31,6 +31,7 @@
 import org.apache.ranger.plugin.util.ServiceGdsInfo;
 import org.apache.ranger.plugin.util.ServicePolicies;
 import org.apache.ranger.plugin.util.ServiceTags;
+import org.apache.ranger.plugin.util.ServiceVersions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -127,6 +128,11 @@ public ServiceGdsInfo getGdsInfoIfUpdated(long lastKnownVersion, long lastActiva
         return null;
     }
 
+    @Override
+    public ServiceVersions waitForServiceVersionChange(ServiceVersions lastKnownVersions, long timeoutMs) throws Exception {
+        return null;
+    }
+
     public boolean isKerberosEnabled(UserGroupInformation user) {
         final boolean ret;
 
@@ -28,6 +28,7 @@
 import org.apache.ranger.plugin.util.ServiceGdsInfo;
 import org.apache.ranger.plugin.util.ServicePolicies;
 import org.apache.ranger.plugin.util.ServiceTags;
+import org.apache.ranger.plugin.util.ServiceVersions;
 
 import java.util.List;
 
@@ -63,4 +64,11 @@ public interface RangerAdminClient {
     RangerUserStore getUserStoreIfUpdated(long lastKnownUserStoreVersion, long lastActivationTimeInMillis) throws Exception;
 
     ServiceGdsInfo getGdsInfoIfUpdated(long lastKnownVersion, long lastActivationTimeInMillis) throws Exception;
+
+    /**
+     * Waits, up to timeoutMs, in Ranger Admin for a version in lastKnownVersions to change.
+     *
+     * @return latest versions; lastKnownVersions if nothing changed; null if Ranger Admin doesn't support change notification
+     */
+    ServiceVersions waitForServiceVersionChange(ServiceVersions lastKnownVersions, long timeoutMs) throws Exception;
 }
@@ -43,6 +43,7 @@
 import org.apache.ranger.plugin.util.ServiceGdsInfo;
 import org.apache.ranger.plugin.util.ServicePolicies;
 import org.apache.ranger.plugin.util.ServiceTags;
+import org.apache.ranger.plugin.util.ServiceVersions;
 import org.apache.ranger.plugin.util.URLEncoderUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -62,6 +63,8 @@ public class RangerAdminRESTClient extends AbstractRangerAdminClient {
 
     private static final TypeReference<List<String>> TYPE_LIST_STRING = new TypeReference<List<String>>() {};
 
+    private static final int LONG_POLL_READ_TIMEOUT_MARGIN_MS = 5 * 1000;
+
     private final String           pluginCapabilities = Long.toHexString(new RangerPluginCapability().getPluginCapabilities());
     private final RangerRESTUtils  restUtils          = new RangerRESTUtils();
     private       String           serviceName;
@@ -71,6 +74,8 @@ public class RangerAdminRESTClient extends AbstractRangerAdminClient {
     private       RangerRESTClient restClient;
     private       boolean          supportsPolicyDeltas;
     private       boolean          supportsTagDeltas;
+    private       boolean          supportsUserStoreDeltas;
+    private       boolean          supportsRoleDeltas;
     private       boolean          isRangerCookieEnabled;
     private       String           rangerAdminCookieName;
     private       Cookie           sessionId;
@@ -103,10 +108,12 @@ public void init(String serviceName, String appId, String propertyPrefix, Config
         int restClientMaxRetryAttempts = config.getInt(propertyPrefix + ".policy.rest.client.max.retry.attempts", 3);
         int restClientRetryIntervalMs  = config.getInt(propertyPrefix + ".policy.rest.client.retry.interval.ms", 1 * 1000);
 
-        supportsPolicyDeltas  = config.getBoolean(propertyPrefix + RangerCommonConstants.PLUGIN_CONFIG_SUFFIX_POLICY_DELTA, RangerCommonConstants.PLUGIN_CONFIG_SUFFIX_POLICY_DELTA_DEFAULT);
-        supportsTagDeltas     = config.getBoolean(propertyPrefix + RangerCommonConstants.PLUGIN_CONFIG_SUFFIX_TAG_DELTA, RangerCommonConstants.PLUGIN_CONFIG_SUFFIX_TAG_DELTA_DEFAULT);
-        isRangerCookieEnabled = config.getBoolean(propertyPrefix + ".policy.rest.client.cookie.enabled", RangerCommonConstants.POLICY_REST_CLIENT_SESSION_COOKIE_ENABLED);
-        rangerAdminCookieName = config.get(propertyPrefix + ".policy.rest.client.session.cookie.name", RangerCommonConstants.DEFAULT_COOKIE_NAME);
+        supportsPolicyDeltas    = config.getBoolean(propertyPrefix + RangerCommonConstants.PLUGIN_CONFIG_SUFFIX_POLICY_DELTA, RangerCommonConstants.PLUGIN_CONFIG_SUFFIX_POLICY_DELTA_DEFAULT);
+        supportsTagDeltas       = config.getBoolean(propertyPrefix + RangerCommonConstants.PLUGIN_CONFIG_SUFFIX_TAG_DELTA, RangerCommonConstants.PLUGIN_CONFIG_SUFFIX_TAG_DELTA_DEFAULT);
+        supportsUserStoreDeltas = config.getBoolean(propertyPrefix + RangerCommonConstants.PLUGIN_CONFIG_SUFFIX_USERSTORE_DELTA, RangerCommonConstants.PLUGIN_CONFIG_SUFFIX_USERSTORE_DELTA_DEFAULT);
+        supportsRoleDeltas      = config.getBoolean(propertyPrefix + RangerCommonConstants.PLUGIN_CONFIG_SUFFIX_ROLE_DELTA, RangerCommonConstants.PLUGIN_CONFIG_SUFFIX_ROLE_DELTA_DEFAULT);
+        isRangerCookieEnabled   = config.getBoolean(propertyPrefix + ".policy.rest.client.cookie.enabled", RangerCommonConstants.POLICY_REST_CLIENT_SESSION_COOKIE_ENABLED);
+        rangerAdminCookieName   = config.get(propertyPrefix + ".policy.rest.client.session.cookie.name", RangerCommonConstants.DEFAULT_COOKIE_NAME);
 
         if (!StringUtil.isEmpty(tmpUrl)) {
             url = tmpUrl.trim();
@@ -181,7 +188,7 @@ public ServicePolicies getServicePoliciesIfUpdated(final long lastKnownVersion,
 
             ret = null;
         } else if (response.getStatus() == HttpServletResponse.SC_OK) {
-            ret = JsonUtilsV2.readResponse(response, ServicePolicies.class);
+            ret = JsonUtilsV2.readResponseStream(response, ServicePolicies.class);
         } else if (response.getStatus() == HttpServletResponse.SC_NOT_FOUND) {
             ret = null;
 
@@ -221,6 +228,7 @@ public RangerRoles getRolesIfUpdated(final long lastKnownRoleVersion, final long
         queryParams.put(RangerRESTUtils.REST_PARAM_PLUGIN_ID, pluginId);
         queryParams.put(RangerRESTUtils.REST_PARAM_CLUSTER_NAME, clusterName);
         queryParams.put(RangerRESTUtils.REST_PARAM_CAPABILITIES, pluginCapabilities);
+        queryParams.put(RangerRESTUtils.REST_PARAM_SUPPORTS_ROLE_DELTAS, Boolean.toString(supportsRoleDeltas));
 
         final ClientResponse response;
 
@@ -260,7 +268,7 @@ public RangerRoles getRolesIfUpdated(final long lastKnownRoleVersion, final long
 
             ret = null;
         } else if (response.getStatus() == HttpServletResponse.SC_OK) {
-            ret = JsonUtilsV2.readResponse(response, RangerRoles.class);
+            ret = JsonUtilsV2.readResponseStream(response, RangerRoles.class);
         } else if (response.getStatus() == HttpServletResponse.SC_NOT_FOUND) {
             ret = null;
 
@@ -804,7 +812,7 @@ public ServiceTags getServiceTagsIfUpdated(final long lastKnownVersion, final lo
 
             ret = null;
         } else if (response.getStatus() == HttpServletResponse.SC_OK) {
-            ret = JsonUtilsV2.readResponse(response, ServiceTags.class);
+            ret = JsonUtilsV2.readResponseStream(response, ServiceTags.class);
         } else if (response.getStatus() == HttpServletResponse.SC_NOT_FOUND) {
             ret = null;
 
@@ -893,6 +901,7 @@ public RangerUserStore getUserStoreIfUpdated(long lastKnownUserStoreVersion, lon
         queryParams.put(RangerRESTUtils.REST_PARAM_PLUGIN_ID, pluginId);
         queryParams.put(RangerRESTUtils.REST_PARAM_CLUSTER_NAME, clusterName);
         queryParams.put(RangerRESTUtils.REST_PARAM_CAPABILITIES, pluginCapabilities);
+        queryParams.put(RangerRESTUtils.REST_PARAM_SUPPORTS_USERSTORE_DELTAS, Boolean.toString(supportsUserStoreDeltas));
 
         final ClientResponse response;
 
@@ -934,7 +943,7 @@ public RangerUserStore getUserStoreIfUpdated(long lastKnownUserStoreVersion, lon
 
             ret = null;
         } else if (response.getStatus() == HttpServletResponse.SC_OK) {
-            ret = JsonUtilsV2.readResponse(response, RangerUserStore.class);
+            ret = JsonUtilsV2.readResponseStream(response, RangerUserStore.class);
         } else if (response.getStatus() == HttpServletResponse.SC_NOT_FOUND) {
             ret = null;
 
@@ -1012,7 +1021,7 @@ public ServiceGdsInfo getGdsInfoIfUpdated(long lastKnownVersion, long lastActiva
             LOG.debug("No change in GdsInfo: secureMode={}, user={}, response={}, serviceName={}, lastKnownGdsVersion={}, lastActivationTimeInMillis={}",
                     isSecureMode, user, resp, serviceName, lastKnownVersion, lastActivationTimeInMillis);
         } else if (response.getStatus() == HttpServletResponse.SC_OK) {
-            ret = JsonUtilsV2.readResponse(response, ServiceGdsInfo.class);
+            ret = JsonUtilsV2.readResponseStream(response, ServiceGdsInfo.class);
         } else if (response.getStatus() == HttpServletResponse.SC_NOT_FOUND) {
             ret = null;
 
@@ -1038,6 +1047,78 @@ public ServiceGdsInfo getGdsInfoIfUpdated(long lastKnownVersion, long lastActiva
         return ret;
     }
 
+    @Override
+    public ServiceVersions waitForServiceVersionChange(ServiceVersions lastKnownVersions, long timeoutMs) throws Exception {
+        LOG.debug("==> RangerAdminRESTClient.waitForServiceVersionChange({}, {})", lastKnownVersions, timeoutMs);
+
+        final UserGroupInformation user         = MiscUtil.getUGILoginUser();
+        final boolean              isSecureMode = isKerberosEnabled(user);
+        final Cookie               sessionId    = this.sessionId;
+        final Map<String, String>  queryParams  = new HashMap<>();
+        final long                 waitTimeMs   = Math.max(0, Math.min(timeoutMs, restClient.getRestClientReadTimeOutMs() - LONG_POLL_READ_TIMEOUT_MARGIN_MS)); // respond before the read times out
+
+        addVersionParam(queryParams, RangerRESTUtils.REST_PARAM_LAST_KNOWN_POLICY_VERSION, lastKnownVersions.getPolicyVersion());
+        addVersionParam(queryParams, RangerRESTUtils.REST_PARAM_LAST_KNOWN_TAG_VERSION, lastKnownVersions.getTagVersion());
+        addVersionParam(queryParams, RangerRESTUtils.REST_PARAM_LAST_KNOWN_ROLE_VERSION, lastKnownVersions.getRoleVersion());
+        addVersionParam(queryParams, RangerRESTUtils.REST_PARAM_LAST_KNOWN_USERSTORE_VERSION, lastKnownVersions.getUserStoreVersion());
+        queryParams.put(RangerRESTUtils.REST_PARAM_TIMEOUT_MS, Long.toString(waitTimeMs));
+        queryParams.put(RangerRESTUtils.REST_PARAM_PLUGIN_ID, pluginId);
+
+        final ClientResponse response;
+
+        if (isSecureMode) {
+            response = MiscUtil.executePrivilegedAction((PrivilegedExceptionAction<ClientResponse>) () -> {
+                try {
+                    String relativeURL = RangerRESTUtils.REST_URL_SECURE_SERVICE_VERSION_CHANGES + serviceNameUrlParam;
+
+                    return restClient.get(relativeURL, queryParams, sessionId);
+                } catch (Exception e) {
+                    LOG.error("Failed to get response", e);
+                }
+
+                return null;
+            });
+        } else {
+            String relativeURL = RangerRESTUtils.REST_URL_SERVICE_VERSION_CHANGES + serviceNameUrlParam;
+
+            response = restClient.get(relativeURL, queryParams, sessionId);
+        }
+
+        checkAndResetSessionCookie(response);
+
+        final ServiceVersions ret;
+
+        if (response == null) {
+            LOG.error("Error waiting for version change - received NULL response: secureMode={}, user={}, serviceName={}", isSecureMode, user, serviceName);
+
+            ret = lastKnownVersions;
+        } else if (response.getStatus() == HttpServletResponse.SC_OK) {
+            ret = JsonUtilsV2.readResponse(response, ServiceVersions.class);
+        } else if (response.getStatus() == HttpServletResponse.SC_NOT_MODIFIED || response.getStatus() == HttpServletResponse.SC_SERVICE_UNAVAILABLE) {
+            LOG.debug("No version change: secureMode={}, user={}, status={}, serviceName={}", isSecureMode, user, response.getStatus(), serviceName);
+
+            ret = lastKnownVersions;
+        } else if (response.getStatus() == HttpServletResponse.SC_NOT_FOUND || response.getStatus() == HttpServletResponse.SC_METHOD_NOT_ALLOWED) {
+            String exceptionMsg = response.hasEntity() ? response.getEntity(String.class) : null;
+
+            RangerServiceNotFoundException.throwExceptionIfServiceNotFound(serviceName, exceptionMsg);
+
+            LOG.info("Ranger Admin doesn't support version change notification: status={}, serviceName={}", response.getStatus(), serviceName);
+
+            ret = null;
+        } else {
+            RESTResponse resp = RESTResponse.fromClientResponse(response);
+
+            LOG.warn("Error waiting for version change: unexpected status code {}: secureMode={}, user={}, response={}, serviceName={}", response.getStatus(), isSecureMode, user, resp, serviceName);
+
+            ret = lastKnownVersions;
+        }
+
+        LOG.debug("<== RangerAdminRESTClient.waitForServiceVersionChange({}, {}): ret={}", lastKnownVersions, timeoutMs, ret);
+
+        return ret;
+    }
+
     private void init(String url, String sslConfigFileName, int restClientConnTimeOutMs, int restClientReadTimeOutMs, int restClientMaxRetryAttempts, int restClientRetryIntervalMs, Configuration config) {
         LOG.debug("==> RangerAdminRESTClient.init({}, {})", url, sslConfigFileName);
 
@@ -1084,4 +1165,10 @@ private void checkAndResetSessionCookie(ClientResponse response) {
             }
         }
     }
+
+    private static void addVersionParam(Map<String, String> queryParams, String paramName, Long version) {
+        if (version != null) {
+            queryParams.put(paramName, Long.toString(version));
+        }
+    }
 }
@@ -27,6 +27,12 @@ public class RangerHadoopConstants {
     public static final String  RANGER_USE_LEGACY_SUBACCESS_AUTHORIZATION_PROP    = "ranger.plugin.hdfs.use.legacy.subaccess.authorization";
     public static final boolean RANGER_USE_LEGACY_SUBACCESS_AUTHORIZATION_DEFAULT = true;
 
+    public static final String RANGER_SUBACCESS_AUTHORIZATION_PARALLELISM_PROP    = "ranger.plugin.hdfs.subaccess.authorization.parallelism";
+    public static final int    RANGER_SUBACCESS_AUTHORIZATION_PARALLELISM_DEFAULT = 1;
+
+    public static final String  RANGER_SUBACCESS_USE_DESCENDANT_ACCESS_SUMMARY_PROP    = "ranger.plugin.hdfs.subaccess.use.descendant.access.summary";
+    public static final boolean RANGER_SUBACCESS_USE_DESCENDANT_ACCESS_SUMMARY_DEFAULT = false;
+
     public static final String READ_ACCCESS_TYPE    = "read";
     public static final String WRITE_ACCCESS_TYPE   = "write";
     public static final String EXECUTE_ACCCESS_TYPE = "execute";
@@ -47,6 +47,7 @@
 import org.apache.ranger.plugin.util.RangerCommonConstants;
 import org.apache.ranger.plugin.util.RangerPerfTracer;
 import org.apache.ranger.plugin.util.RangerReadWriteLock;
+import org.apache.ranger.plugin.util.RangerResourceEvaluatorsRetriever;
 import org.apache.ranger.plugin.util.RangerServiceNotFoundException;
 import org.apache.ranger.plugin.util.RangerServiceTagsDeltaUtil;
 import org.apache.ranger.plugin.util.ServiceTags;
@@ -320,10 +321,57 @@ public void syncTagsWithAdmin(final DownloadTrigger token) throws InterruptedExc
         token.waitForCompletion();
     }
 
+    public void triggerTagsDownload() {
+        if (tagRefresher != null && tagDownloadQueue.isEmpty()) { // a pending download will get the latest tags as well
+            tagDownloadQueue.offer(new DownloadTrigger());
+        }
+    }
+
     public EnrichedServiceTags getEnrichedServiceTags() {
         return enrichedServiceTags;
     }
 
+    /*
+     * Returns true if tags associated with descendants of the resource can be different from tags associated with
+     * the resource, i.e. there is a tagged resource that applies to only one of resource and anyDescendant - a
+     * resource standing for any descendant, like a wildcard path under a directory
+     */
+    public boolean isDescendantTagsDifferent(RangerAccessResource resource, RangerAccessResource anyDescendant, Map<String, Object> evalContext) {
+        LOG.debug("==> RangerTagEnricher.isDescendantTagsDifferent({}, {})", resource, anyDescendant);
+
+        final EnrichedServiceTags enrichedServiceTags = this.enrichedServiceTags;
+        boolean                   ret                 = false;
+
+        if (enrichedServiceTags != null) {
+            Map<String, RangerResourceTrie<RangerServiceResourceMatcher>> serviceResourceTrie = enrichedServiceTags.getServiceResourceTrie();
+
+            if (MapUtils.isEmpty(serviceResourceTrie)) { // trie not available, like when disableTrieLookupPrefilter=true
+                ret = CollectionUtils.isNotEmpty(enrichedServiceTags.getServiceResourceMatchers());
+            } else {
+                Collection<RangerServiceResourceMatcher> matchers = RangerResourceEvaluatorsRetriever.getEvaluatorsForSelfAndDescendants(serviceResourceTrie, resource.getAsMap());
+
+                if (matchers != null) {
+                    for (RangerServiceResourceMatcher matcher : matchers) {
+                        boolean isTagForSelf       = isTagApplicable(matcher.getMatchType(resource, null, evalContext));
+                        boolean isTagForDescendant = isTagApplicable(matcher.getMatchType(anyDescendant, null, evalContext));
+
+                        if (!isTagForSelf || !isTagForDescendant) {
+                            LOG.debug("isDescendantTagsDifferent(): service-resource {} can lead to different tags for descendants of {}", matcher.getServiceResource(), resource);
+
+                            ret = true;
+
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+
+        LOG.debug("<== RangerTagEnricher.isDescendantTagsDifferent({}, {}): ret={}", resource, anyDescendant, ret);
+
+        return ret;
+    }
+
     protected void setServiceTags(final ServiceTags serviceTags, final boolean rebuildOnlyIndex) {
         LOG.debug("==> RangerTagEnricher.setServiceTags(serviceTags={}, rebuildOnlyIndex={})", serviceTags, rebuildOnlyIndex);
 
@@ -704,6 +752,10 @@ private Set<RangerTagForEval> findMatchingTags(final RangerAccessRequest request
         return ret;
     }
 
+    private static boolean isTagApplicable(RangerPolicyResourceMatcher.MatchType matchType) {
+        return matchType == RangerPolicyResourceMatcher.MatchType.ANCESTOR || matchType == RangerPolicyResourceMatcher.MatchType.SELF || matchType == RangerPolicyResourceMatcher.MatchType.SELF_AND_ALL_DESCENDANTS;
+    }
+
     private static Set<RangerTagForEval> getTagsForServiceResource(Date accessTime, final ServiceTags serviceTags, final RangerServiceResource serviceResource, final RangerPolicyResourceMatcher.MatchType matchType) {
         Set<RangerTagForEval> ret = new HashSet<>();
 
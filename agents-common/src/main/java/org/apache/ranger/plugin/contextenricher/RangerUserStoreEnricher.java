@@ -48,6 +48,7 @@ public class RangerUserStoreEnricher extends RangerAbstractContextEnricher {
     private       RangerUserStore                rangerUserStore;
     private       boolean                        disableCacheIfServiceNotFound = true;
     private       boolean                        dedupStrings                  = true;
+    private       boolean                        compactUserStore              = true;
     private       Timer                          userStoreDownloadTimer;
 
     @Override
@@ -60,7 +61,8 @@ public void init() {
         String userStoreRetrieverClassName = getOption(USERSTORE_RETRIEVER_CLASSNAME_OPTION);
         long   pollingIntervalMs           = getLongOption(USERSTORE_REFRESHER_POLLINGINTERVAL_OPTION, 3600 * 1000L);
 
-        dedupStrings = getBooleanConfig(propertyPrefix + ".dedup.strings", true);
+        dedupStrings     = getBooleanConfig(propertyPrefix + ".dedup.strings", true);
+        compactUserStore = getBooleanConfig(propertyPrefix + ".userstore.compact", true);
 
         if (StringUtils.isNotBlank(userStoreRetrieverClassName)) {
             try {
@@ -202,7 +204,9 @@ public void setRangerUserStore(final RangerUserStore rangerUserStore) {
                 perf = RangerPerfTracer.getPerfTracer(PERF_SET_USERSTORE_LOG, "RangerUserStoreEnricher.setRangerUserStore(newUserStoreVersion=" + rangerUserStore.getUserStoreVersion() + ")");
             }
 
-            if (dedupStrings) {
+            if (compactUserStore) {
+                rangerUserStore.compact();
+            } else if (dedupStrings) {
                 rangerUserStore.dedupStrings();
             }
 
@@ -222,6 +226,12 @@ public Long getUserStoreVersion() {
         return localUserStore != null ? localUserStore.getUserStoreVersion() : null;
     }
 
+    public void triggerUserStoreDownload() {
+        if (userStoreRefresher != null && userStoreDownloadQueue.isEmpty()) { // a pending download will get the latest userstore as well
+            userStoreDownloadQueue.offer(new DownloadTrigger());
+        }
+    }
+
     private void setRangerUserStoreInPlugin() {
         LOG.debug("==> setRangerUserStoreInPlugin()");
 
@@ -31,6 +31,7 @@
 import org.apache.ranger.plugin.util.RangerRESTUtils;
 import org.apache.ranger.plugin.util.RangerServiceNotFoundException;
 import org.apache.ranger.plugin.util.RangerUserStore;
+import org.apache.ranger.plugin.util.RangerUserStoreDeltaUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -119,6 +120,18 @@ public RangerUserStore populateUserStoreInfo() throws InterruptedException {
             try {
                 rangerUserStore = userStoreRetriever.retrieveUserStoreInfo(lastKnownVersion, lastActivationTimeInMillis);
 
+                if (rangerUserStore != null && rangerUserStore.getIsDelta()) {
+                    RangerUserStore delta = rangerUserStore;
+
+                    rangerUserStore = RangerUserStoreDeltaUtil.applyDelta(userStoreEnricher.getRangerUserStore(), delta);
+
+                    if (rangerUserStore == null) {
+                        LOG.info("RangerUserStoreRefresher.populateUserStoreInfo() - no userstore to apply delta (version={}) on. Downloading full userstore", delta.getUserStoreVersion());
+
+                        rangerUserStore = userStoreRetriever.retrieveUserStoreInfo(-1L, lastActivationTimeInMillis);
+                    }
+                }
+
                 if (rangerUserStore == null) {
                     if (!hasProvidedUserStoreToReceiver) {
                         rangerUserStore = loadFromCache();
@@ -390,7 +403,7 @@ private RangerUserStore getUserStoreIfUpdated(long lastKnownUserStoreVersion, lo
 
             ret = null;
         } else if (response.getStatus() == HttpServletResponse.SC_OK) {
-            ret = JsonUtilsV2.readResponse(response, RangerUserStore.class);
+            ret = JsonUtilsV2.readResponseStream(response, RangerUserStore.class);
         } else if (response.getStatus() == HttpServletResponse.SC_NOT_FOUND) {
             ret = null;
 
@@ -22,6 +22,7 @@
 import org.apache.ranger.admin.client.RangerAdminClient;
 import org.apache.ranger.plugin.contextenricher.RangerUserStoreRetriever;
 import org.apache.ranger.plugin.util.RangerRoles;
+import org.apache.ranger.plugin.util.RangerRolesDeltaUtil;
 import org.apache.ranger.plugin.util.RangerRolesUtil;
 import org.apache.ranger.plugin.util.RangerUserStore;
 import org.slf4j.Logger;
@@ -79,7 +80,7 @@ public RangerUserStore retrieveUserStoreInfo(long lastKnownVersion, long lastAct
             try {
                 RangerRoles roles        = rolesUtil.getRoles();
                 long        rolesVersion = roles.getRoleVersion() != null ? roles.getRoleVersion() : -1;
-                RangerRoles updatedRoles = adminClient.getRolesIfUpdated(rolesVersion, lastActivationTimeInMillis);
+                RangerRoles updatedRoles = RangerRolesDeltaUtil.applyDelta(roles, adminClient.getRolesIfUpdated(rolesVersion, lastActivationTimeInMillis));
 
                 if (updatedRoles != null) {
                     rolesUtil = new RangerRolesUtil(updatedRoles);
@@ -468,6 +468,14 @@ public Set<String> getMatchedZonesForResourceAndChildren(RangerAccessResource re
         return ret;
     }
 
+    public Set<String> getMatchedZonesForResourceAndDescendants(RangerAccessResource resource) {
+        Set<String> ret = zoneMatcher.getZonesForResourceAndDescendants(resource);
+
+        LOG.debug("getMatchedZonesForResourceAndDescendants(resource={}): ret={}", resource, ret);
+
+        return ret;
+    }
+
     public String getUniquelyMatchedZoneName(Map<String, ?> resourceAsMap) {
         Set<String> matchedZones = zoneMatcher.getZonesForResourceAndChildren(resourceAsMap);
         String      ret          = (matchedZones != null && matchedZones.size() == 1) ? matchedZones.iterator().next() : null;
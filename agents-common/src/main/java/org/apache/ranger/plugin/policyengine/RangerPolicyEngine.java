@@ -75,6 +75,21 @@ public interface RangerPolicyEngine {
 
     RangerResourceACLs getResourceACLs(RangerAccessRequest request, Integer requestedPolicyType);
 
+    /*
+     * Returns true if access to descendants of the requested resource can be different from access to the resource
+     * itself, for the user/groups in the request. anyDescendant is a resource that stands for any descendant of the
+     * requested resource, like a wildcard path under a directory. Returns true when this can't be determined, like
+     * for policies with conditions or {OWNER}, or when descendants are in a different security zone.
+     */
+    boolean isDescendantAccessDifferent(RangerAccessRequest request, RangerAccessResource anyDescendant);
+
+    /*
+     * Returns true if the user has the access on at least one resource of the given type, like a topic, without
+     * evaluating policies for a specific resource. Conditional accesses and accesses granted by tag-based policies are
+     * not considered; an access denied for all resources of the type, like topic=*, takes precedence.
+     */
+    boolean isAccessAllowedOnAnyResourceOfType(String user, Set<String> userGroups, String resourceType, String accessType);
+
     Set<String> getRolesFromUserAndGroups(String user, Set<String> groups);
 
     RangerRoles getRangerRoles();
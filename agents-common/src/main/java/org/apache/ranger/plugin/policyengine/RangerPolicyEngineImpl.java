@@ -25,12 +25,16 @@
 import org.apache.hadoop.conf.Configuration;
 import org.apache.ranger.authorization.hadoop.config.RangerPluginConfig;
 import org.apache.ranger.authorization.utils.StringUtil;
+import org.apache.ranger.plugin.contextenricher.RangerContextEnricher;
+import org.apache.ranger.plugin.contextenricher.RangerGdsEnricher;
+import org.apache.ranger.plugin.contextenricher.RangerTagEnricher;
 import org.apache.ranger.plugin.contextenricher.RangerTagForEval;
 import org.apache.ranger.plugin.model.RangerPolicy;
 import org.apache.ranger.plugin.model.RangerServiceDef;
 import org.apache.ranger.plugin.model.validation.RangerServiceDefHelper;
 import org.apache.ranger.plugin.policyengine.gds.GdsAccessResult;
 import org.apache.ranger.plugin.policyevaluator.RangerPolicyEvaluator;
+import org.apache.ranger.plugin.policyevaluator.RangerPolicyEvaluator.RangerPolicyResourceEvaluator;
 import org.apache.ranger.plugin.policyresourcematcher.RangerPolicyResourceMatcher.MatchType;
 import org.apache.ranger.plugin.service.RangerDefaultRequestProcessor;
 import org.apache.ranger.plugin.util.GrantRevokeRequest;
@@ -51,6 +55,7 @@
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -62,6 +67,8 @@ public class RangerPolicyEngineImpl implements RangerPolicyEngine {
     private static final Logger PERF_POLICYENGINE_REQUEST_LOG  = RangerPerfTracer.getPerfLogger("policyengine.request");
     private static final Logger PERF_POLICYENGINE_AUDIT_LOG    = RangerPerfTracer.getPerfLogger("policyengine.audit");
     private static final Logger PERF_POLICYENGINE_GET_ACLS_LOG = RangerPerfTracer.getPerfLogger("policyengine.getResourceACLs");
+    private static final Logger PERF_POLICYENGINE_DESC_LOG     = RangerPerfTracer.getPerfLogger("policyengine.isDescendantAccessDifferent");
+    private static final Logger PERF_POLICYENGINE_RES_TYPE_LOG = RangerPerfTracer.getPerfLogger("policyengine.isAccessAllowedOnAnyResourceOfType");
 
     private final PolicyEngine                 policyEngine;
     private final RangerAccessRequestProcessor requestProcessor;
@@ -253,12 +260,38 @@ public Collection<RangerAccessResult> evaluatePolicies(Collection<RangerAccessRe
             }
 
             if (requests != null) {
+                // requests in a batch are often for sibling resources - like tables in a database - from the same user:
+                //  - trie lookups for the parent resource are shared across the requests
+                //  - roles of the user are looked up once, for the first request from the user
+                Map<Object, Set<RangerPolicyResourceEvaluator>> parentLookups = requests.size() > 1 ? new HashMap<>() : null;
+                RangerAccessRequest                             prevRequest   = null;
+                String                                          prevUser      = null;
+                Set<String>                                     prevGroups    = null;
+
                 for (RangerAccessRequest request : requests) {
-                    requestProcessor.preProcess(request);
+                    String      user   = request.getUser();
+                    Set<String> groups = request.getUserGroups();
+
+                    if (prevRequest != null && request instanceof RangerAccessRequestImpl && CollectionUtils.isEmpty(request.getUserRoles()) && CollectionUtils.isNotEmpty(prevRequest.getUserRoles()) &&
+                            StringUtils.equals(user, prevUser) && Objects.equals(groups, prevGroups)) {
+                        ((RangerAccessRequestImpl) request).setUserRoles(prevRequest.getUserRoles());
+                    }
 
-                    RangerAccessResult result = zoneAwareAccessEvaluationWithNoAudit(request, policyType);
+                    RangerAccessRequestUtil.setParentResourceLookupsInContext(request.getContext(), parentLookups);
 
-                    ret.add(result);
+                    try {
+                        requestProcessor.preProcess(request);
+
+                        RangerAccessResult result = zoneAwareAccessEvaluationWithNoAudit(request, policyType);
+
+                        ret.add(result);
+                    } finally {
+                        RangerAccessRequestUtil.setParentResourceLookupsInContext(request.getContext(), null);
+                    }
+
+                    prevRequest = request;
+                    prevUser    = user;
+                    prevGroups  = groups;
                 }
             }
 
@@ -399,6 +432,116 @@ public RangerResourceACLs getResourceACLs(RangerAccessRequest request, Integer r
         return ret;
     }
 
+    @Override
+    public boolean isDescendantAccessDifferent(RangerAccessRequest request, RangerAccessResource anyDescendant) {
+        LOG.debug("==> RangerPolicyEngineImpl.isDescendantAccessDifferent(request={}, anyDescendant={})", request, anyDescendant);
+
+        boolean          ret  = true;
+        RangerPerfTracer perf = null;
+
+        if (RangerPerfTracer.isPerfTraceEnabled(PERF_POLICYENGINE_DESC_LOG)) {
+            perf = RangerPerfTracer.getPerfTracer(PERF_POLICYENGINE_DESC_LOG, "RangerPolicyEngine.isDescendantAccessDifferent(resource=" + request.getResource().getAsString() + ")");
+        }
+
+        try (RangerReadWriteLock.RangerLock readLock = policyEngine.getReadLock()) {
+            if (readLock.isLockingEnabled()) {
+                LOG.debug("Acquired lock - {}", readLock);
+            }
+
+            requestProcessor.preProcess(request);
+
+            if (anyDescendant.getServiceDef() == null && anyDescendant instanceof RangerMutableResource) {
+                ((RangerMutableResource) anyDescendant).setServiceDef(policyEngine.getServiceDef());
+            }
+
+            // zones of the resource and its descendants; descendants in a different zone are evaluated with different policies.
+            // zones rooted deeper in the subtree, like a zone for /data/sales for resource /data, don't match anyDescendant,
+            // hence zones are also looked up for all descendants of the resource, like the policy-trie lookup does
+            Set<String> zoneNames           = RangerAccessRequestUtil.getResourceZoneNamesFromContext(request.getContext());
+            Set<String> descendantZoneNames = policyEngine.getMatchedZonesForResourceAndChildren(anyDescendant);
+            Set<String> subtreeZoneNames    = policyEngine.getMatchedZonesForResourceAndDescendants(request.getResource());
+            boolean     isSameZone          = CollectionUtils.isEmpty(zoneNames) ? CollectionUtils.isEmpty(descendantZoneNames) : (zoneNames.size() == 1 && zoneNames.equals(descendantZoneNames));
+
+            if (isSameZone && CollectionUtils.isNotEmpty(subtreeZoneNames)) {
+                isSameZone = zoneNames != null && zoneNames.containsAll(subtreeZoneNames);
+            }
+
+            if (isSameZone) {
+                String                 zoneName         = CollectionUtils.isEmpty(zoneNames) ? null : zoneNames.iterator().next();
+                RangerPolicyRepository policyRepository = policyEngine.getRepositoryForZone(zoneName);
+
+                if (policyRepository != null && !hasGdsEnricher(policyEngine.getPolicyRepository())) { // datasets can include any descendant
+                    ret = policyRepository.isDescendantAccessDifferent(request, anyDescendant, RangerAccessRequestUtil.getUserRoles(request));
+
+                    if (!ret) {
+                        RangerPolicyRepository tagPolicyRepository = policyEngine.getTagPolicyRepository();
+
+                        if (policyEngine.hasTagPolicies(tagPolicyRepository) && tagPolicyRepository.getContextEnrichers() != null) {
+                            for (RangerContextEnricher enricher : tagPolicyRepository.getContextEnrichers()) {
+                                if (enricher instanceof RangerTagEnricher && ((RangerTagEnricher) enricher).isDescendantTagsDifferent(request.getResource(), anyDescendant, request.getContext())) {
+                                    ret = true;
+
+                                    break;
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        RangerPerfTracer.logAlways(perf);
+
+        LOG.debug("<== RangerPolicyEngineImpl.isDescendantAccessDifferent(request={}, anyDescendant={}): ret={}", request, anyDescendant, ret);
+
+        return ret;
+    }
+
+    @Override
+    public boolean isAccessAllowedOnAnyResourceOfType(String user, Set<String> userGroups, String resourceType, String accessType) {
+        LOG.debug("==> RangerPolicyEngineImpl.isAccessAllowedOnAnyResourceOfType(user={}, userGroups={}, resourceType={}, accessType={})", user, userGroups, resourceType, accessType);
+
+        boolean          ret  = false;
+        RangerPerfTracer perf = null;
+
+        if (RangerPerfTracer.isPerfTraceEnabled(PERF_POLICYENGINE_RES_TYPE_LOG)) {
+            perf = RangerPerfTracer.getPerfTracer(PERF_POLICYENGINE_RES_TYPE_LOG, "RangerPolicyEngine.isAccessAllowedOnAnyResourceOfType(user=" + user + ", resourceType=" + resourceType + ", accessType=" + accessType + ")");
+        }
+
+        try (RangerReadWriteLock.RangerLock readLock = policyEngine.getReadLock()) {
+            if (readLock.isLockingEnabled()) {
+                LOG.debug("Acquired lock - {}", readLock);
+            }
+
+            if (isSuperUser(user, userGroups)) {
+                ret = true;
+            } else {
+                Set<String>                  roles        = policyEngine.getPluginContext().getAuthContext().getRolesForUserAndGroups(user, userGroups);
+                List<RangerPolicyRepository> repositories = new ArrayList<>();
+
+                repositories.add(policyEngine.getPolicyRepository());
+                repositories.addAll(policyEngine.getZonePolicyRepositories().values());
+
+                // resources in each zone are governed by policies of the zone; access is allowed if allowed in any zone
+                for (RangerPolicyRepository repository : repositories) {
+                    RangerPolicyRepository.ResourceTypeAccessSummary summary = repository != null ? repository.getResourceTypeAccessSummary(resourceType) : null;
+
+                    if (summary != null && summary.isAllowed(user, userGroups, roles, accessType) && !summary.isDeniedForAll(user, userGroups, roles, accessType)) {
+                        ret = true;
+
+                        break;
+                    }
+                }
+            }
+        }
+
+        RangerPerfTracer.logAlways(perf);
+
+        LOG.debug("<== RangerPolicyEngineImpl.isAccessAllowedOnAnyResourceOfType(user={}, userGroups={}, resourceType={}, accessType={}): ret={}", user, userGroups, resourceType, accessType, ret);
+
+        return ret;
+    }
+
     @Override
     public Set<String> getRolesFromUserAndGroups(String user, Set<String> groups) {
         Set<String> ret;
@@ -1064,6 +1207,22 @@ private boolean getIsFallbackSupported() {
         return policyEngine.getPluginContext().getConfig().getIsFallbackSupported();
     }
 
+    private static boolean hasGdsEnricher(RangerPolicyRepository policyRepository) {
+        boolean ret = false;
+
+        if (policyRepository != null && policyRepository.getContextEnrichers() != null) {
+            for (RangerContextEnricher enricher : policyRepository.getContextEnrichers()) {
+                if (enricher instanceof RangerGdsEnricher) {
+                    ret = true;
+
+                    break;
+                }
+            }
+        }
+
+        return ret;
+    }
+
     private void updateFromGdsResult(RangerAccessResult result) {
         LOG.debug("==> updateFromGdsResult(result={})", result);
 
@@ -22,6 +22,7 @@
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections.MapUtils;
 import org.apache.commons.lang.StringUtils;
+import org.apache.hadoop.conf.Configuration;
 import org.apache.ranger.authorization.utils.JsonUtils;
 import org.apache.ranger.plugin.contextenricher.RangerAbstractContextEnricher;
 import org.apache.ranger.plugin.contextenricher.RangerContextEnricher;
@@ -44,7 +45,9 @@
 import org.apache.ranger.plugin.policyevaluator.RangerOptimizedPolicyEvaluator;
 import org.apache.ranger.plugin.policyevaluator.RangerPolicyEvaluator;
 import org.apache.ranger.plugin.policyevaluator.RangerPolicyEvaluator.RangerPolicyResourceEvaluator;
+import org.apache.ranger.plugin.resourcematcher.RangerAbstractResourceMatcher;
 import org.apache.ranger.plugin.store.AbstractServiceStore;
+import org.apache.ranger.plugin.util.RangerAccessRequestUtil;
 import org.apache.ranger.plugin.util.RangerPerfTracer;
 import org.apache.ranger.plugin.util.RangerResourceEvaluatorsRetriever;
 import org.apache.ranger.plugin.util.ServiceDefUtil;
@@ -62,6 +65,8 @@
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
 
 import static org.apache.ranger.plugin.contextenricher.RangerGdsEnricher.RETRIEVER_CLASSNAME_OPTION;
 import static org.apache.ranger.plugin.contextenricher.RangerTagEnricher.TAG_RETRIEVER_CLASSNAME_OPTION;
@@ -73,7 +78,9 @@ public class RangerPolicyRepository {
     private static final Logger PERF_CONTEXTENRICHER_INIT_LOG = RangerPerfTracer.getPerfLogger("contextenricher.init");
     private static final Logger PERF_TRIE_OP_LOG              = RangerPerfTracer.getPerfLogger("resourcetrie.retrieval");
 
-    private static final int RANGER_POLICYENGINE_AUDITRESULT_CACHE_SIZE = 64 * 1024;
+    private static final int    RANGER_POLICYENGINE_AUDITRESULT_CACHE_SIZE = 64 * 1024;
+    private static final String EVALUATOR_BUILDER_THREAD_COUNT             = "ranger.policyengine.evaluator.builder.thread.count";
+    private static final String EVALUATOR_BUILDER_MIN_POLICY_COUNT         = "ranger.policyengine.evaluator.builder.parallel.min.policy.count";
 
     private final String                                                         serviceName;
     private final String                                                         zoneName;
@@ -100,6 +107,8 @@ public class RangerPolicyRepository {
     private       boolean                                                        isContextEnrichersShared;
     private       boolean                                                        isPreCleaned;
 
+    private volatile Map<String, ResourceTypeAccessSummary> resourceTypeAccessSummaries;
+
     RangerPolicyRepository(final RangerPolicyRepository other, final List<RangerPolicyDelta> deltas, long policyVersion) {
         this.serviceName               = other.serviceName;
         this.zoneName                  = other.zoneName;
@@ -446,6 +455,85 @@ public List<RangerPolicyEvaluator> getLikelyMatchPolicyEvaluators(RangerAccessRe
         }
     }
 
+    /*
+     * Returns true if access policies can lead to a different outcome for descendants of the requested resource than
+     * for the resource itself, for the user/groups/roles in the request. Returns false only when every access policy
+     * that references the user and can match the resource or its descendants matches both the resource and
+     * anyDescendant - a resource standing for any descendant, like a wildcard path under a directory.
+     */
+    boolean isDescendantAccessDifferent(RangerAccessRequest request, RangerAccessResource anyDescendant, Set<String> roles) {
+        LOG.debug("==> RangerPolicyRepository.isDescendantAccessDifferent({}, {}, {})", request, anyDescendant, roles);
+
+        boolean                                 ret      = false;
+        RangerAccessResource                    resource = request.getResource();
+        Set<String>                             users    = new HashSet<>();
+        Set<String>                             groups   = new HashSet<>();
+        final Collection<RangerPolicyEvaluator> evaluators;
+
+        users.add(request.getUser());
+        users.add(RangerPolicyEngine.USER_CURRENT);
+        groups.add(RangerPolicyEngine.GROUP_PUBLIC);
+
+        if (request.getUserGroups() != null) {
+            groups.addAll(request.getUserGroups());
+        }
+
+        if (policyResourceTrie == null || StringUtils.isEmpty(resource.getAsString())) {
+            evaluators = getPolicyEvaluators();
+        } else {
+            Collection<RangerPolicyResourceEvaluator> resourceEvaluators = RangerResourceEvaluatorsRetriever.getEvaluatorsForSelfAndDescendants(policyResourceTrie, resource.getAsMap());
+
+            evaluators = new HashSet<>();
+
+            if (resourceEvaluators != null) {
+                for (RangerPolicyResourceEvaluator resourceEvaluator : resourceEvaluators) {
+                    evaluators.add(resourceEvaluator.getPolicyEvaluator());
+                }
+            }
+        }
+
+        for (RangerPolicyEvaluator evaluator : evaluators) {
+            // conditions, {OWNER} and excluded resources can lead to different outcome for descendants, for any user
+            if (evaluator.hasContextSensitiveSpecification() || evaluator.getPolicyConditionsCount() > 0 || evaluator.getValidityScheduleEvaluatorsCount() > 0 || hasExcludedResources(evaluator.getPolicy())) {
+                ret = true;
+            } else if (evaluator.hasReference(users, groups, roles)) {
+                ret = !evaluator.isMatch(resource, request.getContext()) || !evaluator.isMatch(anyDescendant, request.getContext());
+            }
+
+            if (ret) {
+                LOG.debug("isDescendantAccessDifferent(): policy-id={} can lead to different access for descendants of {}", evaluator.getPolicyId(), resource);
+
+                break;
+            }
+        }
+
+        LOG.debug("<== RangerPolicyRepository.isDescendantAccessDifferent({}, {}, {}): evaluatorCount={}, ret={}", request, anyDescendant, roles, evaluators.size(), ret);
+
+        return ret;
+    }
+
+    /*
+     * Returns summary of accesses granted/denied by access policies on resources of the given type, like topic; null if
+     * no access policy has a resource of the type. The summary is computed once, from ACL summaries of the policies.
+     */
+    ResourceTypeAccessSummary getResourceTypeAccessSummary(String resourceType) {
+        Map<String, ResourceTypeAccessSummary> summaries = resourceTypeAccessSummaries;
+
+        if (summaries == null) {
+            synchronized (this) {
+                summaries = resourceTypeAccessSummaries;
+
+                if (summaries == null) {
+                    summaries = buildResourceTypeAccessSummaries();
+
+                    resourceTypeAccessSummaries = summaries;
+                }
+            }
+        }
+
+        return summaries.get(resourceType);
+    }
+
     List<RangerContextEnricher> shareWith(RangerPolicyRepository other) {
         if (other != null && other.contextEnrichers != null) {
             other.setShared();
@@ -677,6 +765,8 @@ void reinit(List<RangerPolicyDelta> deltas) {
 
         updateResourceTrie(deltas);
 
+        resourceTypeAccessSummaries = null;
+
         if (StringUtils.isEmpty(zoneName) && CollectionUtils.isNotEmpty(this.policies)) {
             if (!isExistingPolicies) {
                 this.contextEnrichers = buildContextEnrichers(options);
@@ -743,7 +833,14 @@ private List<RangerPolicyEvaluator> getLikelyMatchPolicyEvaluators(Map<String, R
             perf = RangerPerfTracer.getPerfTracer(PERF_TRIE_OP_LOG, "RangerPolicyRepository.getLikelyMatchEvaluators(resource=" + resource.getAsString() + ")");
         }
 
-        Collection<RangerPolicyResourceEvaluator> smallestList = RangerResourceEvaluatorsRetriever.getEvaluators(resourceTrie, resource.getAsMap(), request.getResourceElementMatchingScopes());
+        Map<Object, Set<RangerPolicyResourceEvaluator>> parentLookups = RangerAccessRequestUtil.getParentResourceLookupsFromContext(request.getContext());
+        Collection<RangerPolicyResourceEvaluator>        smallestList;
+
+        if (parentLookups != null) { // request is part of a batch of sibling resources
+            smallestList = RangerResourceEvaluatorsRetriever.getEvaluators(resourceTrie, resource.getAsMap(), request.getResourceElementMatchingScopes(), resource.getLeafName(), parentLookups);
+        } else {
+            smallestList = RangerResourceEvaluatorsRetriever.getEvaluators(resourceTrie, resource.getAsMap(), request.getResourceElementMatchingScopes());
+        }
 
         if (smallestList != null) {
             if (smallestList.isEmpty()) {
@@ -782,6 +879,49 @@ private List<RangerPolicyEvaluator> getLikelyMatchPolicyEvaluators(Map<String, R
         return ret;
     }
 
+    private Map<String, ResourceTypeAccessSummary> buildResourceTypeAccessSummaries() {
+        LOG.debug("==> RangerPolicyRepository.buildResourceTypeAccessSummaries(serviceName={}, zoneName={})", serviceName, zoneName);
+
+        Map<String, ResourceTypeAccessSummary> ret = new HashMap<>();
+
+        for (RangerPolicyEvaluator evaluator : getPolicyEvaluators()) {
+            RangerPolicy                            policy     = evaluator.getPolicy();
+            RangerPolicyEvaluator.PolicyACLSummary  aclSummary = policy != null ? evaluator.getPolicyACLSummary() : null;
+            List<Map<String, RangerPolicyResource>> resources  = new ArrayList<>();
+
+            if (aclSummary == null) {
+                continue;
+            }
+
+            resources.add(policy.getResources());
+
+            if (policy.getAdditionalResources() != null) {
+                resources.addAll(policy.getAdditionalResources());
+            }
+
+            // allow from policies having validity schedules is ignored, as the policy might not be applicable now
+            boolean isAllowApplicable = CollectionUtils.isEmpty(policy.getValiditySchedules());
+
+            for (Map<String, RangerPolicyResource> resource : resources) {
+                if (MapUtils.isEmpty(resource)) {
+                    continue;
+                }
+
+                boolean isForAllResources = isForAllValues(resource);
+
+                for (String resourceType : resource.keySet()) {
+                    ResourceTypeAccessSummary summary = ret.computeIfAbsent(resourceType, k -> new ResourceTypeAccessSummary());
+
+                    summary.add(aclSummary, isAllowApplicable, isForAllResources);
+                }
+            }
+        }
+
+        LOG.debug("<== RangerPolicyRepository.buildResourceTypeAccessSummaries(serviceName={}, zoneName={}): resourceTypes={}", serviceName, zoneName, ret.keySet());
+
+        return ret;
+    }
+
     private List<RangerPolicy> normalizeAndPrunePolicies(List<RangerPolicy> rangerPolicies, final String componentType) {
         if (CollectionUtils.isNotEmpty(rangerPolicies) && StringUtils.isNotBlank(componentType)) {
             List<RangerPolicy> policiesToPrune = null;
@@ -909,6 +1049,48 @@ private static boolean hasDelegateAdminItems(List<RangerPolicyItem> items) {
         return ret;
     }
 
+    private static boolean hasExcludedResources(RangerPolicy policy) {
+        boolean ret = hasExcludedResources(policy.getResources());
+
+        if (!ret && policy.getAdditionalResources() != null) {
+            for (Map<String, RangerPolicyResource> additionalResources : policy.getAdditionalResources()) {
+                if (hasExcludedResources(additionalResources)) {
+                    ret = true;
+
+                    break;
+                }
+            }
+        }
+
+        return ret;
+    }
+
+    private static boolean hasExcludedResources(Map<String, RangerPolicyResource> resources) {
+        boolean ret = false;
+
+        if (resources != null) {
+            for (RangerPolicyResource resource : resources.values()) {
+                if (resource != null && Boolean.TRUE.equals(resource.getIsExcludes())) {
+                    ret = true;
+
+                    break;
+                }
+            }
+        }
+
+        return ret;
+    }
+
+    private static boolean isForAllValues(Map<String, RangerPolicyResource> resources) {
+        for (RangerPolicyResource resource : resources.values()) {
+            if (resource == null || Boolean.TRUE.equals(resource.getIsExcludes()) || resource.getValues() == null || !resource.getValues().contains(RangerAbstractResourceMatcher.WILDCARD_ASTERISK)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
     private static boolean skipBuildingPolicyEvaluator(RangerPolicy policy, RangerPolicyEngineOptions options) {
         boolean ret = false;
         if (!policy.getIsEnabled()) {
@@ -928,14 +1110,18 @@ private void init(RangerPolicyEngineOptions options) {
         List<RangerPolicyEvaluator> dataMaskPolicyEvaluators  = new ArrayList<>();
         List<RangerPolicyEvaluator> rowFilterPolicyEvaluators = new ArrayList<>();
 
+        List<RangerPolicy> policiesToBuild = new ArrayList<>(policies.size());
+
         for (RangerPolicy policy : policies) {
-            if (skipBuildingPolicyEvaluator(policy, options)) {
-                continue;
+            if (!skipBuildingPolicyEvaluator(policy, options)) {
+                policiesToBuild.add(policy);
             }
+        }
 
-            RangerPolicyEvaluator evaluator = buildPolicyEvaluator(policy, serviceDef, options);
-
+        for (RangerPolicyEvaluator evaluator : buildPolicyEvaluators(policiesToBuild, options)) {
             if (evaluator != null) {
+                RangerPolicy policy = evaluator.getPolicy();
+
                 if (policy.getPolicyType() == null || policy.getPolicyType() == RangerPolicy.POLICY_TYPE_ACCESS) {
                     policyEvaluators.add(evaluator);
                 } else if (policy.getPolicyType() == RangerPolicy.POLICY_TYPE_DATAMASK) {
@@ -1114,6 +1300,49 @@ private RangerContextEnricher buildContextEnricher(RangerServiceDef.RangerContex
         return ret;
     }
 
+    /*
+    Returns evaluators in the same order as the given policies. When configured with more than one builder thread,
+    evaluators for a large number of policies are built in parallel; on failure, the evaluators are built again in
+    the calling thread
+     */
+    private List<RangerPolicyEvaluator> buildPolicyEvaluators(List<RangerPolicy> policies, RangerPolicyEngineOptions options) {
+        Configuration config             = pluginContext != null ? pluginContext.getConfig() : null;
+        int           builderThreadCount = config != null ? config.getInt(EVALUATOR_BUILDER_THREAD_COUNT, 1) : 1;
+        int           minPolicyCount     = config != null ? config.getInt(EVALUATOR_BUILDER_MIN_POLICY_COUNT, 1000) : 1000;
+
+        LOG.debug("==> RangerPolicyRepository.buildPolicyEvaluators(policyCount={}, builderThreadCount={}, minPolicyCount={})", policies.size(), builderThreadCount, minPolicyCount);
+
+        List<RangerPolicyEvaluator> ret = null;
+
+        if (builderThreadCount > 1 && policies.size() >= minPolicyCount) {
+            ForkJoinPool builderPool = new ForkJoinPool(builderThreadCount);
+
+            try {
+                ret = builderPool.submit(() -> policies.parallelStream().map(policy -> buildPolicyEvaluator(policy, serviceDef, options)).collect(Collectors.toList())).get();
+            } catch (InterruptedException excp) {
+                LOG.error("Interrupted while building policy evaluators in {} threads. Building in one thread", builderThreadCount);
+
+                Thread.currentThread().interrupt();
+            } catch (Exception excp) {
+                LOG.error("Failed to build policy evaluators in {} threads. Building in one thread", builderThreadCount, excp);
+            } finally {
+                builderPool.shutdownNow();
+            }
+        }
+
+        if (ret == null) {
+            ret = new ArrayList<>(policies.size());
+
+            for (RangerPolicy policy : policies) {
+                ret.add(buildPolicyEvaluator(policy, serviceDef, options));
+            }
+        }
+
+        LOG.debug("<== RangerPolicyRepository.buildPolicyEvaluators(policyCount={}, builderThreadCount={}): evaluatorCount={}", policies.size(), builderThreadCount, ret.size());
+
+        return ret;
+    }
+
     private RangerPolicyEvaluator buildPolicyEvaluator(RangerPolicy policy, RangerServiceDef serviceDef, RangerPolicyEngineOptions options) {
         LOG.debug("==> RangerPolicyRepository.buildPolicyEvaluator({}, {}, {})", policy, serviceDef, options);
 
@@ -1517,6 +1746,87 @@ enum AuditModeEnum {
         AUDIT_ALL, AUDIT_NONE, AUDIT_DEFAULT
     }
 
+    /*
+     * Users/groups/roles that are allowed an access on at least one resource of a type, and those that are denied an
+     * access on all resources of the type. Conditional allows are not included; conditional denies are ignored.
+     */
+    static final class ResourceTypeAccessSummary {
+        private final PrincipalAccesses allowed      = new PrincipalAccesses();
+        private final PrincipalAccesses deniedForAll = new PrincipalAccesses();
+
+        boolean isAllowed(String user, Set<String> groups, Set<String> roles, String accessType) {
+            return allowed.hasAccess(user, groups, roles, accessType);
+        }
+
+        boolean isDeniedForAll(String user, Set<String> groups, Set<String> roles, String accessType) {
+            return deniedForAll.hasAccess(user, groups, roles, accessType);
+        }
+
+        void add(RangerPolicyEvaluator.PolicyACLSummary aclSummary, boolean isAllowApplicable, boolean isForAllResources) {
+            add(aclSummary.getUsersAccessInfo(), allowed.users, deniedForAll.users, isAllowApplicable, isForAllResources);
+            add(aclSummary.getGroupsAccessInfo(), allowed.groups, deniedForAll.groups, isAllowApplicable, isForAllResources);
+            add(aclSummary.getRolesAccessInfo(), allowed.roles, deniedForAll.roles, isAllowApplicable, isForAllResources);
+        }
+
+        private static void add(Map<String, Map<String, RangerPolicyEvaluator.PolicyACLSummary.AccessResult>> accessInfo, Map<String, Set<String>> allowed, Map<String, Set<String>> deniedForAll, boolean isAllowApplicable, boolean isForAllResources) {
+            for (Map.Entry<String, Map<String, RangerPolicyEvaluator.PolicyACLSummary.AccessResult>> principalEntry : accessInfo.entrySet()) {
+                String principal = principalEntry.getKey();
+
+                for (Map.Entry<String, RangerPolicyEvaluator.PolicyACLSummary.AccessResult> accessEntry : principalEntry.getValue().entrySet()) {
+                    int result = accessEntry.getValue().getResult();
+
+                    if (result == RangerPolicyEvaluator.ACCESS_ALLOWED) {
+                        if (isAllowApplicable) {
+                            allowed.computeIfAbsent(principal, k -> new HashSet<>()).add(accessEntry.getKey());
+                        }
+                    } else if (result == RangerPolicyEvaluator.ACCESS_DENIED && accessEntry.getValue().getHasSeenDeny()) { // deny, not an allow-exception
+                        if (isForAllResources) {
+                            deniedForAll.computeIfAbsent(principal, k -> new HashSet<>()).add(accessEntry.getKey());
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static final class PrincipalAccesses {
+        final Map<String, Set<String>> users  = new HashMap<>();
+        final Map<String, Set<String>> groups = new HashMap<>();
+        final Map<String, Set<String>> roles  = new HashMap<>();
+
+        boolean hasAccess(String user, Set<String> userGroups, Set<String> userRoles, String accessType) {
+            boolean ret = hasAccess(users, user, accessType) || hasAccess(groups, RangerPolicyEngine.GROUP_PUBLIC, accessType);
+
+            if (!ret && userGroups != null) {
+                for (String group : userGroups) {
+                    if (hasAccess(groups, group, accessType)) {
+                        ret = true;
+
+                        break;
+                    }
+                }
+            }
+
+            if (!ret && userRoles != null) {
+                for (String role : userRoles) {
+                    if (hasAccess(roles, role, accessType)) {
+                        ret = true;
+
+                        break;
+                    }
+                }
+            }
+
+            return ret;
+        }
+
+        private static boolean hasAccess(Map<String, Set<String>> principalAccesses, String principal, String accessType) {
+            Set<String> accessTypes = principal != null ? principalAccesses.get(principal) : null;
+
+            return accessTypes != null && (accessTypes.contains(accessType) || (StringUtils.equals(accessType, RangerPolicyEngine.ANY_ACCESS) && !accessTypes.isEmpty()));
+        }
+    }
+
     private static final class AuditInfo {
         final boolean isAudited;
         final long    auditPolicyId;
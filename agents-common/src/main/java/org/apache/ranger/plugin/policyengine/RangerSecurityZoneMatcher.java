@@ -69,6 +69,34 @@ public Set<String> getZonesForResourceAndChildren(RangerAccessResource resource)
         return getZonesForResourceAndChildren(resource.getAsMap(), resource);
     }
 
+    /*
+     * Returns zones that can have the resource or any of its descendants. For example, for resource path=/data, zones
+     * having /data, /data/* or /data/sales are returned, but not zones having only /tmp. Like the policy-trie lookup in
+     * RangerPolicyRepository.isDescendantAccessDifferent(), candidates from the trie are not matched further: a zone
+     * rooted under the resource, like /data/sales, doesn't match the resource /data itself
+     */
+    public Set<String> getZonesForResourceAndDescendants(RangerAccessResource resource) {
+        LOG.debug("==> RangerSecurityZoneMatcher.getZonesForResourceAndDescendants({})", resource);
+
+        Set<String> ret = null;
+
+        if (MapUtils.isNotEmpty(this.resourceZoneTrie)) {
+            Collection<RangerZoneResourceMatcher> matchers = RangerResourceEvaluatorsRetriever.getEvaluatorsForSelfAndDescendants(resourceZoneTrie, resource.getAsMap());
+
+            if (CollectionUtils.isNotEmpty(matchers)) {
+                ret = new HashSet<>(matchers.size());
+
+                for (RangerZoneResourceMatcher matcher : matchers) {
+                    ret.add(matcher.getSecurityZoneName());
+                }
+            }
+        }
+
+        LOG.debug("<== RangerSecurityZoneMatcher.getZonesForResourceAndDescendants({}): ret={}", resource, ret);
+
+        return ret;
+    }
+
     @Override
     public int hashCode() {
         return Objects.hash(resourceZoneTrie, zonesWithTagService);
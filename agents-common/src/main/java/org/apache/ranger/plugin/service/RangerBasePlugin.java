@@ -42,6 +42,7 @@
 import org.apache.ranger.plugin.model.RangerServiceDef;
 import org.apache.ranger.plugin.policyengine.RangerAccessRequest;
 import org.apache.ranger.plugin.policyengine.RangerAccessRequestImpl;
+import org.apache.ranger.plugin.policyengine.RangerAccessResource;
 import org.apache.ranger.plugin.policyengine.RangerAccessResourceImpl;
 import org.apache.ranger.plugin.policyengine.RangerAccessResult;
 import org.apache.ranger.plugin.policyengine.RangerAccessResultProcessor;
@@ -679,6 +680,43 @@ public Collection<RangerAccessResult> isAccessAllowed(Collection<RangerAccessReq
         return ret;
     }
 
+    /*
+     * Returns requests that are allowed, in the given order. Requests are evaluated in a single batch, which is
+     * efficient for sibling resources - like tables in a database - requested by the same user. Unlike
+     * isAccessAllowed(requests, resultProcessor), each result is sent to resultProcessor.processResult()
+     */
+    public <T extends RangerAccessRequest> List<T> filterResources(List<T> requests, RangerAccessResultProcessor resultProcessor) {
+        LOG.debug("==> RangerBasePlugin.filterResources(requestCount={})", requests != null ? requests.size() : 0);
+
+        List<T> ret = new ArrayList<>();
+
+        if (CollectionUtils.isNotEmpty(requests)) {
+            Collection<RangerAccessResult> results = isAccessAllowed(new ArrayList<>(requests), null);
+
+            if (results != null) {
+                Iterator<T>                  iterRequests = requests.iterator();
+                Iterator<RangerAccessResult> iterResults  = results.iterator();
+
+                while (iterRequests.hasNext() && iterResults.hasNext()) {
+                    T                  request = iterRequests.next();
+                    RangerAccessResult result  = iterResults.next();
+
+                    if (result != null && result.getIsAllowed()) {
+                        ret.add(request);
+                    }
+
+                    if (resultProcessor != null) {
+                        resultProcessor.processResult(result);
+                    }
+                }
+            }
+        }
+
+        LOG.debug("<== RangerBasePlugin.filterResources(requestCount={}): allowedCount={}", requests != null ? requests.size() : 0, ret.size());
+
+        return ret;
+    }
+
     public RangerAccessResult evalDataMaskPolicies(RangerAccessRequest request, RangerAccessResultProcessor resultProcessor) {
         RangerPolicyEngine policyEngine = this.policyEngine;
         RangerAccessResult ret          = null;
@@ -761,6 +799,27 @@ public RangerResourceACLs getResourceACLs(RangerAccessRequest request) {
         return getResourceACLs(request, null);
     }
 
+    /*
+     * Returns true if the user has the access on at least one resource of the given type; see
+     * RangerPolicyEngine.isAccessAllowedOnAnyResourceOfType(). Chained plugins are not consulted.
+     */
+    public boolean isAccessAllowedOnAnyResourceOfType(String user, Set<String> userGroups, String resourceType, String accessType) {
+        RangerPolicyEngine policyEngine = this.policyEngine;
+
+        return policyEngine != null && policyEngine.isAccessAllowedOnAnyResourceOfType(user, userGroups, resourceType, accessType);
+    }
+
+    /*
+     * Returns true if access to descendants of the requested resource can be different from access to the resource
+     * itself; see RangerPolicyEngine.isDescendantAccessDifferent(). Chained plugins are not consulted, hence true
+     * is returned when chained plugins are configured.
+     */
+    public boolean isDescendantAccessDifferent(RangerAccessRequest request, RangerAccessResource anyDescendant) {
+        RangerPolicyEngine policyEngine = this.policyEngine;
+
+        return policyEngine == null || !chainedPlugins.isEmpty() || policyEngine.isDescendantAccessDifferent(request, anyDescendant);
+    }
+
     public RangerResourceACLs getResourceACLs(RangerAccessRequest request, Integer policyType) {
         RangerResourceACLs ret          = null;
         RangerPolicyEngine policyEngine = this.policyEngine;
@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.plugin.util;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Read-only map of strings, backed by an array of sorted keys and an array of values. The array of keys is meant to be
+ * shared by maps having the same keys - like attributes of users - which takes much less heap than a HashMap per entity.
+ */
+public final class CompactStringMap extends AbstractMap<String, String> implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final String[] keys;   // sorted; may be shared with other instances
+    private final String[] values;
+
+    /**
+     * @param keys   sorted keys, not copied; hence must not be modified by the caller
+     * @param values values for keys, in the same order
+     */
+    public CompactStringMap(String[] keys, String[] values) {
+        if (keys.length != values.length) {
+            throw new IllegalArgumentException("keys.length (" + keys.length + ") != values.length (" + values.length + ")");
+        }
+
+        this.keys   = keys;
+        this.values = values;
+    }
+
+    public String[] getKeys() {
+        return keys;
+    }
+
+    @Override
+    public int size() {
+        return keys.length;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public String get(Object key) {
+        int idx = indexOf(key);
+
+        return idx >= 0 ? values[idx] : null;
+    }
+
+    @Override
+    public Set<Map.Entry<String, String>> entrySet() {
+        return new AbstractSet<Map.Entry<String, String>>() {
+            @Override
+            public int size() {
+                return keys.length;
+            }
+
+            @Override
+            public Iterator<Map.Entry<String, String>> iterator() {
+                return new Iterator<Map.Entry<String, String>>() {
+                    private int idx;
+
+                    @Override
+                    public boolean hasNext() {
+                        return idx < keys.length;
+                    }
+
+                    @Override
+                    public Map.Entry<String, String> next() {
+                        if (idx >= keys.length) {
+                            throw new NoSuchElementException();
+                        }
+
+                        Map.Entry<String, String> ret = new SimpleImmutableEntry<>(keys[idx], values[idx]);
+
+                        idx++;
+
+                        return ret;
+                    }
+                };
+            }
+        };
+    }
+
+    private int indexOf(Object key) {
+        return key instanceof String ? Arrays.binarySearch(keys, key) : -1;
+    }
+}
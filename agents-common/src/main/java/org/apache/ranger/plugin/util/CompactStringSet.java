@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.plugin.util;
+
+import java.io.Serializable;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Read-only set of strings, backed by a sorted array. Takes much less heap than a HashSet, and is suitable for small
+ * sets that are looked up often - like groups of a user.
+ */
+public final class CompactStringSet extends AbstractSet<String> implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final String[] values; // sorted
+
+    /**
+     * @param values sorted values, not copied; hence must not be modified by the caller
+     */
+    public CompactStringSet(String[] values) {
+        this.values = values;
+    }
+
+    @Override
+    public int size() {
+        return values.length;
+    }
+
+    @Override
+    public boolean contains(Object value) {
+        return value instanceof String && Arrays.binarySearch(values, value) >= 0;
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+        return new Iterator<String>() {
+            private int idx;
+
+            @Override
+            public boolean hasNext() {
+                return idx < values.length;
+            }
+
+            @Override
+            public String next() {
+                if (idx >= values.length) {
+                    throw new NoSuchElementException();
+                }
+
+                return values[idx++];
+            }
+        };
+    }
+}
@@ -23,6 +23,7 @@
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sun.jersey.api.client.ClientResponse;
 
+import java.io.InputStream;
 import java.io.Reader;
 import java.io.Serializable;
 import java.io.Writer;
@@ -96,4 +97,14 @@ public static <T> T readResponse(ClientResponse response, TypeReference<T> cls)
 
         return jsonToObj(jsonStr, cls);
     }
+
+    /*
+    Deserializes directly from the response stream, without first reading the entire response into a String.
+    Preferred for large responses like policies, tags and userstore
+     */
+    public static <T> T readResponseStream(ClientResponse response, Class<T> cls) throws Exception {
+        try (InputStream in = response.getEntityInputStream()) {
+            return getMapper().readValue(in, cls);
+        }
+    }
 }
@@ -45,20 +45,23 @@ public class PolicyRefresher extends Thread {
     private static final Logger LOG                        = LoggerFactory.getLogger(PolicyRefresher.class);
     private static final Logger PERF_POLICYENGINE_INIT_LOG = RangerPerfTracer.getPerfLogger("policyengine.init");
 
-    private final RangerBasePlugin               plugIn;
-    private final String                         serviceType;
-    private final String                         serviceName;
-    private final RangerAdminClient              rangerAdmin;
-    private final RangerRolesProvider            rolesProvider;
-    private final long                           pollingIntervalMs;
-    private final String                         cacheFileName;
-    private final String                         cacheDir;
-    private final BlockingQueue<DownloadTrigger> policyDownloadQueue = new LinkedBlockingQueue<>();
-    private       Timer                          policyDownloadTimer;
-    private       long                           lastKnownVersion    = -1L;
-    private       long                           lastActivationTimeInMillis;
-    private       boolean                        policiesSetInPlugin;
-    private       boolean                        serviceDefSetInPlugin;
+    private final    RangerBasePlugin               plugIn;
+    private final    String                         serviceType;
+    private final    String                         serviceName;
+    private final    RangerAdminClient              rangerAdmin;
+    private final    RangerRolesProvider            rolesProvider;
+    private final    long                           pollingIntervalMs;
+    private final    boolean                        isChangeNotificationEnabled;
+    private final    long                           changeNotificationTimeoutMs;
+    private final    String                         cacheFileName;
+    private final    String                         cacheDir;
+    private final    BlockingQueue<DownloadTrigger> policyDownloadQueue = new LinkedBlockingQueue<>();
+    private          Timer                          policyDownloadTimer;
+    private          ServiceVersionChangeListener   changeListener;
+    private volatile long                           lastKnownVersion    = -1L;
+    private          long                           lastActivationTimeInMillis;
+    private          boolean                        policiesSetInPlugin;
+    private          boolean                        serviceDefSetInPlugin;
 
     public PolicyRefresher(RangerBasePlugin plugIn) {
         LOG.debug("==> PolicyRefresher(serviceName={}).PolicyRefresher()", plugIn.getServiceName());
@@ -86,6 +89,9 @@ public PolicyRefresher(RangerBasePlugin plugIn) {
         this.rolesProvider     = new RangerRolesProvider(getServiceType(), appId, getServiceName(), rangerAdmin, cacheDir, pluginConfig);
         this.pollingIntervalMs = pluginConfig.getLong(propertyPrefix + ".policy.pollIntervalMs", 30 * 1000L);
 
+        this.isChangeNotificationEnabled = pluginConfig.getBoolean(propertyPrefix + ".policy.change.notification.enabled", true);
+        this.changeNotificationTimeoutMs = pluginConfig.getLong(propertyPrefix + ".policy.change.notification.timeout.ms", 20 * 1000L);
+
         setName("PolicyRefresher(serviceName=" + serviceName + ")-" + getId());
 
         LOG.debug("<== PolicyRefresher(serviceName={}).PolicyRefresher()", serviceName);
@@ -127,6 +133,14 @@ public void setLastActivationTimeInMillis(long lastActivationTimeInMillis) {
         this.lastActivationTimeInMillis = lastActivationTimeInMillis;
     }
 
+    public long getLastKnownVersion() {
+        return lastKnownVersion;
+    }
+
+    public long getLastKnownRoleVersion() {
+        return rolesProvider.getLastKnownRoleVersion();
+    }
+
     public void startRefresher() {
         loadRoles();
         loadPolicy();
@@ -145,17 +159,29 @@ public void startRefresher() {
 
             policyDownloadTimer = null;
         }
+
+        if (isChangeNotificationEnabled) {
+            changeListener = new ServiceVersionChangeListener(this, changeNotificationTimeoutMs, pollingIntervalMs);
+
+            changeListener.start();
+        }
     }
 
     public void stopRefresher() {
-        Timer policyDownloadTimer = this.policyDownloadTimer;
+        Timer                        policyDownloadTimer = this.policyDownloadTimer;
+        ServiceVersionChangeListener changeListener      = this.changeListener;
 
         this.policyDownloadTimer = null;
+        this.changeListener      = null;
 
         if (policyDownloadTimer != null) {
             policyDownloadTimer.cancel();
         }
 
+        if (changeListener != null) {
+            changeListener.interrupt();
+        }
+
         if (super.isAlive()) {
             super.interrupt();
 
@@ -208,6 +234,12 @@ public void syncPoliciesWithAdmin(DownloadTrigger token) throws InterruptedExcep
         token.waitForCompletion();
     }
 
+    public void triggerPolicyDownload() {
+        if (policyDownloadQueue.isEmpty()) { // a pending download will get the latest policies as well
+            policyDownloadQueue.offer(new DownloadTrigger());
+        }
+    }
+
     public void saveToCache(ServicePolicies policies) {
         LOG.debug("==> PolicyRefresher(serviceName={}).saveToCache()", serviceName);
 
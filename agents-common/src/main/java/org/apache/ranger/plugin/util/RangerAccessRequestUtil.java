@@ -26,6 +26,7 @@
 import org.apache.ranger.plugin.policyengine.RangerAccessResource;
 import org.apache.ranger.plugin.policyengine.RangerAccessResult;
 import org.apache.ranger.plugin.policyengine.gds.GdsAccessResult;
+import org.apache.ranger.plugin.policyevaluator.RangerPolicyEvaluator.RangerPolicyResourceEvaluator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -56,6 +57,7 @@ public class RangerAccessRequestUtil {
     public static final  String KEY_CONTEXT_GDS_RESULT                       = "_GDS_RESULT";
     public static final  String KEY_CONTEXT_IS_REQUEST_PREPROCESSED          = "ISREQUESTPREPROCESSED";
     public static final  String KEY_CONTEXT_RESOURCE_ZONE_NAMES              = "RESOURCE_ZONE_NAMES";
+    public static final  String KEY_CONTEXT_PARENT_RESOURCE_LOOKUPS          = "_PARENT_RESOURCE_LOOKUPS";
     private static final Logger LOG                                          = LoggerFactory.getLogger(RangerAccessRequestUtil.class);
 
     private RangerAccessRequestUtil() {
@@ -399,6 +401,23 @@ public static Set<String> getResourceZoneNamesFromContext(Map<String, Object> co
         return ret;
     }
 
+    public static void setParentResourceLookupsInContext(Map<String, Object> context, Map<Object, Set<RangerPolicyResourceEvaluator>> parentLookups) {
+        if (context != null) {
+            if (parentLookups != null) {
+                context.put(KEY_CONTEXT_PARENT_RESOURCE_LOOKUPS, parentLookups);
+            } else {
+                context.remove(KEY_CONTEXT_PARENT_RESOURCE_LOOKUPS);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public static Map<Object, Set<RangerPolicyResourceEvaluator>> getParentResourceLookupsFromContext(Map<String, Object> context) {
+        Object val = context != null ? context.get(KEY_CONTEXT_PARENT_RESOURCE_LOOKUPS) : null;
+
+        return val instanceof Map ? (Map<Object, Set<RangerPolicyResourceEvaluator>>) val : null;
+    }
+
     public static String getResourceZoneNameFromContext(Map<String, Object> context) {
         Set<String> ret = getResourceZoneNamesFromContext(context);
 
@@ -26,6 +26,8 @@ public class RangerCommonConstants {
     public static final String  PLUGIN_CONFIG_SUFFIX_POLICY_DELTA                    = ".supports.policy.deltas";
     public static final String  RANGER_ADMIN_SUFFIX_TAG_DELTA                        = ".supports.tag.deltas";
     public static final String  PLUGIN_CONFIG_SUFFIX_TAG_DELTA                       = ".supports.tag.deltas";
+    public static final String  PLUGIN_CONFIG_SUFFIX_USERSTORE_DELTA                 = ".supports.userstore.deltas";
+    public static final String  PLUGIN_CONFIG_SUFFIX_ROLE_DELTA                      = ".supports.role.deltas";
     public static final String  RANGER_ADMIN_SUFFIX_IN_PLACE_POLICY_UPDATES          = ".supports.in.place.policy.updates";
     public static final String  PLUGIN_CONFIG_SUFFIX_IN_PLACE_POLICY_UPDATES         = ".supports.in.place.policy.updates";
     public static final String  RANGER_ADMIN_SUFFIX_IN_PLACE_TAG_UPDATES             = ".supports.in.place.tag.updates";
@@ -35,6 +37,8 @@ public class RangerCommonConstants {
     public static final boolean PLUGIN_CONFIG_SUFFIX_POLICY_DELTA_DEFAULT            = false;
     public static final boolean RANGER_ADMIN_SUFFIX_TAG_DELTA_DEFAULT                = false;
     public static final boolean PLUGIN_CONFIG_SUFFIX_TAG_DELTA_DEFAULT               = false;
+    public static final boolean PLUGIN_CONFIG_SUFFIX_USERSTORE_DELTA_DEFAULT         = true;
+    public static final boolean PLUGIN_CONFIG_SUFFIX_ROLE_DELTA_DEFAULT              = true;
     public static final boolean RANGER_ADMIN_SUFFIX_IN_PLACE_POLICY_UPDATES_DEFAULT  = false;
     public static final boolean PLUGIN_CONFIG_SUFFIX_IN_PLACE_POLICY_UPDATES_DEFAULT = false;
     public static final boolean RANGER_ADMIN_SUFFIX_IN_PLACE_TAG_UPDATES_DEFAULT     = false;
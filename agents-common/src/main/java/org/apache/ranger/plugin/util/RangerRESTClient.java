@@ -27,6 +27,7 @@
 import com.sun.jersey.api.client.config.ClientConfig;
 import com.sun.jersey.api.client.config.DefaultClientConfig;
 import com.sun.jersey.api.client.filter.ClientFilter;
+import com.sun.jersey.api.client.filter.GZIPContentEncodingFilter;
 import com.sun.jersey.api.client.filter.HTTPBasicAuthFilter;
 import com.sun.jersey.client.urlconnection.HTTPSProperties;
 import org.apache.commons.lang.StringUtils;
@@ -104,6 +105,7 @@ public class RangerRESTClient {
     private volatile Client       client;
     private volatile Client       cookieAuthClient;
     private          ClientFilter basicAuthFilter;
+    private          boolean      isGzipEnabled;
 
     public RangerRESTClient(String url, String sslConfigFileName, Configuration config) {
         mUrl               = url;
@@ -725,6 +727,10 @@ private Client buildClient() {
             client.addFilter(basicAuthFilter);
         }
 
+        if (isGzipEnabled) { // request compressed responses from Ranger Admin; doesn't compress requests
+            client.addFilter(new GZIPContentEncodingFilter(false));
+        }
+
         // Set Connection Timeout and ReadTime for the PolicyRefresh
         client.setConnectTimeout(mRestClientConnTimeOutMs);
         client.setReadTimeout(mRestClientReadTimeOutMs);
@@ -783,6 +789,8 @@ private void init(Configuration config) {
         if (StringUtils.isNotBlank(username) && StringUtils.isNotBlank(password)) {
             setBasicAuthFilter(username, password);
         }
+
+        isGzipEnabled = config.getBoolean(pluginPropertyPrefix + ".policy.rest.client.gzip.enabled", true);
     }
 
     private boolean isSslEnabled(String url) {
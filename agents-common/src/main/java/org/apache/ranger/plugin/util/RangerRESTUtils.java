@@ -67,9 +67,15 @@ public class RangerRESTUtils {
     public static final  String REST_PARAM_CLUSTER_NAME                           = "clusterName";
     public static final  String REST_PARAM_SUPPORTS_POLICY_DELTAS                 = "supportsPolicyDeltas";
     public static final  String REST_PARAM_SUPPORTS_TAG_DELTAS                    = "supportsTagDeltas";
+    public static final  String REST_PARAM_SUPPORTS_USERSTORE_DELTAS              = "supportsUserStoreDeltas";
+    public static final  String REST_PARAM_SUPPORTS_ROLE_DELTAS                   = "supportsRoleDeltas";
     public static final  String REST_PARAM_ZONE_NAME                              = "zoneName";
     public static final  String REST_PARAM_EXEC_USER                              = "execUser";
     public static final  String REST_PARAM_CAPABILITIES                           = "pluginCapabilities";
+    public static final  String REST_URL_SERVICE_VERSION_CHANGES                  = "/service/plugins/policies/changes/";
+    public static final  String REST_URL_SECURE_SERVICE_VERSION_CHANGES           = "/service/plugins/secure/policies/changes/";
+    public static final  String REST_PARAM_TIMEOUT_MS                             = "timeoutMs";
+    public static final  String REST_PARAM_LAST_KNOWN_TAG_VERSION                 = "lastKnownTagVersion";
     private static final Logger LOG                                               = LoggerFactory.getLogger(RangerRESTUtils.class);
     private static final int    MAX_PLUGIN_ID_LEN                                 = 255;
 
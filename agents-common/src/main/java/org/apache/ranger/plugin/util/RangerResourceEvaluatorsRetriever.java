@@ -28,8 +28,12 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -48,6 +52,81 @@ public static <T extends RangerResourceEvaluator> Collection<T> getEvaluators(Ma
         return getEvaluators(resourceTrie, resource, scopes, null);
     }
 
+    /*
+     * Returns evaluators that can match the resource or any of its descendants. For example, for resource path=/data
+     * evaluators for /, /data, /data/* and /data/sales are returned, but not the evaluators for /tmp
+     */
+    public static <T extends RangerResourceEvaluator> Collection<T> getEvaluatorsForSelfAndDescendants(Map<String, RangerResourceTrie<T>> resourceTrie, Map<String, ?> resource) {
+        Map<String, ResourceElementMatchingScope> scopes = new HashMap<>();
+
+        if (resource != null) {
+            for (String resourceDefName : resource.keySet()) {
+                scopes.put(resourceDefName, ResourceElementMatchingScope.SELF_OR_PREFIX);
+            }
+        }
+
+        return getEvaluators(resourceTrie, resource, scopes, null);
+    }
+
+    /*
+     * Returns the same evaluators as getEvaluators(resourceTrie, resource, scopes), but saves the evaluators found for
+     * non-leaf resource elements in parentLookups, to be reused for the next resource having the same parent. This helps
+     * evaluating a batch of sibling resources - like all tables in a database - with one trie traversal for the parent.
+     */
+    public static <T extends RangerResourceEvaluator> Collection<T> getEvaluators(Map<String, RangerResourceTrie<T>> resourceTrie, Map<String, ?> resource, Map<String, ResourceElementMatchingScope> scopes, String leafName, Map<Object, Set<T>> parentLookups) {
+        LOG.debug("==> RangerPolicyResourceEvaluatorsRetriever.getEvaluators({}, leafName={})", resource, leafName);
+
+        Set<T> ret = null;
+
+        if (scopes == null) {
+            scopes = Collections.emptyMap();
+        }
+
+        if (MapUtils.isNotEmpty(resourceTrie) && MapUtils.isNotEmpty(resource)) {
+            for (Map.Entry<String, ?> entry : resource.entrySet()) {
+                String                resourceDefName = entry.getKey();
+                RangerResourceTrie<T> trie            = resourceTrie.get(resourceDefName);
+
+                if (trie == null || resourceDefName.equals(leafName)) {
+                    continue;
+                }
+
+                ResourceElementMatchingScope scope      = scopes.get(resourceDefName);
+                List<Object>                 lookupKey  = Arrays.asList(trie, entry.getValue(), scope);
+                Set<T>                       evaluators = parentLookups.get(lookupKey);
+
+                if (evaluators == null) {
+                    evaluators = trie.getEvaluatorsForResource(entry.getValue(), scope);
+
+                    if (evaluators == null) {
+                        evaluators = Collections.emptySet();
+                    }
+
+                    parentLookups.put(lookupKey, evaluators);
+                }
+
+                ret = ret == null ? evaluators : intersect(ret, evaluators); // sets in parentLookups are never updated
+
+                if (ret.isEmpty()) {
+                    break;
+                }
+            }
+
+            RangerResourceTrie<T> leafTrie = leafName != null ? resourceTrie.get(leafName) : null;
+
+            if (leafTrie != null && resource.containsKey(leafName) && (ret == null || !ret.isEmpty())) {
+                Object leafValue = resource.get(leafName);
+                Set<T> leafEvals = ret == null ? leafTrie.getEvaluatorsForResource(leafValue, scopes.get(leafName)) : leafTrie.getEvaluatorsForResource(leafValue, scopes.get(leafName), ret);
+
+                ret = leafEvals == null ? Collections.emptySet() : leafEvals;
+            }
+        }
+
+        LOG.debug("<== RangerResourceEvaluatorsRetriever.getEvaluators({}, leafName={}) : evaluator:[{}]", resource, leafName, ret);
+
+        return ret;
+    }
+
     public static <T extends RangerResourceEvaluator> Collection<T> getEvaluators(Map<String, RangerResourceTrie<T>> resourceTrie, Map<String, ?> resource, Map<String, ResourceElementMatchingScope> scopes, Predicate predicate) {
         LOG.debug("==> RangerPolicyResourceEvaluatorsRetriever.getEvaluators({})", resource);
 
@@ -129,4 +208,18 @@ public static <T extends RangerResourceEvaluator> Collection<T> getEvaluators(Ma
 
         return ret;
     }
+
+    private static <T> Set<T> intersect(Set<T> a, Set<T> b) {
+        Set<T> smaller = a.size() < b.size() ? a : b;
+        Set<T> larger  = smaller == a ? b : a;
+        Set<T> ret     = new HashSet<>();
+
+        for (T item : smaller) {
+            if (larger.contains(item)) {
+                ret.add(item);
+            }
+        }
+
+        return ret;
+    }
 }
@@ -38,6 +38,8 @@ public class RangerRoles implements Serializable {
     private Long            roleVersion;
     private Date            roleUpdateTime;
     private Set<RangerRole> rangerRoles;
+    private Boolean         isDelta;
+    private Set<String>     deletedRoles;
 
     public String getServiceName() {
         return serviceName;
@@ -70,4 +72,23 @@ public Set<RangerRole> getRangerRoles() {
     public void setRangerRoles(Set<RangerRole> rangerRoles) {
         this.rangerRoles = rangerRoles;
     }
+
+    public Boolean getIsDelta() {
+        return isDelta != null && isDelta;
+    }
+
+    public void setIsDelta(Boolean isDelta) {
+        this.isDelta = isDelta;
+    }
+
+    /**
+     * In a delta, names of roles that were deleted; rangerRoles in a delta has only the roles that were added or updated
+     */
+    public Set<String> getDeletedRoles() {
+        return deletedRoles;
+    }
+
+    public void setDeletedRoles(Set<String> deletedRoles) {
+        this.deletedRoles = deletedRoles;
+    }
 }
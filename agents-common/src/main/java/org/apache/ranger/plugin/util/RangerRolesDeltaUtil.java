@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.plugin.util;
+
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.ranger.plugin.model.RangerRole;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+public class RangerRolesDeltaUtil {
+    private static final Logger LOG = LoggerFactory.getLogger(RangerRolesDeltaUtil.class);
+
+    private RangerRolesDeltaUtil() {
+        // to block instantiation
+    }
+
+    /*
+    Returns the changes from oldRoles to newRoles, as a delta having the version of newRoles
+     */
+    public static RangerRoles createDelta(RangerRoles oldRoles, RangerRoles newRoles) {
+        RangerRoles             ret          = new RangerRoles();
+        Map<String, RangerRole> oldRolesMap  = toMap(oldRoles.getRangerRoles());
+        Set<RangerRole>         changedRoles = new HashSet<>();
+        Set<String>             deletedRoles = new HashSet<>(oldRolesMap.keySet());
+
+        if (newRoles.getRangerRoles() != null) {
+            for (RangerRole role : newRoles.getRangerRoles()) {
+                deletedRoles.remove(role.getName());
+
+                if (!Objects.equals(role, oldRolesMap.get(role.getName()))) {
+                    changedRoles.add(role);
+                }
+            }
+        }
+
+        ret.setIsDelta(true);
+        ret.setServiceName(newRoles.getServiceName());
+        ret.setRoleVersion(newRoles.getRoleVersion());
+        ret.setRoleUpdateTime(newRoles.getRoleUpdateTime());
+        ret.setRangerRoles(changedRoles);
+        ret.setDeletedRoles(deletedRoles);
+
+        LOG.debug("RangerRolesDeltaUtil.createDelta(oldVersion={}, newVersion={}): changedRoles={}, deletedRoles={}", oldRoles.getRoleVersion(), newRoles.getRoleVersion(), changedRoles.size(), deletedRoles.size());
+
+        return ret;
+    }
+
+    /*
+    Returns new roles with the delta applied to roles, or null if roles is null. roles is not modified.
+    When delta is not a delta, it is returned as is
+     */
+    public static RangerRoles applyDelta(RangerRoles roles, RangerRoles delta) {
+        final RangerRoles ret;
+
+        if (delta == null || !delta.getIsDelta()) {
+            ret = delta;
+        } else if (roles == null || roles.getIsDelta()) {
+            ret = null;
+        } else {
+            Map<String, RangerRole> rolesMap = toMap(roles.getRangerRoles());
+
+            applyChanges(rolesMap, delta);
+
+            ret = new RangerRoles();
+
+            ret.setServiceName(delta.getServiceName());
+            ret.setRoleVersion(delta.getRoleVersion());
+            ret.setRoleUpdateTime(delta.getRoleUpdateTime());
+            ret.setRangerRoles(new HashSet<>(rolesMap.values()));
+        }
+
+        LOG.debug("RangerRolesDeltaUtil.applyDelta(roleVersion={}, deltaVersion={}): ret={}", roles != null ? roles.getRoleVersion() : null, delta != null ? delta.getRoleVersion() : null, ret != null ? ret.getRoleVersion() : null);
+
+        return ret;
+    }
+
+    /*
+    Returns a delta having the changes in olderDelta followed by the changes in newerDelta. Neither delta is modified
+     */
+    public static RangerRoles mergeDeltas(RangerRoles olderDelta, RangerRoles newerDelta) {
+        RangerRoles             ret          = new RangerRoles();
+        Map<String, RangerRole> changedRoles = toMap(olderDelta.getRangerRoles());
+        Set<String>             deletedRoles = new HashSet<>();
+
+        if (olderDelta.getDeletedRoles() != null) {
+            deletedRoles.addAll(olderDelta.getDeletedRoles());
+        }
+
+        applyChanges(changedRoles, newerDelta);
+
+        if (newerDelta.getDeletedRoles() != null) {
+            deletedRoles.addAll(newerDelta.getDeletedRoles());
+        }
+
+        deletedRoles.removeAll(changedRoles.keySet());
+
+        ret.setIsDelta(true);
+        ret.setServiceName(newerDelta.getServiceName());
+        ret.setRoleVersion(newerDelta.getRoleVersion());
+        ret.setRoleUpdateTime(newerDelta.getRoleUpdateTime());
+        ret.setRangerRoles(new HashSet<>(changedRoles.values()));
+        ret.setDeletedRoles(deletedRoles);
+
+        return ret;
+    }
+
+    private static void applyChanges(Map<String, RangerRole> rolesMap, RangerRoles delta) {
+        if (CollectionUtils.isNotEmpty(delta.getDeletedRoles())) {
+            for (String roleName : delta.getDeletedRoles()) {
+                rolesMap.remove(roleName);
+            }
+        }
+
+        if (CollectionUtils.isNotEmpty(delta.getRangerRoles())) {
+            for (RangerRole role : delta.getRangerRoles()) {
+                rolesMap.put(role.getName(), role);
+            }
+        }
+    }
+
+    private static Map<String, RangerRole> toMap(Collection<RangerRole> roles) {
+        Map<String, RangerRole> ret = new HashMap<>();
+
+        if (roles != null) {
+            for (RangerRole role : roles) {
+                ret.put(role.getName(), role);
+            }
+        }
+
+        return ret;
+    }
+}
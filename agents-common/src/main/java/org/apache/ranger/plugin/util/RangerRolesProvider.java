@@ -83,6 +83,10 @@ public long getLastActivationTimeInMillis() {
         return lastActivationTimeInMillis;
     }
 
+    public long getLastKnownRoleVersion() {
+        return lastKnownRoleVersion;
+    }
+
     public void setLastActivationTimeInMillis(long lastActivationTimeInMillis) {
         this.lastActivationTimeInMillis = lastActivationTimeInMillis;
     }
@@ -103,7 +107,7 @@ public void loadUserGroupRoles(RangerBasePlugin plugIn) {
 
         try {
             //load userGroupRoles from ranger admin
-            RangerRoles roles = loadUserGroupRolesFromAdmin();
+            RangerRoles roles = loadUserGroupRolesFromAdmin(plugIn);
 
             if (roles == null) {
                 //if userGroupRoles fetch from ranger Admin Fails, load from cache
@@ -210,7 +214,7 @@ public void saveToCache(RangerRoles roles) {
         LOG.debug("<== RangerRolesProvider.saveToCache(serviceName={})", serviceName);
     }
 
-    private RangerRoles loadUserGroupRolesFromAdmin() throws RangerServiceNotFoundException {
+    private RangerRoles loadUserGroupRolesFromAdmin(RangerBasePlugin plugIn) throws RangerServiceNotFoundException {
         LOG.debug("==> RangerRolesProvider(serviceName={}).loadUserGroupRolesFromAdmin()", serviceName);
 
         RangerRoles roles;
@@ -224,6 +228,18 @@ private RangerRoles loadUserGroupRolesFromAdmin() throws RangerServiceNotFoundEx
         try {
             roles = rangerAdmin.getRolesIfUpdated(lastKnownRoleVersion, lastActivationTimeInMillis);
 
+            if (roles != null && roles.getIsDelta()) {
+                RangerRoles delta = roles;
+
+                roles = RangerRolesDeltaUtil.applyDelta(plugIn.getRoles(), delta);
+
+                if (roles == null) {
+                    LOG.info("RangerRolesProvider(serviceName={}): no roles to apply delta (version={}) on. Downloading all roles", serviceName, delta.getRoleVersion());
+
+                    roles = rangerAdmin.getRolesIfUpdated(-1L, lastActivationTimeInMillis);
+                }
+            }
+
             boolean isUpdated = roles != null;
 
             if (isUpdated) {
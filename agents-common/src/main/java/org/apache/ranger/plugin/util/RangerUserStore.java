@@ -30,9 +30,12 @@
 import org.apache.ranger.plugin.model.UserInfo;
 
 import java.io.Serializable;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 
 @JsonAutoDetect(fieldVisibility = JsonAutoDetect.Visibility.ANY)
@@ -50,6 +53,9 @@ public class RangerUserStore implements Serializable {
     private Map<String, Set<String>>         userGroupMapping;
     private Map<String, String>              userCloudIdMapping;
     private Map<String, String>              groupCloudIdMapping;
+    private Boolean                          isDelta;
+    private Set<String>                      changedUsers;
+    private Set<String>                      changedGroups;
 
     public RangerUserStore() {
         this(-1L, null, null, null);
@@ -118,6 +124,37 @@ public void setGroupCloudIdMapping(Map<String, String> groupCloudIdMapping) {
         this.groupCloudIdMapping = groupCloudIdMapping;
     }
 
+    public Boolean getIsDelta() {
+        return isDelta != null && isDelta;
+    }
+
+    public void setIsDelta(Boolean isDelta) {
+        this.isDelta = isDelta;
+    }
+
+    /**
+     * In a delta, users whose entries in userAttrMapping and userGroupMapping are to be replaced with the entries in
+     * this delta; users absent in these mappings are to be removed from them
+     */
+    public Set<String> getChangedUsers() {
+        return changedUsers;
+    }
+
+    public void setChangedUsers(Set<String> changedUsers) {
+        this.changedUsers = changedUsers;
+    }
+
+    /**
+     * In a delta, groups whose entries in groupAttrMapping are to be replaced with the entries in this delta
+     */
+    public Set<String> getChangedGroups() {
+        return changedGroups;
+    }
+
+    public void setChangedGroups(Set<String> changedGroups) {
+        this.changedGroups = changedGroups;
+    }
+
     public void dedupStrings() {
         Map<String, String> strTbl = new HashMap<>();
 
@@ -128,6 +165,24 @@ public void dedupStrings() {
         groupCloudIdMapping = StringUtil.dedupStringsMap(groupCloudIdMapping, strTbl);
     }
 
+    /**
+     * Replaces attributes of users and groups, and groups of users, with read-only compact instances. Besides deduplicating
+     * strings, this shares the array of attribute names among entities having the same attribute names, and shares
+     * identical attributes and group memberships among entities.
+     */
+    public void compact() {
+        Map<String, String>                           strTbl   = new HashMap<>();
+        Map<List<String>, String[]>                   keysTbl  = new HashMap<>();
+        Map<Map<String, String>, Map<String, String>> attrsTbl = new HashMap<>();
+        Map<Set<String>, Set<String>>                 setsTbl  = new HashMap<>();
+
+        userAttrMapping     = compactMapOfMap(userAttrMapping, strTbl, keysTbl, attrsTbl);
+        groupAttrMapping    = compactMapOfMap(groupAttrMapping, strTbl, keysTbl, attrsTbl);
+        userGroupMapping    = compactMapOfSet(userGroupMapping, strTbl, setsTbl);
+        userCloudIdMapping  = StringUtil.dedupStringsMap(userCloudIdMapping, strTbl);
+        groupCloudIdMapping = StringUtil.dedupStringsMap(groupCloudIdMapping, strTbl);
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
@@ -140,7 +195,13 @@ public String toString() {
     public StringBuilder toString(StringBuilder sb) {
         sb.append("RangerUserStore={")
                 .append("userStoreVersion=").append(userStoreVersion).append(", ")
-                .append("userStoreUpdateTime=").append(userStoreUpdateTime).append(", ");
+                .append("userStoreUpdateTime=").append(userStoreUpdateTime).append(", ")
+                .append("isDelta=").append(isDelta).append(", ");
+
+        if (getIsDelta()) {
+            sb.append("changedUsers=").append(changedUsers).append(", ")
+                    .append("changedGroups=").append(changedGroups).append(", ");
+        }
 
         sb.append("users={");
         if (MapUtils.isNotEmpty(userAttrMapping)) {
@@ -180,6 +241,62 @@ public StringBuilder toString(StringBuilder sb) {
         return sb;
     }
 
+    private static Map<String, Map<String, String>> compactMapOfMap(Map<String, Map<String, String>> value, Map<String, String> strTbl, Map<List<String>, String[]> keysTbl, Map<Map<String, String>, Map<String, String>> attrsTbl) {
+        if (MapUtils.isEmpty(value)) {
+            return value;
+        }
+
+        Map<String, Map<String, String>> ret = new HashMap<>(value.size());
+
+        for (Map.Entry<String, Map<String, String>> entry : value.entrySet()) {
+            Map<String, String> attrs = entry.getValue();
+
+            if (attrs instanceof CompactStringMap) { // already compact, like entries retained on applying a delta
+                String[] keys = ((CompactStringMap) attrs).getKeys();
+
+                keysTbl.putIfAbsent(Arrays.asList(keys), keys);
+            } else if (attrs != null) {
+                String[] keys = attrs.keySet().stream().filter(Objects::nonNull).sorted().toArray(String[]::new);
+
+                keys = keysTbl.computeIfAbsent(Arrays.asList(keys), k -> k.stream().map(key -> StringUtil.dedupString(key, strTbl)).toArray(String[]::new));
+
+                String[] values = new String[keys.length];
+
+                for (int i = 0; i < keys.length; i++) {
+                    values[i] = StringUtil.dedupString(attrs.get(keys[i]), strTbl);
+                }
+
+                attrs = attrsTbl.computeIfAbsent(new CompactStringMap(keys, values), k -> k);
+            }
+
+            ret.put(StringUtil.dedupString(entry.getKey(), strTbl), attrs);
+        }
+
+        return ret;
+    }
+
+    private static Map<String, Set<String>> compactMapOfSet(Map<String, Set<String>> value, Map<String, String> strTbl, Map<Set<String>, Set<String>> setsTbl) {
+        if (MapUtils.isEmpty(value)) {
+            return value;
+        }
+
+        Map<String, Set<String>> ret = new HashMap<>(value.size());
+
+        for (Map.Entry<String, Set<String>> entry : value.entrySet()) {
+            Set<String> values = entry.getValue();
+
+            if (values != null && !(values instanceof CompactStringSet)) {
+                String[] sorted = values.stream().filter(Objects::nonNull).sorted().map(v -> StringUtil.dedupString(v, strTbl)).toArray(String[]::new);
+
+                values = setsTbl.computeIfAbsent(new CompactStringSet(sorted), k -> k);
+            }
+
+            ret.put(StringUtil.dedupString(entry.getKey(), strTbl), values);
+        }
+
+        return ret;
+    }
+
     private void buildMap(Set<UserInfo> users, Set<GroupInfo> groups) {
         if (CollectionUtils.isNotEmpty(users)) {
             userAttrMapping    = new HashMap<>();
@@ -0,0 +1,240 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.plugin.util;
+
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.collections.MapUtils;
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import static org.apache.ranger.plugin.util.RangerUserStore.CLOUD_IDENTITY_NAME;
+
+public class RangerUserStoreDeltaUtil {
+    private static final Logger LOG                      = LoggerFactory.getLogger(RangerUserStoreDeltaUtil.class);
+    private static final Logger PERF_USERSTORE_DELTA_LOG = RangerPerfTracer.getPerfLogger("userstore.delta");
+
+    private RangerUserStoreDeltaUtil() {
+        // to block instantiation
+    }
+
+    /*
+    Returns the changes from oldStore to newStore, as a delta having the version of newStore
+     */
+    public static RangerUserStore createDelta(RangerUserStore oldStore, RangerUserStore newStore) {
+        RangerUserStore ret           = new RangerUserStore();
+        Set<String>     changedUsers  = new HashSet<>();
+        Set<String>     changedGroups = new HashSet<>();
+
+        addChangedKeys(oldStore.getUserAttrMapping(), newStore.getUserAttrMapping(), changedUsers);
+        addChangedKeys(oldStore.getUserGroupMapping(), newStore.getUserGroupMapping(), changedUsers);
+        addChangedKeys(oldStore.getGroupAttrMapping(), newStore.getGroupAttrMapping(), changedGroups);
+
+        ret.setIsDelta(true);
+        ret.setUserStoreVersion(newStore.getUserStoreVersion());
+        ret.setUserStoreUpdateTime(newStore.getUserStoreUpdateTime());
+        ret.setChangedUsers(changedUsers);
+        ret.setChangedGroups(changedGroups);
+        ret.setUserAttrMapping(subMap(newStore.getUserAttrMapping(), changedUsers));
+        ret.setUserGroupMapping(subMap(newStore.getUserGroupMapping(), changedUsers));
+        ret.setGroupAttrMapping(subMap(newStore.getGroupAttrMapping(), changedGroups));
+
+        LOG.debug("RangerUserStoreDeltaUtil.createDelta(oldVersion={}, newVersion={}): changedUsers={}, changedGroups={}", oldStore.getUserStoreVersion(), newStore.getUserStoreVersion(), changedUsers.size(), changedGroups.size());
+
+        return ret;
+    }
+
+    /*
+    Returns a new userstore with the delta applied to userStore, or null if userStore is null. userStore is not modified.
+    When delta is not a delta, it is returned as is
+     */
+    public static RangerUserStore applyDelta(RangerUserStore userStore, RangerUserStore delta) {
+        LOG.debug("==> RangerUserStoreDeltaUtil.applyDelta(userStoreVersion={}, deltaVersion={})", userStore != null ? userStore.getUserStoreVersion() : null, delta != null ? delta.getUserStoreVersion() : null);
+
+        final RangerUserStore ret;
+
+        if (delta == null || !delta.getIsDelta()) {
+            ret = delta;
+        } else if (userStore == null || userStore.getIsDelta()) {
+            ret = null;
+        } else {
+            RangerPerfTracer perf = null;
+
+            if (RangerPerfTracer.isPerfTraceEnabled(PERF_USERSTORE_DELTA_LOG)) {
+                perf = RangerPerfTracer.getPerfTracer(PERF_USERSTORE_DELTA_LOG, "RangerUserStoreDeltaUtil.applyDelta(deltaVersion=" + delta.getUserStoreVersion() + ")");
+            }
+
+            ret = copyOf(userStore);
+
+            Map<String, String> userCloudIdMapping  = ret.getUserCloudIdMapping();
+            Map<String, String> groupCloudIdMapping = ret.getGroupCloudIdMapping();
+
+            if (CollectionUtils.isNotEmpty(delta.getChangedUsers())) {
+                for (String user : delta.getChangedUsers()) {
+                    updateCloudIdMapping(userCloudIdMapping, user, get(ret.getUserAttrMapping(), user), get(delta.getUserAttrMapping(), user));
+                }
+            }
+
+            if (CollectionUtils.isNotEmpty(delta.getChangedGroups())) {
+                for (String group : delta.getChangedGroups()) {
+                    updateCloudIdMapping(groupCloudIdMapping, group, get(ret.getGroupAttrMapping(), group), get(delta.getGroupAttrMapping(), group));
+                }
+            }
+
+            applyChanges(ret, delta);
+
+            ret.setUserStoreVersion(delta.getUserStoreVersion());
+            ret.setUserStoreUpdateTime(delta.getUserStoreUpdateTime());
+
+            RangerPerfTracer.log(perf);
+        }
+
+        LOG.debug("<== RangerUserStoreDeltaUtil.applyDelta(userStoreVersion={}, deltaVersion={})", userStore != null ? userStore.getUserStoreVersion() : null, delta != null ? delta.getUserStoreVersion() : null);
+
+        return ret;
+    }
+
+    /*
+    Returns a delta having the changes in olderDelta followed by the changes in newerDelta. Neither delta is modified
+     */
+    public static RangerUserStore mergeDeltas(RangerUserStore olderDelta, RangerUserStore newerDelta) {
+        RangerUserStore ret = copyOf(olderDelta);
+
+        applyChanges(ret, newerDelta);
+
+        ret.setIsDelta(true);
+        ret.setUserStoreVersion(newerDelta.getUserStoreVersion());
+        ret.setUserStoreUpdateTime(newerDelta.getUserStoreUpdateTime());
+        ret.setChangedUsers(union(olderDelta.getChangedUsers(), newerDelta.getChangedUsers()));
+        ret.setChangedGroups(union(olderDelta.getChangedGroups(), newerDelta.getChangedGroups()));
+
+        return ret;
+    }
+
+    private static void applyChanges(RangerUserStore target, RangerUserStore delta) {
+        if (CollectionUtils.isNotEmpty(delta.getChangedUsers())) {
+            for (String user : delta.getChangedUsers()) {
+                replace(target.getUserAttrMapping(), user, get(delta.getUserAttrMapping(), user));
+                replace(target.getUserGroupMapping(), user, get(delta.getUserGroupMapping(), user));
+            }
+        }
+
+        if (CollectionUtils.isNotEmpty(delta.getChangedGroups())) {
+            for (String group : delta.getChangedGroups()) {
+                replace(target.getGroupAttrMapping(), group, get(delta.getGroupAttrMapping(), group));
+            }
+        }
+    }
+
+    private static RangerUserStore copyOf(RangerUserStore other) {
+        RangerUserStore ret = new RangerUserStore();
+
+        ret.setUserAttrMapping(copyOf(other.getUserAttrMapping()));
+        ret.setUserGroupMapping(copyOf(other.getUserGroupMapping()));
+        ret.setGroupAttrMapping(copyOf(other.getGroupAttrMapping()));
+        ret.setUserCloudIdMapping(copyOf(other.getUserCloudIdMapping()));
+        ret.setGroupCloudIdMapping(copyOf(other.getGroupCloudIdMapping()));
+
+        return ret;
+    }
+
+    private static <V> Map<String, V> copyOf(Map<String, V> map) {
+        return map != null ? new HashMap<>(map) : new HashMap<>();
+    }
+
+    private static void updateCloudIdMapping(Map<String, String> cloudIdMapping, String name, Map<String, String> oldAttrs, Map<String, String> newAttrs) {
+        String oldCloudId = oldAttrs != null ? oldAttrs.get(CLOUD_IDENTITY_NAME) : null;
+        String newCloudId = newAttrs != null ? newAttrs.get(CLOUD_IDENTITY_NAME) : null;
+
+        if (StringUtils.isNotEmpty(oldCloudId) && StringUtils.equals(cloudIdMapping.get(oldCloudId), name)) {
+            cloudIdMapping.remove(oldCloudId);
+        }
+
+        if (StringUtils.isNotEmpty(newCloudId)) {
+            cloudIdMapping.put(newCloudId, name);
+        }
+    }
+
+    private static <V> void addChangedKeys(Map<String, V> oldMap, Map<String, V> newMap, Set<String> changedKeys) {
+        if (MapUtils.isNotEmpty(newMap)) {
+            for (Map.Entry<String, V> entry : newMap.entrySet()) {
+                if (!Objects.equals(entry.getValue(), get(oldMap, entry.getKey()))) {
+                    changedKeys.add(entry.getKey());
+                }
+            }
+        }
+
+        if (MapUtils.isNotEmpty(oldMap)) {
+            for (String key : oldMap.keySet()) {
+                if (newMap == null || !newMap.containsKey(key)) {
+                    changedKeys.add(key);
+                }
+            }
+        }
+    }
+
+    private static <V> Map<String, V> subMap(Map<String, V> map, Set<String> keys) {
+        Map<String, V> ret = new HashMap<>();
+
+        if (MapUtils.isNotEmpty(map)) {
+            for (String key : keys) {
+                V value = map.get(key);
+
+                if (value != null) {
+                    ret.put(key, value);
+                }
+            }
+        }
+
+        return ret;
+    }
+
+    private static <V> V get(Map<String, V> map, String key) {
+        return map != null ? map.get(key) : null;
+    }
+
+    private static <V> void replace(Map<String, V> map, String key, V value) {
+        if (value != null) {
+            map.put(key, value);
+        } else {
+            map.remove(key);
+        }
+    }
+
+    private static Set<String> union(Set<String> set1, Set<String> set2) {
+        Set<String> ret = new HashSet<>();
+
+        if (set1 != null) {
+            ret.addAll(set1);
+        }
+
+        if (set2 != null) {
+            ret.addAll(set2);
+        }
+
+        return ret;
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.plugin.util;
+
+import org.apache.ranger.admin.client.RangerAdminClient;
+import org.apache.ranger.plugin.contextenricher.RangerTagEnricher;
+import org.apache.ranger.plugin.contextenricher.RangerUserStoreEnricher;
+import org.apache.ranger.plugin.service.RangerBasePlugin;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Waits in Ranger Admin for changes to policies, tags, roles and userstore of the service, and triggers their download
+ * as soon as a change is notified. Exits when Ranger Admin doesn't support change notification; in which case, as well
+ * as on errors, the changes continue to be downloaded by the polling timers.
+ */
+public class ServiceVersionChangeListener extends Thread {
+    private static final Logger LOG = LoggerFactory.getLogger(ServiceVersionChangeListener.class);
+
+    private final PolicyRefresher   refresher;
+    private final RangerAdminClient rangerAdmin;
+    private final long              waitTimeoutMs;
+    private final long              retryIntervalMs;
+    private       ServiceVersions   lastNotifiedVersions;
+
+    public ServiceVersionChangeListener(PolicyRefresher refresher, long waitTimeoutMs, long retryIntervalMs) {
+        this.refresher       = refresher;
+        this.rangerAdmin     = refresher.getRangerAdminClient();
+        this.waitTimeoutMs   = waitTimeoutMs;
+        this.retryIntervalMs = retryIntervalMs;
+
+        setName("ServiceVersionChangeListener(serviceName=" + refresher.getServiceName() + ")-" + getId());
+        setDaemon(true);
+    }
+
+    @Override
+    public void run() {
+        LOG.debug("==> ServiceVersionChangeListener(serviceName={}).run()", refresher.getServiceName());
+
+        while (!isInterrupted()) {
+            ServiceVersions knownVersions = getKnownVersions();
+            long            startTimeMs   = System.currentTimeMillis();
+            ServiceVersions latestVersions;
+
+            try {
+                latestVersions = rangerAdmin.waitForServiceVersionChange(knownVersions, waitTimeoutMs);
+            } catch (Exception excp) {
+                LOG.warn("ServiceVersionChangeListener(serviceName={}): failed to get version changes. Will retry in {}ms", refresher.getServiceName(), retryIntervalMs, excp);
+
+                latestVersions = knownVersions;
+            }
+
+            if (latestVersions == null) {
+                LOG.info("ServiceVersionChangeListener(serviceName={}): change notification is not supported by Ranger Admin. Changes will be downloaded every poll interval", refresher.getServiceName());
+
+                break;
+            }
+
+            if (latestVersions.isNewer(knownVersions)) {
+                LOG.debug("ServiceVersionChangeListener(serviceName={}): knownVersions={}, latestVersions={}", refresher.getServiceName(), knownVersions, latestVersions);
+
+                triggerDownloads(knownVersions, latestVersions);
+
+                lastNotifiedVersions = latestVersions;
+            } else if ((System.currentTimeMillis() - startTimeMs) < retryIntervalMs) { // returned early without a change, like when Admin is busy
+                try {
+                    Thread.sleep(retryIntervalMs);
+                } catch (InterruptedException excp) {
+                    LOG.debug("ServiceVersionChangeListener(serviceName={}).run(): interrupted! Exiting thread", refresher.getServiceName());
+
+                    break;
+                }
+            }
+        }
+
+        LOG.debug("<== ServiceVersionChangeListener(serviceName={}).run()", refresher.getServiceName());
+    }
+
+    private ServiceVersions getKnownVersions() {
+        RangerBasePlugin        plugin            = refresher.getPlugin();
+        RangerTagEnricher       tagEnricher       = plugin.getTagEnricher();
+        RangerUserStoreEnricher userStoreEnricher = plugin.getUserStoreEnricher();
+        ServiceVersions         notified          = lastNotifiedVersions;
+
+        // versions notified earlier might still be downloading; avoid being notified again for them
+        Long policyVersion    = max(refresher.getLastKnownVersion(), notified != null ? notified.getPolicyVersion() : null);
+        Long roleVersion      = max(refresher.getLastKnownRoleVersion(), notified != null ? notified.getRoleVersion() : null);
+        Long tagVersion       = tagEnricher != null ? max(tagEnricher.getServiceTagsVersion(), notified != null ? notified.getTagVersion() : null) : null;
+        Long userStoreVersion = userStoreEnricher != null ? max(userStoreEnricher.getUserStoreVersion(), notified != null ? notified.getUserStoreVersion() : null) : null;
+
+        return new ServiceVersions(refresher.getServiceName(), policyVersion, tagVersion, roleVersion, userStoreVersion);
+    }
+
+    private void triggerDownloads(ServiceVersions knownVersions, ServiceVersions latestVersions) {
+        RangerBasePlugin plugin = refresher.getPlugin();
+
+        if (latestVersions.isPolicyVersionNewer(knownVersions) || latestVersions.isRoleVersionNewer(knownVersions)) {
+            refresher.triggerPolicyDownload();
+        }
+
+        if (latestVersions.isTagVersionNewer(knownVersions)) {
+            RangerTagEnricher tagEnricher = plugin.getTagEnricher();
+
+            if (tagEnricher != null) {
+                tagEnricher.triggerTagsDownload();
+            }
+        }
+
+        if (latestVersions.isUserStoreVersionNewer(knownVersions)) {
+            RangerUserStoreEnricher userStoreEnricher = plugin.getUserStoreEnricher();
+
+            if (userStoreEnricher != null) {
+                userStoreEnricher.triggerUserStoreDownload();
+            }
+        }
+    }
+
+    private static Long max(Long version1, Long version2) {
+        if (version1 == null) {
+            return version2 != null ? version2 : -1L;
+        }
+
+        return version2 == null ? version1 : Math.max(version1, version2);
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.plugin.util;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.io.Serializable;
+
+/**
+ * Versions of policies, tags, roles and userstore of a service, as known to a plugin or as found in Ranger Admin.
+ * Used by plugins to wait for changes in Ranger Admin, instead of polling for each of them.
+ */
+@JsonAutoDetect(fieldVisibility = JsonAutoDetect.Visibility.ANY)
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ServiceVersions implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private String serviceName;
+    private Long   policyVersion;
+    private Long   tagVersion;
+    private Long   roleVersion;
+    private Long   userStoreVersion;
+
+    public ServiceVersions() {
+    }
+
+    public ServiceVersions(String serviceName, Long policyVersion, Long tagVersion, Long roleVersion, Long userStoreVersion) {
+        this.serviceName      = serviceName;
+        this.policyVersion    = policyVersion;
+        this.tagVersion       = tagVersion;
+        this.roleVersion      = roleVersion;
+        this.userStoreVersion = userStoreVersion;
+    }
+
+    public String getServiceName() {
+        return serviceName;
+    }
+
+    public void setServiceName(String serviceName) {
+        this.serviceName = serviceName;
+    }
+
+    public Long getPolicyVersion() {
+        return policyVersion;
+    }
+
+    public void setPolicyVersion(Long policyVersion) {
+        this.policyVersion = policyVersion;
+    }
+
+    public Long getTagVersion() {
+        return tagVersion;
+    }
+
+    public void setTagVersion(Long tagVersion) {
+        this.tagVersion = tagVersion;
+    }
+
+    public Long getRoleVersion() {
+        return roleVersion;
+    }
+
+    public void setRoleVersion(Long roleVersion) {
+        this.roleVersion = roleVersion;
+    }
+
+    public Long getUserStoreVersion() {
+        return userStoreVersion;
+    }
+
+    public void setUserStoreVersion(Long userStoreVersion) {
+        this.userStoreVersion = userStoreVersion;
+    }
+
+    public boolean isPolicyVersionNewer(ServiceVersions other) {
+        return isNewer(policyVersion, other != null ? other.policyVersion : null);
+    }
+
+    public boolean isTagVersionNewer(ServiceVersions other) {
+        return isNewer(tagVersion, other != null ? other.tagVersion : null);
+    }
+
+    public boolean isRoleVersionNewer(ServiceVersions other) {
+        return isNewer(roleVersion, other != null ? other.roleVersion : null);
+    }
+
+    public boolean isUserStoreVersionNewer(ServiceVersions other) {
+        return isNewer(userStoreVersion, other != null ? other.userStoreVersion : null);
+    }
+
+    /**
+     * @param other versions to compare with; null versions in other are not compared, as they are not tracked
+     * @return true if any of the versions in this object is newer than the corresponding version in other
+     */
+    public boolean isNewer(ServiceVersions other) {
+        return isPolicyVersionNewer(other) || isTagVersionNewer(other) || isRoleVersionNewer(other) || isUserStoreVersionNewer(other);
+    }
+
+    @Override
+    public String toString() {
+        return "ServiceVersions={serviceName=" + serviceName + ", policyVersion=" + policyVersion + ", tagVersion=" + tagVersion + ", roleVersion=" + roleVersion + ", userStoreVersion=" + userStoreVersion + "}";
+    }
+
+    private static boolean isNewer(Long version, Long otherVersion) {
+        return version != null && otherVersion != null && version > otherVersion;
+    }
+}
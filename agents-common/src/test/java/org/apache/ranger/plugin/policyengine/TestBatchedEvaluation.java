@@ -0,0 +1,209 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.plugin.policyengine;
+
+import org.apache.ranger.authorization.hadoop.config.RangerPluginConfig;
+import org.apache.ranger.plugin.model.RangerPolicy;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyItem;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyItemAccess;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyResource;
+import org.apache.ranger.plugin.store.EmbeddedServiceDefsUtil;
+import org.apache.ranger.plugin.util.RangerAccessRequestUtil;
+import org.apache.ranger.plugin.util.ServicePolicies;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TestBatchedEvaluation {
+    private static final Logger LOG = LoggerFactory.getLogger(TestBatchedEvaluation.class);
+
+    private static final String SERVICE_NAME       = "dev_hive";
+    private static final int    WIDE_TABLE_COLUMNS = 800;
+
+    private static RangerPolicyEngine policyEngine;
+
+    @BeforeClass
+    public static void setUpBeforeClass() throws Exception {
+        ServicePolicies    servicePolicies = new ServicePolicies();
+        List<RangerPolicy> policies        = new ArrayList<>();
+
+        policies.add(createPolicy(1L, "db1", "*", false, "user1"));
+        policies.add(createPolicy(2L, "db1", "secret*", true, "user1"));
+        policies.add(createPolicy(3L, "db1", "sales", false, "user2"));
+        policies.add(createPolicy(4L, "db*", "public*", false, "user2"));
+        policies.add(createPolicy(5L, "db2", "*", false, "user2"));
+        policies.add(createPolicy(6L, "db1", "wide", "ssn*", true, "user1"));
+        policies.add(createPolicy(7L, "db3", "wide", "col1*", false, "user3"));
+
+        servicePolicies.setServiceName(SERVICE_NAME);
+        servicePolicies.setServiceId(1L);
+        servicePolicies.setPolicyVersion(1L);
+        servicePolicies.setServiceDef(EmbeddedServiceDefsUtil.instance().getEmbeddedServiceDef(EmbeddedServiceDefsUtil.EMBEDDED_SERVICEDEF_HIVE_NAME));
+        servicePolicies.setPolicies(policies);
+
+        RangerPolicyEngineOptions options       = new RangerPolicyEngineOptions();
+        RangerPluginContext       pluginContext = new RangerPluginContext(new RangerPluginConfig("hive", SERVICE_NAME, "test-batched-evaluation", "cl1", "on-prem", options));
+
+        policyEngine = new RangerPolicyEngineImpl(servicePolicies, pluginContext, null);
+    }
+
+    @Test
+    public void testBatchResultsSameAsIndividualResults() {
+        String[][] tables = {{"db1", "sales"}, {"db1", "secret1"}, {"db1", "public1"}, {"db1", "hr"}, {"db2", "sales"}, {"db2", "public2"}, {"db3", "public3"}, {"db3", "hr"}};
+
+        for (String user : new String[] {"user1", "user2", "user3"}) {
+            List<RangerAccessRequest> requests = new ArrayList<>();
+
+            for (String[] table : tables) {
+                requests.add(createRequest(table[0], table[1], user));
+            }
+
+            Collection<RangerAccessResult> batchResults = policyEngine.evaluatePolicies(requests, RangerPolicy.POLICY_TYPE_ACCESS, null);
+            Iterator<RangerAccessResult>   iter         = batchResults.iterator();
+
+            assertEquals(tables.length, batchResults.size());
+
+            for (String[] table : tables) {
+                RangerAccessResult batchResult      = iter.next();
+                RangerAccessResult individualResult = policyEngine.evaluatePolicies(createRequest(table[0], table[1], user), RangerPolicy.POLICY_TYPE_ACCESS, null);
+
+                assertEquals(user + " on " + table[0] + "." + table[1], individualResult.getIsAllowed(), batchResult.getIsAllowed());
+                assertEquals(user + " on " + table[0] + "." + table[1], individualResult.getPolicyId(), batchResult.getPolicyId());
+            }
+
+            for (RangerAccessRequest request : requests) {
+                assertNull(RangerAccessRequestUtil.getParentResourceLookupsFromContext(request.getContext()));
+            }
+        }
+    }
+
+    @Test
+    public void testWideTableColumns() {
+        for (String[] userTable : new String[][] {{"user1", "db1"}, {"user3", "db3"}}) {
+            String                    user     = userTable[0];
+            String                    database = userTable[1];
+            List<RangerAccessRequest> requests = new ArrayList<>(WIDE_TABLE_COLUMNS);
+
+            for (int i = 0; i < WIDE_TABLE_COLUMNS; i++) {
+                requests.add(createRequest(database, "wide", getColumnName(i), user));
+            }
+
+            long                           startTimeNs  = System.nanoTime();
+            Collection<RangerAccessResult> batchResults = policyEngine.evaluatePolicies(requests, RangerPolicy.POLICY_TYPE_ACCESS, null);
+            long                           batchTimeNs  = System.nanoTime() - startTimeNs;
+            List<RangerAccessResult>       results      = new ArrayList<>(WIDE_TABLE_COLUMNS);
+
+            startTimeNs = System.nanoTime();
+
+            for (int i = 0; i < WIDE_TABLE_COLUMNS; i++) {
+                results.add(policyEngine.evaluatePolicies(createRequest(database, "wide", getColumnName(i), user), RangerPolicy.POLICY_TYPE_ACCESS, null));
+            }
+
+            long individualTimeNs = System.nanoTime() - startTimeNs;
+
+            LOG.info("{} columns of {}.wide for {}: batch={}us, individual={}us", WIDE_TABLE_COLUMNS, database, user, batchTimeNs / 1000, individualTimeNs / 1000);
+
+            Iterator<RangerAccessResult> iter = batchResults.iterator();
+
+            for (int i = 0; i < WIDE_TABLE_COLUMNS; i++) {
+                RangerAccessResult batchResult      = iter.next();
+                RangerAccessResult individualResult = results.get(i);
+
+                assertEquals(user + " on " + getColumnName(i), individualResult.getIsAllowed(), batchResult.getIsAllowed());
+                assertEquals(user + " on " + getColumnName(i), individualResult.getPolicyId(), batchResult.getPolicyId());
+            }
+        }
+
+        // deny on ssn* overrides allow on db1.*.*; user3 is allowed only on col1* columns of db3.wide
+        assertFalse(evaluate("db1", "wide", "ssn5", "user1").getIsAllowed());
+        assertTrue(evaluate("db1", "wide", "col5", "user1").getIsAllowed());
+        assertTrue(evaluate("db3", "wide", "col15", "user3").getIsAllowed());
+        assertFalse(evaluate("db3", "wide", "col5", "user3").getIsAllowed());
+    }
+
+    private static RangerAccessResult evaluate(String database, String table, String column, String user) {
+        return policyEngine.evaluatePolicies(Collections.singletonList(createRequest(database, table, column, user)), RangerPolicy.POLICY_TYPE_ACCESS, null).iterator().next();
+    }
+
+    private static String getColumnName(int index) {
+        return (index % 10 == 0 ? "ssn" : "col") + index;
+    }
+
+    private static RangerAccessRequest createRequest(String database, String table, String user) {
+        return createRequest(database, table, null, user);
+    }
+
+    private static RangerAccessRequest createRequest(String database, String table, String column, String user) {
+        Map<String, Object> resource = new HashMap<>();
+
+        resource.put("database", database);
+        resource.put("table", table);
+
+        if (column != null) {
+            resource.put("column", column);
+        }
+
+        return new RangerAccessRequestImpl(new RangerAccessResourceImpl(resource), "select", user, Collections.singleton("group1"), null);
+    }
+
+    private static RangerPolicy createPolicy(Long id, String database, String table, boolean isDeny, String user) {
+        return createPolicy(id, database, table, "*", isDeny, user);
+    }
+
+    private static RangerPolicy createPolicy(Long id, String database, String table, String column, boolean isDeny, String user) {
+        RangerPolicy                      ret       = new RangerPolicy();
+        RangerPolicyItem                  item      = new RangerPolicyItem();
+        Map<String, RangerPolicyResource> resources = new HashMap<>();
+
+        resources.put("database", new RangerPolicyResource(database));
+        resources.put("table", new RangerPolicyResource(table));
+        resources.put("column", new RangerPolicyResource(column));
+
+        item.setUsers(Collections.singletonList(user));
+        item.setAccesses(Collections.singletonList(new RangerPolicyItemAccess("select")));
+
+        ret.setId(id);
+        ret.setName("policy-" + id);
+        ret.setService(SERVICE_NAME);
+        ret.setResources(resources);
+
+        if (isDeny) {
+            ret.setDenyPolicyItems(Collections.singletonList(item));
+        } else {
+            ret.setPolicyItems(Collections.singletonList(item));
+        }
+
+        return ret;
+    }
+}
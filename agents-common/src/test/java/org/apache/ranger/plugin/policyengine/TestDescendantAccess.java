@@ -0,0 +1,163 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.plugin.policyengine;
+
+import org.apache.ranger.authorization.hadoop.config.RangerPluginConfig;
+import org.apache.ranger.plugin.model.RangerPolicy;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyItem;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyItemAccess;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyResource;
+import org.apache.ranger.plugin.store.EmbeddedServiceDefsUtil;
+import org.apache.ranger.plugin.util.ServicePolicies;
+import org.apache.ranger.plugin.util.ServicePolicies.SecurityZoneInfo;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TestDescendantAccess {
+    private static final String SERVICE_NAME = "dev_hdfs";
+    private static final String ANY_CHILD    = "*random*";
+
+    private static RangerPolicyEngine policyEngine;
+    private static RangerPolicyEngine zonedPolicyEngine;
+
+    @BeforeClass
+    public static void setUpBeforeClass() throws Exception {
+        ServicePolicies    servicePolicies = new ServicePolicies();
+        List<RangerPolicy> policies        = new ArrayList<>();
+
+        policies.add(createPolicy(1L, "/data", true, false, "user1"));
+        policies.add(createPolicy(2L, "/data/sales", true, true, "user2"));
+        policies.add(createPolicy(3L, "/home", true, false, RangerPolicyEngine.RESOURCE_OWNER));
+        policies.add(createPolicy(4L, "/tmp", false, false, "user1"));
+
+        servicePolicies.setServiceName(SERVICE_NAME);
+        servicePolicies.setServiceId(1L);
+        servicePolicies.setPolicyVersion(1L);
+        servicePolicies.setServiceDef(EmbeddedServiceDefsUtil.instance().getEmbeddedServiceDef(EmbeddedServiceDefsUtil.EMBEDDED_SERVICEDEF_HDFS_NAME));
+        servicePolicies.setPolicies(policies);
+
+        RangerPolicyEngineOptions options       = new RangerPolicyEngineOptions();
+        RangerPluginContext       pluginContext = new RangerPluginContext(new RangerPluginConfig("hdfs", SERVICE_NAME, "test-descendant-access", "cl1", "on-prem", options));
+
+        policyEngine = new RangerPolicyEngineImpl(servicePolicies, pluginContext, null);
+
+        // same policies, with /data/sales in zone sales, having its own policy for user1
+        ServicePolicies               zonedServicePolicies = new ServicePolicies();
+        SecurityZoneInfo              salesZone            = new SecurityZoneInfo();
+        HashMap<String, List<String>> salesZoneResource    = new HashMap<>();
+
+        salesZoneResource.put("path", Collections.singletonList("/data/sales"));
+
+        salesZone.setZoneName("sales");
+        salesZone.setResources(Collections.singletonList(salesZoneResource));
+        salesZone.setPolicies(Collections.singletonList(createPolicy(10L, "/data/sales", true, false, "user1")));
+        salesZone.setPolicyDeltas(new ArrayList<>());
+
+        zonedServicePolicies.setServiceName(SERVICE_NAME);
+        zonedServicePolicies.setServiceId(1L);
+        zonedServicePolicies.setPolicyVersion(1L);
+        zonedServicePolicies.setServiceDef(servicePolicies.getServiceDef());
+        zonedServicePolicies.setPolicies(policies);
+        zonedServicePolicies.setSecurityZones(Collections.singletonMap("sales", salesZone));
+
+        RangerPluginContext zonedPluginContext = new RangerPluginContext(new RangerPluginConfig("hdfs", SERVICE_NAME, "test-descendant-access-zone", "cl1", "on-prem", options));
+
+        zonedPolicyEngine = new RangerPolicyEngineImpl(zonedServicePolicies, zonedPluginContext, null);
+    }
+
+    @Test
+    public void testSamePoliciesForDescendants() {
+        assertFalse(isDescendantAccessDifferent("/data", "user1"));
+        assertFalse(isDescendantAccessDifferent("/data/sales", "user2"));
+        assertFalse(isDescendantAccessDifferent("/data/sales/2024", "user1"));
+    }
+
+    @Test
+    public void testPolicyForSomeDescendants() {
+        // policy-2 denies user2 access to /data/sales, but not to other descendants of /data
+        assertTrue(isDescendantAccessDifferent("/data", "user2"));
+        assertTrue(isDescendantAccessDifferent("/", "user1"));
+    }
+
+    @Test
+    public void testNonRecursivePolicy() {
+        assertTrue(isDescendantAccessDifferent("/tmp", "user1"));
+        assertFalse(isDescendantAccessDifferent("/tmp", "user3"));
+    }
+
+    @Test
+    public void testOwnerPolicy() {
+        // {OWNER} policy can lead to different access for descendants for any user
+        assertTrue(isDescendantAccessDifferent("/home", "user3"));
+    }
+
+    @Test
+    public void testZoneForSomeDescendants() {
+        // /data/sales is in zone sales, hence evaluated with policies of the zone, unlike other descendants of /data
+        assertTrue(isDescendantAccessDifferent(zonedPolicyEngine, "/data", "user1"));
+        assertTrue(isDescendantAccessDifferent(zonedPolicyEngine, "/", "user3"));
+
+        // no zone under /data/marketing and /tmp, and all of /data/sales is in zone sales
+        assertFalse(isDescendantAccessDifferent(zonedPolicyEngine, "/data/marketing", "user1"));
+        assertFalse(isDescendantAccessDifferent(zonedPolicyEngine, "/tmp", "user3"));
+        assertFalse(isDescendantAccessDifferent(zonedPolicyEngine, "/data/sales/2024", "user1"));
+    }
+
+    private static boolean isDescendantAccessDifferent(String path, String user) {
+        return isDescendantAccessDifferent(policyEngine, path, user);
+    }
+
+    private static boolean isDescendantAccessDifferent(RangerPolicyEngine policyEngine, String path, String user) {
+        RangerAccessResourceImpl resource      = new RangerAccessResourceImpl(Collections.singletonMap("path", path));
+        RangerAccessResourceImpl anyDescendant = new RangerAccessResourceImpl(Collections.singletonMap("path", (path.endsWith("/") ? path : (path + "/")) + ANY_CHILD));
+        RangerAccessRequestImpl  request       = new RangerAccessRequestImpl(resource, "read", user, Collections.singleton("group1"), null);
+
+        return policyEngine.isDescendantAccessDifferent(request, anyDescendant);
+    }
+
+    private static RangerPolicy createPolicy(Long id, String path, boolean isRecursive, boolean isDeny, String user) {
+        RangerPolicy     ret  = new RangerPolicy();
+        RangerPolicyItem item = new RangerPolicyItem();
+
+        item.setUsers(Collections.singletonList(user));
+        item.setAccesses(Collections.singletonList(new RangerPolicyItemAccess("read")));
+
+        ret.setId(id);
+        ret.setName("policy-" + id);
+        ret.setService(SERVICE_NAME);
+        ret.setResources(Collections.singletonMap("path", new RangerPolicyResource(Collections.singletonList(path), false, isRecursive)));
+
+        if (isDeny) {
+            ret.setDenyPolicyItems(Collections.singletonList(item));
+        } else {
+            ret.setPolicyItems(Collections.singletonList(item));
+        }
+
+        return ret;
+    }
+}
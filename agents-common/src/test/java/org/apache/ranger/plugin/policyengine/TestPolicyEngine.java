@@ -176,6 +176,14 @@ public static void setUpBeforeClass() throws Exception {
                 "                <name>ranger.policyengine.trie.builder.thread.count</name>\n" +
                 "                <value>3</value>\n" +
                 "        </property>\n" +
+                "        <property>\n" +
+                "                <name>ranger.policyengine.evaluator.builder.thread.count</name>\n" +
+                "                <value>3</value>\n" +
+                "        </property>\n" +
+                "        <property>\n" +
+                "                <name>ranger.policyengine.evaluator.builder.parallel.min.policy.count</name>\n" +
+                "                <value>1</value>\n" +
+                "        </property>\n" +
                 "</configuration>\n");
         writer.close();
 
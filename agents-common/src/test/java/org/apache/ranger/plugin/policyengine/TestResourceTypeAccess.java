@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.plugin.policyengine;
+
+import org.apache.ranger.authorization.hadoop.config.RangerPluginConfig;
+import org.apache.ranger.plugin.model.RangerPolicy;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyItem;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyItemAccess;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyResource;
+import org.apache.ranger.plugin.model.RangerValiditySchedule;
+import org.apache.ranger.plugin.store.EmbeddedServiceDefsUtil;
+import org.apache.ranger.plugin.util.ServicePolicies;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TestResourceTypeAccess {
+    private static final String SERVICE_NAME = "dev_kafka";
+    private static final String TOPIC        = "topic";
+
+    private static RangerPolicyEngine policyEngine;
+
+    @BeforeClass
+    public static void setUpBeforeClass() throws Exception {
+        ServicePolicies    servicePolicies = new ServicePolicies();
+        List<RangerPolicy> policies        = new ArrayList<>();
+        RangerPolicy       scheduled       = createPolicy(6L, "scheduled", "user4", null, "publish");
+        RangerPolicy       allowAll        = createPolicy(7L, "*", null, RangerPolicyEngine.GROUP_PUBLIC, "publish");
+        RangerPolicy       denyAll         = createPolicy(3L, "*", "user2", null, "publish");
+
+        denyAll.setDenyPolicyItems(denyAll.getPolicyItems());
+        denyAll.setPolicyItems(Collections.emptyList());
+
+        scheduled.setValiditySchedules(Collections.singletonList(new RangerValiditySchedule("2000/01/01 00:00:00", "2001/01/01 00:00:00", null, null)));
+
+        allowAll.setAllowExceptions(Collections.singletonList(createPolicyItem("user5", null, "publish")));
+        allowAll.getPolicyItems().get(0).setUsers(Collections.singletonList("user6"));
+        allowAll.getPolicyItems().get(0).setGroups(Collections.emptyList());
+
+        policies.add(createPolicy(1L, "orders*", "user1", null, "publish"));
+        policies.add(createPolicy(2L, "sales", "user2", null, "publish"));
+        policies.add(denyAll);
+        policies.add(createPolicy(4L, "logs", null, "grp1", "consume"));
+        policies.add(createPolicy(5L, "public", null, RangerPolicyEngine.GROUP_PUBLIC, "describe"));
+        policies.add(scheduled);
+        policies.add(allowAll);
+        policies.add(createPolicy(8L, "events", "user5", null, "publish"));
+
+        servicePolicies.setServiceName(SERVICE_NAME);
+        servicePolicies.setServiceId(1L);
+        servicePolicies.setPolicyVersion(1L);
+        servicePolicies.setServiceDef(EmbeddedServiceDefsUtil.instance().getEmbeddedServiceDef(EmbeddedServiceDefsUtil.EMBEDDED_SERVICEDEF_KAFKA_NAME));
+        servicePolicies.setPolicies(policies);
+
+        RangerPolicyEngineOptions options       = new RangerPolicyEngineOptions();
+        RangerPluginContext       pluginContext = new RangerPluginContext(new RangerPluginConfig("kafka", SERVICE_NAME, "test-resource-type-access", "cl1", "on-prem", options));
+
+        policyEngine = new RangerPolicyEngineImpl(servicePolicies, pluginContext, null);
+    }
+
+    @Test
+    public void testAllowedOnSomeResource() {
+        assertTrue(isAllowed("user1", Collections.emptySet(), "publish"));
+        assertTrue(isAllowed("user1", Collections.emptySet(), "describe")); // implied by publish
+        assertTrue(isAllowed("user3", Collections.singleton("grp1"), "consume"));
+        assertTrue(isAllowed("user9", Collections.emptySet(), "describe")); // public group
+        assertTrue(isAllowed("user6", Collections.emptySet(), "publish"));
+    }
+
+    @Test
+    public void testNotAllowedOnAnyResource() {
+        assertFalse(isAllowed("user3", Collections.singleton("grp1"), "publish"));
+        assertFalse(isAllowed("user9", Collections.emptySet(), "consume"));
+        assertFalse(policyEngine.isAccessAllowedOnAnyResourceOfType("user1", Collections.emptySet(), "consumergroup", "consume"));
+    }
+
+    @Test
+    public void testDeniedOnAllResources() {
+        // policy-2 allows user2 on topic sales, but policy-3 denies user2 on all topics
+        assertFalse(isAllowed("user2", Collections.emptySet(), "publish"));
+
+        // allow-exception on topic=* doesn't override allow from other policies
+        assertTrue(isAllowed("user5", Collections.emptySet(), "publish"));
+    }
+
+    @Test
+    public void testPolicyWithValiditySchedule() {
+        assertFalse(isAllowed("user4", Collections.emptySet(), "publish"));
+    }
+
+    private static boolean isAllowed(String user, Set<String> groups, String accessType) {
+        return policyEngine.isAccessAllowedOnAnyResourceOfType(user, groups, TOPIC, accessType);
+    }
+
+    private static RangerPolicy createPolicy(Long id, String topic, String user, String group, String accessType) {
+        RangerPolicy ret = new RangerPolicy();
+
+        ret.setId(id);
+        ret.setName("policy-" + id);
+        ret.setService(SERVICE_NAME);
+        ret.setResources(Collections.singletonMap(TOPIC, new RangerPolicyResource(topic)));
+        ret.setPolicyItems(new ArrayList<>(Collections.singletonList(createPolicyItem(user, group, accessType))));
+
+        return ret;
+    }
+
+    private static RangerPolicyItem createPolicyItem(String user, String group, String accessType) {
+        RangerPolicyItem ret = new RangerPolicyItem();
+
+        if (user != null) {
+            ret.setUsers(Collections.singletonList(user));
+        }
+
+        if (group != null) {
+            ret.setGroups(Collections.singletonList(group));
+        }
+
+        ret.setAccesses(Collections.singletonList(new RangerPolicyItemAccess(accessType)));
+
+        return ret;
+    }
+}
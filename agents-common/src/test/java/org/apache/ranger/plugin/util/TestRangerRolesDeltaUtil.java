@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ranger.plugin.util;
+
+import org.apache.ranger.plugin.model.RangerRole;
+import org.apache.ranger.plugin.model.RangerRole.RoleMember;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TestRangerRolesDeltaUtil {
+    @Test
+    public void testCreateAndApplyDelta() {
+        RangerRoles v1 = createRoles(1L, role("role1", "user1"), role("role2", "user2"), role("role3", "user3"));
+        RangerRoles v2 = createRoles(2L, role("role1", "user1"), role("role2", "user4"), role("role4", "user5"));
+
+        RangerRoles delta = RangerRolesDeltaUtil.createDelta(v1, v2);
+
+        assertTrue(delta.getIsDelta());
+        assertEquals(new HashSet<>(Arrays.asList(role("role2", "user4"), role("role4", "user5"))), delta.getRangerRoles());
+        assertEquals(Collections.singleton("role3"), delta.getDeletedRoles());
+
+        RangerRoles applied = RangerRolesDeltaUtil.applyDelta(v1, delta);
+
+        assertFalse(applied.getIsDelta());
+        assertEquals(Long.valueOf(2L), applied.getRoleVersion());
+        assertEquals(v2.getRangerRoles(), applied.getRangerRoles());
+        assertEquals(3, v1.getRangerRoles().size()); // original is not modified
+    }
+
+    @Test
+    public void testMergeDeltas() {
+        RangerRoles v1 = createRoles(1L, role("role1", "user1"), role("role2", "user2"));
+        RangerRoles v2 = createRoles(2L, role("role1", "user1"), role("role3", "user3"));
+        RangerRoles v3 = createRoles(3L, role("role2", "user2"), role("role3", "user4"));
+
+        RangerRoles merged = RangerRolesDeltaUtil.mergeDeltas(RangerRolesDeltaUtil.createDelta(v1, v2), RangerRolesDeltaUtil.createDelta(v2, v3));
+
+        assertEquals(Long.valueOf(3L), merged.getRoleVersion());
+        assertEquals(Collections.singleton("role1"), merged.getDeletedRoles());
+        assertEquals(v3.getRangerRoles(), RangerRolesDeltaUtil.applyDelta(v1, merged).getRangerRoles());
+    }
+
+    @Test
+    public void testApplyDeltaWithoutRoles() {
+        RangerRoles v1 = createRoles(1L, role("role1", "user1"));
+        RangerRoles v2 = createRoles(2L, role("role1", "user2"));
+
+        assertNull(RangerRolesDeltaUtil.applyDelta(null, RangerRolesDeltaUtil.createDelta(v1, v2)));
+        assertEquals(v2, RangerRolesDeltaUtil.applyDelta(v1, v2)); // not a delta: returned as is
+    }
+
+    private static RangerRoles createRoles(long version, RangerRole... roles) {
+        RangerRoles ret = new RangerRoles();
+
+        ret.setRoleVersion(version);
+        ret.setRangerRoles(new HashSet<>(Arrays.asList(roles)));
+
+        return ret;
+    }
+
+    private static RangerRole role(String name, String user) {
+        return new RangerRole(name, null, null, Collections.singletonList(new RoleMember(user, false)), null);
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ranger.plugin.util;
+
+import org.apache.ranger.plugin.model.GroupInfo;
+import org.apache.ranger.plugin.model.UserInfo;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TestRangerUserStore {
+    @Test
+    public void testCompact() throws Exception {
+        Set<UserInfo>            users      = new HashSet<>();
+        Set<GroupInfo>           groups     = new HashSet<>();
+        Map<String, Set<String>> userGroups = new HashMap<>();
+
+        for (int i = 0; i < 10; i++) {
+            Map<String, String> attrs = new HashMap<>();
+
+            attrs.put("dept", "dept" + (i % 2));
+            attrs.put("email", "user" + i + "@example.com");
+
+            users.add(new UserInfo("user" + i, null, attrs));
+            userGroups.put("user" + i, new HashSet<>(Arrays.asList("group" + (i % 3), "all")));
+        }
+
+        groups.add(new GroupInfo("all", null, Collections.singletonMap("site", "hq")));
+
+        RangerUserStore userStore = new RangerUserStore(1L, users, groups, userGroups);
+        String          json      = JsonUtilsV2.objToJson(userStore);
+
+        userStore.compact();
+
+        Map<String, String> user1Attrs = userStore.getUserAttrMapping().get("user1");
+
+        assertTrue(user1Attrs instanceof CompactStringMap);
+        assertEquals("dept1", user1Attrs.get("dept"));
+        assertEquals("user1@example.com", user1Attrs.get("email"));
+        assertNull(user1Attrs.get("phone"));
+        assertSame(((CompactStringMap) user1Attrs).getKeys(), ((CompactStringMap) userStore.getUserAttrMapping().get("user2")).getKeys());
+
+        assertTrue(userStore.getUserGroupMapping().get("user1").contains("group1"));
+        assertFalse(userStore.getUserGroupMapping().get("user1").contains("group0"));
+        assertSame(userStore.getUserGroupMapping().get("user1"), userStore.getUserGroupMapping().get("user4"));
+        assertEquals("hq", userStore.getGroupAttrMapping().get("all").get("site"));
+
+        RangerUserStore original = JsonUtilsV2.jsonToObj(json, RangerUserStore.class);
+        RangerUserStore copy     = JsonUtilsV2.jsonToObj(JsonUtilsV2.objToJson(userStore), RangerUserStore.class);
+
+        assertEquals(original.getUserAttrMapping(), userStore.getUserAttrMapping());
+        assertEquals(original.getUserGroupMapping(), userStore.getUserGroupMapping());
+        assertEquals(original.getUserAttrMapping(), copy.getUserAttrMapping());
+        assertEquals(original.getUserGroupMapping(), copy.getUserGroupMapping());
+    }
+}
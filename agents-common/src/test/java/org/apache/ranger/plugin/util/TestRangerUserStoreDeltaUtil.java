@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ranger.plugin.util;
+
+import org.apache.ranger.plugin.model.GroupInfo;
+import org.apache.ranger.plugin.model.UserInfo;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TestRangerUserStoreDeltaUtil {
+    @Test
+    public void testCreateAndApplyDelta() {
+        RangerUserStore v1 = createUserStore(1L, users("user1:cloud1", "user2", "user3"), groups("group1", "group2"), userGroups("user1:group1", "user2:group1", "user3:group2"));
+        RangerUserStore v2 = createUserStore(2L, users("user1:cloud1b", "user3", "user4"), groups("group1", "group3"), userGroups("user1:group1", "user3:group1", "user4:group3"));
+
+        RangerUserStore delta = RangerUserStoreDeltaUtil.createDelta(v1, v2);
+
+        assertTrue(delta.getIsDelta());
+        assertEquals(Long.valueOf(2L), delta.getUserStoreVersion());
+        assertEquals(new HashSet<>(Arrays.asList("user1", "user2", "user3", "user4")), delta.getChangedUsers());
+        assertEquals(new HashSet<>(Arrays.asList("group2", "group3")), delta.getChangedGroups());
+
+        RangerUserStore applied = RangerUserStoreDeltaUtil.applyDelta(v1, delta);
+
+        assertFalse(applied.getIsDelta());
+        assertSameContent(v2, applied);
+        assertEquals(Collections.singletonMap("cloud1b", "user1"), applied.getUserCloudIdMapping());
+        assertEquals(Long.valueOf(1L), v1.getUserStoreVersion()); // original is not modified
+        assertTrue(v1.getUserAttrMapping().containsKey("user2"));
+    }
+
+    @Test
+    public void testMergeDeltas() {
+        RangerUserStore v1 = createUserStore(1L, users("user1", "user2"), groups("group1"), userGroups("user1:group1"));
+        RangerUserStore v2 = createUserStore(2L, users("user1", "user3"), groups("group1", "group2"), userGroups("user1:group2", "user3:group1"));
+        RangerUserStore v3 = createUserStore(3L, users("user1", "user2"), groups("group2"), userGroups("user2:group2"));
+
+        RangerUserStore merged = RangerUserStoreDeltaUtil.mergeDeltas(RangerUserStoreDeltaUtil.createDelta(v1, v2), RangerUserStoreDeltaUtil.createDelta(v2, v3));
+
+        assertEquals(Long.valueOf(3L), merged.getUserStoreVersion());
+        assertSameContent(v3, RangerUserStoreDeltaUtil.applyDelta(v1, merged));
+    }
+
+    @Test
+    public void testApplyDeltaWithoutUserStore() {
+        RangerUserStore v1    = createUserStore(1L, users("user1"), groups("group1"), userGroups("user1:group1"));
+        RangerUserStore v2    = createUserStore(2L, users("user1", "user2"), groups("group1"), userGroups("user1:group1"));
+        RangerUserStore delta = RangerUserStoreDeltaUtil.createDelta(v1, v2);
+
+        assertNull(RangerUserStoreDeltaUtil.applyDelta(null, delta));
+        assertEquals(v2, RangerUserStoreDeltaUtil.applyDelta(v1, v2)); // not a delta: returned as is
+    }
+
+    private static void assertSameContent(RangerUserStore expected, RangerUserStore actual) {
+        assertEquals(expected.getUserStoreVersion(), actual.getUserStoreVersion());
+        assertEquals(expected.getUserAttrMapping(), actual.getUserAttrMapping());
+        assertEquals(expected.getGroupAttrMapping(), actual.getGroupAttrMapping());
+        assertEquals(expected.getUserGroupMapping(), actual.getUserGroupMapping());
+    }
+
+    private static RangerUserStore createUserStore(long version, Set<UserInfo> users, Set<GroupInfo> groups, Map<String, Set<String>> userGroups) {
+        return new RangerUserStore(version, users, groups, userGroups);
+    }
+
+    // each entry is of format name[:cloudId]
+    private static Set<UserInfo> users(String... names) {
+        Set<UserInfo> ret = new HashSet<>();
+
+        for (String name : names) {
+            String[]            nameCloudId = name.split(":");
+            Map<String, String> attrs       = new HashMap<>();
+
+            attrs.put("name", nameCloudId[0]);
+
+            if (nameCloudId.length > 1) {
+                attrs.put(RangerUserStore.CLOUD_IDENTITY_NAME, nameCloudId[1]);
+            }
+
+            ret.add(new UserInfo(nameCloudId[0], null, attrs));
+        }
+
+        return ret;
+    }
+
+    private static Set<GroupInfo> groups(String... names) {
+        Set<GroupInfo> ret = new HashSet<>();
+
+        for (String name : names) {
+            ret.add(new GroupInfo(name, null, Collections.singletonMap("name", name)));
+        }
+
+        return ret;
+    }
+
+    // each entry is of format user:group
+    private static Map<String, Set<String>> userGroups(String... userGroups) {
+        Map<String, Set<String>> ret = new HashMap<>();
+
+        for (String userGroup : userGroups) {
+            String[] parts = userGroup.split(":");
+
+            ret.computeIfAbsent(parts[0], k -> new HashSet<>()).add(parts[1]);
+        }
+
+        return ret;
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ranger.plugin.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TestServiceVersions {
+    @Test
+    public void testIsNewer() {
+        ServiceVersions known = new ServiceVersions("dev_hive", 10L, 5L, 3L, null);
+
+        assertFalse(new ServiceVersions("dev_hive", 10L, 5L, 3L, 100L).isNewer(known)); // userStoreVersion not known to the plugin
+        assertFalse(new ServiceVersions("dev_hive", 9L, 5L, 3L, null).isNewer(known));
+
+        ServiceVersions latest = new ServiceVersions("dev_hive", 10L, 6L, 3L, null);
+
+        assertTrue(latest.isNewer(known));
+        assertTrue(latest.isTagVersionNewer(known));
+        assertFalse(latest.isPolicyVersionNewer(known));
+        assertFalse(latest.isRoleVersionNewer(known));
+    }
+
+    @Test
+    public void testJsonRoundTrip() throws Exception {
+        ServiceVersions versions     = new ServiceVersions("dev_hive", 10L, null, 3L, 7L);
+        ServiceVersions deserialized = JsonUtilsV2.jsonToObj(JsonUtilsV2.objToJson(versions), ServiceVersions.class);
+
+        assertEquals(versions.getServiceName(), deserialized.getServiceName());
+        assertEquals(versions.getPolicyVersion(), deserialized.getPolicyVersion());
+        assertEquals(versions.getTagVersion(), deserialized.getTagVersion());
+        assertEquals(versions.getRoleVersion(), deserialized.getRoleVersion());
+        assertEquals(versions.getUserStoreVersion(), deserialized.getUserStoreVersion());
+    }
+}
@@ -163,7 +163,8 @@ public class RangerAuthorizationCoprocessor implements AccessControlService.Inte
 
     private UserProvider                       userProvider;
     private RegionCoprocessorEnvironment       regionEnv;
-    private final Map<InternalScanner, String> scannerOwners = new MapMaker().weakKeys().makeMap();
+    private final Map<InternalScanner, String> scannerOwners  = new MapMaker().weakKeys().makeMap();
+    private final Map<InternalScanner, Filter> scannerFilters = new MapMaker().weakKeys().makeMap(); // filters holding audit events to be logged on scanner close
 
     /**
      * if we should check EXEC permissions
@@ -485,6 +486,11 @@ public void preGetOp(final ObserverContext<RegionCoprocessorEnvironment> rEnv, f
         }
     }
 
+    @Override
+    public void postGetOp(final ObserverContext<RegionCoprocessorEnvironment> rEnv, final Get get, final List<Cell> result) {
+        flushFilterAudits(get.getFilter());
+    }
+
     @Override
     public boolean preExists(ObserverContext<RegionCoprocessorEnvironment> c, Get get, boolean exists) throws IOException {
         requirePermission(c, "exists", TablePermission.Action.READ, c.getEnvironment(), get.familySet());
@@ -577,6 +583,10 @@ public RegionScanner postScannerOpen(ObserverContext<RegionCoprocessorEnvironmen
             scannerOwners.put(s, user.getShortName());
         }
 
+        if (hasAuthorizationFilter(scan.getFilter())) {
+            scannerFilters.put(s, scan.getFilter());
+        }
+
         return s;
     }
 
@@ -595,6 +605,8 @@ public void preScannerClose(ObserverContext<RegionCoprocessorEnvironment> c, Int
     @Override
     public void postScannerClose(ObserverContext<RegionCoprocessorEnvironment> c, InternalScanner s) {
         scannerOwners.remove(s);
+
+        flushFilterAudits(scannerFilters.remove(s));
     }
 
     @Override
@@ -1312,6 +1324,33 @@ Filter authorizeAccess(ObserverContext<?> ctx, String operation, Action action,
         }
     }
 
+    static boolean hasAuthorizationFilter(Filter filter) {
+        boolean ret = filter instanceof RangerAuthorizationFilter;
+
+        if (!ret && filter instanceof FilterList) {
+            for (Filter aFilter : ((FilterList) filter).getFilters()) {
+                if (hasAuthorizationFilter(aFilter)) {
+                    ret = true;
+
+                    break;
+                }
+            }
+        }
+
+        return ret;
+    }
+
+    // logs audit events held by authorization filters, on completion of the get/scan using the filter
+    static void flushFilterAudits(Filter filter) {
+        if (filter instanceof RangerAuthorizationFilter) {
+            ((RangerAuthorizationFilter) filter).flushAudits();
+        } else if (filter instanceof FilterList) {
+            for (Filter aFilter : ((FilterList) filter).getFilters()) {
+                flushFilterAudits(aFilter);
+            }
+        }
+    }
+
     Filter combineFilters(Filter filter, Filter existingFilter) {
         Filter combinedFilter = filter;
 
@@ -28,13 +28,19 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Collections;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 public class RangerAuthorizationFilter extends FilterBase {
     private static final Logger LOG = LoggerFactory.getLogger(RangerAuthorizationFilter.class.getName());
 
+    static final long AUDIT_FLUSH_INTERVAL_MS     = 10000;
+    static final int  MAX_COLUMN_ACCESS_MEMO_SIZE = 10000;
+    static final int  MAX_PENDING_AUDIT_EVENTS    = 1000;
+
     final Set<String>              familiesAccessAllowed;
     final Set<String>              familiesAccessDenied;
     final Set<String>              familiesAccessIndeterminate;
@@ -43,6 +49,18 @@ public class RangerAuthorizationFilter extends FilterBase {
     final AuthorizationSession     session;
     final HbaseAuditHandler        auditHandler = HbaseFactory.getInstance().getAuditHandler();
 
+    // decisions of families/columns authorized by this filter, so that each is evaluated once per scan instead of once per cell.
+    // Holds at most MAX_COLUMN_ACCESS_MEMO_SIZE columns; columns seen after that are evaluated for every cell
+    final Map<String, Map<String, ColumnAccess>> columnAccessMemo = new HashMap<>();
+
+    // audit events of allowed accesses not yet logged; repeated accesses of a column are counted in eventCount of its event.
+    // Logged once MAX_PENDING_AUDIT_EVENTS events are held, or AUDIT_FLUSH_INTERVAL_MS after the last flush
+    final Map<String, Map<String, AuthzAuditEvent>> pendingAuditEvents = new HashMap<>();
+
+    private int  columnAccessMemoSize;
+    private int  pendingAuditEventCount;
+    private long lastAuditFlushTimeMs = System.currentTimeMillis();
+
     public RangerAuthorizationFilter(AuthorizationSession session, Set<String> familiesAccessAllowed, Set<String> familiesAccessDenied, Set<String> familiesAccessIndeterminate, Map<String, Set<String>> columnsAccessAllowed, Set<String> familiesFullyAuthorized) {
         // the class assumes that all of these can be empty but none of these can be null
         this.familiesAccessAllowed       = familiesAccessAllowed;
@@ -116,30 +134,33 @@ public ReturnCode filterKeyValue(Cell kv) {
         }
 
         if (authCheckNeeded) {
-            LOG.debug("filterKeyValue: Checking authorization...");
+            ColumnAccess access = getMemoizedAccess(family, column);
 
-            session.columnFamily(family)
-                    .column(column)
-                    .buildRequest()
-                    .authorize();
+            if (access == null || access == ColumnAccess.ALLOWED_AUDITED) {
+                // an allowed access held for audit is counted in its event, even when the column isn't in the memo
+                AuthzAuditEvent auditEvent = getPendingAuditEvent(family, column);
 
-            // must always purge the captured audit event out of the audit handler to avoid messing up the next check
-            AuthzAuditEvent auditEvent = auditHandler.getAndDiscardMostRecentEvent();
-
-            if (session.isAuthorized()) {
-                LOG.debug("filterKeyValue: Access granted.");
+                if (auditEvent != null) {
+                    LOG.debug("filterKeyValue: access allowed, as evaluated earlier in this scan. Audit event count incremented.");
 
-                result = ReturnCode.INCLUDE;
+                    auditEvent.setEventCount(auditEvent.getEventCount() + 1);
 
-                if (auditEvent != null) {
-                    LOG.debug("filterKeyValue: access is audited.");
+                    access = ColumnAccess.ALLOWED_AUDITED;
+                } else { // not evaluated yet, not in the memo, or audit event for earlier accesses has been logged
+                    access = authorize(family, column);
 
-                    auditHandler.logAuthzAudits(Collections.singletonList(auditEvent));
-                } else {
-                    LOG.debug("filterKeyValue: no audit event returned.  Access not audited.");
+                    memoize(family, column, access);
                 }
             } else {
-                LOG.debug("filterKeyValue: Access denied.  Denial not audited.");
+                LOG.debug("filterKeyValue: access {}, as evaluated earlier in this scan.", access);
+            }
+
+            if (access != ColumnAccess.DENIED) {
+                result = ReturnCode.INCLUDE;
+            }
+
+            if (pendingAuditEventCount >= MAX_PENDING_AUDIT_EVENTS || System.currentTimeMillis() - lastAuditFlushTimeMs >= AUDIT_FLUSH_INTERVAL_MS) {
+                flushAudits();
             }
         }
 
@@ -148,6 +169,30 @@ public ReturnCode filterKeyValue(Cell kv) {
         return result;
     }
 
+    /*
+     * Logs audit events of allowed accesses held by the filter. Called on completion of the scan/get; also called
+     * during long scans, periodically and when MAX_PENDING_AUDIT_EVENTS events are held.
+     */
+    public void flushAudits() {
+        if (!pendingAuditEvents.isEmpty()) {
+            List<AuthzAuditEvent> auditEvents = new ArrayList<>();
+
+            for (Map<String, AuthzAuditEvent> familyEvents : pendingAuditEvents.values()) {
+                auditEvents.addAll(familyEvents.values());
+            }
+
+            pendingAuditEvents.clear();
+
+            pendingAuditEventCount = 0;
+
+            LOG.debug("flushAudits(): logging {} audit events", auditEvents.size());
+
+            auditHandler.logAuthzAudits(auditEvents);
+        }
+
+        lastAuditFlushTimeMs = System.currentTimeMillis();
+    }
+
     @Override
     public String toString() {
         return MoreObjects.toStringHelper(getClass())
@@ -157,4 +202,72 @@ public String toString() {
                 .add("columnsAccessAllowed", columnsAccessAllowed)
                 .toString();
     }
+
+    private ColumnAccess authorize(String family, String column) {
+        LOG.debug("filterKeyValue: Checking authorization...");
+
+        final ColumnAccess ret;
+
+        session.columnFamily(family)
+                .column(column)
+                .buildRequest()
+                .authorize();
+
+        // must always purge the captured audit event out of the audit handler to avoid messing up the next check
+        AuthzAuditEvent auditEvent = auditHandler.getAndDiscardMostRecentEvent();
+
+        if (session.isAuthorized()) {
+            LOG.debug("filterKeyValue: Access granted.");
+
+            if (auditEvent != null) {
+                LOG.debug("filterKeyValue: access is audited.");
+
+                if (pendingAuditEvents.computeIfAbsent(family, k -> new HashMap<>()).put(column, auditEvent) == null) {
+                    pendingAuditEventCount++;
+                }
+
+                ret = ColumnAccess.ALLOWED_AUDITED;
+            } else {
+                LOG.debug("filterKeyValue: no audit event returned.  Access not audited.");
+
+                ret = ColumnAccess.ALLOWED;
+            }
+        } else {
+            LOG.debug("filterKeyValue: Access denied.  Denial not audited.");
+
+            ret = ColumnAccess.DENIED;
+        }
+
+        return ret;
+    }
+
+    private ColumnAccess getMemoizedAccess(String family, String column) {
+        Map<String, ColumnAccess> familyMemo = columnAccessMemo.get(family);
+
+        return familyMemo != null ? familyMemo.get(column) : null;
+    }
+
+    private void memoize(String family, String column, ColumnAccess access) {
+        Map<String, ColumnAccess> familyMemo = columnAccessMemo.get(family);
+
+        if (familyMemo != null && familyMemo.containsKey(column)) {
+            familyMemo.put(column, access);
+        } else if (columnAccessMemoSize < MAX_COLUMN_ACCESS_MEMO_SIZE) {
+            columnAccessMemo.computeIfAbsent(family, k -> new HashMap<>()).put(column, access);
+
+            columnAccessMemoSize++;
+
+            if (columnAccessMemoSize == MAX_COLUMN_ACCESS_MEMO_SIZE) {
+                LOG.debug("memoize(): memo has {} columns. Columns seen hereafter will be evaluated for every cell", columnAccessMemoSize);
+            }
+        }
+    }
+
+    private AuthzAuditEvent getPendingAuditEvent(String family, String column) {
+        Map<String, AuthzAuditEvent> familyEvents = pendingAuditEvents.get(family);
+
+        return familyEvents != null ? familyEvents.get(column) : null;
+    }
+
+    enum ColumnAccess { ALLOWED, ALLOWED_AUDITED, DENIED }
 }
@@ -19,8 +19,11 @@
 package org.apache.ranger.authorization.hbase;
 
 import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.KeyValue;
 import org.apache.hadoop.hbase.filter.Filter.ReturnCode;
+import org.apache.hadoop.hbase.util.Bytes;
 import org.apache.hadoop.thirdparty.com.google.common.collect.ImmutableSet;
+import org.apache.ranger.audit.model.AuthzAuditEvent;
 import org.junit.Test;
 
 import java.io.IOException;
@@ -30,8 +33,11 @@
 import java.util.Set;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class RangerAuthorizationFilterTest {
@@ -97,6 +103,103 @@ public void testFilterKeyValueCell_happyPath() throws IOException {
         }
     }
 
+    @Test
+    public void testFilterKeyValueCell_evaluatesColumnOncePerScan() {
+        Set<String>               familiesAccessIndeterminate = ImmutableSet.of("family1");
+        AuthorizationSession      session                     = createSessionMock();
+        RangerAuthorizationFilter filter                      = new RangerAuthorizationFilter(session, new HashSet<>(), new HashSet<>(), familiesAccessIndeterminate, new HashMap<>(), new HashSet<>());
+        AuthzAuditEvent           auditEvent                  = new AuthzAuditEvent();
+        int                       rowCount                    = 100;
+        int                       columnCount                 = 50;
+
+        when(session.authorize()).thenAnswer(invocation -> {
+            filter.auditHandler.setMostRecentEvent("column0".equals(session.column) ? auditEvent : null);
+
+            return session;
+        });
+        when(session.column(anyString())).thenAnswer(invocation -> {
+            session.column = invocation.getArgument(0);
+
+            return session;
+        });
+        when(session.isAuthorized()).thenAnswer(invocation -> !"column1".equals(session.column));
+
+        // synthetic scan of wide rows
+        for (int row = 0; row < rowCount; row++) {
+            for (int col = 0; col < columnCount; col++) {
+                assertEquals(col == 1 ? ReturnCode.NEXT_COL : ReturnCode.INCLUDE, filter.filterKeyValue(createCell("family1", "column" + col)));
+            }
+        }
+
+        // each column is authorized once, and access to it audited in one event
+        verify(session, times(columnCount)).authorize();
+        assertEquals(rowCount, auditEvent.getEventCount());
+
+        filter.flushAudits();
+
+        assertTrue(filter.pendingAuditEvents.isEmpty());
+    }
+
+    @Test
+    public void testFilterKeyValueCell_evaluatesPerCellPastMemoSize() {
+        Set<String>               familiesAccessIndeterminate = ImmutableSet.of("family1");
+        AuthorizationSession      session                     = createSessionMock();
+        RangerAuthorizationFilter filter                      = new RangerAuthorizationFilter(session, new HashSet<>(), new HashSet<>(), familiesAccessIndeterminate, new HashMap<>(), new HashSet<>());
+        AuthzAuditEvent           auditEvent                  = new AuthzAuditEvent();
+        int                       rowCount                    = 2;
+        int                       columnCount                 = RangerAuthorizationFilter.MAX_COLUMN_ACCESS_MEMO_SIZE + 10;
+
+        when(session.authorize()).thenAnswer(invocation -> {
+            filter.auditHandler.setMostRecentEvent("audited-column".equals(session.column) ? auditEvent : null);
+
+            return session;
+        });
+        when(session.column(anyString())).thenAnswer(invocation -> {
+            session.column = invocation.getArgument(0);
+
+            return session;
+        });
+        when(session.isAuthorized()).thenReturn(true);
+
+        for (int row = 0; row < rowCount; row++) {
+            for (int col = 0; col < columnCount; col++) {
+                assertEquals(ReturnCode.INCLUDE, filter.filterKeyValue(createCell("family1", "column" + col)));
+            }
+
+            assertEquals(ReturnCode.INCLUDE, filter.filterKeyValue(createCell("family1", "audited-column")));
+        }
+
+        // columns past the memo size are evaluated for every cell; an audited access is still counted in its pending event
+        verify(session, times(RangerAuthorizationFilter.MAX_COLUMN_ACCESS_MEMO_SIZE + (columnCount - RangerAuthorizationFilter.MAX_COLUMN_ACCESS_MEMO_SIZE) * rowCount + 1)).authorize();
+        assertEquals(RangerAuthorizationFilter.MAX_COLUMN_ACCESS_MEMO_SIZE, filter.columnAccessMemo.get("family1").size());
+        assertEquals(rowCount, auditEvent.getEventCount());
+    }
+
+    @Test
+    public void testFilterKeyValueCell_flushesAuditsAtPendingLimit() {
+        Set<String>               familiesAccessIndeterminate = ImmutableSet.of("family1");
+        AuthorizationSession      session                     = createSessionMock();
+        RangerAuthorizationFilter filter                      = new RangerAuthorizationFilter(session, new HashSet<>(), new HashSet<>(), familiesAccessIndeterminate, new HashMap<>(), new HashSet<>());
+
+        when(session.authorize()).thenAnswer(invocation -> {
+            filter.auditHandler.setMostRecentEvent(new AuthzAuditEvent());
+
+            return session;
+        });
+        when(session.isAuthorized()).thenReturn(true);
+
+        for (int col = 0; col < RangerAuthorizationFilter.MAX_PENDING_AUDIT_EVENTS - 1; col++) {
+            assertEquals(ReturnCode.INCLUDE, filter.filterKeyValue(createCell("family1", "column" + col)));
+        }
+
+        assertEquals(RangerAuthorizationFilter.MAX_PENDING_AUDIT_EVENTS - 1, filter.pendingAuditEvents.get("family1").size());
+
+        assertEquals(ReturnCode.INCLUDE, filter.filterKeyValue(createCell("family1", "last-column")));
+
+        // pending events are logged once their count reaches the limit, without waiting for the flush interval
+        assertTrue(filter.pendingAuditEvents.isEmpty());
+    }
+
     AuthorizationSession createSessionMock() {
         AuthorizationSession session = mock(AuthorizationSession.class);
         when(session.column(anyString())).thenReturn(session);
@@ -112,6 +215,11 @@ AuthorizationSession createSessionMock() {
         return session;
     }
 
+    // a real cell, as stubbing a mock cell for each cell of a long scan is too slow
+    private static Cell createCell(String family, String column) {
+        return new KeyValue(Bytes.toBytes("row1"), Bytes.toBytes(family), Bytes.toBytes(column));
+    }
+
     private void setFamilyArray(Cell aCell, byte[] familyArray) {
         when(aCell.getFamilyArray()).thenReturn(familyArray);
         when(aCell.getFamilyLength()).thenReturn((byte) familyArray.length);
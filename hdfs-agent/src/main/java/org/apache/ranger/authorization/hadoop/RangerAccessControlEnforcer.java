@@ -19,6 +19,7 @@
 
 package org.apache.ranger.authorization.hadoop;
 
+import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang.ArrayUtils;
 import org.apache.commons.lang.StringUtils;
 import org.apache.hadoop.fs.Path;
@@ -37,18 +38,26 @@
 import org.apache.hadoop.thirdparty.com.google.common.collect.Sets;
 import org.apache.ranger.authorization.hadoop.constants.RangerHadoopConstants;
 import org.apache.ranger.authorization.hadoop.exceptions.RangerAccessControlException;
+import org.apache.ranger.plugin.policyengine.RangerAccessRequest;
 import org.apache.ranger.plugin.policyengine.RangerAccessResult;
 import org.apache.ranger.plugin.util.RangerAccessRequestUtil;
 import org.apache.ranger.plugin.util.RangerPerfTracer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.Stack;
 import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -60,8 +69,9 @@
 import static org.apache.ranger.authorization.hadoop.constants.RangerHadoopConstants.WRITE_ACCCESS_TYPE;
 
 public class RangerAccessControlEnforcer implements AccessControlEnforcer {
-    private static final Logger LOG                       = LoggerFactory.getLogger(RangerAccessControlEnforcer.class);
-    private static final Logger PERF_HDFSAUTH_REQUEST_LOG = RangerPerfTracer.getPerfLogger("hdfsauth.request");
+    private static final Logger LOG                         = LoggerFactory.getLogger(RangerAccessControlEnforcer.class);
+    private static final Logger PERF_HDFSAUTH_REQUEST_LOG   = RangerPerfTracer.getPerfLogger("hdfsauth.request");
+    private static final Logger PERF_HDFSAUTH_SUBACCESS_LOG = RangerPerfTracer.getPerfLogger("hdfsauth.subaccess");
 
     private static final Map<FsAction, Set<String>> ACCESS_TO_ACTIONS;
 
@@ -310,108 +320,9 @@ private void checkRangerPermission(String fsOwner, String superGroup, UserGroupI
 
                 // checkSubAccess
                 if (authzStatus == AuthzStatus.ALLOW && subAccess != null && inode != null && inode.isDirectory()) {
-                    Stack<SubAccessData> directories = new Stack<>();
-
-                    for (directories.push(new SubAccessData(inode.asDirectory(), resourcePath, inodes, inodeAttrs)); !directories.isEmpty(); ) {
-                        SubAccessData       data  = directories.pop();
-                        ReadOnlyList<INode> cList = data.dir.getChildrenList(snapshotId);
-
-                        if (!(cList.isEmpty() && ignoreEmptyDir)) {
-                            INodeAttributes dirAttribs = data.dir.getSnapshotINode(snapshotId);
-
-                            authzStatus = isAccessAllowed(data.dir, dirAttribs, data.resourcePath, subAccess, context);
-
-                            INodeDirectory    dirINode;
-                            int               dirAncestorIndex;
-                            INodeAttributes[] dirINodeAttrs;
-                            INode[]           dirINodes;
-                            INode             dirAncestor;
-                            INode             dirParent;
-                            byte[][]          dirComponents;
-
-                            if (data.dir.equals(inode)) {
-                                dirINode         = inode.asDirectory();
-                                dirINodeAttrs    = inodeAttrs;
-                                dirINodes        = inodes;
-                                dirAncestorIndex = ancestorIndex;
-                                dirAncestor      = ancestor;
-                                dirParent        = parent;
-                                dirComponents    = pathByNameArr;
-                            } else {
-                                INodeAttributes[] curINodeAttributes;
-                                INode[]           curINodes;
-
-                                dirINode           = data.dir;
-                                curINodeAttributes = data.iNodeAttributes;
-                                curINodes          = data.inodes;
-
-                                int idx;
-
-                                dirINodes = new INode[curINodes.length + 1];
-                                for (idx = 0; idx < curINodes.length; idx++) {
-                                    dirINodes[idx] = curINodes[idx];
-                                }
-                                dirINodes[idx] = dirINode;
-
-                                dirINodeAttrs = new INodeAttributes[curINodeAttributes.length + 1];
-                                for (idx = 0; idx < curINodeAttributes.length; idx++) {
-                                    dirINodeAttrs[idx] = curINodeAttributes[idx];
-                                }
-                                dirINodeAttrs[idx] = dirAttribs;
-
-                                for (dirAncestorIndex = dirINodes.length - 1; dirAncestorIndex >= 0 && dirINodes[dirAncestorIndex] == null; dirAncestorIndex--) {
-                                    // empty
-                                }
-
-                                dirAncestor   = dirINodes.length > dirAncestorIndex && dirAncestorIndex >= 0 ? dirINodes[dirAncestorIndex] : null;
-                                dirParent     = dirINodes.length > 1 ? dirINodes[dirINodes.length - 2] : null;
-                                dirComponents = dirINode.getPathComponents();
-                            }
-
-                            if (authzStatus == AuthzStatus.NOT_DETERMINED && !plugin.isUseLegacySubAccessAuthorization()) {
-                                if (LOG.isDebugEnabled()) {
-                                    if (data.dir.equals(inode)) {
-                                        LOG.debug("Top level directory being processed for default authorizer call, [{}]", data.resourcePath);
-                                    } else {
-                                        LOG.debug("Sub directory being processed for default authorizer call, [{}]", data.resourcePath);
-                                    }
-
-                                    LOG.debug("Calling default authorizer for hierarchy/subaccess with the following parameters");
+                    SubAccessCheck subAccessCheck = new SubAccessCheck(fsOwner, superGroup, ugi, inodeAttrs, inodes, pathByNameArr, snapshotId, ancestorIndex, doCheckOwner, subAccess, ignoreEmptyDir, ancestor, parent, inode);
 
-                                    LOG.debug("fsOwner={}; superGroup={}, inodesCount={}, snapshotId={}, user={}, provided-path={}, ancestorIndex={}, doCheckOwner={}, ancestorAccess=null, parentAccess=null, access=null, subAccess=null, ignoreEmptyDir={}, operationName={}, callerContext=null",
-                                            fsOwner, superGroup, dirINodes != null ? dirINodes.length : 0, snapshotId, ugi != null ? ugi.getShortUserName() : null,
-                                            data.resourcePath, dirAncestorIndex, doCheckOwner, ignoreEmptyDir, operationName);
-                                }
-                                authzStatus = checkDefaultEnforcer(fsOwner, superGroup, ugi, dirINodeAttrs, dirINodes, dirComponents, snapshotId, data.resourcePath, dirAncestorIndex, doCheckOwner,
-                                        null, null, null, null, ignoreEmptyDir, dirAncestor, dirParent, dirINode, context);
-
-                                LOG.debug("Default authorizer call returned : [{}]", authzStatus);
-                            }
-
-                            if (authzStatus != AuthzStatus.ALLOW) {
-                                break;
-                            }
-
-                            AuthzStatus subDirAuthStatus             = AuthzStatus.NOT_DETERMINED;
-                            boolean     optimizeSubAccessAuthEnabled = plugin.isOptimizeSubAccessAuthEnabled();
-
-                            if (optimizeSubAccessAuthEnabled) {
-                                subDirAuthStatus = isAccessAllowedForHierarchy(data.dir, dirAttribs, data.resourcePath, subAccess, context);
-                            }
-
-                            if (subDirAuthStatus != AuthzStatus.ALLOW) {
-                                for (INode child : cList) {
-                                    if (child.isDirectory()) {
-                                        if (data.resourcePath.endsWith(Path.SEPARATOR)) {
-                                            directories.push(new SubAccessData(child.asDirectory(), data.resourcePath + child.getLocalName(), dirINodes, dirINodeAttrs));
-                                        } else {
-                                            directories.push(new SubAccessData(child.asDirectory(), data.resourcePath + Path.SEPARATOR_CHAR + child.getLocalName(), dirINodes, dirINodeAttrs));
-                                        }
-                                    }
-                                }
-                            }
-                        }
-                    }
+                    authzStatus = checkSubAccess(subAccessCheck, new SubAccessData(inode.asDirectory(), resourcePath, inodes, inodeAttrs), context);
 
                     if (authzStatus == AuthzStatus.NOT_DETERMINED) {
                         authzStatus = checkDefaultEnforcer(fsOwner, superGroup, ugi, inodeAttrs, inodes, pathByNameArr, snapshotId, path, ancestorIndex, doCheckOwner,
@@ -572,7 +483,9 @@ private AuthzStatus checkDefaultEnforcer(String fsOwner, String superGroup, User
             }
 
             try {
-                defaultEnforcer.checkPermission(fsOwner, superGroup, ugi, inodeAttrs, inodes, pathByNameArr, snapshotId, path, ancestorIndex, doCheckOwner, ancestorAccess, parentAccess, access, subAccess, ignoreEmptyDir);
+                synchronized (defaultEnforcer) { // sub-directories can be authorized in parallel; see checkSubAccessInParallel()
+                    defaultEnforcer.checkPermission(fsOwner, superGroup, ugi, inodeAttrs, inodes, pathByNameArr, snapshotId, path, ancestorIndex, doCheckOwner, ancestorAccess, parentAccess, access, subAccess, ignoreEmptyDir);
+                }
 
                 authzStatus = AuthzStatus.ALLOW;
             } finally {
@@ -630,6 +543,301 @@ private AuthzStatus checkDefaultEnforcer(String fsOwner, String superGroup, User
         return authzStatus;
     }
 
+    private AuthzStatus checkSubAccess(SubAccessCheck check, SubAccessData root, AuthzContext context) throws AccessControlException {
+        LOG.debug("==> RangerAccessControlEnforcer.checkSubAccess({}, {}, user={})", root.resourcePath, check.subAccess, context.user);
+
+        final AuthzStatus ret;
+        RangerPerfTracer  perf     = null;
+        ExecutorService   executor = plugin.getSubAccessExecutor();
+
+        if (RangerPerfTracer.isPerfTraceEnabled(PERF_HDFSAUTH_SUBACCESS_LOG)) {
+            perf = RangerPerfTracer.getPerfTracer(PERF_HDFSAUTH_SUBACCESS_LOG, "RangerAccessControlEnforcer.checkSubAccess(path=" + root.resourcePath + ")");
+        }
+
+        if (executor != null) {
+            ret = checkSubAccessInParallel(check, root, context, executor);
+        } else {
+            ret = checkSubAccessSequentially(check, root, context);
+        }
+
+        if (perf != null) {
+            PERF_HDFSAUTH_SUBACCESS_LOG.debug("checkSubAccess(path={}, user={}, operation={}): evaluatedDirs={}, prunedDirs={}, skippedEmptyDirs={}, parallelTasks={}, result={}",
+                    root.resourcePath, context.user, context.operationName, check.evaluatedDirCount.get(), check.prunedDirCount.get(), check.skippedDirCount.get(), check.parallelTaskCount.get(), ret);
+        }
+
+        RangerPerfTracer.log(perf);
+
+        LOG.debug("<== RangerAccessControlEnforcer.checkSubAccess({}, {}, user={}): {}", root.resourcePath, check.subAccess, context.user, ret);
+
+        return ret;
+    }
+
+    private AuthzStatus checkSubAccessSequentially(SubAccessCheck check, SubAccessData root, AuthzContext context) throws AccessControlException {
+        AuthzStatus          ret         = AuthzStatus.ALLOW;
+        Stack<SubAccessData> directories = new Stack<>();
+        List<SubAccessData>  subDirs     = new ArrayList<>();
+
+        for (directories.push(root); !directories.isEmpty(); ) {
+            SubAccessData data = directories.pop();
+
+            ret = checkSubAccessForDirectory(check, data, context, subDirs);
+
+            if (ret != AuthzStatus.ALLOW) {
+                break;
+            }
+
+            for (SubAccessData subDir : subDirs) {
+                directories.push(subDir);
+            }
+
+            subDirs.clear();
+        }
+
+        return ret;
+    }
+
+    /*
+     * Directories are authorized level by level: directories in a level are split across tasks in the executor, and
+     * the calling thread. Each task uses its own AuthzContext, as the last result saved in the context is used by
+     * checkDefaultEnforcer(). Once a directory is found to be not allowed, remaining tasks stop early; however, all
+     * tasks are waited for before returning, so that no task reads INodes after the caller releases the namesystem lock.
+     */
+    private AuthzStatus checkSubAccessInParallel(SubAccessCheck check, SubAccessData root, AuthzContext context, ExecutorService executor) throws AccessControlException {
+        AuthzStatus         ret         = AuthzStatus.ALLOW;
+        List<SubAccessData> directories = Collections.singletonList(root);
+
+        while (ret == AuthzStatus.ALLOW && !directories.isEmpty()) {
+            int                               taskCount   = Math.min(plugin.getSubAccessParallelism(), directories.size());
+            AtomicBoolean                     isDone      = new AtomicBoolean(false);
+            List<Future<SubAccessTaskResult>> futures     = new ArrayList<>(taskCount);
+            List<SubAccessTaskResult>         results     = new ArrayList<>(taskCount);
+            AccessControlException            error       = null;
+            boolean                           interrupted = false;
+
+            for (int i = 1; i < taskCount; i++) {
+                List<SubAccessData> taskDirectories = getSlice(directories, i, taskCount);
+                AuthzContext        taskContext     = new AuthzContext(context);
+
+                futures.add(executor.submit(() -> checkSubAccessTask(check, taskDirectories, taskContext, isDone)));
+
+                check.parallelTaskCount.incrementAndGet();
+            }
+
+            try {
+                results.add(checkSubAccessTask(check, getSlice(directories, 0, taskCount), context, isDone));
+            } catch (AccessControlException excp) {
+                error = excp;
+            }
+
+            for (Future<SubAccessTaskResult> future : futures) {
+                while (true) {
+                    try {
+                        results.add(future.get());
+
+                        break;
+                    } catch (InterruptedException excp) {
+                        isDone.set(true);
+
+                        interrupted = true;
+                    } catch (ExecutionException excp) {
+                        if (excp.getCause() instanceof AccessControlException) {
+                            if (error == null) {
+                                error = (AccessControlException) excp.getCause();
+                            }
+                        } else if (excp.getCause() instanceof RuntimeException) {
+                            throw (RuntimeException) excp.getCause();
+                        } else {
+                            throw new RuntimeException(excp.getCause());
+                        }
+
+                        break;
+                    }
+                }
+            }
+
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+
+                throw new RangerAccessControlException("Interrupted while checking sub-access: user=" + context.user + ", access=" + check.subAccess + ", inode=\"" + root.resourcePath + "\"");
+            }
+
+            if (error != null) {
+                throw error;
+            }
+
+            directories = new ArrayList<>();
+
+            for (SubAccessTaskResult result : results) {
+                if (result.authzStatus == AuthzStatus.DENY || (result.authzStatus == AuthzStatus.NOT_DETERMINED && ret == AuthzStatus.ALLOW)) {
+                    ret = result.authzStatus;
+
+                    context.saveResult(result.lastResult); // used by checkDefaultEnforcer(), as in sequential checks
+                }
+
+                directories.addAll(result.subDirs);
+            }
+        }
+
+        return ret;
+    }
+
+    private SubAccessTaskResult checkSubAccessTask(SubAccessCheck check, List<SubAccessData> directories, AuthzContext context, AtomicBoolean isDone) throws AccessControlException {
+        SubAccessTaskResult ret = new SubAccessTaskResult();
+
+        try {
+            for (SubAccessData data : directories) {
+                if (isDone.get()) {
+                    break;
+                }
+
+                ret.authzStatus = checkSubAccessForDirectory(check, data, context, ret.subDirs);
+
+                if (ret.authzStatus != AuthzStatus.ALLOW) {
+                    ret.lastResult = context.getLastResult();
+
+                    isDone.set(true);
+
+                    break;
+                }
+            }
+        } catch (AccessControlException | RuntimeException excp) {
+            isDone.set(true);
+
+            throw excp;
+        }
+
+        return ret;
+    }
+
+    /*
+     * Authorizes subAccess on the given directory, and adds its sub-directories that need to be authorized to subDirs.
+     * Sub-directories are not added when a policy is found to allow subAccess on the entire hierarchy under the directory.
+     */
+    private AuthzStatus checkSubAccessForDirectory(SubAccessCheck check, SubAccessData data, AuthzContext context, List<SubAccessData> subDirs) throws AccessControlException {
+        AuthzStatus         authzStatus = AuthzStatus.ALLOW;
+        ReadOnlyList<INode> cList       = data.dir.getChildrenList(check.snapshotId);
+
+        if (!(cList.isEmpty() && check.ignoreEmptyDir)) {
+            INodeAttributes dirAttribs = data.dir.getSnapshotINode(check.snapshotId);
+
+            check.evaluatedDirCount.incrementAndGet();
+
+            authzStatus = isAccessAllowed(data.dir, dirAttribs, data.resourcePath, check.subAccess, context);
+
+            boolean isAllowedByRanger = authzStatus == AuthzStatus.ALLOW;
+
+            INodeDirectory    dirINode;
+            int               dirAncestorIndex;
+            INodeAttributes[] dirINodeAttrs;
+            INode[]           dirINodes;
+            INode             dirAncestor;
+            INode             dirParent;
+            byte[][]          dirComponents;
+
+            if (data.dir.equals(check.inode)) {
+                dirINode         = check.inode.asDirectory();
+                dirINodeAttrs    = check.inodeAttrs;
+                dirINodes        = check.inodes;
+                dirAncestorIndex = check.ancestorIndex;
+                dirAncestor      = check.ancestor;
+                dirParent        = check.parent;
+                dirComponents    = check.pathByNameArr;
+            } else {
+                INodeAttributes[] curINodeAttributes;
+                INode[]           curINodes;
+
+                dirINode           = data.dir;
+                curINodeAttributes = data.iNodeAttributes;
+                curINodes          = data.inodes;
+
+                int idx;
+
+                dirINodes = new INode[curINodes.length + 1];
+                for (idx = 0; idx < curINodes.length; idx++) {
+                    dirINodes[idx] = curINodes[idx];
+                }
+                dirINodes[idx] = dirINode;
+
+                dirINodeAttrs = new INodeAttributes[curINodeAttributes.length + 1];
+                for (idx = 0; idx < curINodeAttributes.length; idx++) {
+                    dirINodeAttrs[idx] = curINodeAttributes[idx];
+                }
+                dirINodeAttrs[idx] = dirAttribs;
+
+                for (dirAncestorIndex = dirINodes.length - 1; dirAncestorIndex >= 0 && dirINodes[dirAncestorIndex] == null; dirAncestorIndex--) {
+                    // empty
+                }
+
+                dirAncestor   = dirINodes.length > dirAncestorIndex && dirAncestorIndex >= 0 ? dirINodes[dirAncestorIndex] : null;
+                dirParent     = dirINodes.length > 1 ? dirINodes[dirINodes.length - 2] : null;
+                dirComponents = dirINode.getPathComponents();
+            }
+
+            if (authzStatus == AuthzStatus.NOT_DETERMINED && !plugin.isUseLegacySubAccessAuthorization()) {
+                if (LOG.isDebugEnabled()) {
+                    if (data.dir.equals(check.inode)) {
+                        LOG.debug("Top level directory being processed for default authorizer call, [{}]", data.resourcePath);
+                    } else {
+                        LOG.debug("Sub directory being processed for default authorizer call, [{}]", data.resourcePath);
+                    }
+
+                    LOG.debug("Calling default authorizer for hierarchy/subaccess with the following parameters");
+
+                    LOG.debug("fsOwner={}; superGroup={}, inodesCount={}, snapshotId={}, user={}, provided-path={}, ancestorIndex={}, doCheckOwner={}, ancestorAccess=null, parentAccess=null, access=null, subAccess=null, ignoreEmptyDir={}, operationName={}, callerContext=null",
+                            check.fsOwner, check.superGroup, dirINodes != null ? dirINodes.length : 0, check.snapshotId, check.ugi != null ? check.ugi.getShortUserName() : null,
+                            data.resourcePath, dirAncestorIndex, check.doCheckOwner, check.ignoreEmptyDir, context.operationName);
+                }
+                authzStatus = checkDefaultEnforcer(check.fsOwner, check.superGroup, check.ugi, dirINodeAttrs, dirINodes, dirComponents, check.snapshotId, data.resourcePath, dirAncestorIndex, check.doCheckOwner,
+                        null, null, null, null, check.ignoreEmptyDir, dirAncestor, dirParent, dirINode, context);
+
+                LOG.debug("Default authorizer call returned : [{}]", authzStatus);
+            }
+
+            if (authzStatus == AuthzStatus.ALLOW) {
+                AuthzStatus subDirAuthStatus             = AuthzStatus.NOT_DETERMINED;
+                boolean     optimizeSubAccessAuthEnabled = plugin.isOptimizeSubAccessAuthEnabled();
+
+                if (optimizeSubAccessAuthEnabled) {
+                    subDirAuthStatus = isAccessAllowedForHierarchy(data.dir, dirAttribs, data.resourcePath, check.subAccess, context);
+                }
+
+                // descendants get the same access as this directory, when no policy or tag applies to only some of them
+                if (subDirAuthStatus != AuthzStatus.ALLOW && isAllowedByRanger && plugin.isUseDescendantAccessSummary() && !isDescendantAccessDifferent(data.dir, dirAttribs, data.resourcePath, check.subAccess, context)) {
+                    subDirAuthStatus = AuthzStatus.ALLOW;
+                }
+
+                if (subDirAuthStatus != AuthzStatus.ALLOW) {
+                    for (INode child : cList) {
+                        if (child.isDirectory()) {
+                            if (data.resourcePath.endsWith(Path.SEPARATOR)) {
+                                subDirs.add(new SubAccessData(child.asDirectory(), data.resourcePath + child.getLocalName(), dirINodes, dirINodeAttrs));
+                            } else {
+                                subDirs.add(new SubAccessData(child.asDirectory(), data.resourcePath + Path.SEPARATOR_CHAR + child.getLocalName(), dirINodes, dirINodeAttrs));
+                            }
+                        }
+                    }
+                } else {
+                    check.prunedDirCount.incrementAndGet();
+                }
+            }
+        } else {
+            check.skippedDirCount.incrementAndGet();
+        }
+
+        return authzStatus;
+    }
+
+    // every sliceCount-th element of list, starting at index sliceIdx; interleaving spreads large sub-trees across the slices
+    private static List<SubAccessData> getSlice(List<SubAccessData> list, int sliceIdx, int sliceCount) {
+        List<SubAccessData> ret = new ArrayList<>(list.size() / sliceCount + 1);
+
+        for (int i = sliceIdx; i < list.size(); i += sliceCount) {
+            ret.add(list.get(i));
+        }
+
+        return ret;
+    }
+
     private AuthzStatus isAccessAllowed(INode inode, INodeAttributes inodeAttribs, String path, FsAction access, AuthzContext context) {
         AuthzStatus ret       = null;
         String      pathOwner = inodeAttribs != null ? inodeAttribs.getUserName() : null;
@@ -666,7 +874,24 @@ private AuthzStatus isAccessAllowed(INode inode, INodeAttributes inodeAttribs, S
                 }
             }
 
-            RangerAccessResult result = plugin.isAccessAllowed(request, context.auditHandler);
+            RangerHdfsAuthzCache authzCache    = plugin.getAuthzCache();
+            String               cacheKey      = null;
+            String               cacheVersions = null;
+            RangerAccessResult   result        = null;
+
+            if (authzCache.isEnabled()) {
+                cacheKey      = RangerHdfsAuthzCache.getKey(context.user, context.userGroups, path, pathOwner, access, context.operationName, request.getClientIPAddress(), inode != null && inode.isFile());
+                cacheVersions = plugin.getAuthzCacheVersions();
+                result        = getCachedResult(authzCache.get(cacheKey, cacheVersions), request, context.auditHandler);
+            }
+
+            if (result == null) {
+                result = plugin.isAccessAllowed(request, context.auditHandler);
+
+                if (cacheKey != null && isCacheable(result)) { // a copy is cached, as result can be updated later, like in checkDefaultEnforcer()
+                    authzCache.put(cacheKey, cacheVersions, copyOf(result, result.getAccessRequest()));
+                }
+            }
 
             context.saveResult(result);
 
@@ -760,6 +985,71 @@ private AuthzStatus isAccessAllowedForHierarchy(INode inode, INodeAttributes ino
         return ret;
     }
 
+    private boolean isDescendantAccessDifferent(INode inode, INodeAttributes inodeAttribs, String path, FsAction access, AuthzContext context) {
+        boolean     ret         = true;
+        String      pathOwner   = inodeAttribs != null ? inodeAttribs.getUserName() : null;
+        Set<String> accessTypes = ACCESS_TO_ACTIONS.get(access);
+
+        if (pathOwner == null && inode != null) {
+            pathOwner = inode.getUserName();
+        }
+
+        if (RangerHadoopConstants.HDFS_ROOT_FOLDER_PATH_ALT.equals(path)) {
+            path = HDFS_ROOT_FOLDER_PATH;
+        }
+
+        LOG.debug("==> RangerAccessControlEnforcer.isDescendantAccessDifferent({}, {}, {})", path, access, context.user);
+
+        if (path != null && accessTypes != null && !accessTypes.isEmpty()) {
+            String subDirPath = path;
+
+            if (subDirPath.charAt(subDirPath.length() - 1) != Path.SEPARATOR_CHAR) {
+                subDirPath = subDirPath + Path.SEPARATOR_CHAR;
+            }
+
+            subDirPath = subDirPath + plugin.getRandomizedWildcardPathName();
+
+            RangerHdfsAccessRequest request = new RangerHdfsAccessRequest(inode, path, pathOwner, access, accessTypes.iterator().next(), context.operationName, context.user, context.userGroups);
+
+            ret = plugin.isDescendantAccessDifferent(request, new RangerHdfsResource(subDirPath, pathOwner));
+        }
+
+        LOG.debug("<== RangerAccessControlEnforcer.isDescendantAccessDifferent({}, {}, {}): {}", path, access, context.user, ret);
+
+        return ret;
+    }
+
+    // result for the given request, copied from the cached result; the copy is sent to auditHandler, as done by the policy engine
+    private RangerAccessResult getCachedResult(RangerAccessResult cachedResult, RangerHdfsAccessRequest request, RangerHdfsAuditHandler auditHandler) {
+        RangerAccessResult ret = null;
+
+        if (cachedResult != null) {
+            ret = copyOf(cachedResult, request);
+
+            LOG.debug("RangerAccessControlEnforcer.getCachedResult(): using cached result {} for request {}", cachedResult, request);
+
+            if (auditHandler != null) {
+                auditHandler.processResult(ret);
+            }
+        }
+
+        return ret;
+    }
+
+    private static RangerAccessResult copyOf(RangerAccessResult result, RangerAccessRequest request) {
+        RangerAccessResult ret = new RangerAccessResult(result.getPolicyType(), result.getServiceName(), result.getServiceDef(), request);
+
+        ret.setAccessResultFrom(result);
+        ret.setAuditResultFrom(result);
+
+        return ret;
+    }
+
+    // results matched by tags are not cached, as audit of a cached result would not include the tags of the resource
+    private static boolean isCacheable(RangerAccessResult result) {
+        return result != null && CollectionUtils.isEmpty(RangerAccessRequestUtil.getRequestTagsFromContext(result.getAccessRequest().getContext()));
+    }
+
     public enum AuthzStatus { ALLOW, DENY, NOT_DETERMINED }
 
     /*
@@ -828,6 +1118,15 @@ public AuthzContext(UserGroupInformation ugi, String operationName, boolean isTr
             this.isTraverseOnlyCheck = isTraverseOnlyCheck;
         }
 
+        // context for authorization in another thread, as part of the same operation
+        AuthzContext(AuthzContext other) {
+            this.user                = other.user;
+            this.userGroups          = other.userGroups;
+            this.operationName       = other.operationName;
+            this.isTraverseOnlyCheck = other.isTraverseOnlyCheck;
+            this.auditHandler        = other.auditHandler;
+        }
+
         public void saveResult(RangerAccessResult result) {
             if (result != null) {
                 this.lastResult = result;
@@ -839,6 +1138,52 @@ public RangerAccessResult getLastResult() {
         }
     }
 
+    // parameters of a subAccess check, common to all directories in the hierarchy, and traversal counts
+    private static class SubAccessCheck {
+        final String               fsOwner;
+        final String               superGroup;
+        final UserGroupInformation ugi;
+        final INodeAttributes[]    inodeAttrs;
+        final INode[]              inodes;
+        final byte[][]             pathByNameArr;
+        final int                  snapshotId;
+        final int                  ancestorIndex;
+        final boolean              doCheckOwner;
+        final FsAction             subAccess;
+        final boolean              ignoreEmptyDir;
+        final INode                ancestor;
+        final INode                parent;
+        final INode                inode;
+        final AtomicLong           evaluatedDirCount = new AtomicLong();
+        final AtomicLong           prunedDirCount    = new AtomicLong();
+        final AtomicLong           skippedDirCount   = new AtomicLong();
+        final AtomicLong           parallelTaskCount = new AtomicLong();
+
+        SubAccessCheck(String fsOwner, String superGroup, UserGroupInformation ugi, INodeAttributes[] inodeAttrs, INode[] inodes, byte[][] pathByNameArr, int snapshotId,
+                int ancestorIndex, boolean doCheckOwner, FsAction subAccess, boolean ignoreEmptyDir, INode ancestor, INode parent, INode inode) {
+            this.fsOwner        = fsOwner;
+            this.superGroup     = superGroup;
+            this.ugi            = ugi;
+            this.inodeAttrs     = inodeAttrs;
+            this.inodes         = inodes;
+            this.pathByNameArr  = pathByNameArr;
+            this.snapshotId     = snapshotId;
+            this.ancestorIndex  = ancestorIndex;
+            this.doCheckOwner   = doCheckOwner;
+            this.subAccess      = subAccess;
+            this.ignoreEmptyDir = ignoreEmptyDir;
+            this.ancestor       = ancestor;
+            this.parent         = parent;
+            this.inode          = inode;
+        }
+    }
+
+    private static class SubAccessTaskResult {
+        final List<SubAccessData> subDirs     = new ArrayList<>();
+        AuthzStatus               authzStatus = AuthzStatus.ALLOW;
+        RangerAccessResult        lastResult;
+    }
+
     private static class SubAccessData {
         final INodeDirectory    dir;
         final String            resourcePath;
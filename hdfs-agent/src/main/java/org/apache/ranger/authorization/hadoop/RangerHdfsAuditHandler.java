@@ -66,7 +66,7 @@ public RangerHdfsAuditHandler(String pathToBeValidated, boolean auditOnlyIfDenie
     }
 
     @Override
-    public void processResult(RangerAccessResult result) {
+    public synchronized void processResult(RangerAccessResult result) {
         LOG.debug("==> RangerHdfsAuditHandler.logAudit({})", result);
 
         if (result != null) {
@@ -125,7 +125,7 @@ public String getAdditionalInfo(RangerAccessRequest request) {
         return JsonUtils.mapToJson(addInfoMap);
     }
 
-    public void logHadoopEvent(String path, FsAction action, boolean accessGranted) {
+    public synchronized void logHadoopEvent(String path, FsAction action, boolean accessGranted) {
         LOG.debug("==> RangerHdfsAuditHandler.logHadoopEvent({}, {}, {})", path, action, accessGranted);
 
         if (auditEvent != null) {
@@ -150,7 +150,7 @@ public void logHadoopEvent(String path, FsAction action, boolean accessGranted)
         LOG.debug("<== RangerHdfsAuditHandler.logHadoopEvent({}, {}, {}): {}", path, action, accessGranted, auditEvent);
     }
 
-    public void flushAudit() {
+    public synchronized void flushAudit() {
         LOG.debug("==> RangerHdfsAuditHandler.flushAudit({}, {})", isAuditEnabled, auditEvent);
 
         if (isAuditEnabled && auditEvent != null && !StringUtils.isEmpty(auditEvent.getAccessType())) {
@@ -0,0 +1,168 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.authorization.hadoop;
+
+import org.apache.hadoop.fs.permission.FsAction;
+import org.apache.ranger.plugin.policyengine.RangerAccessResult;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Authorization results shared by all NameNode RPC handlers, so that repeated checks of the same access (like
+ * getfileinfo/listStatus on a hot directory) don't need a full policy evaluation:
+ *  - results are keyed by user, groups, path, path-owner, access, operation and client IP
+ *  - all results are discarded when version of policies, tags, roles or userstore changes
+ *  - results expire after ttlMs, to limit the staleness of results of time-based conditions
+ *  - cache is cleared on reaching maxEntries
+ */
+class RangerHdfsAuthzCache {
+    public static final String PROP_AUTHZ_CACHE_TTL_MS      = "ranger.hdfs.authz.cache.ttl.ms";
+    public static final String PROP_AUTHZ_CACHE_MAX_ENTRIES = "ranger.hdfs.authz.cache.max.entries";
+
+    public static final long DEFAULT_AUTHZ_CACHE_TTL_MS      = 0; // disabled
+    public static final int  DEFAULT_AUTHZ_CACHE_MAX_ENTRIES = 100000;
+
+    private final    long                      ttlMs;
+    private final    int                       maxEntries;
+    private final    Map<String, CachedResult> results   = new ConcurrentHashMap<>();
+    private final    AtomicLong                hitCount  = new AtomicLong();
+    private final    AtomicLong                missCount = new AtomicLong();
+    private volatile String                    versions;
+
+    RangerHdfsAuthzCache(long ttlMs, int maxEntries) {
+        this.ttlMs      = ttlMs;
+        this.maxEntries = maxEntries;
+    }
+
+    public static String getKey(String user, Set<String> groups, String path, String pathOwner, FsAction access, String operationName, String clientIp, boolean isFile) {
+        StringBuilder sb = new StringBuilder();
+
+        sb.append(user).append('\u0000');
+
+        if (groups != null) { // full group names are used, not a hash, so that users in different groups never share a result
+            for (String group : new TreeSet<>(groups)) {
+                sb.append(group).append('\u0001');
+            }
+        }
+
+        sb.append('\u0000').append(path)
+                .append('\u0000').append(pathOwner)
+                .append('\u0000').append(access)
+                .append('\u0000').append(operationName)
+                .append('\u0000').append(clientIp)
+                .append('\u0000').append(isFile);
+
+        return sb.toString();
+    }
+
+    public boolean isEnabled() {
+        return ttlMs > 0 && maxEntries > 0;
+    }
+
+    /*
+     * versions: versions of policies, tags, roles and userstore used by the plugin at the time of the lookup
+     */
+    public RangerAccessResult get(String key, String versions) {
+        RangerAccessResult ret = null;
+
+        clearIfVersionsChanged(versions);
+
+        CachedResult cached = results.get(key);
+
+        if (cached != null) {
+            if (cached.isExpired() || !versions.equals(cached.versions)) {
+                results.remove(key, cached);
+            } else {
+                ret = cached.result;
+            }
+        }
+
+        if (ret != null) {
+            hitCount.incrementAndGet();
+        } else {
+            missCount.incrementAndGet();
+        }
+
+        return ret;
+    }
+
+    public void put(String key, String versions, RangerAccessResult result) {
+        if (result != null) {
+            clearIfVersionsChanged(versions);
+
+            if (results.size() >= maxEntries) {
+                results.clear();
+            }
+
+            results.put(key, new CachedResult(result, versions, System.currentTimeMillis() + ttlMs));
+        }
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public int size() {
+        return results.size();
+    }
+
+    @Override
+    public String toString() {
+        return "RangerHdfsAuthzCache={ttlMs=" + ttlMs + ", maxEntries=" + maxEntries + ", size=" + results.size() + ", hitCount=" + hitCount.get() + ", missCount=" + missCount.get() + "}";
+    }
+
+    // drops results of earlier versions. Results are also tagged with their versions, as a result computed with
+    // an earlier version can be added after this clear by a concurrent thread
+    private void clearIfVersionsChanged(String versions) {
+        if (!versions.equals(this.versions)) {
+            synchronized (this) {
+                if (!versions.equals(this.versions)) {
+                    results.clear();
+
+                    this.versions = versions;
+                }
+            }
+        }
+    }
+
+    private static class CachedResult {
+        private final RangerAccessResult result;
+        private final String             versions;
+        private final long               expiryTimeMs;
+
+        CachedResult(RangerAccessResult result, String versions, long expiryTimeMs) {
+            this.result       = result;
+            this.versions     = versions;
+            this.expiryTimeMs = expiryTimeMs;
+        }
+
+        boolean isExpired() {
+            return System.currentTimeMillis() >= expiryTimeMs;
+        }
+    }
+}
@@ -30,6 +30,11 @@
 import java.security.SecureRandom;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class RangerHdfsPlugin extends RangerBasePlugin {
     private static final Logger LOG = LoggerFactory.getLogger(RangerHdfsPlugin.class);
@@ -44,6 +49,11 @@ public class RangerHdfsPlugin extends RangerBasePlugin {
     private final Set<String> excludeUsers = new HashSet<>();
     private final boolean     useLegacySubAccessAuthorization;
 
+    private final RangerHdfsAuthzCache authzCache;
+    private final int                  subAccessParallelism;
+    private final ExecutorService      subAccessExecutor;
+    private final boolean              useDescendantAccessSummary;
+
     public RangerHdfsPlugin(Path addlConfigFile) {
         super("hdfs", "hdfs");
 
@@ -70,6 +80,14 @@ public RangerHdfsPlugin(Path addlConfigFile) {
 
         this.useLegacySubAccessAuthorization = config.getBoolean(RangerHadoopConstants.RANGER_USE_LEGACY_SUBACCESS_AUTHORIZATION_PROP, RangerHadoopConstants.RANGER_USE_LEGACY_SUBACCESS_AUTHORIZATION_DEFAULT);
 
+        this.authzCache = new RangerHdfsAuthzCache(config.getLong(RangerHdfsAuthzCache.PROP_AUTHZ_CACHE_TTL_MS, RangerHdfsAuthzCache.DEFAULT_AUTHZ_CACHE_TTL_MS),
+                config.getInt(RangerHdfsAuthzCache.PROP_AUTHZ_CACHE_MAX_ENTRIES, RangerHdfsAuthzCache.DEFAULT_AUTHZ_CACHE_MAX_ENTRIES));
+
+        this.subAccessParallelism = config.getInt(RangerHadoopConstants.RANGER_SUBACCESS_AUTHORIZATION_PARALLELISM_PROP, RangerHadoopConstants.RANGER_SUBACCESS_AUTHORIZATION_PARALLELISM_DEFAULT);
+        this.subAccessExecutor    = subAccessParallelism > 1 ? createSubAccessExecutor(subAccessParallelism) : null;
+
+        this.useDescendantAccessSummary = config.getBoolean(RangerHadoopConstants.RANGER_SUBACCESS_USE_DESCENDANT_ACCESS_SUMMARY_PROP, RangerHadoopConstants.RANGER_SUBACCESS_USE_DESCENDANT_ACCESS_SUMMARY_DEFAULT);
+
         if (excludeUserList != null && !excludeUserList.trim().isEmpty()) {
             for (String excludeUser : excludeUserList.trim().split(",")) {
                 excludeUser = excludeUser.trim();
@@ -81,6 +99,9 @@ public RangerHdfsPlugin(Path addlConfigFile) {
         }
 
         LOG.info("AUTHZ_OPTIMIZATION_ENABLED:[{}]", authzOptimizationEnabled);
+        LOG.info("AUTHZ_CACHE_ENABLED:[{}], {}", authzCache.isEnabled(), authzCache);
+        LOG.info("SUBACCESS_AUTHZ_PARALLELISM:[{}]", subAccessParallelism);
+        LOG.info("SUBACCESS_USE_DESCENDANT_ACCESS_SUMMARY:[{}]", useDescendantAccessSummary);
     }
 
     public static String getFileNameExtensionSeparator() {
@@ -115,6 +136,56 @@ public boolean isUseLegacySubAccessAuthorization() {
         return useLegacySubAccessAuthorization;
     }
 
+    public int getSubAccessParallelism() {
+        return subAccessParallelism;
+    }
+
+    // null if sub-access authorization is not to be done in parallel
+    public ExecutorService getSubAccessExecutor() {
+        return subAccessExecutor;
+    }
+
+    public boolean isUseDescendantAccessSummary() {
+        return useDescendantAccessSummary;
+    }
+
+    RangerHdfsAuthzCache getAuthzCache() {
+        return authzCache;
+    }
+
+    // cached authorization results are valid only while all these versions remain unchanged
+    public String getAuthzCacheVersions() {
+        return getPoliciesVersion() + ":" + getTagsVersion() + ":" + getRolesVersion() + ":" + getUserStoreVersion();
+    }
+
+    @Override
+    public void cleanup() {
+        super.cleanup();
+
+        if (subAccessExecutor != null) {
+            subAccessExecutor.shutdownNow();
+        }
+    }
+
+    /*
+     * A bounded pool shared by all NameNode RPC handlers. When the pool is busy, the handler thread authorizes the
+     * directories itself, so that concurrent recursive operations don't queue up behind each other
+     */
+    private static ExecutorService createSubAccessExecutor(int parallelism) {
+        AtomicInteger      threadNumber = new AtomicInteger(1);
+        ThreadPoolExecutor ret          = new ThreadPoolExecutor(parallelism, parallelism, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(parallelism), r -> {
+            Thread t = new Thread(r, "ranger-hdfs-subaccess-" + threadNumber.getAndIncrement());
+
+            t.setDaemon(true);
+
+            return t;
+        }, (r, executor) -> r.run()); // unlike CallerRunsPolicy, runs the task even after shutdown, so that the caller waiting for it isn't blocked
+
+        ret.allowCoreThreadTimeOut(true);
+
+        return ret;
+    }
+
     // Build random string of length between 56 and 112 characters
     private static String generateString(String source) {
         SecureRandom rng   = new SecureRandom();
@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.authorization.hadoop;
+
+import org.apache.hadoop.fs.permission.FsAction;
+import org.apache.hadoop.fs.permission.FsPermission;
+import org.apache.hadoop.fs.permission.PermissionStatus;
+import org.apache.hadoop.hdfs.server.namenode.INode;
+import org.apache.hadoop.hdfs.server.namenode.INodeAttributes;
+import org.apache.hadoop.hdfs.server.namenode.INodeDirectory;
+import org.apache.hadoop.hdfs.server.namenode.snapshot.Snapshot;
+import org.apache.hadoop.security.AccessControlException;
+import org.apache.hadoop.security.UserGroupInformation;
+import org.apache.ranger.plugin.policyengine.RangerAccessRequest;
+import org.apache.ranger.plugin.policyengine.RangerAccessResult;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TestRangerAccessControlEnforcer {
+    private static final String WILDCARD_PATH_NAME = "*random*";
+
+    private final Set<String>      evaluatedPaths = ConcurrentHashMap.newKeySet();
+    private       ExecutorService  executor;
+    private       RangerHdfsPlugin plugin;
+    private       INodeDirectory   root;
+    private       INodeDirectory   data;
+    private       String           deniedPath;
+    private       String           allowedHierarchy;
+
+    @Before
+    public void setup() {
+        executor = Executors.newFixedThreadPool(4);
+        plugin   = Mockito.mock(RangerHdfsPlugin.class);
+        root     = createDirectory(1, "");
+        data     = createDirectory(2, "data");
+
+        root.addChild(data);
+
+        long id = 10;
+
+        for (String name : new String[] {"a", "b", "c"}) {
+            INodeDirectory dir = createDirectory(id++, name);
+
+            data.addChild(dir);
+
+            for (String subName : new String[] {"x", "y", "z"}) {
+                dir.addChild(createDirectory(id++, subName));
+            }
+        }
+
+        Mockito.when(plugin.getAuthzCache()).thenReturn(new RangerHdfsAuthzCache(0, 0));
+        Mockito.when(plugin.getSubAccessParallelism()).thenReturn(4);
+        Mockito.when(plugin.getRandomizedWildcardPathName()).thenReturn(WILDCARD_PATH_NAME);
+        Mockito.when(plugin.isAccessAllowed(Mockito.any(RangerAccessRequest.class), Mockito.any())).thenAnswer(invocation -> {
+            RangerAccessRequest request = invocation.getArgument(0);
+            String              path    = (String) request.getResource().getValue(RangerHdfsAuthorizer.KEY_RESOURCE_PATH);
+            RangerAccessResult  ret     = new RangerAccessResult(0, "hdfs", null, request);
+
+            if (path.endsWith(WILDCARD_PATH_NAME)) {
+                ret.setIsAccessDetermined(allowedHierarchy != null && path.startsWith(allowedHierarchy + "/"));
+                ret.setIsAllowed(ret.getIsAccessDetermined());
+            } else {
+                evaluatedPaths.add(path);
+
+                ret.setIsAccessDetermined(true);
+                ret.setIsAllowed(!path.equals(deniedPath));
+            }
+
+            return ret;
+        });
+    }
+
+    @After
+    public void teardown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testSubAccessSequentially() throws Exception {
+        checkSubAccess();
+
+        assertEquals(13, evaluatedPaths.size());
+        assertTrue(evaluatedPaths.contains("/data/c/z"));
+    }
+
+    @Test
+    public void testSubAccessInParallel() throws Exception {
+        Mockito.when(plugin.getSubAccessExecutor()).thenReturn(executor);
+
+        checkSubAccess();
+
+        assertEquals(13, evaluatedPaths.size());
+        assertTrue(evaluatedPaths.contains("/data/c/z"));
+    }
+
+    @Test
+    public void testSubAccessDeniedInParallel() {
+        Mockito.when(plugin.getSubAccessExecutor()).thenReturn(executor);
+
+        deniedPath = "/data/b";
+
+        try {
+            checkSubAccess();
+
+            fail("subAccess should be denied");
+        } catch (AccessControlException excp) {
+            // expected
+        }
+
+        assertFalse(evaluatedPaths.contains("/data/b/x")); // no traversal beyond the level having the denied directory
+    }
+
+    @Test
+    public void testSubAccessPrunesAllowedHierarchy() throws Exception {
+        Mockito.when(plugin.getSubAccessExecutor()).thenReturn(executor);
+        Mockito.when(plugin.isOptimizeSubAccessAuthEnabled()).thenReturn(true);
+
+        allowedHierarchy = "/data/a";
+
+        checkSubAccess();
+
+        assertEquals(10, evaluatedPaths.size());
+        assertFalse(evaluatedPaths.contains("/data/a/x"));
+        assertTrue(evaluatedPaths.contains("/data/b/x"));
+    }
+
+    @Test
+    public void testSubAccessPrunesHierarchyWithSameDescendantAccess() throws Exception {
+        Mockito.when(plugin.getSubAccessExecutor()).thenReturn(executor);
+        Mockito.when(plugin.isUseDescendantAccessSummary()).thenReturn(true);
+        Mockito.when(plugin.isDescendantAccessDifferent(Mockito.any(RangerAccessRequest.class), Mockito.any())).thenAnswer(invocation -> {
+            RangerAccessRequest request = invocation.getArgument(0);
+
+            return !"/data/b".equals(request.getResource().getValue(RangerHdfsAuthorizer.KEY_RESOURCE_PATH));
+        });
+
+        checkSubAccess();
+
+        assertEquals(10, evaluatedPaths.size());
+        assertFalse(evaluatedPaths.contains("/data/b/x"));
+        assertTrue(evaluatedPaths.contains("/data/a/x"));
+    }
+
+    private void checkSubAccess() throws AccessControlException {
+        RangerAccessControlEnforcer enforcer = new RangerAccessControlEnforcer(plugin, null);
+        UserGroupInformation        ugi      = UserGroupInformation.createUserForTesting("user1", new String[] {"group1"});
+
+        enforcer.checkPermission("hdfs", "supergroup", ugi, new INodeAttributes[] {root, data}, new INode[] {root, data}, new byte[0][0], Snapshot.CURRENT_STATE_ID,
+                "/data", 0, false, null, null, null, FsAction.ALL, false);
+    }
+
+    private static INodeDirectory createDirectory(long id, String name) {
+        return new INodeDirectory(id, name.getBytes(StandardCharsets.UTF_8), new PermissionStatus("hdfs", "supergroup", FsPermission.getDirDefault()), 0);
+    }
+}
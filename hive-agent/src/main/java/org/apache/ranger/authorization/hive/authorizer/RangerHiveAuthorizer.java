@@ -87,6 +87,7 @@
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -1111,6 +1112,9 @@ public List<HivePrivilegeObject> filterListCmdObjects(List<HivePrivilegeObject>
                 ret = new ArrayList<>(objs.size());
             }
 
+            List<RangerHiveAccessRequest>                     requests       = new ArrayList<>(objs.size());
+            Map<RangerHiveAccessRequest, HivePrivilegeObject> requestObjects = new IdentityHashMap<>(objs.size());
+
             for (HivePrivilegeObject privilegeObject : objs) {
                 if (LOG.isDebugEnabled()) {
                     HivePrivObjectActionType actionType    = privilegeObject.getActionType();
@@ -1131,23 +1135,20 @@ public List<HivePrivilegeObject> filterListCmdObjects(List<HivePrivilegeObject>
                     LOG.error("filterListCmdObjects: RangerHiveResource returned by createHiveResource is null");
                 } else {
                     RangerHiveAccessRequest request = new RangerHiveAccessRequest(resource, user, groups, roles, context, sessionContext);
-                    RangerAccessResult      result  = hivePlugin.isAccessAllowed(request, auditHandler);
 
-                    if (result == null) {
-                        LOG.error("filterListCmdObjects: Internal error: null RangerAccessResult object received back from isAccessAllowed()!");
-                    } else if (!result.getIsAllowed()) {
-                        if (LOG.isDebugEnabled()) {
-                            String path = resource.getAsString();
+                    requests.add(request);
+                    requestObjects.put(request, privilegeObject);
+                }
+            }
 
-                            LOG.debug("filterListCmdObjects: Permission denied: user [{}] does not have [{}] privilege on [{}]. resource[{}], request[{}], result[{}]", user, request.getHiveAccessType().name(), path, resource, request, result);
-                        }
-                    } else {
-                        LOG.debug("filterListCmdObjects: access allowed. resource[{}], request[{}], result[{}]", resource, request, result);
+            // objects to filter are usually siblings - like tables in a database; evaluate them together
+            List<RangerHiveAccessRequest> allowedRequests = hivePlugin.filterResources(requests, auditHandler);
 
-                        ret.add(privilegeObject);
-                    }
-                }
+            for (RangerHiveAccessRequest request : allowedRequests) {
+                ret.add(requestObjects.get(request));
             }
+
+            LOG.debug("filterListCmdObjects: user [{}] allowed access to {} of {} objects", user, allowedRequests.size(), requests.size());
         }
 
         auditHandler.flushAudit();
@@ -20,8 +20,11 @@
 import org.apache.hadoop.classification.InterfaceAudience;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.thirdparty.com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.apache.ranger.credentialapi.CredentialReader;
 import org.apache.ranger.kms.dao.DaoManager;
+import org.apache.ranger.kms.metrics.KMSMetrics;
+import org.apache.ranger.kms.metrics.collector.KMSMetricsCollector;
 import org.apache.ranger.plugin.util.AutoClosableLock.AutoClosableReadLock;
 import org.apache.ranger.plugin.util.AutoClosableLock.AutoClosableTryWriteLock;
 import org.apache.ranger.plugin.util.AutoClosableLock.AutoClosableWriteLock;
@@ -51,6 +54,7 @@
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executors;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
@@ -85,12 +89,16 @@ public class RangerKeyStoreProvider extends KeyProvider {
     private static final String TENCENT_CLIENT_SECRET        = RangerTencentKMSProvider.TENCENT_CLIENT_SECRET;
     private static final String TENCENT_CLIENT_SECRET_ALIAS  = "ranger.kms.tencent.client.secret.alias";
     private static final String IS_GCP_ENABLED               = "ranger.kms.gcp.enabled";
+    private static final String KEY_VERSION_CACHE_TTL_MS     = "ranger.kms.key.version.cache.ttl.ms";
+
+    private static final long KEY_VERSION_CACHE_TTL_MS_DEFAULT = 0; // disabled: cached key versions hold decrypted key material
 
     private final RangerKeyStore        dbStore;
     private final char[]                masterKey;
     private final Map<String, Metadata> cache   = new HashMap<>();
     private final ReadWriteLock         lock    = new ReentrantReadWriteLock(true);
     private final boolean               keyVaultEnabled;
+    private final RangerKeyVersionCache keyVersionCache;
     private       boolean               changed;
 
     public RangerKeyStoreProvider(Configuration conf) throws Throwable {
@@ -117,7 +125,12 @@ public RangerKeyStoreProvider(Configuration conf) throws Throwable {
         boolean isGCPEnabled           = conf.getBoolean(IS_GCP_ENABLED, false);
         boolean isTencentKMSEnabled    = conf.getBoolean(TENCENT_KMS_ENABLED, false);
 
+        long keyVersionCacheTtlMs = conf.getLong(KEY_VERSION_CACHE_TTL_MS, KEY_VERSION_CACHE_TTL_MS_DEFAULT);
+
         this.keyVaultEnabled = isAzureKeyVaultEnabled || isGCPEnabled || isTencentKMSEnabled;
+        this.keyVersionCache = keyVersionCacheTtlMs > 0 ? new RangerKeyVersionCache(keyVersionCacheTtlMs, this::loadKeyVersion, Executors.newSingleThreadExecutor(new ThreadFactoryBuilder().setDaemon(true).setNameFormat("kms-key-version-refresher").build())) : null;
+
+        logger.info("{}={}", KEY_VERSION_CACHE_TTL_MS, keyVersionCacheTtlMs);
 
         final RangerKMSDB  rangerKMSDB = new RangerKMSDB(conf);
         final DaoManager   daoManager  = rangerKMSDB.getDaoManager();
@@ -236,64 +249,7 @@ public static Configuration getDBKSConf() {
     public KeyVersion getKeyVersion(String versionName) throws IOException {
         logger.debug("==> getKeyVersion({})", versionName);
 
-        KeyVersion ret = null;
-
-        try (AutoClosableReadLock ignored = new AutoClosableReadLock(lock)) {
-            if (keyVaultEnabled) {
-                try {
-                    boolean versionNameExists = dbStore.engineContainsAlias(versionName);
-
-                    if (!versionNameExists) {
-                        dbStore.engineLoad(null, masterKey);
-
-                        versionNameExists = dbStore.engineContainsAlias(versionName);
-                    }
-
-                    if (versionNameExists) {
-                        byte[] decryptKeyByte;
-
-                        try {
-                            decryptKeyByte = dbStore.engineGetDecryptedZoneKeyByte(versionName);
-                        } catch (Exception e) {
-                            throw new RuntimeException("Error while getting decrypted key." + e);
-                        }
-
-                        if (decryptKeyByte != null && decryptKeyByte.length > 0) {
-                            ret = new KeyVersion(getBaseName(versionName), versionName, decryptKeyByte);
-                        }
-                    }
-                } catch (NoSuchAlgorithmException e) {
-                    throw new IOException("Can't get algorithm for key " + e.getMessage());
-                } catch (CertificateException e) {
-                    throw new IOException("Certificate exception storing key", e);
-                }
-            } else {
-                SecretKeySpec key = null;
-                try {
-                    boolean versionNameExists = dbStore.engineContainsAlias(versionName);
-
-                    if (!versionNameExists) {
-                        dbStore.engineLoad(null, masterKey);
-
-                        versionNameExists = dbStore.engineContainsAlias(versionName);
-                    }
-
-                    if (versionNameExists) {
-                        key = (SecretKeySpec) dbStore.engineGetKey(versionName, masterKey);
-                    }
-                } catch (NoSuchAlgorithmException e) {
-                    throw new IOException("Can't get algorithm for key " + key, e);
-                } catch (UnrecoverableKeyException e) {
-                    throw new IOException("Can't recover key " + key, e);
-                } catch (CertificateException e) {
-                    throw new IOException("Certificate exception storing key", e);
-                }
-
-                if (key != null) {
-                    ret = new KeyVersion(getBaseName(versionName), versionName, key.getEncoded());
-                }
-            }
-        }
+        KeyVersion ret = keyVersionCache != null ? keyVersionCache.get(versionName) : loadKeyVersion(versionName);
 
         logger.debug("<== getKeyVersion({})", versionName);
 
@@ -362,9 +318,11 @@ public Metadata getMetadata(String name) throws IOException {
         try (AutoClosableReadLock ignored = new AutoClosableReadLock(lock)) {
             ret = cache.get(name);
 
+            incrementCounter(ret != null ? KMSMetrics.KMSMetric.KEY_METADATA_CACHE_HIT_COUNT : KMSMetrics.KMSMetric.KEY_METADATA_CACHE_MISS_COUNT);
+
             if (ret == null) {
                 if (!dbStore.engineContainsAlias(name)) {
-                    dbStore.engineLoad(null, masterKey);
+                    loadKeys(masterKey);
                 }
 
                 if (dbStore.engineContainsAlias(name)) {
@@ -458,6 +416,10 @@ public void deleteKey(String name) throws IOException {
                 } catch (KeyStoreException e) {
                     throw new IOException("Problem removing " + versionName, e);
                 }
+
+                if (keyVersionCache != null) {
+                    keyVersionCache.remove(versionName);
+                }
             }
 
             try {
@@ -589,6 +551,14 @@ private static void getFromJceks(Configuration conf, String path, String alias,
         logger.debug("<== getFromJceks()");
     }
 
+    private static void incrementCounter(KMSMetrics.KMSMetric metric) {
+        KMSMetricsCollector metricsCollector = KMSMetricsCollector.getInstanceIfCreated();
+
+        if (metricsCollector != null) {
+            metricsCollector.incrementCounter(metric);
+        }
+    }
+
     private char[] generateAndGetMasterKey(final RangerKMSMKI masterKeyProvider, final String password) {
         logger.debug("==> generateAndGetMasterKey()");
 
@@ -616,6 +586,11 @@ private void loadKeys(char[] masterKey) throws NoSuchAlgorithmException, Certifi
 
         dbStore.engineLoad(null, masterKey);
 
+        // keys deleted or recreated in other KMS instances are seen only after the keystore is reloaded
+        if (keyVersionCache != null) {
+            keyVersionCache.clear();
+        }
+
         logger.debug("<== loadKeys()");
     }
 
@@ -693,6 +668,73 @@ private void reloadKeys() throws IOException {
         logger.debug("<== reloadKeys()");
     }
 
+    private KeyVersion loadKeyVersion(String versionName) throws IOException {
+        logger.debug("==> loadKeyVersion({})", versionName);
+
+        KeyVersion ret = null;
+
+        try (AutoClosableReadLock ignored = new AutoClosableReadLock(lock)) {
+            if (keyVaultEnabled) {
+                try {
+                    boolean versionNameExists = dbStore.engineContainsAlias(versionName);
+
+                    if (!versionNameExists) {
+                        loadKeys(masterKey);
+
+                        versionNameExists = dbStore.engineContainsAlias(versionName);
+                    }
+
+                    if (versionNameExists) {
+                        byte[] decryptKeyByte;
+
+                        try {
+                            decryptKeyByte = dbStore.engineGetDecryptedZoneKeyByte(versionName);
+                        } catch (Exception e) {
+                            throw new RuntimeException("Error while getting decrypted key." + e);
+                        }
+
+                        if (decryptKeyByte != null && decryptKeyByte.length > 0) {
+                            ret = new KeyVersion(getBaseName(versionName), versionName, decryptKeyByte);
+                        }
+                    }
+                } catch (NoSuchAlgorithmException e) {
+                    throw new IOException("Can't get algorithm for key " + e.getMessage());
+                } catch (CertificateException e) {
+                    throw new IOException("Certificate exception storing key", e);
+                }
+            } else {
+                SecretKeySpec key = null;
+                try {
+                    boolean versionNameExists = dbStore.engineContainsAlias(versionName);
+
+                    if (!versionNameExists) {
+                        loadKeys(masterKey);
+
+                        versionNameExists = dbStore.engineContainsAlias(versionName);
+                    }
+
+                    if (versionNameExists) {
+                        key = (SecretKeySpec) dbStore.engineGetKey(versionName, masterKey);
+                    }
+                } catch (NoSuchAlgorithmException e) {
+                    throw new IOException("Can't get algorithm for key " + key, e);
+                } catch (UnrecoverableKeyException e) {
+                    throw new IOException("Can't recover key " + key, e);
+                } catch (CertificateException e) {
+                    throw new IOException("Certificate exception storing key", e);
+                }
+
+                if (key != null) {
+                    ret = new KeyVersion(getBaseName(versionName), versionName, key.getEncoded());
+                }
+            }
+        }
+
+        logger.debug("<== loadKeyVersion({})", versionName);
+
+        return ret;
+    }
+
     /**
      * The factory to create JksProviders, which is used by the ServiceLoader.
      */
@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.crypto.key;
+
+import org.apache.hadoop.crypto.key.KeyProvider.KeyVersion;
+import org.apache.ranger.kms.metrics.KMSMetrics;
+import org.apache.ranger.kms.metrics.collector.KMSMetricsCollector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.LongSupplier;
+
+/**
+ * Caches key versions loaded by RangerKeyStoreProvider for a configured time.
+ * <p>
+ * Versions of a key deleted in this KMS are removed from the cache; the provider clears the
+ * cache whenever it reloads the keystore, so keys deleted or recreated in another KMS are not
+ * served from the cache any longer than they are served by the keystore itself. Entries are
+ * reloaded in the background once most of the TTL has elapsed, so that frequently used keys
+ * don't wait on the keystore.
+ */
+class RangerKeyVersionCache {
+    private static final Logger logger = LoggerFactory.getLogger(RangerKeyVersionCache.class);
+
+    static final float REFRESH_AHEAD_RATIO = 0.8f;
+
+    private final long                          ttlMs;
+    private final Loader                        loader;
+    private final Executor                      refresher;
+    private final LongSupplier                  clock;
+    private final Map<String, CachedKeyVersion> cache      = new ConcurrentHashMap<>();
+    private final Set<String>                   refreshing = ConcurrentHashMap.newKeySet();
+    private       long                          generation;
+
+    RangerKeyVersionCache(long ttlMs, Loader loader, Executor refresher) {
+        this(ttlMs, loader, refresher, System::currentTimeMillis);
+    }
+
+    RangerKeyVersionCache(long ttlMs, Loader loader, Executor refresher, LongSupplier clock) {
+        this.ttlMs     = ttlMs;
+        this.loader    = loader;
+        this.refresher = refresher;
+        this.clock     = clock;
+    }
+
+    KeyVersion get(String versionName) throws IOException {
+        CachedKeyVersion cached = cache.get(versionName);
+        long             now    = clock.getAsLong();
+
+        if (cached != null && now < cached.loadTimeMs + ttlMs) {
+            incrementCounter(KMSMetrics.KMSMetric.KEY_VERSION_CACHE_HIT_COUNT);
+
+            if (now >= cached.loadTimeMs + (long) (ttlMs * REFRESH_AHEAD_RATIO)) {
+                refreshAsync(versionName);
+            }
+
+            return cached.keyVersion;
+        }
+
+        incrementCounter(KMSMetrics.KMSMetric.KEY_VERSION_CACHE_MISS_COUNT);
+
+        return load(versionName);
+    }
+
+    synchronized void remove(String versionName) {
+        generation++;
+
+        cache.remove(versionName);
+    }
+
+    synchronized void clear() {
+        generation++;
+
+        cache.clear();
+    }
+
+    int size() {
+        return cache.size();
+    }
+
+    private KeyVersion load(String versionName) throws IOException {
+        long       loadGeneration = getGeneration();
+        long       loadTimeMs     = clock.getAsLong();
+        KeyVersion ret            = loader.load(versionName);
+
+        synchronized (this) {
+            // a version removed, or a cache cleared, while this load was in progress is not added back
+            if (loadGeneration == generation) {
+                if (ret != null) {
+                    cache.put(versionName, new CachedKeyVersion(ret, loadTimeMs));
+                } else {
+                    cache.remove(versionName);
+                }
+            }
+        }
+
+        return ret;
+    }
+
+    private synchronized long getGeneration() {
+        return generation;
+    }
+
+    private void refreshAsync(String versionName) {
+        if (refreshing.add(versionName)) {
+            try {
+                refresher.execute(() -> {
+                    try {
+                        load(versionName);
+
+                        incrementCounter(KMSMetrics.KMSMetric.KEY_VERSION_CACHE_REFRESH_COUNT);
+                    } catch (Exception e) {
+                        logger.warn("Failed to refresh key version {}", versionName, e);
+                    } finally {
+                        refreshing.remove(versionName);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                refreshing.remove(versionName);
+            }
+        }
+    }
+
+    private static void incrementCounter(KMSMetrics.KMSMetric metric) {
+        KMSMetricsCollector metricsCollector = KMSMetricsCollector.getInstanceIfCreated();
+
+        if (metricsCollector != null) {
+            metricsCollector.incrementCounter(metric);
+        }
+    }
+
+    interface Loader {
+        KeyVersion load(String versionName) throws IOException;
+    }
+
+    private static class CachedKeyVersion {
+        private final KeyVersion keyVersion;
+        private final long       loadTimeMs;
+
+        CachedKeyVersion(KeyVersion keyVersion, long loadTimeMs) {
+            this.keyVersion = keyVersion;
+            this.loadTimeMs = loadTimeMs;
+        }
+    }
+}
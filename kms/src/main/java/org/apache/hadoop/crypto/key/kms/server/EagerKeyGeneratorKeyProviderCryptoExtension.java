@@ -23,14 +23,25 @@
 import org.apache.hadoop.crypto.key.KeyProviderCryptoExtension;
 import org.apache.hadoop.crypto.key.kms.ValueQueue;
 import org.apache.hadoop.crypto.key.kms.ValueQueue.SyncGenerationPolicy;
+import org.apache.hadoop.thirdparty.com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.ranger.kms.metrics.KMSMetrics;
+import org.apache.ranger.kms.metrics.collector.KMSMetricsCollector;
+import org.apache.ranger.kms.metrics.collector.KMSMetricsCollector.APIMetric;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.security.GeneralSecurityException;
 import java.security.NoSuchAlgorithmException;
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * A {@link KeyProviderCryptoExtension} that pre-generates and caches encrypted
@@ -38,6 +49,8 @@
  */
 @InterfaceAudience.Private
 public class EagerKeyGeneratorKeyProviderCryptoExtension extends KeyProviderCryptoExtension {
+    private static final Logger LOG = LoggerFactory.getLogger(EagerKeyGeneratorKeyProviderCryptoExtension.class);
+
     private static final String KEY_CACHE_PREFIX = "hadoop.security.kms.encrypted.key.cache.";
 
     public static final int    KMS_KEY_CACHE_SIZE_DEFAULT               = 100;
@@ -48,6 +61,10 @@ public class EagerKeyGeneratorKeyProviderCryptoExtension extends KeyProviderCryp
     public static final String KMS_KEY_CACHE_LOW_WATERMARK              = KEY_CACHE_PREFIX + "low.watermark";
     public static final String KMS_KEY_CACHE_EXPIRY_MS                  = KEY_CACHE_PREFIX + "expiry";
     public static final String KMS_KEY_CACHE_NUM_REFILL_THREADS         = KEY_CACHE_PREFIX + "num.fill.threads";
+    public static final int    KMS_KEY_CACHE_FILL_PARALLELISM_DEFAULT   = 4;
+    public static final int    KMS_KEY_CACHE_MAX_REFILL_BOOST_DEFAULT   = 4;
+    public static final String KMS_KEY_CACHE_FILL_PARALLELISM           = KEY_CACHE_PREFIX + "fill.parallelism";
+    public static final String KMS_KEY_CACHE_MAX_REFILL_BOOST           = KEY_CACHE_PREFIX + "max.refill.boost";
 
     /**
      * This class is a proxy for a <code>KeyProviderCryptoExtension</code> that
@@ -100,15 +117,22 @@ public void invalidateCache(String name) throws IOException {
     private static class CryptoExtension implements KeyProviderCryptoExtension.CryptoExtension {
         private final ValueQueue<EncryptedKeyVersion> encKeyVersionQueue;
         private final KeyProviderCryptoExtension      keyProviderCryptoExtension;
+        private final EncryptedQueueRefiller          refiller;
 
         public CryptoExtension(Configuration conf, KeyProviderCryptoExtension keyProviderCryptoExtension) {
+            int fillParallelism = Math.max(1, conf.getInt(KMS_KEY_CACHE_FILL_PARALLELISM, KMS_KEY_CACHE_FILL_PARALLELISM_DEFAULT));
+            int maxRefillBoost  = Math.max(1, conf.getInt(KMS_KEY_CACHE_MAX_REFILL_BOOST, KMS_KEY_CACHE_MAX_REFILL_BOOST_DEFAULT));
+
+            LOG.info("EncryptedKeyVersion cache: fillParallelism={}, maxRefillBoost={}", fillParallelism, maxRefillBoost);
+
             this.keyProviderCryptoExtension = keyProviderCryptoExtension;
+            this.refiller                   = new EncryptedQueueRefiller(keyProviderCryptoExtension, fillParallelism, maxRefillBoost);
 
             encKeyVersionQueue = new ValueQueue<>(conf.getInt(KMS_KEY_CACHE_SIZE, KMS_KEY_CACHE_SIZE_DEFAULT),
                             conf.getFloat(KMS_KEY_CACHE_LOW_WATERMARK, KMS_KEY_CACHE_LOW_WATERMARK_DEFAULT),
                             conf.getInt(KMS_KEY_CACHE_EXPIRY_MS, KMS_KEY_CACHE_EXPIRY_DEFAULT),
                             conf.getInt(KMS_KEY_CACHE_NUM_REFILL_THREADS, KMS_KEY_CACHE_NUM_REFILL_THREADS_DEFAULT),
-                            SyncGenerationPolicy.LOW_WATERMARK, new EncryptedQueueRefiller());
+                            SyncGenerationPolicy.LOW_WATERMARK, refiller);
         }
 
         @Override
@@ -123,14 +147,20 @@ public void warmUpEncryptedKeys(String... keyNames) throws IOException {
         @Override
         public void drain(String keyName) {
             encKeyVersionQueue.drain(keyName);
+
+            refiller.reset(keyName);
         }
 
         @Override
         public EncryptedKeyVersion generateEncryptedKey(String encryptionKeyName) throws IOException, GeneralSecurityException {
+            refiller.setInCallerThread(true);
+
             try {
                 return encKeyVersionQueue.getNext(encryptionKeyName);
             } catch (ExecutionException e) {
                 throw new IOException(e);
+            } finally {
+                refiller.setInCallerThread(false);
             }
         }
 
@@ -148,22 +178,140 @@ public EncryptedKeyVersion reencryptEncryptedKey(EncryptedKeyVersion arg0) throw
         public void reencryptEncryptedKeys(List<EncryptedKeyVersion> arg0) throws IOException, GeneralSecurityException {
             keyProviderCryptoExtension.reencryptEncryptedKeys(arg0);
         }
+    }
+
+    /**
+     * Generates encrypted keys for ValueQueue, which calls {@link #fillQueueForKey} to:
+     * <ul>
+     *  <li>load the queue of a key, when the key is first used or after its queue expired</li>
+     *  <li>refill the queue of a key from a refill thread, once it drops below the low watermark</li>
+     *  <li>generate keys for a caller, in the caller's thread, when the caller finds the queue empty</li>
+     * </ul>
+     * Fills for callers, and refills that find the queue drained, indicate that keys are consumed faster than the queue
+     * is refilled: subsequent refills generate more keys than requested (up to maxRefillBoost times), until a refill
+     * finds the queue not drained. The first fill of a key's queue is never boosted.
+     */
+    static class EncryptedQueueRefiller implements ValueQueue.QueueRefiller<EncryptedKeyVersion> {
+        private final KeyProviderCryptoExtension keyProviderCryptoExtension;
+        private final int                        fillParallelism;
+        private final int                        maxRefillBoost;
+        private final ExecutorService            fillExecutor;
+        private final Map<String, RefillState>   refillStates   = new ConcurrentHashMap<>();
+        private final ThreadLocal<Boolean>       inCallerThread = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+        EncryptedQueueRefiller(KeyProviderCryptoExtension keyProviderCryptoExtension, int fillParallelism, int maxRefillBoost) {
+            this.keyProviderCryptoExtension = keyProviderCryptoExtension;
+            this.fillParallelism            = fillParallelism;
+            this.maxRefillBoost             = maxRefillBoost;
+            this.fillExecutor               = fillParallelism > 1 ? Executors.newFixedThreadPool(fillParallelism - 1, new ThreadFactoryBuilder().setDaemon(true).setNameFormat("kms-eek-fill-%d").build()) : null;
+        }
+
+        @Override
+        public void fillQueueForKey(String keyName, Queue<EncryptedKeyVersion> keyQueue, int numKeys) throws IOException {
+            KMSMetricsCollector metricsCollector = KMSMetricsCollector.getInstanceIfCreated();
+            RefillState         newState         = new RefillState();
+            RefillState         refillState      = refillStates.putIfAbsent(keyName, newState);
+            boolean             isFirstFill      = refillState == null;
+            boolean             isCallerFill     = inCallerThread.get();
+            int                 numToGenerate    = numKeys;
 
-        private class EncryptedQueueRefiller implements ValueQueue.QueueRefiller<EncryptedKeyVersion> {
-            @Override
-            public void fillQueueForKey(String keyName, Queue<EncryptedKeyVersion> keyQueue, int numKeys) throws IOException {
-                List<EncryptedKeyVersion> retEdeks = new LinkedList<>();
-
-                for (int i = 0; i < numKeys; i++) {
-                    try {
-                        retEdeks.add(keyProviderCryptoExtension.generateEncryptedKey(keyName));
-                    } catch (GeneralSecurityException e) {
-                        throw new IOException(e);
-                    }
+            if (isFirstFill) {
+                refillState = newState;
+            } else if (isCallerFill) {
+                refillState.isStarved = true;
+
+                if (metricsCollector != null) {
+                    metricsCollector.incrementCounter(KMSMetrics.KMSMetric.EEK_QUEUE_SYNC_FILL_COUNT);
                 }
+            } else {
+                numToGenerate = numKeys * refillState.updateBoost(keyQueue.isEmpty(), maxRefillBoost);
+            }
+
+            LOG.debug("fillQueueForKey(keyName={}, numKeys={}, isFirstFill={}, isCallerFill={}): generating {} keys", keyName, numKeys, isFirstFill, isCallerFill, numToGenerate);
+
+            try (APIMetric ignored = metricsCollector != null ? metricsCollector.createAPIMetric(KMSMetrics.KMSMetric.EEK_QUEUE_REFILL_COUNT, KMSMetrics.KMSMetric.EEK_QUEUE_REFILL_ELAPSED_TIME) : null) {
+                List<EncryptedKeyVersion> edeks = (fillExecutor != null && numToGenerate > 1) ? generateEncryptedKeysInParallel(keyName, numToGenerate) : generateEncryptedKeys(keyName, numToGenerate);
 
-                keyQueue.addAll(retEdeks);
+                keyQueue.addAll(edeks);
             }
+
+            if (metricsCollector != null) {
+                metricsCollector.updateMetric(KMSMetrics.KMSMetric.EEK_QUEUE_REFILL_KEYS_COUNT, numToGenerate);
+            }
+        }
+
+        void setInCallerThread(boolean value) {
+            inCallerThread.set(value);
+        }
+
+        void reset(String keyName) {
+            refillStates.remove(keyName);
+        }
+
+        private List<EncryptedKeyVersion> generateEncryptedKeys(String keyName, int numKeys) throws IOException {
+            List<EncryptedKeyVersion> ret = new ArrayList<>(numKeys);
+
+            for (int i = 0; i < numKeys; i++) {
+                try {
+                    ret.add(keyProviderCryptoExtension.generateEncryptedKey(keyName));
+                } catch (GeneralSecurityException e) {
+                    throw new IOException(e);
+                }
+            }
+
+            return ret;
+        }
+
+        // splits generation of numKeys across the fill executor; one share is generated in the calling thread
+        private List<EncryptedKeyVersion> generateEncryptedKeysInParallel(String keyName, int numKeys) throws IOException {
+            int                                     numTasks = Math.min(fillParallelism, numKeys);
+            List<Future<List<EncryptedKeyVersion>>> futures  = new ArrayList<>(numTasks - 1);
+
+            for (int i = 1; i < numTasks; i++) {
+                int taskKeys = numKeys / numTasks + (i < numKeys % numTasks ? 1 : 0);
+
+                futures.add(fillExecutor.submit(() -> generateEncryptedKeys(keyName, taskKeys)));
+            }
+
+            List<EncryptedKeyVersion> ret = new ArrayList<>(numKeys);
+
+            try {
+                ret.addAll(generateEncryptedKeys(keyName, numKeys / numTasks + (numKeys % numTasks > 0 ? 1 : 0)));
+
+                for (Future<List<EncryptedKeyVersion>> future : futures) {
+                    ret.addAll(future.get());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+
+                throw new IOException(e);
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+            } finally {
+                for (Future<List<EncryptedKeyVersion>> future : futures) {
+                    future.cancel(true);
+                }
+            }
+
+            return ret;
+        }
+    }
+
+    private static class RefillState {
+        volatile boolean isStarved;
+        volatile int     boost = 1;
+
+        // doubles the boost if the queue was drained since the last refill, halves it otherwise
+        int updateBoost(boolean isQueueEmpty, int maxBoost) {
+            if (isStarved || isQueueEmpty) {
+                boost = Math.min(boost * 2, maxBoost);
+            } else {
+                boost = Math.max(boost / 2, 1);
+            }
+
+            isStarved = false;
+
+            return boost;
         }
     }
 }
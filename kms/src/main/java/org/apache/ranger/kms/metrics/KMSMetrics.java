@@ -55,6 +55,13 @@ enum KMSMetric {
 
         GET_KEY_VERSIONS_COUNT("GET_KEY_VERSIONS_COUNT", Type.COUNTER), GET_KEY_VERSIONS_ELAPSED_TIME("GET_KEY_VERSIONS_ELAPSED_TIME", Type.GAUGE),
 
+        KEY_METADATA_CACHE_HIT_COUNT("KEY_METADATA_CACHE_HIT_COUNT", Type.COUNTER), KEY_METADATA_CACHE_MISS_COUNT("KEY_METADATA_CACHE_MISS_COUNT", Type.COUNTER),
+        KEY_VERSION_CACHE_HIT_COUNT("KEY_VERSION_CACHE_HIT_COUNT", Type.COUNTER), KEY_VERSION_CACHE_MISS_COUNT("KEY_VERSION_CACHE_MISS_COUNT", Type.COUNTER),
+        KEY_VERSION_CACHE_REFRESH_COUNT("KEY_VERSION_CACHE_REFRESH_COUNT", Type.COUNTER),
+
+        EEK_QUEUE_REFILL_COUNT("EEK_QUEUE_REFILL_COUNT", Type.COUNTER), EEK_QUEUE_REFILL_ELAPSED_TIME("EEK_QUEUE_REFILL_ELAPSED_TIME", Type.GAUGE),
+        EEK_QUEUE_REFILL_KEYS_COUNT("EEK_QUEUE_REFILL_KEYS_COUNT", Type.COUNTER), EEK_QUEUE_SYNC_FILL_COUNT("EEK_QUEUE_SYNC_FILL_COUNT", Type.COUNTER),
+
         UNAUTHENTICATED_CALLS_COUNT("UNAUTHENTICATED_CALLS_COUNT", Type.COUNTER), UNAUTHORIZED_CALLS_COUNT("UNAUTHORIZED_CALLS_COUNT", Type.COUNTER),
 
         TOTAL_CALL_COUNT("TOTAL_CALL_COUNT", Type.COUNTER);
@@ -57,6 +57,13 @@ public static KMSMetricsCollector getInstance(boolean isCollectionThreadSafe) {
         return metricsCollector;
     }
 
+    /**
+     * Returns the collector if already created by the KMS; null otherwise, like in tools that use key providers outside the KMS.
+     */
+    public static KMSMetricsCollector getInstanceIfCreated() {
+        return kmsMetricsCollector;
+    }
+
     public boolean isCollectionThreadSafe() {
         return this.isCollectionThreadSafe;
     }
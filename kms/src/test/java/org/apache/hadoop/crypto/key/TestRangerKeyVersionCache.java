@@ -0,0 +1,184 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.crypto.key;
+
+import org.apache.hadoop.crypto.key.KeyProvider.KeyVersion;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class TestRangerKeyVersionCache {
+    private static final long   TTL_MS       = 1000;
+    private static final String VERSION_NAME = "key1@0";
+
+    private final AtomicLong              clock     = new AtomicLong(10_000);
+    private final AtomicInteger           loadCount = new AtomicInteger();
+    private final Map<String, KeyVersion> keyStore  = new HashMap<>();
+
+    @Test
+    public void testCachedUntilTtl() throws IOException {
+        RangerKeyVersionCache cache = createCache(Runnable::run);
+
+        keyStore.put(VERSION_NAME, createKeyVersion(1));
+
+        Assertions.assertEquals(1, cache.get(VERSION_NAME).getMaterial()[0]);
+        Assertions.assertEquals(1, cache.get(VERSION_NAME).getMaterial()[0]);
+        Assertions.assertEquals(1, loadCount.get());
+
+        keyStore.put(VERSION_NAME, createKeyVersion(2));
+        clock.addAndGet(TTL_MS);
+
+        Assertions.assertEquals(2, cache.get(VERSION_NAME).getMaterial()[0]);
+        Assertions.assertEquals(2, loadCount.get());
+    }
+
+    @Test
+    public void testRefreshAheadOfExpiry() throws IOException {
+        RangerKeyVersionCache cache = createCache(Runnable::run);
+
+        keyStore.put(VERSION_NAME, createKeyVersion(1));
+
+        cache.get(VERSION_NAME);
+
+        keyStore.put(VERSION_NAME, createKeyVersion(2));
+        clock.addAndGet((long) (TTL_MS * RangerKeyVersionCache.REFRESH_AHEAD_RATIO));
+
+        // served from the cache, while the entry is reloaded
+        Assertions.assertEquals(1, cache.get(VERSION_NAME).getMaterial()[0]);
+        Assertions.assertEquals(2, loadCount.get());
+
+        // the reloaded entry is served past the expiry of the original entry
+        clock.addAndGet(TTL_MS / 2);
+
+        Assertions.assertEquals(2, cache.get(VERSION_NAME).getMaterial()[0]);
+        Assertions.assertEquals(2, loadCount.get());
+    }
+
+    @Test
+    public void testRefreshNotScheduledTwice() throws IOException {
+        AtomicInteger         scheduledCount = new AtomicInteger();
+        RangerKeyVersionCache cache          = createCache(task -> scheduledCount.incrementAndGet());
+
+        keyStore.put(VERSION_NAME, createKeyVersion(1));
+
+        cache.get(VERSION_NAME);
+
+        clock.addAndGet((long) (TTL_MS * RangerKeyVersionCache.REFRESH_AHEAD_RATIO));
+
+        cache.get(VERSION_NAME);
+        cache.get(VERSION_NAME);
+
+        Assertions.assertEquals(1, scheduledCount.get());
+    }
+
+    @Test
+    public void testRemove() throws IOException {
+        RangerKeyVersionCache cache = createCache(Runnable::run);
+
+        keyStore.put(VERSION_NAME, createKeyVersion(1));
+
+        cache.get(VERSION_NAME);
+
+        keyStore.remove(VERSION_NAME);
+        cache.remove(VERSION_NAME);
+
+        Assertions.assertNull(cache.get(VERSION_NAME));
+        Assertions.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testRemoveDuringLoad() throws IOException {
+        RangerKeyVersionCache[] cache = new RangerKeyVersionCache[1];
+
+        // simulates deleteKey() running between the keystore read and the cache update
+        cache[0] = new RangerKeyVersionCache(TTL_MS, versionName -> {
+            KeyVersion ret = createKeyVersion(1);
+
+            cache[0].remove(versionName);
+
+            return ret;
+        }, Runnable::run, clock::get);
+
+        Assertions.assertNotNull(cache[0].get(VERSION_NAME));
+        Assertions.assertEquals(0, cache[0].size());
+    }
+
+    @Test
+    public void testClear() throws IOException {
+        RangerKeyVersionCache cache = createCache(Runnable::run);
+
+        keyStore.put(VERSION_NAME, createKeyVersion(1));
+
+        cache.get(VERSION_NAME);
+
+        // key deleted and recreated in another KMS, seen on keystore reload
+        keyStore.put(VERSION_NAME, createKeyVersion(2));
+        cache.clear();
+
+        Assertions.assertEquals(2, cache.get(VERSION_NAME).getMaterial()[0]);
+        Assertions.assertEquals(2, loadCount.get());
+    }
+
+    @Test
+    public void testMissingKeyNotCached() throws IOException {
+        RangerKeyVersionCache cache = createCache(Runnable::run);
+
+        Assertions.assertNull(cache.get(VERSION_NAME));
+        Assertions.assertNull(cache.get(VERSION_NAME));
+        Assertions.assertEquals(2, loadCount.get());
+        Assertions.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testFailedRefreshKeepsEntry() throws IOException {
+        AtomicInteger         calls = new AtomicInteger();
+        RangerKeyVersionCache cache = new RangerKeyVersionCache(TTL_MS, versionName -> {
+            if (calls.incrementAndGet() > 1) {
+                throw new IOException("keystore unavailable");
+            }
+
+            return createKeyVersion(1);
+        }, Runnable::run, clock::get);
+
+        cache.get(VERSION_NAME);
+
+        clock.addAndGet((long) (TTL_MS * RangerKeyVersionCache.REFRESH_AHEAD_RATIO));
+
+        Assertions.assertEquals(1, cache.get(VERSION_NAME).getMaterial()[0]);
+        Assertions.assertEquals(2, calls.get());
+        Assertions.assertEquals(1, cache.size());
+    }
+
+    private RangerKeyVersionCache createCache(Executor refresher) {
+        return new RangerKeyVersionCache(TTL_MS, versionName -> {
+            loadCount.incrementAndGet();
+
+            return keyStore.get(versionName);
+        }, refresher, clock::get);
+    }
+
+    private static KeyVersion createKeyVersion(int material) {
+        return new KeyVersion("key1", VERSION_NAME, new byte[] {(byte) material});
+    }
+}
@@ -0,0 +1,200 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.crypto.key.kms.server;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.crypto.key.KeyProvider;
+import org.apache.hadoop.crypto.key.KeyProvider.Options;
+import org.apache.hadoop.crypto.key.KeyProviderCryptoExtension;
+import org.apache.hadoop.crypto.key.KeyProviderCryptoExtension.EncryptedKeyVersion;
+import org.apache.hadoop.crypto.key.UserProvider;
+import org.apache.hadoop.crypto.key.kms.server.EagerKeyGeneratorKeyProviderCryptoExtension.EncryptedQueueRefiller;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.security.GeneralSecurityException;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TestEagerKeyGeneratorKeyProviderCryptoExtension {
+    private static final String KEY_NAME = "key1";
+
+    private KeyProviderCryptoExtension keyProvider;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        Configuration conf = new Configuration();
+        KeyProvider   kp   = new UserProvider.Factory().createProvider(new URI("user:///"), conf);
+        Options       opts = new Options(conf);
+
+        opts.setCipher("AES/CTR/NoPadding");
+        opts.setBitLength(128);
+
+        kp.createKey(KEY_NAME, opts);
+
+        keyProvider = KeyProviderCryptoExtension.createKeyProviderCryptoExtension(kp);
+    }
+
+    @Test
+    public void testFirstFillNotBoosted() throws IOException {
+        EncryptedQueueRefiller     refiller = new EncryptedQueueRefiller(keyProvider, 1, 4);
+        Queue<EncryptedKeyVersion> queue    = new LinkedBlockingQueue<>();
+
+        refiller.fillQueueForKey(KEY_NAME, queue, 10);
+
+        Assertions.assertEquals(10, queue.size());
+    }
+
+    @Test
+    public void testRefillBoostedAfterCallerFill() throws IOException {
+        EncryptedQueueRefiller     refiller = new EncryptedQueueRefiller(keyProvider, 1, 4);
+        Queue<EncryptedKeyVersion> queue    = new LinkedBlockingQueue<>();
+
+        refiller.fillQueueForKey(KEY_NAME, queue, 10);
+
+        // a caller found the queue empty: keys generated for the caller are not boosted
+        Queue<EncryptedKeyVersion> callerQueue = new LinkedList<>();
+
+        refiller.setInCallerThread(true);
+
+        try {
+            refiller.fillQueueForKey(KEY_NAME, callerQueue, 3);
+        } finally {
+            refiller.setInCallerThread(false);
+        }
+
+        Assertions.assertEquals(3, callerQueue.size());
+
+        // next refill is boosted, though the queue is not empty
+        Assertions.assertEquals(20, refill(refiller, 10));
+
+        // boost is halved once refills find the queue not drained
+        Assertions.assertEquals(10, refill(refiller, 10));
+    }
+
+    @Test
+    public void testRefillBoostedWhenQueueDrained() throws IOException {
+        EncryptedQueueRefiller refiller = new EncryptedQueueRefiller(keyProvider, 1, 4);
+
+        refiller.fillQueueForKey(KEY_NAME, new LinkedBlockingQueue<>(), 5);
+
+        Assertions.assertEquals(10, refillDrained(refiller, 5));
+        Assertions.assertEquals(20, refillDrained(refiller, 5));
+        Assertions.assertEquals(20, refillDrained(refiller, 5)); // capped at maxRefillBoost
+
+        // queue drained on key roll: next fill is a first fill
+        refiller.reset(KEY_NAME);
+
+        Assertions.assertEquals(5, refillDrained(refiller, 5));
+    }
+
+    @Test
+    public void testParallelFill() throws IOException {
+        EncryptedQueueRefiller     refiller = new EncryptedQueueRefiller(keyProvider, 4, 1);
+        Queue<EncryptedKeyVersion> queue    = new LinkedBlockingQueue<>();
+
+        refiller.fillQueueForKey(KEY_NAME, queue, 11);
+
+        Set<String> ivs = new HashSet<>();
+
+        for (EncryptedKeyVersion edek : queue) {
+            ivs.add(new String(edek.getEncryptedKeyIv()));
+        }
+
+        Assertions.assertEquals(11, queue.size());
+        Assertions.assertEquals(11, ivs.size());
+    }
+
+    @Test
+    public void testParallelFillErrorPropagated() throws Exception {
+        KeyProviderCryptoExtension failingProvider = mock(KeyProviderCryptoExtension.class);
+        AtomicInteger              calls           = new AtomicInteger();
+
+        when(failingProvider.generateEncryptedKey(anyString())).thenAnswer(invocation -> {
+            if (calls.incrementAndGet() == 7) {
+                throw new GeneralSecurityException("generate failed");
+            }
+
+            return keyProvider.generateEncryptedKey(KEY_NAME);
+        });
+
+        EncryptedQueueRefiller     refiller = new EncryptedQueueRefiller(failingProvider, 4, 1);
+        Queue<EncryptedKeyVersion> queue    = new LinkedBlockingQueue<>();
+
+        IOException e = Assertions.assertThrows(IOException.class, () -> refiller.fillQueueForKey(KEY_NAME, queue, 12));
+
+        Assertions.assertTrue(e.getCause() instanceof GeneralSecurityException);
+        Assertions.assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void testWarmUpErrorPropagated() throws Exception {
+        KeyProviderCryptoExtension failingProvider = mock(KeyProviderCryptoExtension.class);
+        Configuration              conf            = new Configuration();
+
+        when(failingProvider.getConf()).thenReturn(conf);
+        when(failingProvider.generateEncryptedKey(anyString())).thenThrow(new GeneralSecurityException("generate failed"));
+
+        conf.setInt(EagerKeyGeneratorKeyProviderCryptoExtension.KMS_KEY_CACHE_FILL_PARALLELISM, 4);
+
+        EagerKeyGeneratorKeyProviderCryptoExtension eagerProvider = new EagerKeyGeneratorKeyProviderCryptoExtension(conf, failingProvider);
+
+        Assertions.assertThrows(IOException.class, () -> eagerProvider.warmUpEncryptedKeys(KEY_NAME));
+    }
+
+    @Test
+    public void testGenerateEncryptedKey() throws Exception {
+        EagerKeyGeneratorKeyProviderCryptoExtension eagerProvider = new EagerKeyGeneratorKeyProviderCryptoExtension(new Configuration(), keyProvider);
+
+        EncryptedKeyVersion edek = eagerProvider.generateEncryptedKey(KEY_NAME);
+
+        Assertions.assertEquals(KEY_NAME, edek.getEncryptionKeyName());
+        Assertions.assertNotNull(eagerProvider.decryptEncryptedKey(edek));
+    }
+
+    // refills an empty queue; returns the number of keys generated
+    private static int refillDrained(EncryptedQueueRefiller refiller, int numKeys) throws IOException {
+        Queue<EncryptedKeyVersion> queue = new LinkedBlockingQueue<>();
+
+        refiller.fillQueueForKey(KEY_NAME, queue, numKeys);
+
+        return queue.size();
+    }
+
+    // refills a queue that still has keys; returns the number of keys generated
+    private static int refill(EncryptedQueueRefiller refiller, int numKeys) throws IOException {
+        Queue<EncryptedKeyVersion> queue = new LinkedBlockingQueue<>();
+
+        queue.add(mock(EncryptedKeyVersion.class));
+
+        refiller.fillQueueForKey(KEY_NAME, queue, numKeys);
+
+        return queue.size() - 1;
+    }
+}
@@ -45,16 +45,21 @@
 import org.apache.ranger.plugin.policyengine.RangerAccessRequestImpl;
 import org.apache.ranger.plugin.policyengine.RangerAccessResourceImpl;
 import org.apache.ranger.plugin.policyengine.RangerAccessResult;
+import org.apache.ranger.plugin.policyengine.RangerAccessResultProcessor;
 import org.apache.ranger.plugin.service.RangerBasePlugin;
+import org.apache.ranger.plugin.util.RangerAccessRequestUtil;
 import org.apache.ranger.plugin.util.RangerPerfTracer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -84,7 +89,8 @@ public class RangerKafkaAuthorizer implements Authorizer {
 
     private static final String KAFKA_SUPER_USERS_PROP = "super.users";
 
-    private static volatile RangerBasePlugin rangerPlugin;
+    private static volatile RangerBasePlugin      rangerPlugin;
+    private static volatile RangerKafkaAuthzCache authzCache;
 
     RangerKafkaAuditHandler auditHandler;
 
@@ -146,6 +152,11 @@ public void configure(Map<String, ?> configs) {
 
                     me.setResultProcessor(auditHandler);
 
+                    authzCache = new RangerKafkaAuthzCache(me.getConfig().getLong(RangerKafkaAuthzCache.PROP_AUTHZ_CACHE_TTL_MS, RangerKafkaAuthzCache.DEFAULT_AUTHZ_CACHE_TTL_MS),
+                            me.getConfig().getInt(RangerKafkaAuthzCache.PROP_AUTHZ_CACHE_MAX_ENTRIES, RangerKafkaAuthzCache.DEFAULT_AUTHZ_CACHE_MAX_ENTRIES));
+
+                    logger.info("AUTHZ_CACHE_ENABLED:[{}], {}", authzCache.isEnabled(), authzCache);
+
                     rangerPlugin = me;
                 }
             }
@@ -211,18 +222,49 @@ public Iterable<AclBinding> acls(AclBindingFilter filter) {
         throw new UnsupportedOperationException("(getting) acls is not supported by Ranger for Kafka");
     }
 
-    // TODO: provide a real implementation (RANGER-3809)
-    // Currently we return a dummy implementation because KAFKA-13598 makes producers idempotent by default and this causes
-    // a failure in the InitProducerId API call on the broker side because of the missing acls() method implementation.
-    // Overriding this with a dummy impl will make Kafka return an authorization error instead of an exception if the
-    // IDEMPOTENT_WRITE permission wasn't set on the producer.
+    // Kafka calls this to find if the principal has the access on any resource of the type - for example, WRITE on any
+    // topic for an idempotent producer without IDEMPOTENT_WRITE on the cluster. This is answered from per-principal
+    // summaries of the policies, without evaluating policies for each resource.
     @Override
     public AuthorizationResult authorizeByResourceType(AuthorizableRequestContext requestContext, AclOperation op, ResourceType resourceType) {
         SecurityUtils.authorizeByResourceTypeCheckArgs(op, resourceType);
 
-        logger.debug("authorizeByResourceType call is not supported by Ranger for Kafka yet");
+        if (rangerPlugin == null) {
+            MiscUtil.logErrorMessageByInterval(logger, "Authorizer is still not initialized");
+
+            return AuthorizationResult.DENIED;
+        }
+
+        String accessType      = mapToRangerAccessType(op);
+        String resourceTypeKey = mapToResourceType(resourceType);
+
+        if (accessType == null || resourceTypeKey == null) {
+            MiscUtil.logErrorMessageByInterval(logger, "Unsupported operation or resource type, requestContext=" + toString(requestContext) + ", operation=" + op + ", resourceType=" + resourceType);
+
+            return AuthorizationResult.DENIED;
+        }
+
+        RangerPerfTracer perf = null;
+
+        if (RangerPerfTracer.isPerfTraceEnabled(PERF_KAFKAAUTH_REQUEST_LOG)) {
+            perf = RangerPerfTracer.getPerfTracer(PERF_KAFKAAUTH_REQUEST_LOG, "RangerKafkaAuthorizer.authorizeByResourceType(operation=" + op + ", resourceType=" + resourceType + ")");
+        }
+
+        try {
+            String      userName   = requestContext.principal() == null ? null : requestContext.principal().getName();
+            Set<String> userGroups = MiscUtil.getGroupsForRequestUser(userName);
+            boolean     isAllowed  = rangerPlugin.isAccessAllowedOnAnyResourceOfType(userName, userGroups, resourceTypeKey, accessType);
+
+            logger.debug("authorizeByResourceType(user={}, operation={}, resourceType={}): isAllowed={}", userName, op, resourceType, isAllowed);
+
+            return isAllowed ? AuthorizationResult.ALLOWED : AuthorizationResult.DENIED;
+        } catch (Throwable t) {
+            logger.error("Error while calling isAccessAllowedOnAnyResourceOfType(). requestContext={}, operation={}, resourceType={}", toString(requestContext), op, resourceType, t);
 
-        return AuthorizationResult.DENIED;
+            return AuthorizationResult.DENIED;
+        } finally {
+            RangerPerfTracer.log(perf);
+        }
     }
 
     private static String mapToRangerAccessType(AclOperation operation) {
@@ -325,15 +367,23 @@ private List<AuthorizationResult> wrappedAuthorization(AuthorizableRequestContex
             return Collections.emptyList();
         }
 
-        String      userName    = requestContext.principal() == null ? null : requestContext.principal().getName();
-        Set<String> userGroups  = MiscUtil.getGroupsForRequestUser(userName);
-        String      hostAddress = requestContext.clientAddress() == null ? null : requestContext.clientAddress().getHostAddress();
-        String      ip          = StringUtils.isNotEmpty(hostAddress) && hostAddress.charAt(0) == '/' ? hostAddress.substring(1) : hostAddress;
-        Date        eventTime   = new Date();
-
+        String                userName      = requestContext.principal() == null ? null : requestContext.principal().getName();
+        String                hostAddress   = requestContext.clientAddress() == null ? null : requestContext.clientAddress().getHostAddress();
+        String                ip            = StringUtils.isNotEmpty(hostAddress) && hostAddress.charAt(0) == '/' ? hostAddress.substring(1) : hostAddress;
+        Date                  eventTime     = new Date();
+        RangerKafkaAuthzCache authzCache    = RangerKafkaAuthorizer.authzCache;
+        String                cacheVersions = authzCache != null && authzCache.isEnabled() ? getAuthzCacheVersions() : null;
+        Set<String>           userGroups    = null; // looked up only if an action needs evaluation
+
+        RangerAccessResult[]      results        = new RangerAccessResult[actions.size()];
+        String[]                  keys           = new String[actions.size()];
+        Map<String, Integer>      evaluatedIndex = new HashMap<>(); // same action repeated in the list is evaluated once
         List<RangerAccessRequest> rangerRequests = new ArrayList<>();
+        List<Integer>             requestIndexes = new ArrayList<>();
+        List<RangerAccessResult>  reusedResults  = new ArrayList<>();
 
-        for (Action action : actions) {
+        for (int i = 0; i < actions.size(); i++) {
+            Action action     = actions.get(i);
             String accessType = mapToRangerAccessType(action.operation());
 
             if (accessType == null) {
@@ -350,20 +400,108 @@ private List<AuthorizationResult> wrappedAuthorization(AuthorizableRequestContex
                 return denyAll(actions);
             }
 
-            RangerAccessRequestImpl rangerAccessRequest = createRangerAccessRequest(userName, userGroups, ip, eventTime, resourceTypeKey, action.resourcePattern().name(), accessType);
+            String             resourceName = action.resourcePattern().name();
+            String             key          = RangerKafkaAuthzCache.getKey(userName, ip, resourceTypeKey, resourceName, accessType);
+            RangerAccessResult cachedResult = cacheVersions != null ? authzCache.get(key, cacheVersions) : null;
+
+            keys[i] = key;
+
+            if (cachedResult != null) {
+                RangerAccessRequestImpl rangerAccessRequest = createRangerAccessRequest(userName, cachedResult.getAccessRequest().getUserGroups(), ip, eventTime, resourceTypeKey, resourceName, accessType);
+
+                results[i] = copyOf(cachedResult, rangerAccessRequest);
+
+                reusedResults.add(results[i]);
+            } else if (!evaluatedIndex.containsKey(key)) {
+                if (userGroups == null) {
+                    userGroups = MiscUtil.getGroupsForRequestUser(userName);
+                }
+
+                RangerAccessRequestImpl rangerAccessRequest = createRangerAccessRequest(userName, userGroups, ip, eventTime, resourceTypeKey, resourceName, accessType);
+
+                evaluatedIndex.put(key, i);
+                rangerRequests.add(rangerAccessRequest);
+                requestIndexes.add(i);
+            }
+        }
+
+        if (!rangerRequests.isEmpty()) {
+            Collection<RangerAccessResult> evaluatedResults = callRangerPlugin(rangerRequests);
+
+            if (CollectionUtils.isEmpty(evaluatedResults)) {
+                logger.error("Ranger Plugin returned null or empty. Returning Denied for all");
+
+                return denyAll(actions);
+            }
+
+            Iterator<RangerAccessResult> iter = evaluatedResults.iterator();
+
+            for (Integer index : requestIndexes) {
+                RangerAccessResult result = iter.hasNext() ? iter.next() : null;
+
+                results[index] = result;
+
+                if (cacheVersions != null && isCacheable(result)) {
+                    authzCache.put(keys[index], cacheVersions, copyOf(result, result.getAccessRequest()));
+                }
+            }
+
+            // results for repeats of an evaluated action
+            for (int i = 0; i < results.length; i++) {
+                if (results[i] == null) {
+                    RangerAccessResult evaluatedResult = results[evaluatedIndex.get(keys[i])];
+
+                    if (evaluatedResult != null) {
+                        results[i] = copyOf(evaluatedResult, evaluatedResult.getAccessRequest());
 
-            rangerRequests.add(rangerAccessRequest);
+                        reusedResults.add(results[i]);
+                    }
+                }
+            }
         }
 
-        Collection<RangerAccessResult> results = callRangerPlugin(rangerRequests);
+        auditReusedResults(reusedResults);
 
-        List<AuthorizationResult> authorizationResults = mapResults(actions, results);
+        List<AuthorizationResult> authorizationResults = mapResults(actions, Arrays.asList(results));
 
-        logger.debug("rangerRequests={}, return={}", rangerRequests, authorizationResults);
+        logger.debug("rangerRequests={}, reusedResults={}, return={}", rangerRequests, reusedResults.size(), authorizationResults);
 
         return authorizationResults;
     }
 
+    // cached results, and results of repeated actions, are audited as if they were evaluated
+    private void auditReusedResults(List<RangerAccessResult> results) {
+        RangerAccessResultProcessor resultProcessor = rangerPlugin.getResultProcessor();
+
+        if (resultProcessor != null && !results.isEmpty()) {
+            try {
+                resultProcessor.processResults(results);
+            } catch (Throwable t) {
+                logger.error("Error while auditing cached results. results={}", results, t);
+            }
+        }
+    }
+
+    private String getAuthzCacheVersions() {
+        RangerBasePlugin plugin = rangerPlugin;
+
+        return plugin.getPoliciesVersion() + ":" + plugin.getTagsVersion() + ":" + plugin.getRolesVersion() + ":" + plugin.getUserStoreVersion();
+    }
+
+    private static RangerAccessResult copyOf(RangerAccessResult result, RangerAccessRequest request) {
+        RangerAccessResult ret = new RangerAccessResult(result.getPolicyType(), result.getServiceName(), result.getServiceDef(), request);
+
+        ret.setAccessResultFrom(result);
+        ret.setAuditResultFrom(result);
+
+        return ret;
+    }
+
+    // results matched by tags are not cached, as audit of a cached result would not include the tags of the resource
+    private static boolean isCacheable(RangerAccessResult result) {
+        return result != null && CollectionUtils.isEmpty(RangerAccessRequestUtil.getRequestTagsFromContext(result.getAccessRequest().getContext()));
+    }
+
     private Collection<RangerAccessResult> callRangerPlugin(List<RangerAccessRequest> rangerRequests) {
         try {
             return rangerPlugin.isAccessAllowed(rangerRequests);
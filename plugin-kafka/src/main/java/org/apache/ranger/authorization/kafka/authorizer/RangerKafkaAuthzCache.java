@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.authorization.kafka.authorizer;
+
+import org.apache.ranger.plugin.policyengine.RangerAccessResult;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Authorization results shared by all request handlers of the broker, so that the same access by a principal - like
+ * publish to a topic, checked for every produce request - doesn't need a policy evaluation each time:
+ *  - results are keyed by principal, client host, resource and access type; groups of the principal are not looked up
+ *    for a cached result
+ *  - all results are discarded when version of policies, tags, roles or userstore changes
+ *  - results expire after ttlMs, to limit the staleness of group memberships and results of time-based conditions
+ *  - cache is cleared on reaching maxEntries
+ * Cached results are audited like evaluated results; enable audit summary (xasecure.audit.provider.summary.enabled)
+ * to aggregate the repeated audit events.
+ */
+class RangerKafkaAuthzCache {
+    public static final String PROP_AUTHZ_CACHE_TTL_MS      = "ranger.kafka.authz.cache.ttl.ms";
+    public static final String PROP_AUTHZ_CACHE_MAX_ENTRIES = "ranger.kafka.authz.cache.max.entries";
+
+    public static final long DEFAULT_AUTHZ_CACHE_TTL_MS      = 0; // disabled
+    public static final int  DEFAULT_AUTHZ_CACHE_MAX_ENTRIES = 100000;
+
+    private final    long                      ttlMs;
+    private final    int                       maxEntries;
+    private final    Map<String, CachedResult> results   = new ConcurrentHashMap<>();
+    private final    AtomicLong                hitCount  = new AtomicLong();
+    private final    AtomicLong                missCount = new AtomicLong();
+    private volatile String                    versions;
+
+    RangerKafkaAuthzCache(long ttlMs, int maxEntries) {
+        this.ttlMs      = ttlMs;
+        this.maxEntries = maxEntries;
+    }
+
+    public static String getKey(String user, String clientIp, String resourceType, String resourceName, String accessType) {
+        return user + '\u0000' + clientIp + '\u0000' + resourceType + '\u0000' + resourceName + '\u0000' + accessType;
+    }
+
+    public boolean isEnabled() {
+        return ttlMs > 0 && maxEntries > 0;
+    }
+
+    /*
+     * versions: versions of policies, tags, roles and userstore used by the plugin at the time of the lookup
+     */
+    public RangerAccessResult get(String key, String versions) {
+        RangerAccessResult ret = null;
+
+        clearIfVersionsChanged(versions);
+
+        CachedResult cached = results.get(key);
+
+        if (cached != null) {
+            if (cached.isExpired() || !versions.equals(cached.versions)) {
+                results.remove(key, cached);
+            } else {
+                ret = cached.result;
+            }
+        }
+
+        if (ret != null) {
+            hitCount.incrementAndGet();
+        } else {
+            missCount.incrementAndGet();
+        }
+
+        return ret;
+    }
+
+    public void put(String key, String versions, RangerAccessResult result) {
+        if (result != null) {
+            clearIfVersionsChanged(versions);
+
+            if (results.size() >= maxEntries) {
+                results.clear();
+            }
+
+            results.put(key, new CachedResult(result, versions, System.currentTimeMillis() + ttlMs));
+        }
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public int size() {
+        return results.size();
+    }
+
+    @Override
+    public String toString() {
+        return "RangerKafkaAuthzCache={ttlMs=" + ttlMs + ", maxEntries=" + maxEntries + ", size=" + results.size() + ", hitCount=" + hitCount.get() + ", missCount=" + missCount.get() + "}";
+    }
+
+    // drops results of earlier versions. Results are also tagged with their versions, as a result computed with
+    // an earlier version can be added after this clear by a concurrent thread
+    private void clearIfVersionsChanged(String versions) {
+        if (!versions.equals(this.versions)) {
+            synchronized (this) {
+                if (!versions.equals(this.versions)) {
+                    results.clear();
+
+                    this.versions = versions;
+                }
+            }
+        }
+    }
+
+    private static class CachedResult {
+        private final RangerAccessResult result;
+        private final String             versions;
+        private final long               expiryTimeMs;
+
+        CachedResult(RangerAccessResult result, String versions, long expiryTimeMs) {
+            this.result       = result;
+            this.versions     = versions;
+            this.expiryTimeMs = expiryTimeMs;
+        }
+
+        boolean isExpired() {
+            return System.currentTimeMillis() >= expiryTimeMs;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.authorization.kafka.authorizer;
+
+import org.apache.ranger.plugin.policyengine.RangerAccessResult;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TestRangerKafkaAuthzCache {
+    private static final String VERSIONS_1 = "1:1:1:1";
+    private static final String VERSIONS_2 = "2:1:1:1";
+
+    @Test
+    public void testKey() {
+        String key = RangerKafkaAuthzCache.getKey("user1", "10.0.0.1", "topic", "orders", "publish");
+
+        assertEquals(key, RangerKafkaAuthzCache.getKey("user1", "10.0.0.1", "topic", "orders", "publish"));
+        assertNotEquals(key, RangerKafkaAuthzCache.getKey("user2", "10.0.0.1", "topic", "orders", "publish"));
+        assertNotEquals(key, RangerKafkaAuthzCache.getKey("user1", "10.0.0.2", "topic", "orders", "publish"));
+        assertNotEquals(key, RangerKafkaAuthzCache.getKey("user1", "10.0.0.1", "consumergroup", "orders", "publish"));
+        assertNotEquals(key, RangerKafkaAuthzCache.getKey("user1", "10.0.0.1", "topic", "orders2", "publish"));
+        assertNotEquals(key, RangerKafkaAuthzCache.getKey("user1", "10.0.0.1", "topic", "orders", "consume"));
+    }
+
+    @Test
+    public void testHitAndMiss() {
+        RangerKafkaAuthzCache cache  = new RangerKafkaAuthzCache(60 * 1000L, 10);
+        RangerAccessResult   result = createResult();
+
+        assertTrue(cache.isEnabled());
+        assertNull(cache.get("key1", VERSIONS_1));
+
+        cache.put("key1", VERSIONS_1, result);
+
+        assertSame(result, cache.get("key1", VERSIONS_1));
+        assertSame(result, cache.get("key1", VERSIONS_1));
+        assertNull(cache.get("key2", VERSIONS_1));
+        assertEquals(2, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    public void testVersionChangeClearsCache() {
+        RangerKafkaAuthzCache cache = new RangerKafkaAuthzCache(60 * 1000L, 10);
+
+        cache.put("key1", VERSIONS_1, createResult());
+        cache.put("key2", VERSIONS_1, createResult());
+
+        assertNull(cache.get("key1", VERSIONS_2));
+        assertEquals(0, cache.size());
+
+        // result computed with earlier versions, added after the cache moved to later versions
+        cache.put("key1", VERSIONS_1, createResult());
+
+        assertNull(cache.get("key1", VERSIONS_2));
+    }
+
+    @Test
+    public void testExpiryAndMaxEntries() throws Exception {
+        RangerKafkaAuthzCache cache = new RangerKafkaAuthzCache(1L, 2);
+
+        cache.put("key1", VERSIONS_1, createResult());
+
+        Thread.sleep(5);
+
+        assertNull(cache.get("key1", VERSIONS_1));
+
+        cache = new RangerKafkaAuthzCache(60 * 1000L, 2);
+
+        cache.put("key1", VERSIONS_1, createResult());
+        cache.put("key2", VERSIONS_1, createResult());
+        cache.put("key3", VERSIONS_1, createResult());
+
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testDisabledByDefault() {
+        assertFalse(new RangerKafkaAuthzCache(RangerKafkaAuthzCache.DEFAULT_AUTHZ_CACHE_TTL_MS, RangerKafkaAuthzCache.DEFAULT_AUTHZ_CACHE_MAX_ENTRIES).isEnabled());
+    }
+
+    private static RangerAccessResult createResult() {
+        return new RangerAccessResult(0, "kafka", null, null);
+    }
+}
@@ -47,6 +47,8 @@
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -186,15 +188,13 @@ public void checkCanAccessCatalog(SystemSecurityContext context, String catalogN
     public Set<String> filterCatalogs(SystemSecurityContext context, Set<String> catalogs) {
         LOG.debug("==> RangerSystemAccessControl.filterCatalogs{}", catalogs);
 
-        Set<String> filteredCatalogs = new HashSet<>(catalogs.size());
+        Map<String, RangerPrestoResource> resources = new LinkedHashMap<>(catalogs.size());
 
         for (String catalog : catalogs) {
-            if (hasPermission(createResource(catalog), context, PrestoAccessType.SELECT)) {
-                filteredCatalogs.add(catalog);
-            }
+            resources.put(catalog, createResource(catalog));
         }
 
-        return filteredCatalogs;
+        return filterByPermission(resources, context, PrestoAccessType.SELECT);
     }
 
     /** PERMISSION CHECKS ORDERED BY SYSTEM, CATALOG, SCHEMA, TABLE, VIEW, COLUMN, QUERY, FUNCTIONS, PROCEDURES **/
@@ -258,15 +258,13 @@ public void checkCanShowSchemas(SystemSecurityContext context, String catalogNam
     public Set<String> filterSchemas(SystemSecurityContext context, String catalogName, Set<String> schemaNames) {
         LOG.debug("==> RangerSystemAccessControl.filterSchemas({}) denied", catalogName);
 
-        Set<String> filteredSchemaNames = new HashSet<>(schemaNames.size());
+        Map<String, RangerPrestoResource> resources = new LinkedHashMap<>(schemaNames.size());
 
         for (String schemaName : schemaNames) {
-            if (hasPermission(createResource(catalogName, schemaName), context, PrestoAccessType.SELECT)) {
-                filteredSchemaNames.add(schemaName);
-            }
+            resources.put(schemaName, createResource(catalogName, schemaName));
         }
 
-        return filteredSchemaNames;
+        return filterByPermission(resources, context, PrestoAccessType.SELECT);
     }
 
     @Override
@@ -343,17 +341,13 @@ public void checkCanShowTables(SystemSecurityContext context, CatalogSchemaName
     public Set<SchemaTableName> filterTables(SystemSecurityContext context, String catalogName, Set<SchemaTableName> tableNames) {
         LOG.debug("==> RangerSystemAccessControl.filterTables({})", catalogName);
 
-        Set<SchemaTableName> filteredTableNames = new HashSet<>(tableNames.size());
+        Map<SchemaTableName, RangerPrestoResource> resources = new LinkedHashMap<>(tableNames.size());
 
         for (SchemaTableName tableName : tableNames) {
-            RangerPrestoResource res = createResource(catalogName, tableName.getSchemaName(), tableName.getTableName());
-
-            if (hasPermission(res, context, PrestoAccessType.SELECT)) {
-                filteredTableNames.add(tableName);
-            }
+            resources.put(tableName, createResource(catalogName, tableName.getSchemaName(), tableName.getTableName()));
         }
 
-        return filteredTableNames;
+        return filterByPermission(resources, context, PrestoAccessType.SELECT);
     }
 
     /**
@@ -368,11 +362,28 @@ public void checkCanShowColumns(SystemSecurityContext context, CatalogSchemaTabl
     }
 
     /**
-     * This is a NOOP, no filtering is applied
+     * Columns are evaluated in one batch; only columns having SELECT access are returned
      */
     @Override
     public List<ColumnMetadata> filterColumns(SystemSecurityContext context, CatalogSchemaTableName table, List<ColumnMetadata> columns) {
-        return columns;
+        LOG.debug("==> RangerSystemAccessControl.filterColumns({})", table);
+
+        Map<String, RangerPrestoResource> resources = new LinkedHashMap<>(columns.size());
+
+        for (ColumnMetadata column : columns) {
+            resources.put(column.getName(), createResource(table.getCatalogName(), table.getSchemaTableName().getSchemaName(), table.getSchemaTableName().getTableName(), Optional.of(column.getName())));
+        }
+
+        Set<String>          allowedColumns  = filterByPermission(resources, context, PrestoAccessType.SELECT);
+        List<ColumnMetadata> filteredColumns = new ArrayList<>(allowedColumns.size());
+
+        for (ColumnMetadata column : columns) {
+            if (allowedColumns.contains(column.getName())) {
+                filteredColumns.add(column);
+            }
+        }
+
+        return filteredColumns;
     }
 
     /**
@@ -413,13 +424,20 @@ public void checkCanRenameColumn(SystemSecurityContext context, CatalogSchemaTab
         }
     }
 
+    /**
+     * Columns are evaluated in one batch, sharing the lookup of table-level policies
+     */
     @Override
     public void checkCanSelectFromColumns(SystemSecurityContext context, CatalogSchemaTableName table, Set<String> columns) {
+        Map<String, RangerPrestoResource> resources = new LinkedHashMap<>();
+
         for (RangerPrestoResource res : createResource(table, columns)) {
-            if (!hasPermission(res, context, PrestoAccessType.SELECT)) {
-                LOG.debug("RangerSystemAccessControl.checkCanSelectFromColumns({}) denied", table.getSchemaTableName().getTableName());
-                AccessDeniedException.denySelectColumns(table.getSchemaTableName().getTableName(), columns);
-            }
+            resources.put(res.getAsString(), res);
+        }
+
+        if (filterByPermission(resources, context, PrestoAccessType.SELECT).size() != resources.size()) {
+            LOG.debug("RangerSystemAccessControl.checkCanSelectFromColumns({}) denied", table.getSchemaTableName().getTableName());
+            AccessDeniedException.denySelectColumns(table.getSchemaTableName().getTableName(), columns);
         }
     }
 
@@ -682,6 +700,40 @@ private boolean hasPermission(RangerPrestoResource resource, SystemSecurityConte
         return ret;
     }
 
+    /*
+     * Evaluates the resources - usually siblings, like tables in a schema - in one batch. User and groups are looked up
+     * once for all the resources.
+     */
+    private <T> Set<T> filterByPermission(Map<T, RangerPrestoResource> resources, SystemSecurityContext context, PrestoAccessType accessType) {
+        Set<T> ret = new HashSet<>(resources.size());
+
+        if (!resources.isEmpty()) {
+            List<RangerPrestoAccessRequest>   requests      = new ArrayList<>(resources.size());
+            Map<RangerPrestoAccessRequest, T> requestToName = new IdentityHashMap<>(resources.size());
+            RangerPrestoAccessRequest         firstRequest  = null;
+
+            for (Map.Entry<T, RangerPrestoResource> entry : resources.entrySet()) {
+                RangerPrestoAccessRequest request;
+
+                if (firstRequest == null) {
+                    request      = createAccessRequest(entry.getValue(), context, accessType);
+                    firstRequest = request;
+                } else {
+                    request = new RangerPrestoAccessRequest(entry.getValue(), firstRequest.getUser(), firstRequest.getUserGroups(), accessType);
+                }
+
+                requests.add(request);
+                requestToName.put(request, entry.getKey());
+            }
+
+            for (RangerPrestoAccessRequest request : rangerPlugin.filterResources(requests, rangerPlugin.getResultProcessor())) {
+                ret.add(requestToName.get(request));
+            }
+        }
+
+        return ret;
+    }
+
     private static RangerPrestoResource createUserResource(String userName) {
         RangerPrestoResource res = new RangerPrestoResource();
 
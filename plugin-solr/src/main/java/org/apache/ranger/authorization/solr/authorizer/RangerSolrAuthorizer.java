@@ -41,6 +41,7 @@
 import org.apache.solr.core.SolrCore;
 import org.apache.solr.handler.component.ResponseBuilder;
 import org.apache.solr.handler.component.SearchComponent;
+import org.apache.solr.metrics.SolrMetricsContext;
 import org.apache.solr.request.LocalSolrQueryRequest;
 import org.apache.solr.request.SolrQueryRequest;
 import org.apache.solr.security.AuthorizationContext;
@@ -82,6 +83,7 @@ public class RangerSolrAuthorizer extends SearchComponent implements Authorizati
     private boolean enabled;
 
     private RangerSolrConstants.MatchType matchMode;
+    private RangerSolrFilterQueryCache    filterQueryCache = new RangerSolrFilterQueryCache(0);
 
     String  proxyIPHeader = "HTTP_X_FORWARDED_FOR";
     String  solrAppName   = "Client";
@@ -366,57 +368,21 @@ public void prepare(ResponseBuilder rb) {
             return;
         }
 
-        RangerSolrAuditHandler auditHandler = new RangerSolrAuditHandler(solrPlugin.getConfig());
-        boolean                isDenied     = false;
+        RangerSolrAuditHandler auditHandler  = new RangerSolrAuditHandler(solrPlugin.getConfig());
+        Set<String>            userGroups    = getGroupsForUser(userName);
+        List<String>           filterQueries = filterQueryCache.getFilterQueries(RangerSolrFilterQueryCache.getKey(userName, userGroups), getFilterCacheVersions(), () -> buildFilterQueries(userName, userGroups));
+        boolean                isDenied      = filterQueries == null;
 
-        if (attrsEnabled) {
-            logger.debug("Checking Ldap attributes to be added to the query filter");
-
-            if (getUserStoreEnricher() == null || getUserStoreEnricher().getRangerUserStore() == null) {
-                logger.error("No User store enricher to read the ldap attributes");
+        if (filterQueries != null && !filterQueries.isEmpty()) {
+            ModifiableSolrParams newParams = new ModifiableSolrParams(rb.req.getParams());
 
-                isDenied = true;
+            for (String filterQuery : filterQueries) {
+                newParams.add("fq", filterQuery);
             }
 
-            // Ranger UserStore info for user/group attributes
-            Map<String, Map<String, String>> userAttrMapping = getUserStoreEnricher().getRangerUserStore().getUserAttrMapping();
-            if (MapUtils.isNotEmpty(userAttrMapping)) {
-                ModifiableSolrParams newParams      = new ModifiableSolrParams(rb.req.getParams());
-                Map<String, String>  userAttributes = userAttrMapping.get(userName);
-
-                for (FieldToAttributeMapping mapping : fieldAttributeMappings) {
-                    String filterQuery = buildFilterQueryString(userName, userAttributes, mapping);
-
-                    logger.debug("Adding filter clause : {}", filterQuery);
-
-                    newParams.add("fq", filterQuery);
-                }
-
-                rb.req.setParams(newParams);
-            }
-        } else {
-            logger.debug("Checking User roles to be added to the query filter");
-
-            Set<String> roles = getRolesForUser(userName);
-
-            if (roles != null && !roles.isEmpty()) {
-                String filterQuery;
-
-                if (matchMode == RangerSolrConstants.MatchType.DISJUNCTIVE) {
-                    filterQuery = getDisjunctiveFilterQueryStr(roles);
-                } else {
-                    filterQuery = getConjunctiveFilterQueryStr(roles);
-                }
+            rb.req.setParams(newParams);
 
-                ModifiableSolrParams newParams = new ModifiableSolrParams(rb.req.getParams());
-
-                newParams.add("fq", filterQuery);
-                rb.req.setParams(newParams);
-
-                logger.debug("Adding filter query {{}} for user {{}} with roles {{}}", filterQuery, userName, roles);
-            } else {
-                isDenied = true;
-            }
+            logger.debug("Added filter queries {} for user {{}}", filterQueries, userName);
         }
 
         HttpServletRequest httpServletRequest = (HttpServletRequest) rb.req.getContext().get("httpRequest");
@@ -444,7 +410,7 @@ public void prepare(ResponseBuilder rb) {
         }
 
         try {
-            RangerAccessRequestImpl rangerRequest = createQueryRequest(userName, getGroupsForUser(userName), ip, eventTime, rb.req);
+            RangerAccessRequestImpl rangerRequest = createQueryRequest(userName, userGroups, ip, eventTime, rb.req);
 
             if (isDenied) {
                 RangerAccessResult result = new RangerAccessResult(RangerPolicy.POLICY_TYPE_ACCESS, solrPlugin.getServiceName(), solrPlugin.getServiceDef(), rangerRequest);
@@ -491,9 +457,10 @@ public void init(NamedList args) {
             this.tokenCountField   = params.get(RangerSolrConstants.TOKEN_COUNT_PROP, RangerSolrConstants.DEFAULT_TOKEN_COUNT_FIELD_PROP);
         }
 
-        this.attrsEnabled = params.getBool(RangerSolrConstants.ATTRS_ENABLED_PROP, false);
+        this.attrsEnabled     = params.getBool(RangerSolrConstants.ATTRS_ENABLED_PROP, false);
+        this.filterQueryCache = new RangerSolrFilterQueryCache(params.getInt(RangerSolrConstants.FILTER_CACHE_MAX_ENTRIES_PROP, RangerSolrFilterQueryCache.DEFAULT_MAX_ENTRIES));
 
-        logger.info("RangerSolrAuthorizer.init(): authField={{}}, allRolesToken={{}}, enabled={{}}, matchType={{}}, qParserName={{}}, allowMissingValue={{}}, tokenCountField={{}}, attrsEnabled={{}}", authField, allRolesToken, enabled, matchMode, qParserName, allowMissingValue, tokenCountField, attrsEnabled);
+        logger.info("RangerSolrAuthorizer.init(): authField={{}}, allRolesToken={{}}, enabled={{}}, matchType={{}}, qParserName={{}}, allowMissingValue={{}}, tokenCountField={{}}, attrsEnabled={{}}, filterQueryCache={{}}", authField, allRolesToken, enabled, matchMode, qParserName, allowMissingValue, tokenCountField, attrsEnabled, filterQueryCache);
 
         if (attrsEnabled) {
             if (params.get(RangerSolrConstants.FIELD_ATTR_MAPPINGS) != null) {
@@ -529,6 +496,20 @@ public String getDescription() {
         return "Handle Query Document Authorization";
     }
 
+    @Override
+    public void initializeMetrics(SolrMetricsContext parentContext, String scope) {
+        super.initializeMetrics(parentContext, scope);
+
+        SolrMetricsContext metricsContext = getSolrMetricsContext();
+
+        if (metricsContext != null) {
+            metricsContext.gauge(() -> filterQueryCache.getHitCount(), true, "filterCacheHits", getCategory().toString(), scope);
+            metricsContext.gauge(() -> filterQueryCache.getMissCount(), true, "filterCacheMisses", getCategory().toString(), scope);
+            metricsContext.gauge(() -> filterQueryCache.size(), true, "filterCacheSize", getCategory().toString(), scope);
+            metricsContext.gauge(() -> filterQueryCache.getGenerationTimeMs(), true, "filterGenerationTimeMs", getCategory().toString(), scope);
+        }
+    }
+
     private void authToJAASFile() {
         try {
             MiscUtil.setUGIFromJAASConfig(solrAppName);
@@ -745,9 +726,9 @@ private String getConjunctiveFilterQueryStr(Set<String> roles) {
         return filterQuery.toString();
     }
 
-    private Set<String> getRolesForUser(String name) {
+    private Set<String> getRolesForUser(String name, Set<String> userGroups) {
         if (solrPlugin.getCurrentRangerAuthContext() != null) {
-            return solrPlugin.getRolesFromUserAndGroups(name, getGroupsForUser(name));
+            return solrPlugin.getRolesFromUserAndGroups(name, userGroups);
         } else {
             logger.info("Current Ranger Auth Context is null!!");
 
@@ -828,9 +809,81 @@ private <T> T getWithDefault(NamedList args, String key, T defaultValue) {
         }
     }
 
-    private String buildFilterQueryString(String userName, Map<String, String> userAttributes, FieldToAttributeMapping mapping) {
+    /*
+     * Returns filter queries to be added to search requests of the user; null if the user is to be denied access
+     */
+    private List<String> buildFilterQueries(String userName, Set<String> userGroups) {
+        RangerPerfTracer perf = null;
+
+        if (RangerPerfTracer.isPerfTraceEnabled(RangerSolrConstants.PERF_SOLRAUTH_FILTER_LOG)) {
+            perf = RangerPerfTracer.getPerfTracer(RangerSolrConstants.PERF_SOLRAUTH_FILTER_LOG, "RangerSolrAuthorizer.buildFilterQueries(user=" + userName + ")");
+        }
+
+        List<String> ret = new ArrayList<>();
+
+        try {
+            if (attrsEnabled) {
+                logger.debug("Checking Ldap attributes to be added to the query filter");
+
+                RangerUserStoreEnricher userStoreEnricher = getUserStoreEnricher();
+
+                if (userStoreEnricher == null || userStoreEnricher.getRangerUserStore() == null) {
+                    logger.error("No User store enricher to read the ldap attributes");
+
+                    return null;
+                }
+
+                // Ranger UserStore info for user/group attributes
+                Map<String, Map<String, String>> userAttrMapping = userStoreEnricher.getRangerUserStore().getUserAttrMapping();
+
+                if (MapUtils.isNotEmpty(userAttrMapping)) {
+                    Map<String, String> userAttributes = userAttrMapping.get(userName);
+
+                    for (FieldToAttributeMapping mapping : fieldAttributeMappings) {
+                        String filterQuery = buildFilterQueryString(userAttributes, userGroups, mapping);
+
+                        logger.debug("Adding filter clause : {}", filterQuery);
+
+                        ret.add(filterQuery);
+                    }
+                }
+            } else {
+                logger.debug("Checking User roles to be added to the query filter");
+
+                Set<String> roles = getRolesForUser(userName, userGroups);
+
+                if (roles == null || roles.isEmpty()) {
+                    return null;
+                }
+
+                String filterQuery;
+
+                if (matchMode == RangerSolrConstants.MatchType.DISJUNCTIVE) {
+                    filterQuery = getDisjunctiveFilterQueryStr(roles);
+                } else {
+                    filterQuery = getConjunctiveFilterQueryStr(roles);
+                }
+
+                logger.debug("Adding filter query {{}} for user {{}} with roles {{}}", filterQuery, userName, roles);
+
+                ret.add(filterQuery);
+            }
+        } finally {
+            RangerPerfTracer.log(perf);
+        }
+
+        return ret;
+    }
+
+    private String getFilterCacheVersions() {
+        RangerBasePlugin plugin = solrPlugin;
+
+        return plugin.getPoliciesVersion() + ":" + plugin.getRolesVersion() + ":" + plugin.getUserStoreVersion();
+    }
+
+    private String buildFilterQueryString(Map<String, String> userAttributes, Set<String> userGroups, FieldToAttributeMapping mapping) {
         String             fieldName       = mapping.getFieldName();
-        Collection<String> attributeValues = getUserAttributesForField(userName, userAttributes, mapping);
+        Collection<String> attributeValues = getUserAttributesForField(userAttributes, userGroups, mapping);
 
         switch (mapping.getFilterType()) {
             case OR:
@@ -846,12 +899,12 @@ private String buildFilterQueryString(String userName, Map<String, String> userA
         }
     }
 
-    private Collection<String> getUserAttributesForField(String userName, Map<String, String> userAttributes, FieldToAttributeMapping mapping) {
+    private Collection<String> getUserAttributesForField(Map<String, String> userAttributes, Set<String> userGroups, FieldToAttributeMapping mapping) {
         Set<String> userAttributesSubset = new HashSet<>();
 
         if (CollectionUtils.isNotEmpty(mapping.getAttributes())) {
-            if (mapping.getAttributes().contains("groups")) {
-                userAttributesSubset.addAll(getGroupsForUser(userName));
+            if (mapping.getAttributes().contains("groups") && userGroups != null) {
+                userAttributesSubset.addAll(userGroups);
             }
         }
 
@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.authorization.solr.authorizer;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/*
+ * Document-level filter queries generated for users, so that roles/attributes of a user don't need to be looked up
+ * and the filter queries rebuilt for every search request:
+ *  - filters are keyed by user and groups; as groups are part of the key, a change in group membership doesn't
+ *    return a stale filter
+ *  - all filters are discarded when version of policies, roles or userstore changes
+ *  - cache is cleared on reaching maxEntries
+ * A null list of filter queries denotes that the user is to be denied access.
+ */
+class RangerSolrFilterQueryCache {
+    public static final int DEFAULT_MAX_ENTRIES = 10000;
+
+    private final    int                        maxEntries;
+    private final    Map<String, CachedFilters> filters          = new ConcurrentHashMap<>();
+    private final    AtomicLong                 hitCount         = new AtomicLong();
+    private final    AtomicLong                 missCount        = new AtomicLong();
+    private final    AtomicLong                 generationTimeNs = new AtomicLong();
+    private volatile String                     versions;
+
+    RangerSolrFilterQueryCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public static String getKey(String userName, Set<String> userGroups) {
+        StringBuilder sb = new StringBuilder(userName == null ? "" : userName);
+
+        if (userGroups != null) {
+            for (String group : new TreeSet<>(userGroups)) {
+                sb.append('\u0000').append(group);
+            }
+        }
+
+        return sb.toString();
+    }
+
+    public boolean isEnabled() {
+        return maxEntries > 0;
+    }
+
+    /*
+     * versions: versions of policies, roles and userstore used by the plugin at the time of the lookup
+     * generator: builds filter queries for the user, when not found in the cache
+     */
+    public List<String> getFilterQueries(String key, String versions, Supplier<List<String>> generator) {
+        if (isEnabled()) {
+            clearIfVersionsChanged(versions);
+
+            CachedFilters cached = filters.get(key);
+
+            if (cached != null && versions.equals(cached.versions)) {
+                hitCount.incrementAndGet();
+
+                return cached.filterQueries;
+            }
+        }
+
+        missCount.incrementAndGet();
+
+        long         startTimeNs = System.nanoTime();
+        List<String> ret         = generator.get();
+
+        generationTimeNs.addAndGet(System.nanoTime() - startTimeNs);
+
+        if (ret != null) {
+            ret = Collections.unmodifiableList(ret);
+        }
+
+        if (isEnabled()) {
+            if (filters.size() >= maxEntries) {
+                filters.clear();
+            }
+
+            filters.put(key, new CachedFilters(ret, versions));
+        }
+
+        return ret;
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public long getGenerationTimeMs() {
+        return generationTimeNs.get() / 1000000;
+    }
+
+    public int size() {
+        return filters.size();
+    }
+
+    @Override
+    public String toString() {
+        return "RangerSolrFilterQueryCache={maxEntries=" + maxEntries + ", size=" + filters.size() + ", hitCount=" + hitCount.get() + ", missCount=" + missCount.get() + ", generationTimeMs=" + getGenerationTimeMs() + "}";
+    }
+
+    // drops filters of earlier versions. Filters are also tagged with their versions, as a filter generated with
+    // an earlier version can be added after this clear by a concurrent thread
+    private void clearIfVersionsChanged(String versions) {
+        if (!versions.equals(this.versions)) {
+            synchronized (this) {
+                if (!versions.equals(this.versions)) {
+                    filters.clear();
+
+                    this.versions = versions;
+                }
+            }
+        }
+    }
+
+    private static class CachedFilters {
+        private final List<String> filterQueries;
+        private final String       versions;
+
+        CachedFilters(List<String> filterQueries, String versions) {
+            this.filterQueries = filterQueries;
+            this.versions      = versions;
+        }
+    }
+}
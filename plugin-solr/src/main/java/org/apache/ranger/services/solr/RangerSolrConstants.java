@@ -29,6 +29,7 @@
 public class RangerSolrConstants {
     // Constants from RangerSolrAuthorizer
     public static final Logger PERF_SOLRAUTH_REQUEST_LOG = RangerPerfTracer.getPerfLogger("solrauth.request");
+    public static final Logger PERF_SOLRAUTH_FILTER_LOG  = RangerPerfTracer.getPerfLogger("solrauth.filter");
     public static final String SUPERUSER                 = System.getProperty("solr.authorization.superuser", "solr");
 
     public static final String AUTH_FIELD_PROP      = "rangerAuthField";
@@ -42,6 +43,7 @@ public class RangerSolrConstants {
     public static final String TOKEN_COUNT_PROP               = "tokenCountField";
     public static final String DEFAULT_TOKEN_COUNT_FIELD_PROP = "ranger_auth_count";
     public static final String QPARSER_PROP                   = "qParser";
+    public static final String FILTER_CACHE_MAX_ENTRIES_PROP  = "filterCacheMaxEntries";
 
     public static final String PROP_USE_PROXY_IP      = "xasecure.solr.use_proxy_ip";
     public static final String PROP_PROXY_IP_HEADER   = "xasecure.solr.proxy_ip_header";
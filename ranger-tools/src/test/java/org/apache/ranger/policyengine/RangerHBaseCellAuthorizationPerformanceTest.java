@@ -0,0 +1,231 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.policyengine;
+
+import com.google.gson.Gson;
+import org.apache.hadoop.thirdparty.com.google.common.base.Charsets;
+import org.apache.hadoop.thirdparty.com.google.common.collect.Iterables;
+import org.apache.hadoop.thirdparty.com.google.common.collect.Lists;
+import org.apache.hadoop.thirdparty.com.google.common.collect.Sets;
+import org.apache.hadoop.thirdparty.com.google.common.io.Files;
+import org.apache.ranger.audit.model.AuthzAuditEvent;
+import org.apache.ranger.authorization.hadoop.config.RangerPluginConfig;
+import org.apache.ranger.plugin.audit.RangerDefaultAuditHandler;
+import org.apache.ranger.plugin.model.RangerPolicy;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyItem;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyItemAccess;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyResource;
+import org.apache.ranger.plugin.model.RangerServiceDef;
+import org.apache.ranger.plugin.policyengine.RangerAccessRequestImpl;
+import org.apache.ranger.plugin.policyengine.RangerAccessResourceImpl;
+import org.apache.ranger.plugin.policyengine.RangerAccessResult;
+import org.apache.ranger.plugin.policyengine.RangerPluginContext;
+import org.apache.ranger.plugin.policyengine.RangerPolicyEngineImpl;
+import org.apache.ranger.plugin.util.ServicePolicies;
+import org.apache.ranger.policyengine.perftest.v2.RangerPolicyFactory;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A parameterized JUnit test that measures the per-cell cost of authorizing the cells of a scan of an HBase table, when the
+ * table's column-families are authorized at cell level by RangerAuthorizationFilter.
+ * Each scan is measured twice: evaluating the policies for every cell, and evaluating them once per column with the decision
+ * and audit event held for the rest of the scan, as RangerAuthorizationFilter does for up to MAX_COLUMN_ACCESS_MEMO_SIZE columns.
+ * ranger-tools doesn't depend on the HBase plugin, so the memo is modelled here on the policy engine the filter authorizes with.
+ */
+@RunWith(Parameterized.class)
+public class RangerHBaseCellAuthorizationPerformanceTest {
+    private static final String SERVICE_NAME = "cl1_hbase";
+    private static final String TABLE_NAME   = "table0";
+    private static final String FAMILY_NAME  = "family0";
+    private static final String USER_NAME    = "user1";
+    private static final int    ROW_COUNT    = 100;
+
+    /* pre-warming unit-under-test's method with this many scans, so all possible JIT optimization happen before measuring performance */
+    private static final int WARM_UP__ITERATIONS = 20;
+
+    private static RangerServiceDef serviceDef;
+
+    @Parameter(0)
+    public Integer numberOfPolicies;
+
+    @Parameter(1)
+    public Integer columnsPerRow;
+
+    private final RangerDefaultAuditHandler auditHandler = new RangerDefaultAuditHandler();
+
+    /**
+     * Generates a cross product of number-of-policies X columns-per-row parameter sets.
+     *
+     * @returns a collection of "tuples" (Object[]) of numberOfPolicies and columnsPerRow for the given test run
+     */
+    @Parameters(name = "{index}: scan(policies: {0}, columns per row: {1})")
+    public static Iterable<Object[]> data() {
+        // tree set for maintaining natural ordering
+        Set<Integer> policies      = Sets.newTreeSet(Lists.newArrayList(10, 100, 1_000));
+        Set<Integer> columnsPerRow = Sets.newTreeSet(Lists.newArrayList(10, 100, 1_000));
+
+        return Iterables.transform(Sets.cartesianProduct(policies, columnsPerRow), List::toArray);
+    }
+
+    @BeforeClass
+    public static void init() throws IOException {
+        try (InputStream in = RangerHBaseCellAuthorizationPerformanceTest.class.getResourceAsStream("/service-defs/ranger-servicedef-hbase.json")) {
+            serviceDef = new Gson().fromJson(new InputStreamReader(in, Charsets.UTF_8), RangerServiceDef.class);
+        }
+
+        Files.write("policies;columns-per-row;cells;per-cell-ns;memoized-per-cell-ns;\n", outputFile(), Charsets.UTF_8);
+    }
+
+    @Test
+    public void cellAuthorizationTest() throws IOException {
+        RangerPluginContext    pluginContext      = new RangerPluginContext(new RangerPluginConfig("hbase", SERVICE_NAME, "perf-test", "cl1", "on-prem", RangerPolicyFactory.createPolicyEngineOption()));
+        RangerPolicyEngineImpl rangerPolicyEngine = new RangerPolicyEngineImpl(createServicePolicies(numberOfPolicies), pluginContext, null);
+
+        for (int iterations = 0; iterations < WARM_UP__ITERATIONS; iterations++) {
+            System.identityHashCode(scan(rangerPolicyEngine));
+            System.identityHashCode(scanMemoized(rangerPolicyEngine));
+        }
+
+        long cellCount = (long) ROW_COUNT * columnsPerRow;
+        long startTime = System.nanoTime();
+
+        // using the audit events with a cheap operation: System#identityHashCode so JIT wont remove the scan as dead code
+        System.identityHashCode(scan(rangerPolicyEngine));
+
+        long perCellNs = (System.nanoTime() - startTime) / cellCount;
+
+        startTime = System.nanoTime();
+
+        System.identityHashCode(scanMemoized(rangerPolicyEngine));
+
+        long memoizedPerCellNs = (System.nanoTime() - startTime) / cellCount;
+
+        Files.append(String.format("%s;%s;%s;%s;%s;\n", numberOfPolicies, columnsPerRow, cellCount, perCellNs, memoizedPerCellNs), outputFile(), Charsets.UTF_8);
+    }
+
+    // authorizes every cell of the scan, and creates an audit event for each allowed access
+    private List<AuthzAuditEvent> scan(RangerPolicyEngineImpl rangerPolicyEngine) {
+        List<AuthzAuditEvent> ret = new ArrayList<>();
+
+        for (int row = 0; row < ROW_COUNT; row++) {
+            for (int col = 0; col < columnsPerRow; col++) {
+                AuthzAuditEvent auditEvent = authorize(rangerPolicyEngine, "column" + col);
+
+                if (auditEvent != null) {
+                    ret.add(auditEvent);
+                }
+            }
+        }
+
+        return ret;
+    }
+
+    // authorizes each column once in the scan; later accesses of an allowed column are counted in the column's audit event
+    private List<AuthzAuditEvent> scanMemoized(RangerPolicyEngineImpl rangerPolicyEngine) {
+        Map<String, Boolean>         columnAccessMemo   = new HashMap<>();
+        Map<String, AuthzAuditEvent> pendingAuditEvents = new HashMap<>();
+
+        for (int row = 0; row < ROW_COUNT; row++) {
+            for (int col = 0; col < columnsPerRow; col++) {
+                String          column     = "column" + col;
+                AuthzAuditEvent auditEvent = pendingAuditEvents.get(column);
+
+                if (auditEvent != null) {
+                    auditEvent.setEventCount(auditEvent.getEventCount() + 1);
+                } else if (!columnAccessMemo.containsKey(column)) {
+                    auditEvent = authorize(rangerPolicyEngine, column);
+
+                    columnAccessMemo.put(column, auditEvent != null);
+
+                    if (auditEvent != null) {
+                        pendingAuditEvents.put(column, auditEvent);
+                    }
+                }
+            }
+        }
+
+        return new ArrayList<>(pendingAuditEvents.values());
+    }
+
+    private AuthzAuditEvent authorize(RangerPolicyEngineImpl rangerPolicyEngine, String column) {
+        RangerAccessResourceImpl resource = new RangerAccessResourceImpl();
+
+        resource.setValue("table", TABLE_NAME);
+        resource.setValue("column-family", FAMILY_NAME);
+        resource.setValue("column", column);
+
+        RangerAccessRequestImpl request = new RangerAccessRequestImpl(resource, "read", USER_NAME, Collections.emptySet(), null);
+        RangerAccessResult      result  = rangerPolicyEngine.evaluatePolicies(request, RangerPolicy.POLICY_TYPE_ACCESS, null);
+
+        return result.getIsAllowed() && result.getIsAudited() ? auditHandler.getAuthzEvents(result) : null;
+    }
+
+    // one policy allowing the user to read the scanned table, and the rest on other tables
+    private static ServicePolicies createServicePolicies(int numberOfPolicies) {
+        List<RangerPolicy> policies = new ArrayList<>();
+
+        for (int i = 0; i < numberOfPolicies; i++) {
+            Map<String, RangerPolicyResource> resources = new HashMap<>();
+
+            resources.put("table", new RangerPolicyResource("table" + i));
+            resources.put("column-family", new RangerPolicyResource("*"));
+            resources.put("column", new RangerPolicyResource("*"));
+
+            RangerPolicyItem policyItem = new RangerPolicyItem(Collections.singletonList(new RangerPolicyItemAccess("read")), Collections.singletonList(USER_NAME), null, null, null, false);
+            RangerPolicy     policy     = new RangerPolicy();
+
+            policy.setId((long) i + 1);
+            policy.setService(SERVICE_NAME);
+            policy.setName("policy" + i);
+            policy.setResources(resources);
+            policy.setPolicyItems(Collections.singletonList(policyItem));
+
+            policies.add(policy);
+        }
+
+        ServicePolicies ret = new ServicePolicies();
+
+        ret.setServiceName(SERVICE_NAME);
+        ret.setServiceDef(serviceDef);
+        ret.setPolicies(policies);
+
+        return ret;
+    }
+
+    private static File outputFile() {
+        return new File("target", "ranger-hbase-cell-authorization-performance.csv");
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger;
+
+import org.apache.commons.lang.SerializationUtils;
+import org.apache.ranger.common.PropertiesUtil;
+import org.apache.ranger.common.SearchCriteria;
+import org.apache.ranger.view.VXAccessAuditList;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/*
+ * Short-lived cache of access-audit search results, keyed by normalized search criteria:
+ *  - result pages, so that repeated requests for the same page (like UI refresh) are not sent to the audit store.
+ *    Callers update the returned page (like AssetREST setting zonedEventTime), hence copies are stored and returned.
+ *    Disabled by default; enable by setting ranger.audit.search.page.cache.ttl.ms
+ *  - cursors (Solr cursorMark, Elasticsearch search_after) pointing to the end of fetched pages, so that the next
+ *    page can be fetched without the audit store having to skip over all the earlier results
+ */
+public class AccessAuditsSearchCache<C> {
+    public static final String PROP_PAGE_CACHE_TTL_MS = "ranger.audit.search.page.cache.ttl.ms";
+    public static final String PROP_CURSOR_TTL_MS     = "ranger.audit.search.cursor.ttl.ms";
+    public static final String PROP_MAX_ENTRIES       = "ranger.audit.search.cache.max.entries";
+
+    private final long                                        pageTtlMs;
+    private final long                                        cursorTtlMs;
+    private final Map<String, CachedValue<VXAccessAuditList>> pages;
+    private final Map<String, CachedValue<Cursor<C>>>          cursors;
+
+    public AccessAuditsSearchCache() {
+        this(PropertiesUtil.getLongProperty(PROP_PAGE_CACHE_TTL_MS, 0L), PropertiesUtil.getLongProperty(PROP_CURSOR_TTL_MS, 10 * 60 * 1000L), PropertiesUtil.getIntProperty(PROP_MAX_ENTRIES, 1000));
+    }
+
+    public AccessAuditsSearchCache(long pageTtlMs, long cursorTtlMs, int maxEntries) {
+        this.pageTtlMs   = pageTtlMs;
+        this.cursorTtlMs = cursorTtlMs;
+        this.pages       = createLruMap(maxEntries);
+        this.cursors     = createLruMap(maxEntries);
+    }
+
+    public boolean isCursorEnabled() {
+        return cursorTtlMs > 0;
+    }
+
+    /*
+     * Returns a key that is the same for search criteria that differ only in the requested page
+     */
+    public String getQueryKey(SearchCriteria searchCriteria) {
+        StringBuilder       sb     = new StringBuilder();
+        Map<String, Object> params = searchCriteria.getParamList() != null ? new TreeMap<>(searchCriteria.getParamList()) : Collections.emptyMap();
+
+        sb.append("sortBy=").append(searchCriteria.getSortBy()).append(";sortType=").append(searchCriteria.getSortType());
+
+        for (Map.Entry<String, Object> entry : params.entrySet()) {
+            sb.append(';').append(entry.getKey()).append('=').append(normalize(entry.getValue()));
+        }
+
+        return sb.toString();
+    }
+
+    public VXAccessAuditList getPage(String queryKey, int startIndex, int maxRows) {
+        VXAccessAuditList page = getValue(pages, getPageKey(queryKey, startIndex, maxRows));
+
+        return page != null ? copyOf(page) : null;
+    }
+
+    public void putPage(String queryKey, int startIndex, int maxRows, VXAccessAuditList page) {
+        if (pageTtlMs > 0 && page != null) {
+            putValue(pages, getPageKey(queryKey, startIndex, maxRows), copyOf(page), pageTtlMs);
+        }
+    }
+
+    /*
+     * Returns the cursor to fetch results starting at startIndex, if one was saved by an earlier search
+     */
+    public Cursor<C> getCursor(String queryKey, int startIndex) {
+        return getValue(cursors, getCursorKey(queryKey, startIndex));
+    }
+
+    public void putCursor(String queryKey, int startIndex, C cursor, long totalCount) {
+        if (cursorTtlMs > 0 && cursor != null) {
+            putValue(cursors, getCursorKey(queryKey, startIndex), new Cursor<>(cursor, totalCount), cursorTtlMs);
+        }
+    }
+
+    private static String getPageKey(String queryKey, int startIndex, int maxRows) {
+        return queryKey + ";startIndex=" + startIndex + ";maxRows=" + maxRows;
+    }
+
+    private static String getCursorKey(String queryKey, int startIndex) {
+        return queryKey + ";startIndex=" + startIndex;
+    }
+
+    private static VXAccessAuditList copyOf(VXAccessAuditList page) {
+        return (VXAccessAuditList) SerializationUtils.clone(page);
+    }
+
+    private static Object normalize(Object value) {
+        final Object ret;
+
+        if (value instanceof Date) {
+            ret = ((Date) value).getTime();
+        } else if (value instanceof Collection) {
+            List<String> values = new ArrayList<>();
+
+            for (Object val : (Collection<?>) value) {
+                values.add(String.valueOf(normalize(val)));
+            }
+
+            Collections.sort(values);
+
+            ret = values;
+        } else {
+            ret = value;
+        }
+
+        return ret;
+    }
+
+    private static <V> V getValue(Map<String, CachedValue<V>> cache, String key) {
+        final CachedValue<V> cachedValue;
+
+        synchronized (cache) {
+            cachedValue = cache.get(key);
+
+            if (cachedValue != null && cachedValue.isExpired()) {
+                cache.remove(key);
+
+                return null;
+            }
+        }
+
+        return cachedValue != null ? cachedValue.value : null;
+    }
+
+    private static <V> void putValue(Map<String, CachedValue<V>> cache, String key, V value, long ttlMs) {
+        synchronized (cache) {
+            cache.put(key, new CachedValue<>(value, System.currentTimeMillis() + ttlMs));
+        }
+    }
+
+    private static <V> Map<String, V> createLruMap(final int maxEntries) {
+        return new LinkedHashMap<String, V>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public static class Cursor<C> {
+        private final C    value;
+        private final long totalCount;
+
+        Cursor(C value, long totalCount) {
+            this.value      = value;
+            this.totalCount = totalCount;
+        }
+
+        public C getValue() {
+            return value;
+        }
+
+        public long getTotalCount() {
+            return totalCount;
+        }
+    }
+
+    private static class CachedValue<V> {
+        private final V    value;
+        private final long expiryTimeMs;
+
+        CachedValue(V value, long expiryTimeMs) {
+            this.value        = value;
+            this.expiryTimeMs = expiryTimeMs;
+        }
+
+        boolean isExpired() {
+            return System.currentTimeMillis() >= expiryTimeMs;
+        }
+    }
+}
@@ -23,20 +23,32 @@
 import org.apache.commons.lang.StringUtils;
 import org.apache.ranger.common.PropertiesUtil;
 import org.apache.ranger.common.RESTErrorUtil;
+import org.apache.ranger.common.RangerCommonEnums;
+import org.apache.ranger.common.SearchCriteria;
 import org.apache.ranger.common.SearchField;
 import org.apache.ranger.common.SortField;
 import org.apache.ranger.common.SortField.SORT_ORDER;
 import org.apache.ranger.db.RangerDaoManager;
 import org.apache.ranger.plugin.store.EmbeddedServiceDefsUtil;
+import org.apache.ranger.view.VXAccessAuditCount;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 public class AccessAuditsService {
+    public static final String PROP_AGGREGATION_MAX_TOP_N   = "ranger.audit.aggregation.max.topn";
+    public static final String PROP_AGGREGATION_MAX_BUCKETS = "ranger.audit.aggregation.max.buckets";
+
+    public static final List<String>      AGGREGATION_FIELDS    = Collections.unmodifiableList(Arrays.asList("requestUser", "resourcePath", "resourceType", "policyId", "repoName", "repoType", "accessType", "action", "aclEnforcer", "agentId", "agentHost", "clientIP", "zoneName", "cluster"));
+    public static final Map<String, Long> AGGREGATION_INTERVALS = createAggregationIntervals();
+
     protected List<SortField>   sortFields   = new ArrayList<>();
     protected List<SearchField> searchFields = new ArrayList<>();
 
@@ -151,4 +163,60 @@ private List<String> getServiceUserList() {
 
         return serviceUsersList;
     }
+
+    /*
+     * Returns the field to aggregate on in the audit store for the given search parameter name, or null if the audit
+     * store doesn't support aggregating on it
+     */
+    public static String getAggregationFieldName(String groupBy, List<SearchField> searchFields) {
+        if (AGGREGATION_FIELDS.contains(groupBy)) {
+            for (SearchField searchField : searchFields) {
+                if (groupBy.equals(searchField.getClientFieldName())) {
+                    return searchField.getFieldName();
+                }
+            }
+        }
+
+        return null;
+    }
+
+    /*
+     * Returns start times of the histogram buckets covering [startDate, endDate]; the last bucket may be shorter than intervalMs
+     */
+    public static List<Date> getHistogramBucketStarts(Date startDate, Date endDate, long intervalMs) {
+        List<Date> ret = new ArrayList<>();
+
+        for (long time = startDate.getTime(); time <= endDate.getTime(); time += intervalMs) {
+            ret.add(new Date(time));
+        }
+
+        return ret;
+    }
+
+    public static void addResultCount(VXAccessAuditCount auditCount, Object accessResult, long count) {
+        int result = accessResult instanceof Number ? ((Number) accessResult).intValue() : Integer.parseInt(String.valueOf(accessResult));
+
+        if (result == RangerCommonEnums.ACCESS_RESULT_ALLOWED) {
+            auditCount.setAllowedCount(auditCount.getAllowedCount() + count);
+        } else if (result == RangerCommonEnums.ACCESS_RESULT_DENIED) {
+            auditCount.setDeniedCount(auditCount.getDeniedCount() + count);
+        }
+    }
+
+    public static Date getHistogramEndDate(SearchCriteria searchCriteria) {
+        Object endDate = searchCriteria.getParamValue("endDate");
+
+        return endDate instanceof Date ? (Date) endDate : new Date();
+    }
+
+    private static Map<String, Long> createAggregationIntervals() {
+        Map<String, Long> ret = new HashMap<>();
+
+        ret.put("minute", 60 * 1000L);
+        ret.put("hour", 60 * 60 * 1000L);
+        ret.put("day", 24 * 60 * 60 * 1000L);
+        ret.put("week", 7 * 24 * 60 * 60 * 1000L);
+
+        return Collections.unmodifiableMap(ret);
+    }
 }
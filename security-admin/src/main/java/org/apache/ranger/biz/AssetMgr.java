@@ -20,6 +20,7 @@
 package org.apache.ranger.biz;
 
 import org.apache.commons.lang.StringUtils;
+import org.apache.ranger.AccessAuditsService;
 import org.apache.ranger.amazon.cloudwatch.CloudWatchAccessAuditsService;
 import org.apache.ranger.authorization.hadoop.config.RangerAdminConfig;
 import org.apache.ranger.common.AppConstants;
@@ -54,6 +55,7 @@
 import org.apache.ranger.service.XUserService;
 import org.apache.ranger.solr.SolrAccessAuditsService;
 import org.apache.ranger.util.RestUtil;
+import org.apache.ranger.view.VXAccessAuditAggregation;
 import org.apache.ranger.view.VXAccessAuditList;
 import org.apache.ranger.view.VXAsset;
 import org.apache.ranger.view.VXAuditMap;
@@ -668,72 +670,73 @@ public VXAccessAuditList getAccessLogs(SearchCriteria searchCriteria) {
             searchCriteria = new SearchCriteria();
         }
 
-        if (searchCriteria.getParamList() != null && !searchCriteria.getParamList().isEmpty()) {
-            int      clientTimeOffsetInMinute = RestUtil.getClientTimeOffset();
-            DateUtil dateUtil                 = new DateUtil();
-
-            if (searchCriteria.getParamList().containsKey("startDate")) {
-                Date temp = (Date) searchCriteria.getParamList().get("startDate");
+        updateAccessLogsSearchCriteria(searchCriteria);
 
-                temp = dateUtil.getDateFromGivenDate(temp, 0, 0, 0, 0);
-                temp = dateUtil.addTimeOffset(temp, clientTimeOffsetInMinute);
+        if (RangerBizUtil.AUDIT_STORE_SOLR.equalsIgnoreCase(xaBizUtil.getAuditDBType())) {
+            return solrAccessAuditsService.searchXAccessAudits(searchCriteria);
+        } else if (RangerBizUtil.AUDIT_STORE_ELASTIC_SEARCH.equalsIgnoreCase(xaBizUtil.getAuditDBType())) {
+            return elasticSearchAccessAuditsService.searchXAccessAudits(searchCriteria);
+        } else if (RangerBizUtil.AUDIT_STORE_CLOUD_WATCH.equalsIgnoreCase(xaBizUtil.getAuditDBType())) {
+            return cloudWatchAccessAuditsService.searchXAccessAudits(searchCriteria);
+        } else {
+            return xAccessAuditService.searchXAccessAudits(searchCriteria);
+        }
+    }
 
-                searchCriteria.getParamList().put("startDate", temp);
-            }
+    /*
+     * Returns counts of access audits matching searchCriteria: overall, for topN values of groupBy field and per interval.
+     * Counts are computed in the audit store, without fetching the audit records
+     */
+    public VXAccessAuditAggregation getAccessLogsAggregation(SearchCriteria searchCriteria, String groupBy, Integer topN, String interval) {
+        if (searchCriteria == null) {
+            searchCriteria = new SearchCriteria();
+        }
 
-            if (searchCriteria.getParamList().containsKey("endDate")) {
-                Date temp = (Date) searchCriteria.getParamList().get("endDate");
+        int maxTopN = RangerAdminConfig.getInstance().getInt(AccessAuditsService.PROP_AGGREGATION_MAX_TOP_N, 1000);
 
-                temp = dateUtil.getDateFromGivenDate(temp, 0, 23, 59, 59);
-                temp = dateUtil.addTimeOffset(temp, clientTimeOffsetInMinute);
+        if (topN == null) {
+            topN = 10;
+        }
 
-                searchCriteria.getParamList().put("endDate", temp);
-            }
+        if (groupBy != null && !AccessAuditsService.AGGREGATION_FIELDS.contains(groupBy)) {
+            throw restErrorUtil.createRESTException(HttpServletResponse.SC_BAD_REQUEST, "Invalid groupBy: " + groupBy + ". Valid values: " + AccessAuditsService.AGGREGATION_FIELDS, true);
         }
 
-        if (searchCriteria.getSortType() == null) {
-            searchCriteria.setSortType("desc");
-        } else if (!"asc".equalsIgnoreCase(searchCriteria.getSortType()) && !"desc".equalsIgnoreCase(searchCriteria.getSortType())) {
-            searchCriteria.setSortType("desc");
+        if (topN <= 0 || topN > maxTopN) {
+            throw restErrorUtil.createRESTException(HttpServletResponse.SC_BAD_REQUEST, "Invalid topN: " + topN + ". Must be between 1 and " + maxTopN, true);
         }
 
-        if (!xaBizUtil.isAdmin()) {
-            Long         userId      = xaBizUtil.getXUserId();
-            List<String> userZones   = rangerDaoManager.getXXSecurityZoneDao().findZoneNamesByUserId(userId);
-            Set<String>  zoneNameSet = new HashSet<>(userZones);
-            VXGroupList  groupList   = xUserMgr.getXUserGroups(userId);
+        updateAccessLogsSearchCriteria(searchCriteria);
 
-            for (VXGroup group : groupList.getList()) {
-                List<String> userGroupZones = rangerDaoManager.getXXSecurityZoneDao().findZoneNamesByGroupId(group.getId());
+        if (interval != null) {
+            interval = interval.toLowerCase();
 
-                zoneNameSet.addAll(userGroupZones);
+            if (!AccessAuditsService.AGGREGATION_INTERVALS.containsKey(interval)) {
+                throw restErrorUtil.createRESTException(HttpServletResponse.SC_BAD_REQUEST, "Invalid interval: " + interval + ". Valid values: " + AccessAuditsService.AGGREGATION_INTERVALS.keySet(), true);
             }
 
-            List<String> zoneNameList = (List<String>) searchCriteria.getParamValue("zoneName");
+            Object startDate = searchCriteria.getParamValue("startDate");
 
-            if ((zoneNameList == null || zoneNameList.isEmpty())) {
-                if (!zoneNameSet.isEmpty()) {
-                    searchCriteria.getParamList().put("zoneName", new ArrayList<>(zoneNameSet));
-                } else {
-                    searchCriteria.getParamList().put("zoneName", null);
-                }
-            } else if (!zoneNameSet.isEmpty()) {
-                for (String znName : zoneNameList) {
-                    if (!serviceMgr.isZoneAdmin(znName) && !serviceMgr.isZoneAuditor(znName)) {
-                        throw restErrorUtil.createRESTException(HttpServletResponse.SC_FORBIDDEN, "User is not the zone admin or zone auditor of zone " + znName, true);
-                    }
-                }
+            if (!(startDate instanceof Date)) {
+                throw restErrorUtil.createRESTException(HttpServletResponse.SC_BAD_REQUEST, "startDate is required for histogram", true);
+            }
+
+            long bucketCount = (AccessAuditsService.getHistogramEndDate(searchCriteria).getTime() - ((Date) startDate).getTime()) / AccessAuditsService.AGGREGATION_INTERVALS.get(interval) + 1;
+            int  maxBuckets  = RangerAdminConfig.getInstance().getInt(AccessAuditsService.PROP_AGGREGATION_MAX_BUCKETS, 1000);
+
+            if (bucketCount > maxBuckets) {
+                throw restErrorUtil.createRESTException(HttpServletResponse.SC_BAD_REQUEST, "Too many histogram intervals: " + bucketCount + ". Use a larger interval or a smaller date range; at most " + maxBuckets + " intervals are supported", true);
             }
         }
 
         if (RangerBizUtil.AUDIT_STORE_SOLR.equalsIgnoreCase(xaBizUtil.getAuditDBType())) {
-            return solrAccessAuditsService.searchXAccessAudits(searchCriteria);
+            return solrAccessAuditsService.aggregateXAccessAudits(searchCriteria, groupBy, topN, interval);
         } else if (RangerBizUtil.AUDIT_STORE_ELASTIC_SEARCH.equalsIgnoreCase(xaBizUtil.getAuditDBType())) {
-            return elasticSearchAccessAuditsService.searchXAccessAudits(searchCriteria);
+            return elasticSearchAccessAuditsService.aggregateXAccessAudits(searchCriteria, groupBy, topN, interval);
         } else if (RangerBizUtil.AUDIT_STORE_CLOUD_WATCH.equalsIgnoreCase(xaBizUtil.getAuditDBType())) {
-            return cloudWatchAccessAuditsService.searchXAccessAudits(searchCriteria);
+            throw restErrorUtil.createRESTException(HttpServletResponse.SC_NOT_IMPLEMENTED, "Audit aggregation is not supported for audit store " + xaBizUtil.getAuditDBType(), true);
         } else {
-            return xAccessAuditService.searchXAccessAudits(searchCriteria);
+            return xAccessAuditService.aggregateXAccessAudits(searchCriteria, groupBy, topN, interval);
         }
     }
 
@@ -924,6 +927,67 @@ public VXUgsyncAuditInfoList getUgsyncAuditsBySyncSource(String syncSource) {
         }
     }
 
+    @SuppressWarnings("unchecked")
+    private void updateAccessLogsSearchCriteria(SearchCriteria searchCriteria) {
+        if (searchCriteria.getParamList() != null && !searchCriteria.getParamList().isEmpty()) {
+            int      clientTimeOffsetInMinute = RestUtil.getClientTimeOffset();
+            DateUtil dateUtil                 = new DateUtil();
+
+            if (searchCriteria.getParamList().containsKey("startDate")) {
+                Date temp = (Date) searchCriteria.getParamList().get("startDate");
+
+                temp = dateUtil.getDateFromGivenDate(temp, 0, 0, 0, 0);
+                temp = dateUtil.addTimeOffset(temp, clientTimeOffsetInMinute);
+
+                searchCriteria.getParamList().put("startDate", temp);
+            }
+
+            if (searchCriteria.getParamList().containsKey("endDate")) {
+                Date temp = (Date) searchCriteria.getParamList().get("endDate");
+
+                temp = dateUtil.getDateFromGivenDate(temp, 0, 23, 59, 59);
+                temp = dateUtil.addTimeOffset(temp, clientTimeOffsetInMinute);
+
+                searchCriteria.getParamList().put("endDate", temp);
+            }
+        }
+
+        if (searchCriteria.getSortType() == null) {
+            searchCriteria.setSortType("desc");
+        } else if (!"asc".equalsIgnoreCase(searchCriteria.getSortType()) && !"desc".equalsIgnoreCase(searchCriteria.getSortType())) {
+            searchCriteria.setSortType("desc");
+        }
+
+        if (!xaBizUtil.isAdmin()) {
+            Long         userId      = xaBizUtil.getXUserId();
+            List<String> userZones   = rangerDaoManager.getXXSecurityZoneDao().findZoneNamesByUserId(userId);
+            Set<String>  zoneNameSet = new HashSet<>(userZones);
+            VXGroupList  groupList   = xUserMgr.getXUserGroups(userId);
+
+            for (VXGroup group : groupList.getList()) {
+                List<String> userGroupZones = rangerDaoManager.getXXSecurityZoneDao().findZoneNamesByGroupId(group.getId());
+
+                zoneNameSet.addAll(userGroupZones);
+            }
+
+            List<String> zoneNameList = (List<String>) searchCriteria.getParamValue("zoneName");
+
+            if ((zoneNameList == null || zoneNameList.isEmpty())) {
+                if (!zoneNameSet.isEmpty()) {
+                    searchCriteria.getParamList().put("zoneName", new ArrayList<>(zoneNameSet));
+                } else {
+                    searchCriteria.getParamList().put("zoneName", null);
+                }
+            } else if (!zoneNameSet.isEmpty()) {
+                for (String znName : zoneNameList) {
+                    if (!serviceMgr.isZoneAdmin(znName) && !serviceMgr.isZoneAuditor(znName)) {
+                        throw restErrorUtil.createRESTException(HttpServletResponse.SC_FORBIDDEN, "User is not the zone admin or zone auditor of zone " + znName, true);
+                    }
+                }
+            }
+        }
+    }
+
     @SuppressWarnings("unchecked")
     private HashMap<String, Object> populatePermMap(VXResource xResource, HashMap<String, Object> resourceMap, int assetType) {
         List<VXPermMap> xPermMapList = xResource.getPermMapList();
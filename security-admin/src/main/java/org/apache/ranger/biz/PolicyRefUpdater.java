@@ -48,6 +48,8 @@
 import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyItemDataMaskInfo;
 import org.apache.ranger.plugin.model.RangerRole;
 import org.apache.ranger.plugin.util.ServiceDefUtil;
+import org.apache.ranger.security.context.RangerAdminOpContext;
+import org.apache.ranger.security.context.RangerContextHolder;
 import org.apache.ranger.service.RangerAuditFields;
 import org.apache.ranger.service.XGroupService;
 import org.apache.ranger.view.VXGroup;
@@ -63,7 +65,9 @@
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Supplier;
 
 import static org.apache.ranger.service.RangerBaseModelService.OPERATION_CREATE_CONTEXT;
 
@@ -182,16 +186,20 @@ public void createNewPolMappingForRefTable(RangerPolicy policy, XXPolicy xPolicy
         List<XXPolicyRefResource> xPolResources = new ArrayList<>();
 
         for (String resource : resourceNames) {
-            XXResourceDef xResDef = daoMgr.getXXResourceDef().findByNameAndPolicyId(resource, policy.getId());
+            Long resourceDefId = lookupId("resourceDef:" + xPolicy.getService() + ":" + resource, () -> {
+                XXResourceDef xResDef = daoMgr.getXXResourceDef().findByNameAndPolicyId(resource, policy.getId());
 
-            if (xResDef == null) {
+                return xResDef != null ? xResDef.getId() : null;
+            });
+
+            if (resourceDefId == null) {
                 throw new Exception(resource + ": is not a valid resource-type. policy='" + policy.getName() + "' service='" + policy.getService() + "'");
             }
 
             XXPolicyRefResource xPolRes = rangerAuditFields.populateAuditFields(new XXPolicyRefResource(), xPolicy);
 
             xPolRes.setPolicyId(policy.getId());
-            xPolRes.setResourceDefId(xResDef.getId());
+            xPolRes.setResourceDefId(resourceDefId);
             xPolRes.setResourceName(resource);
 
             xPolResources.add(xPolRes);
@@ -280,16 +288,20 @@ public void createNewPolMappingForRefTable(RangerPolicy policy, XXPolicy xPolicy
         accessTypes.removeAll(ServiceDefUtil.ACCESS_TYPE_MARKERS);
 
         for (String accessType : accessTypes) {
-            XXAccessTypeDef xAccTypeDef = daoMgr.getXXAccessTypeDef().findByNameAndServiceId(accessType, xPolicy.getService());
+            Long accessTypeDefId = lookupId("accessTypeDef:" + xPolicy.getService() + ":" + accessType, () -> {
+                XXAccessTypeDef xAccTypeDef = daoMgr.getXXAccessTypeDef().findByNameAndServiceId(accessType, xPolicy.getService());
+
+                return xAccTypeDef != null ? xAccTypeDef.getId() : null;
+            });
 
-            if (xAccTypeDef == null) {
+            if (accessTypeDefId == null) {
                 throw new Exception(accessType + ": is not a valid access-type. policy='" + policy.getName() + "' service='" + policy.getService() + "'");
             }
 
             XXPolicyRefAccessType xPolAccess = rangerAuditFields.populateAuditFields(new XXPolicyRefAccessType(), xPolicy);
 
             xPolAccess.setPolicyId(policy.getId());
-            xPolAccess.setAccessDefId(xAccTypeDef.getId());
+            xPolAccess.setAccessDefId(accessTypeDefId);
             xPolAccess.setAccessTypeName(accessType);
 
             xPolAccesses.add(xPolAccess);
@@ -300,9 +312,13 @@ public void createNewPolMappingForRefTable(RangerPolicy policy, XXPolicy xPolicy
         List<XXPolicyRefCondition> xPolConds = new ArrayList<>();
 
         for (String condition : conditionTypes) {
-            XXPolicyConditionDef xPolCondDef = daoMgr.getXXPolicyConditionDef().findByServiceDefIdAndName(xServiceDef.getId(), condition);
+            Long conditionDefId = lookupId("conditionDef:" + xServiceDef.getId() + ":" + condition, () -> {
+                XXPolicyConditionDef xPolCondDef = daoMgr.getXXPolicyConditionDef().findByServiceDefIdAndName(xServiceDef.getId(), condition);
+
+                return xPolCondDef != null ? xPolCondDef.getId() : null;
+            });
 
-            if (xPolCondDef == null) {
+            if (conditionDefId == null) {
                 if (StringUtils.equalsIgnoreCase(condition, ServiceDefUtil.IMPLICIT_CONDITION_EXPRESSION_NAME)) {
                     continue;
                 }
@@ -313,7 +329,7 @@ public void createNewPolMappingForRefTable(RangerPolicy policy, XXPolicy xPolicy
             XXPolicyRefCondition xPolCond = rangerAuditFields.populateAuditFields(new XXPolicyRefCondition(), xPolicy);
 
             xPolCond.setPolicyId(policy.getId());
-            xPolCond.setConditionDefId(xPolCondDef.getId());
+            xPolCond.setConditionDefId(conditionDefId);
             xPolCond.setConditionName(condition);
 
             xPolConds.add(xPolCond);
@@ -324,16 +340,20 @@ public void createNewPolMappingForRefTable(RangerPolicy policy, XXPolicy xPolicy
         List<XXPolicyRefDataMaskType> xxDataMaskInfos = new ArrayList<>();
 
         for (String dataMaskType : dataMaskTypes) {
-            XXDataMaskTypeDef dataMaskDef = daoMgr.getXXDataMaskTypeDef().findByNameAndServiceId(dataMaskType, xPolicy.getService());
+            Long dataMaskDefId = lookupId("dataMaskTypeDef:" + xPolicy.getService() + ":" + dataMaskType, () -> {
+                XXDataMaskTypeDef dataMaskDef = daoMgr.getXXDataMaskTypeDef().findByNameAndServiceId(dataMaskType, xPolicy.getService());
 
-            if (dataMaskDef == null) {
+                return dataMaskDef != null ? dataMaskDef.getId() : null;
+            });
+
+            if (dataMaskDefId == null) {
                 throw new Exception(dataMaskType + ": is not a valid datamask-type. policy='" + policy.getName() + "' service='" + policy.getService() + "'");
             }
 
             XXPolicyRefDataMaskType xxDataMaskInfo = new XXPolicyRefDataMaskType();
 
             xxDataMaskInfo.setPolicyId(policy.getId());
-            xxDataMaskInfo.setDataMaskDefId(dataMaskDef.getId());
+            xxDataMaskInfo.setDataMaskDefId(dataMaskDefId);
             xxDataMaskInfo.setDataMaskTypeName(dataMaskType);
 
             xxDataMaskInfos.add(xxDataMaskInfo);
@@ -360,6 +380,31 @@ public Boolean cleanupRefTables(RangerPolicy policy) {
         return true;
     }
 
+    /*
+     * In bulk mode, like policy import, ids of principals and service-def elements are looked up once per operation
+     * instead of once per policy. Only ids found are cached, as missing principals can be created later in the operation
+     */
+    private static Long lookupId(String key, Supplier<Long> idLoader) {
+        RangerAdminOpContext opContext = RangerContextHolder.getOpContext();
+
+        if (opContext == null || !opContext.isBulkModeContext()) {
+            return idLoader.get();
+        }
+
+        Map<String, Long> idCache = opContext.getBulkModeIdCache();
+        Long              ret     = idCache.get(key);
+
+        if (ret == null) {
+            ret = idLoader.get();
+
+            if (ret != null) {
+                idCache.put(key, ret);
+            }
+        }
+
+        return ret;
+    }
+
     public enum PRINCIPAL_TYPE { USER, GROUP, ROLE }
 
     private class PolicyPrincipalAssociator implements Runnable {
@@ -410,11 +455,13 @@ private Long createOrGetPrincipal(final boolean createIfAbsent) {
 
             switch (type) {
                 case USER: {
-                    XXUser xUser = daoMgr.getXXUser().findByUserName(name);
+                    ret = lookupId("user:" + name, () -> {
+                        XXUser xUser = daoMgr.getXXUser().findByUserName(name);
 
-                    if (xUser != null) {
-                        ret = xUser.getId();
-                    } else {
+                        return xUser != null ? xUser.getId() : null;
+                    });
+
+                    if (ret == null) {
                         if (createIfAbsent) {
                             ret = createPrincipal(name);
                         }
@@ -422,11 +469,13 @@ private Long createOrGetPrincipal(final boolean createIfAbsent) {
                 }
                 break;
                 case GROUP: {
-                    XXGroup xGroup = daoMgr.getXXGroup().findByGroupName(name);
+                    ret = lookupId("group:" + name, () -> {
+                        XXGroup xGroup = daoMgr.getXXGroup().findByGroupName(name);
 
-                    if (xGroup != null) {
-                        ret = xGroup.getId();
-                    } else {
+                        return xGroup != null ? xGroup.getId() : null;
+                    });
+
+                    if (ret == null) {
                         if (createIfAbsent) {
                             ret = createPrincipal(name);
                         }
@@ -434,11 +483,13 @@ private Long createOrGetPrincipal(final boolean createIfAbsent) {
                 }
                 break;
                 case ROLE: {
-                    XXRole xRole = daoMgr.getXXRole().findByRoleName(name);
+                    ret = lookupId("role:" + name, () -> {
+                        XXRole xRole = daoMgr.getXXRole().findByRoleName(name);
 
-                    if (xRole != null) {
-                        ret = xRole.getId();
-                    } else {
+                        return xRole != null ? xRole.getId() : null;
+                    });
+
+                    if (ret == null) {
                         if (createIfAbsent) {
                             RangerBizUtil.setBulkMode(false);
                             ret = createPrincipal(name);
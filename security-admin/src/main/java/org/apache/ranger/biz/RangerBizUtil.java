@@ -35,6 +35,7 @@
 import org.apache.ranger.common.RangerConstants;
 import org.apache.ranger.common.StringUtil;
 import org.apache.ranger.common.UserSessionBase;
+import org.apache.ranger.common.db.RangerTransactionSynchronizationAdapter;
 import org.apache.ranger.db.RangerDaoManager;
 import org.apache.ranger.db.XXDBBaseDao;
 import org.apache.ranger.db.XXTrxLogV2Dao;
@@ -55,6 +56,7 @@
 import org.apache.ranger.rest.ServiceREST;
 import org.apache.ranger.security.context.RangerAdminOpContext;
 import org.apache.ranger.security.context.RangerContextHolder;
+import org.apache.ranger.service.RangerTrxLogV2Service;
 import org.apache.ranger.service.XUserService;
 import org.apache.ranger.view.VXPortalUser;
 import org.apache.ranger.view.VXResource;
@@ -66,6 +68,8 @@
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import javax.servlet.http.HttpServletResponse;
 
@@ -91,6 +95,13 @@ public class RangerBizUtil {
     public static final  int     POLICY_BATCH_SIZE          = PropertiesUtil.getIntProperty("ranger.jpa.jdbc.batch-clear.size", 10);
     public static final  int     BATCH_PERSIST_SIZE         = PropertiesUtil.getIntProperty("ranger.jpa.jdbc.batch-persist.size", 500);
 
+    public static final  String  PROP_TRX_LOG_WRITE_AFTER_COMMIT  = "ranger.admin.trx.log.write.after.commit";
+    public static final  String  PROP_TRX_LOG_WRITE_MAX_ATTEMPTS  = "ranger.admin.trx.log.write.max.attempts";
+    public static final  String  PROP_TRX_LOG_COMPRESS_VALUES     = "ranger.admin.trx.log.compress.values";
+    public static final  String  PROP_TRX_LOG_COMPRESS_MIN_LENGTH = "ranger.admin.trx.log.compress.min.length";
+
+    private static final ThreadLocal<List<XXTrxLogV2>> PENDING_TRX_LOGS = new ThreadLocal<>();
+
     private static final String PATH_CHARS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrst0123456789-_.";
 
     static String fileSeparator = PropertiesUtil.getProperty("ranger.file.separator", "/");
@@ -116,6 +127,9 @@ public class RangerBizUtil {
     @Autowired
     GUIDUtil guidUtil;
 
+    @Autowired
+    RangerTransactionSynchronizationAdapter transactionSynchronizationAdapter;
+
     private final boolean      allowUnauthenticatedAccessInSecureEnvironment;
     private final boolean      allowUnauthenticatedDownloadAccessInSecureEnvironment;
     private final Class<?>[]   groupEditableClassesList = {};
@@ -126,12 +140,20 @@ public class RangerBizUtil {
     int           maxDisplayNameLength = 150;
     boolean       enableResourceAccessControl;
     String        auditDBType = AUDIT_STORE_RDBMS;
+    boolean       writeTrxLogAfterCommit;
+    int           trxLogWriteMaxAttempts;
+    boolean       compressTrxLogValues;
+    int           trxLogCompressMinLength;
 
     public RangerBizUtil() {
         RangerAdminConfig config = RangerAdminConfig.getInstance();
 
         allowUnauthenticatedAccessInSecureEnvironment         = config.getBoolean("ranger.admin.allow.unauthenticated.access", false);
         allowUnauthenticatedDownloadAccessInSecureEnvironment = config.getBoolean("ranger.admin.allow.unauthenticated.download.access", allowUnauthenticatedAccessInSecureEnvironment);
+        writeTrxLogAfterCommit                                = config.getBoolean(PROP_TRX_LOG_WRITE_AFTER_COMMIT, false);
+        trxLogWriteMaxAttempts                                = config.getInt(PROP_TRX_LOG_WRITE_MAX_ATTEMPTS, 3);
+        compressTrxLogValues                                  = config.getBoolean(PROP_TRX_LOG_COMPRESS_VALUES, false);
+        trxLogCompressMinLength                               = config.getInt(PROP_TRX_LOG_COMPRESS_MIN_LENGTH, 4096);
 
         maxFirstNameLength   = Integer.parseInt(PropertiesUtil.getProperty("ranger.user.firstname.maxlength", "16"));
         maxDisplayNameLength = PropertiesUtil.getIntProperty("ranger.bookmark.name.maxlen", maxDisplayNameLength);
@@ -143,6 +165,7 @@ public RangerBizUtil() {
 
         logger.info("java.library.path is {}", System.getProperty("java.library.path"));
         logger.info("Audit datasource is {}", auditDBType);
+        logger.info("{}={}, {}={}, {}={}, {}={}", PROP_TRX_LOG_WRITE_AFTER_COMMIT, writeTrxLogAfterCommit, PROP_TRX_LOG_WRITE_MAX_ATTEMPTS, trxLogWriteMaxAttempts, PROP_TRX_LOG_COMPRESS_VALUES, compressTrxLogValues, PROP_TRX_LOG_COMPRESS_MIN_LENGTH, trxLogCompressMinLength);
 
         random = new SecureRandom();
     }
@@ -942,7 +965,17 @@ public void createTrxLog(List<XXTrxLogV2> trxLogList) {
                 xTrxLog.setAddedByUserId(userId);
             }
 
-            dao.create(xTrxLog);
+            if (compressTrxLogValues) {
+                xTrxLog.setChangeInfo(RangerTrxLogV2Service.compressChangeInfo(xTrxLog.getChangeInfo(), trxLogCompressMinLength));
+            }
+        }
+
+        if (writeTrxLogAfterCommit && transactionSynchronizationAdapter != null && TransactionSynchronizationManager.isSynchronizationActive()) {
+            addPendingTrxLogs(trxLogList);
+        } else {
+            for (XXTrxLogV2 xTrxLog : trxLogList) {
+                dao.create(xTrxLog);
+            }
         }
     }
 
@@ -1639,4 +1672,74 @@ private Boolean hasAccessToRangerServiceHeaderInfo(RangerServiceHeaderInfo servi
 
         return EmbeddedServiceDefsUtil.EMBEDDED_SERVICEDEF_KMS_NAME.equals(serviceHeader.getType()) ? (isKeyAdmin || isAuditorKeyAdmin) : isUser;
     }
+
+    /*
+     * Buffers the given trx-logs until the current transaction is committed, and then writes all trx-logs buffered
+     * in the transaction in a single batch in a new transaction. A failed write is retried, up to
+     * ranger.admin.trx.log.write.max.attempts times, after which the trx-logs are logged and dropped; trx-logs are
+     * discarded if the transaction is rolled back
+     */
+    private void addPendingTrxLogs(List<XXTrxLogV2> trxLogList) {
+        List<XXTrxLogV2> pendingTrxLogs = PENDING_TRX_LOGS.get();
+
+        if (pendingTrxLogs == null) {
+            final List<XXTrxLogV2> trxLogsToWrite = new ArrayList<>();
+
+            pendingTrxLogs = trxLogsToWrite;
+
+            PENDING_TRX_LOGS.set(pendingTrxLogs);
+
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    PENDING_TRX_LOGS.remove();
+                }
+            });
+
+            transactionSynchronizationAdapter.executeOnTransactionCommit(new TrxLogWriter(trxLogsToWrite));
+        }
+
+        pendingTrxLogs.addAll(trxLogList);
+    }
+
+    private class TrxLogWriter implements Runnable {
+        private final List<XXTrxLogV2> trxLogs;
+        private       int              attempts;
+
+        TrxLogWriter(List<XXTrxLogV2> trxLogs) {
+            this.trxLogs = trxLogs;
+        }
+
+        @Override
+        public void run() {
+            logger.debug("==> TrxLogWriter.run(count={}, attempts={})", trxLogs.size(), attempts);
+
+            // RangerTransactionSynchronizationAdapter retries after-commit runnables until they commit; returning without
+            // a write lets the retries end when the write fails every time, for example due to a data error
+            if (attempts >= trxLogWriteMaxAttempts) {
+                logger.error("TrxLogWriter: failed to write {} trx-logs in {} attempts. Dropping them", trxLogs.size(), attempts);
+
+                for (XXTrxLogV2 trxLog : trxLogs) {
+                    logger.warn("TrxLogWriter: dropped trx-log: {}", trxLog);
+                }
+
+                return;
+            }
+
+            attempts++;
+
+            for (XXTrxLogV2 trxLog : trxLogs) {
+                trxLog.setId(null); // in case of retry after a failed commit
+            }
+
+            daoManager.getXXTrxLogV2().batchCreate(trxLogs);
+
+            logger.debug("<== TrxLogWriter.run(count={})", trxLogs.size());
+        }
+
+        @Override
+        public String toString() {
+            return "TrxLogWriter(count=" + trxLogs.size() + ")";
+        }
+    }
 }
@@ -19,6 +19,7 @@
 
 package org.apache.ranger.biz;
 
+import org.apache.ranger.authorization.hadoop.config.RangerAdminConfig;
 import org.apache.ranger.authorization.hadoop.config.RangerPluginConfig;
 import org.apache.ranger.plugin.model.RangerServiceDef;
 import org.apache.ranger.plugin.policyengine.RangerPluginContext;
@@ -33,16 +34,49 @@
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * Cache of policy-admin per service. Versions of policies and roles are checked on the caller thread, while a
+ * policy-admin for updated policies is built by a background thread; until the build completes callers are served the
+ * last built policy-admin. Only the first build for a service, or every build when async rebuild is disabled, is done
+ * on the caller thread. At most one build runs for a service at any time.
+ */
 public class RangerPolicyAdminCache {
     private static final Logger LOG = LoggerFactory.getLogger(RangerPolicyAdminCache.class);
 
-    private final Map<String, RangerPolicyAdminWrapper> policyAdminCache = Collections.synchronizedMap(new HashMap<>());
+    public static final String PROP_ASYNC_REBUILD_ENABLED = "ranger.admin.policy.admin.cache.async.rebuild.enabled";
+    public static final String PROP_REBUILD_THREAD_COUNT  = "ranger.admin.policy.admin.cache.rebuild.thread.count";
+
+    private final Map<String, RangerPolicyAdminWrapper> policyAdminCache   = new ConcurrentHashMap<>();
+    private final Map<String, PendingRebuild>           pendingRebuilds    = new ConcurrentHashMap<>();
+    private final boolean                               isAsyncRebuildEnabled;
+    private final Executor                              rebuildExecutor;
+    private final AtomicLong                            rebuildCount       = new AtomicLong();
+    private final AtomicLong                            rebuildFailedCount = new AtomicLong();
+    private final AtomicLong                            rebuildTimeMs      = new AtomicLong();
+    private final AtomicLong                            maxRebuildTimeMs   = new AtomicLong();
+    private final AtomicLong                            staleServedCount   = new AtomicLong();
+
+    RangerPolicyAdminCache() {
+        this(RangerAdminConfig.getInstance().getBoolean(PROP_ASYNC_REBUILD_ENABLED, true), null);
+    }
+
+    RangerPolicyAdminCache(boolean isAsyncRebuildEnabled, Executor rebuildExecutor) {
+        this.isAsyncRebuildEnabled = isAsyncRebuildEnabled;
+        this.rebuildExecutor       = rebuildExecutor;
+    }
 
     final RangerPolicyAdmin getServicePoliciesAdmin(String serviceName, ServiceStore svcStore, RoleStore roleStore, SecurityZoneStore zoneStore, RangerPolicyEngineOptions options) {
         if (serviceName == null || svcStore == null || roleStore == null || zoneStore == null) {
@@ -65,13 +99,26 @@ final RangerPolicyAdmin getServicePoliciesAdmin(String serviceName, ServiceStore
             return null;
         }
 
+        RangerPolicyAdminWrapper ret     = policyAdminCache.get(serviceName);
+        PendingRebuild           pending = pendingRebuilds.get(serviceName);
+
+        if (pending != null) {
+            if (ret != null && isAsyncRebuildEnabled) { // serve the last built policy-admin while the rebuild is in progress
+                staleServedCount.incrementAndGet();
+
+                LOG.debug("getPolicyAdmin({}): rebuild in progress for {} ms. Returning policy-admin with policyVersion={}", serviceName, System.currentTimeMillis() - pending.startTimeMs, ret.getPolicyAdmin().getPolicyVersion());
+
+                return getPolicyAdmin(ret, svcStore);
+            }
+
+            ret = waitFor(serviceName, pending, ret);
+        }
+
         long        policyVersion;
         long        roleVersion;
         RangerRoles roles;
         boolean     isRolesUpdated = true;
 
-        RangerPolicyAdminWrapper ret = policyAdminCache.get(serviceName);
-
         try {
             if (ret == null) {
                 policyVersion = -1L;
@@ -95,14 +142,12 @@ final RangerPolicyAdmin getServicePoliciesAdmin(String serviceName, ServiceStore
             ServicePolicies policies = svcStore.getServicePoliciesIfUpdated(serviceName, policyVersion, ServiceDBStore.isSupportsPolicyDeltas());
 
             if (policies != null) {
-                ret = addOrUpdatePolicyAdmin(ret, policies, roles, options);
+                pending = submitRebuild(serviceName, ret, policies, roles, isRolesUpdated, options);
 
-                if (ret == null) {
-                    LOG.error("getPolicyAdmin({}): failed to build engine from policies from service-store", serviceName);
+                if (ret == null || !isAsyncRebuildEnabled) {
+                    ret = waitFor(serviceName, pending, ret);
                 } else {
-                    if (isRolesUpdated) {
-                        ret.getPolicyAdmin().setRoles(roles);
-                    }
+                    staleServedCount.incrementAndGet();
                 }
             }
         } catch (Exception exception) {
@@ -111,11 +156,120 @@ final RangerPolicyAdmin getServicePoliciesAdmin(String serviceName, ServiceStore
 
         if (ret == null) {
             LOG.error("Policy-engine is not built! Returning null policy-engine!");
+        }
+
+        return getPolicyAdmin(ret, svcStore);
+    }
+
+    Map<String, Long> getMetrics() {
+        Map<String, Long> ret          = new HashMap<>();
+        long              now          = System.currentTimeMillis();
+        long              maxStaleness = 0;
+
+        for (Map.Entry<String, PendingRebuild> entry : pendingRebuilds.entrySet()) {
+            if (policyAdminCache.containsKey(entry.getKey())) {
+                maxStaleness = Math.max(maxStaleness, now - entry.getValue().startTimeMs);
+            }
+        }
+
+        ret.put("CachedCount", (long) policyAdminCache.size());
+        ret.put("RebuildCount", rebuildCount.get());
+        ret.put("RebuildFailedCount", rebuildFailedCount.get());
+        ret.put("RebuildTimeMs", rebuildTimeMs.get());
+        ret.put("RebuildTimeMsMax", maxRebuildTimeMs.get());
+        ret.put("RebuildInProgressCount", (long) pendingRebuilds.size());
+        ret.put("StaleServedCount", staleServedCount.get());
+        ret.put("StalenessMsMax", maxStaleness);
+
+        return ret;
+    }
+
+    private PendingRebuild submitRebuild(String serviceName, RangerPolicyAdminWrapper current, ServicePolicies policies, RangerRoles roles, boolean isRolesUpdated, RangerPolicyEngineOptions options) {
+        PendingRebuild rebuild  = new PendingRebuild();
+        PendingRebuild existing = pendingRebuilds.putIfAbsent(serviceName, rebuild);
+
+        if (existing != null) {
+            LOG.debug("submitRebuild({}): rebuild already in progress", serviceName);
+
+            return existing;
+        }
+
+        Runnable task = () -> {
+            RangerPolicyAdminWrapper result = null;
+
+            try {
+                if (policyAdminCache.get(serviceName) != current) {
+                    // cache was updated after versions were read by this caller; next call will look for further updates
+                    result = policyAdminCache.get(serviceName);
+                } else {
+                    result = addOrUpdatePolicyAdmin(current, policies, roles, options);
+
+                    if (result == null) {
+                        LOG.error("getPolicyAdmin({}): failed to build engine from policies from service-store", serviceName);
+
+                        rebuildFailedCount.incrementAndGet();
+                    } else if (isRolesUpdated) {
+                        result.getPolicyAdmin().setRoles(roles);
+                    }
+                }
+            } catch (Throwable excp) {
+                LOG.error("getPolicyAdmin({}): failed to build engine from policies from service-store", serviceName, excp);
+
+                rebuildFailedCount.incrementAndGet();
+            } finally {
+                long timeTakenMs = System.currentTimeMillis() - rebuild.startTimeMs;
+
+                rebuildCount.incrementAndGet();
+                rebuildTimeMs.addAndGet(timeTakenMs);
+                maxRebuildTimeMs.accumulateAndGet(timeTakenMs, Math::max);
+
+                pendingRebuilds.remove(serviceName, rebuild);
+
+                rebuild.result.complete(result != null ? result : policyAdminCache.get(serviceName));
+            }
+        };
+
+        if (current == null || !isAsyncRebuildEnabled) {
+            task.run();
         } else {
-            ret.getPolicyAdmin().setServiceStore(svcStore);
+            try {
+                getRebuildExecutor().execute(task);
+            } catch (Exception excp) {
+                LOG.warn("submitRebuild({}): failed to schedule rebuild. Building in caller thread", serviceName, excp);
+
+                task.run();
+            }
         }
 
-        return ret == null ? null : ret.getPolicyAdmin();
+        return rebuild;
+    }
+
+    private RangerPolicyAdminWrapper waitFor(String serviceName, PendingRebuild pending, RangerPolicyAdminWrapper current) {
+        try {
+            return pending.result.get();
+        } catch (InterruptedException excp) {
+            Thread.currentThread().interrupt();
+
+            LOG.warn("getPolicyAdmin({}): interrupted while waiting for policy-engine build", serviceName);
+        } catch (ExecutionException excp) {
+            LOG.warn("getPolicyAdmin({}): failed while waiting for policy-engine build", serviceName, excp);
+        }
+
+        return current;
+    }
+
+    private Executor getRebuildExecutor() {
+        return rebuildExecutor != null ? rebuildExecutor : RebuildExecutorHolder.EXECUTOR;
+    }
+
+    private static RangerPolicyAdmin getPolicyAdmin(RangerPolicyAdminWrapper wrapper, ServiceStore svcStore) {
+        if (wrapper == null) {
+            return null;
+        }
+
+        wrapper.getPolicyAdmin().setServiceStore(svcStore);
+
+        return wrapper.getPolicyAdmin();
     }
 
     private RangerPolicyAdminWrapper addOrUpdatePolicyAdmin(RangerPolicyAdminWrapper policyAdminWrapper, ServicePolicies policies, RangerRoles roles, RangerPolicyEngineOptions options) {
@@ -200,6 +354,30 @@ private RangerPolicyAdmin addPolicyAdmin(ServicePolicies policies, RangerRoles r
         return new RangerPolicyAdminImpl(policies, rangerPluginContext, roles);
     }
 
+    private static class RebuildExecutorHolder {
+        static final ExecutorService EXECUTOR = createExecutor();
+
+        private static ExecutorService createExecutor() {
+            int           threadCount = RangerAdminConfig.getInstance().getInt(PROP_REBUILD_THREAD_COUNT, 2);
+            AtomicInteger threadNum   = new AtomicInteger(1);
+
+            LOG.info("RangerPolicyAdminCache: creating rebuild executor with {} threads", threadCount);
+
+            return Executors.newFixedThreadPool(Math.max(threadCount, 1), r -> {
+                Thread t = new Thread(r, "ranger-policy-admin-rebuild-" + threadNum.getAndIncrement());
+
+                t.setDaemon(true);
+
+                return t;
+            });
+        }
+    }
+
+    private static class PendingRebuild {
+        final long                                        startTimeMs = System.currentTimeMillis();
+        final CompletableFuture<RangerPolicyAdminWrapper> result      = new CompletableFuture<>();
+    }
+
     static class RangerPolicyAdminWrapper {
         final RangerPolicyAdmin policyAdmin;
         final Lock              lock = new ReentrantLock();
@@ -24,8 +24,10 @@
 import org.apache.ranger.plugin.store.SecurityZoneStore;
 import org.apache.ranger.plugin.store.ServiceStore;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class RangerPolicyAdminCacheForEngineOptions {
@@ -54,6 +56,26 @@ public final RangerPolicyAdmin getServicePoliciesAdmin(String serviceName, Servi
         return getServicePoliciesAdmin(serviceName, svcStore, roleStore, zoneStore, options);
     }
 
+    /**
+     * @return metrics of policy-admin caches of all engine options; counts and times are summed, max values are max across caches
+     */
+    public Map<String, Long> getMetrics() {
+        Map<String, Long>            ret = new HashMap<>();
+        List<RangerPolicyAdminCache> policyAdminCaches;
+
+        synchronized (policyAdminCacheForEngineOptions) {
+            policyAdminCaches = new ArrayList<>(policyAdminCacheForEngineOptions.values());
+        }
+
+        for (RangerPolicyAdminCache policyAdminCache : policyAdminCaches) {
+            for (Map.Entry<String, Long> entry : policyAdminCache.getMetrics().entrySet()) {
+                ret.merge(entry.getKey(), entry.getValue(), entry.getKey().endsWith("Max") ? Math::max : Long::sum);
+            }
+        }
+
+        return ret;
+    }
+
     private RangerPolicyAdmin getServicePoliciesAdmin(String serviceName, ServiceStore svcStore, RoleStore roleStore, SecurityZoneStore zoneStore, RangerPolicyEngineOptions options) {
         RangerPolicyAdminCache policyAdminCache = policyAdminCacheForEngineOptions.get(options);
 
@@ -0,0 +1,345 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.biz;
+
+import org.apache.ranger.authorization.hadoop.config.RangerAdminConfig;
+import org.apache.ranger.authorization.utils.JsonUtils;
+import org.apache.ranger.entity.XXPolicy;
+import org.apache.ranger.plugin.model.RangerPolicy;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerDataMaskPolicyItem;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyItem;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyItemAccess;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyItemCondition;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyItemDataMaskInfo;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyItemRowFilterInfo;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyResource;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerRowFilterPolicyItem;
+import org.apache.ranger.plugin.util.RangerPerfTracer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+/**
+ * Caches policies deserialized from policyText, across services and policy-cache rebuilds, so that only the policies
+ * updated since the previous load are deserialized again. A cached policy is replaced when the version or update-time
+ * of the policy in the database changes. Cached policies are never returned: callers get a copy, which they can update.
+ */
+public class RangerPolicyObjectCache {
+    private static final Logger LOG      = LoggerFactory.getLogger(RangerPolicyObjectCache.class);
+    private static final Logger PERF_LOG = RangerPerfTracer.getPerfLogger("db.RangerPolicyObjectCache");
+
+    private static final int DEFAULT_MAX_CACHED_POLICIES     = 250000;
+    private static final int DEFAULT_LOADER_THREAD_COUNT     = 4;
+    private static final int DEFAULT_PARALLEL_LOAD_MIN_COUNT = 500;
+
+    private static volatile RangerPolicyObjectCache sInstance;
+
+    private final boolean                 isEnabled;
+    private final int                     maxCachedPolicies;
+    private final int                     loaderThreadCount;
+    private final int                     parallelLoadMinCount;
+    private final Map<Long, CachedPolicy> policies = new ConcurrentHashMap<>();
+
+    RangerPolicyObjectCache(boolean isEnabled, int maxCachedPolicies, int loaderThreadCount, int parallelLoadMinCount) {
+        this.isEnabled            = isEnabled;
+        this.maxCachedPolicies    = maxCachedPolicies;
+        this.loaderThreadCount    = loaderThreadCount;
+        this.parallelLoadMinCount = parallelLoadMinCount;
+    }
+
+    public static RangerPolicyObjectCache getInstance() {
+        RangerPolicyObjectCache ret = sInstance;
+
+        if (ret == null) {
+            synchronized (RangerPolicyObjectCache.class) {
+                ret = sInstance;
+
+                if (ret == null) {
+                    RangerAdminConfig config = RangerAdminConfig.getInstance();
+
+                    ret = new RangerPolicyObjectCache(config.getBoolean("ranger.admin.policy.object.cache.enabled", true),
+                            config.getInt("ranger.admin.policy.object.cache.max.size", DEFAULT_MAX_CACHED_POLICIES),
+                            config.getInt("ranger.admin.policy.object.cache.loader.thread.count", DEFAULT_LOADER_THREAD_COUNT),
+                            config.getInt("ranger.admin.policy.object.cache.parallel.load.min.count", DEFAULT_PARALLEL_LOAD_MIN_COUNT));
+
+                    LOG.info("RangerPolicyObjectCache: enabled={}, maxCachedPolicies={}, loaderThreadCount={}, parallelLoadMinCount={}", ret.isEnabled, ret.maxCachedPolicies, ret.loaderThreadCount, ret.parallelLoadMinCount);
+
+                    sInstance = ret;
+                }
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * @param xPolicy policy from the database
+     * @return policy deserialized from policyText of xPolicy; null if policyText could not be deserialized
+     */
+    public RangerPolicy getPolicy(XXPolicy xPolicy) {
+        RangerPolicy ret;
+
+        if (isEnabled) {
+            RangerPolicy cached = getOrLoad(xPolicy);
+
+            ret = cached != null ? copyOf(cached) : null;
+        } else {
+            ret = JsonUtils.jsonToObject(xPolicy.getPolicyText(), RangerPolicy.class);
+        }
+
+        return ret;
+    }
+
+    /**
+     * Deserializes policies that are not in the cache, in parallel when there are many of them
+     *
+     * @param xPolicies policies from the database
+     */
+    public void preload(List<XXPolicy> xPolicies) {
+        if (!isEnabled || xPolicies == null) {
+            return;
+        }
+
+        List<XXPolicy> toLoad = xPolicies.stream().filter(xPolicy -> xPolicy != null && !isCached(xPolicy)).collect(Collectors.toList());
+
+        LOG.debug("==> RangerPolicyObjectCache.preload(policyCount={}): toLoad={}", xPolicies.size(), toLoad.size());
+
+        RangerPerfTracer perf = null;
+
+        if (RangerPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+            perf = RangerPerfTracer.getPerfTracer(PERF_LOG, "RangerPolicyObjectCache.preload(policyCount=" + xPolicies.size() + ", toLoad=" + toLoad.size() + ")");
+        }
+
+        if (loaderThreadCount > 1 && toLoad.size() >= parallelLoadMinCount) {
+            ForkJoinPool loaderPool = new ForkJoinPool(loaderThreadCount);
+
+            try {
+                loaderPool.submit(() -> toLoad.parallelStream().forEach(this::getOrLoad)).get();
+            } catch (InterruptedException excp) {
+                LOG.warn("RangerPolicyObjectCache.preload(): interrupted while loading {} policies", toLoad.size());
+
+                Thread.currentThread().interrupt();
+            } catch (Exception excp) {
+                LOG.warn("RangerPolicyObjectCache.preload(): failed to load {} policies in {} threads. Remaining policies will be loaded when retrieved", toLoad.size(), loaderThreadCount, excp);
+            } finally {
+                loaderPool.shutdownNow();
+            }
+        } else {
+            toLoad.forEach(this::getOrLoad);
+        }
+
+        RangerPerfTracer.log(perf);
+
+        LOG.debug("<== RangerPolicyObjectCache.preload(policyCount={}): toLoad={}, cacheSize={}", xPolicies.size(), toLoad.size(), policies.size());
+    }
+
+    public void clear() {
+        policies.clear();
+    }
+
+    int size() {
+        return policies.size();
+    }
+
+    static RangerPolicy copyOf(RangerPolicy other) {
+        RangerPolicy ret = new RangerPolicy();
+
+        ret.setId(other.getId());
+        ret.setGuid(other.getGuid());
+        ret.setIsEnabled(other.getIsEnabled());
+        ret.setCreatedBy(other.getCreatedBy());
+        ret.setUpdatedBy(other.getUpdatedBy());
+        ret.setCreateTime(other.getCreateTime());
+        ret.setUpdateTime(other.getUpdateTime());
+        ret.setVersion(other.getVersion());
+        ret.setService(other.getService());
+        ret.setName(other.getName());
+        ret.setPolicyType(other.getPolicyType());
+        ret.setPolicyPriority(other.getPolicyPriority());
+        ret.setDescription(other.getDescription());
+        ret.setResourceSignature(other.getResourceSignature());
+        ret.setIsAuditEnabled(other.getIsAuditEnabled());
+        ret.setResources(copyOfResources(other.getResources()));
+        ret.setConditions(copyOfConditions(other.getConditions()));
+        ret.setPolicyItems(copyOfPolicyItems(other.getPolicyItems()));
+        ret.setDenyPolicyItems(copyOfPolicyItems(other.getDenyPolicyItems()));
+        ret.setAllowExceptions(copyOfPolicyItems(other.getAllowExceptions()));
+        ret.setDenyExceptions(copyOfPolicyItems(other.getDenyExceptions()));
+        ret.setServiceType(other.getServiceType());
+        ret.setOptions(other.getOptions() != null ? new HashMap<>(other.getOptions()) : null);
+        ret.setValiditySchedules(other.getValiditySchedules() != null ? new ArrayList<>(other.getValiditySchedules()) : null);
+        ret.setPolicyLabels(copyOf(other.getPolicyLabels()));
+        ret.setZoneName(other.getZoneName());
+        ret.setIsDenyAllElse(other.getIsDenyAllElse());
+
+        if (other.getAdditionalResources() != null) {
+            List<Map<String, RangerPolicyResource>> additionalResources = new ArrayList<>(other.getAdditionalResources().size());
+
+            for (Map<String, RangerPolicyResource> resources : other.getAdditionalResources()) {
+                additionalResources.add(copyOfResources(resources));
+            }
+
+            ret.setAdditionalResources(additionalResources);
+        }
+
+        if (other.getDataMaskPolicyItems() != null) {
+            List<RangerDataMaskPolicyItem> dataMaskPolicyItems = new ArrayList<>(other.getDataMaskPolicyItems().size());
+
+            for (RangerDataMaskPolicyItem item : other.getDataMaskPolicyItems()) {
+                RangerPolicyItemDataMaskInfo dataMaskInfo = item.getDataMaskInfo() != null ? new RangerPolicyItemDataMaskInfo(item.getDataMaskInfo()) : null;
+
+                dataMaskPolicyItems.add(new RangerDataMaskPolicyItem(copyOfAccesses(item.getAccesses()), dataMaskInfo, copyOf(item.getUsers()), copyOf(item.getGroups()), copyOf(item.getRoles()), copyOfConditions(item.getConditions()), item.getDelegateAdmin()));
+            }
+
+            ret.setDataMaskPolicyItems(dataMaskPolicyItems);
+        }
+
+        if (other.getRowFilterPolicyItems() != null) {
+            List<RangerRowFilterPolicyItem> rowFilterPolicyItems = new ArrayList<>(other.getRowFilterPolicyItems().size());
+
+            for (RangerRowFilterPolicyItem item : other.getRowFilterPolicyItems()) {
+                RangerPolicyItemRowFilterInfo rowFilterInfo = item.getRowFilterInfo() != null ? new RangerPolicyItemRowFilterInfo(item.getRowFilterInfo()) : null;
+
+                rowFilterPolicyItems.add(new RangerRowFilterPolicyItem(rowFilterInfo, copyOfAccesses(item.getAccesses()), copyOf(item.getUsers()), copyOf(item.getGroups()), copyOf(item.getRoles()), copyOfConditions(item.getConditions()), item.getDelegateAdmin()));
+            }
+
+            ret.setRowFilterPolicyItems(rowFilterPolicyItems);
+        }
+
+        return ret;
+    }
+
+    private boolean isCached(XXPolicy xPolicy) {
+        CachedPolicy cached = policies.get(xPolicy.getId());
+
+        return cached != null && cached.isFor(xPolicy);
+    }
+
+    private RangerPolicy getOrLoad(XXPolicy xPolicy) {
+        CachedPolicy cached = policies.get(xPolicy.getId());
+
+        if (cached == null || !cached.isFor(xPolicy)) {
+            RangerPolicy policy = JsonUtils.jsonToObject(xPolicy.getPolicyText(), RangerPolicy.class);
+
+            if (policy == null) {
+                return null;
+            }
+
+            cached = new CachedPolicy(xPolicy.getVersion(), xPolicy.getUpdateTime(), policy);
+
+            if (policies.size() >= maxCachedPolicies) { // policies deleted from the database are removed only here
+                LOG.info("RangerPolicyObjectCache: cache has {} policies, limit is {}. Clearing the cache", policies.size(), maxCachedPolicies);
+
+                policies.clear();
+            }
+
+            policies.put(xPolicy.getId(), cached);
+        }
+
+        return cached.policy;
+    }
+
+    private static List<String> copyOf(List<String> list) {
+        return list != null ? new ArrayList<>(list) : null;
+    }
+
+    private static Map<String, RangerPolicyResource> copyOfResources(Map<String, RangerPolicyResource> resources) {
+        Map<String, RangerPolicyResource> ret = null;
+
+        if (resources != null) {
+            ret = new HashMap<>(resources.size());
+
+            for (Map.Entry<String, RangerPolicyResource> entry : resources.entrySet()) {
+                RangerPolicyResource resource = entry.getValue();
+
+                ret.put(entry.getKey(), resource != null ? new RangerPolicyResource(copyOf(resource.getValues()), resource.getIsExcludes(), resource.getIsRecursive()) : null);
+            }
+        }
+
+        return ret;
+    }
+
+    private static List<RangerPolicyItemCondition> copyOfConditions(List<RangerPolicyItemCondition> conditions) {
+        List<RangerPolicyItemCondition> ret = null;
+
+        if (conditions != null) {
+            ret = new ArrayList<>(conditions.size());
+
+            for (RangerPolicyItemCondition condition : conditions) {
+                ret.add(new RangerPolicyItemCondition(condition.getType(), copyOf(condition.getValues())));
+            }
+        }
+
+        return ret;
+    }
+
+    private static List<RangerPolicyItemAccess> copyOfAccesses(List<RangerPolicyItemAccess> accesses) {
+        List<RangerPolicyItemAccess> ret = null;
+
+        if (accesses != null) {
+            ret = new ArrayList<>(accesses.size());
+
+            for (RangerPolicyItemAccess access : accesses) {
+                ret.add(new RangerPolicyItemAccess(access.getType(), access.getIsAllowed()));
+            }
+        }
+
+        return ret;
+    }
+
+    private static List<RangerPolicyItem> copyOfPolicyItems(List<RangerPolicyItem> items) {
+        List<RangerPolicyItem> ret = null;
+
+        if (items != null) {
+            ret = new ArrayList<>(items.size());
+
+            for (RangerPolicyItem item : items) {
+                ret.add(new RangerPolicyItem(copyOfAccesses(item.getAccesses()), copyOf(item.getUsers()), copyOf(item.getGroups()), copyOf(item.getRoles()), copyOfConditions(item.getConditions()), item.getDelegateAdmin()));
+            }
+        }
+
+        return ret;
+    }
+
+    private static class CachedPolicy {
+        final Long         version;
+        final Date         updateTime;
+        final RangerPolicy policy;
+
+        CachedPolicy(Long version, Date updateTime, RangerPolicy policy) {
+            this.version    = version;
+            this.updateTime = updateTime;
+            this.policy     = policy;
+        }
+
+        boolean isFor(XXPolicy xPolicy) {
+            return Objects.equals(version, xPolicy.getVersion()) && Objects.equals(updateTime != null ? updateTime.getTime() : null, xPolicy.getUpdateTime() != null ? xPolicy.getUpdateTime().getTime() : null);
+        }
+    }
+}
@@ -22,7 +22,6 @@
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections.MapUtils;
 import org.apache.commons.lang.StringUtils;
-import org.apache.ranger.authorization.utils.JsonUtils;
 import org.apache.ranger.authorization.utils.StringUtil;
 import org.apache.ranger.db.RangerDaoManager;
 import org.apache.ranger.entity.XXPolicy;
@@ -56,7 +55,8 @@ public class RangerPolicyRetriever {
     static final Logger PERF_LOG = RangerPerfTracer.getPerfLogger("db.RangerPolicyRetriever");
 
     private final RangerDaoManager           daoMgr;
-    private final LookupCache                lookupCache = new LookupCache();
+    private final LookupCache                lookupCache       = new LookupCache();
+    private final RangerPolicyObjectCache    policyObjectCache = RangerPolicyObjectCache.getInstance();
     private final PlatformTransactionManager txManager;
     private final TransactionTemplate        txTemplate;
 
@@ -460,9 +460,13 @@ class RetrieverContext {
                 lookupCache.setDataMaskNameMapping(daoMgr.getXXPolicyRefDataMaskType().findUpdatedDataMaskNamesByService(serviceId));
                 lookupCache.setConditionNameMapping(daoMgr.getXXPolicyRefCondition().findUpdatedConditionNamesByService(serviceId));
 
+                List<XXPolicy> xPolicies = daoMgr.getXXPolicy().findByServiceId(serviceId);
+
+                policyObjectCache.preload(xPolicies); // deserializes policies updated since the last load, in parallel
+
                 this.service          = xService;
                 this.serviceDef       = daoMgr.getXXServiceDef().getById(xService.getType());
-                this.iterPolicy       = daoMgr.getXXPolicy().findByServiceId(serviceId).listIterator();
+                this.iterPolicy       = xPolicies.listIterator();
                 this.iterPolicyLabels = daoMgr.getXXPolicyLabelMap().findByServiceId(serviceId).listIterator();
             } else {
                 this.service          = null;
@@ -499,9 +503,7 @@ RangerPolicy getNextPolicy() {
                 iterPolicy.remove();
 
                 if (xPolicy != null) {
-                    String policyText = xPolicy.getPolicyText();
-
-                    ret = JsonUtils.jsonToObject(policyText, RangerPolicy.class);
+                    ret = policyObjectCache.getPolicy(xPolicy);
 
                     if (ret != null) {
                         ret.setId(xPolicy.getId());
@@ -240,13 +240,17 @@ public List<String> getRoleNames(SearchFilter filter) {
 
     @Override
     public RangerRoles getRoles(String serviceName, Long lastKnownRoleVersion) throws Exception {
+        return getRoles(serviceName, lastKnownRoleVersion, false);
+    }
+
+    public RangerRoles getRoles(String serviceName, Long lastKnownRoleVersion, boolean supportsDeltas) throws Exception {
         RangerRoles ret                   = null;
         Long        rangerRoleVersionInDB = getRoleVersion(serviceName);
 
-        LOG.debug("==> RoleDBStore.getRoles() lastKnownRoleVersion= {} rangerRoleVersionInDB= {}", lastKnownRoleVersion, rangerRoleVersionInDB);
+        LOG.debug("==> RoleDBStore.getRoles() lastKnownRoleVersion= {} rangerRoleVersionInDB= {} supportsDeltas= {}", lastKnownRoleVersion, rangerRoleVersionInDB, supportsDeltas);
 
         if (rangerRoleVersionInDB != null) {
-            ret = RangerRoleCache.getInstance().getLatestRangerRoleOrCached(serviceName, this, lastKnownRoleVersion, rangerRoleVersionInDB);
+            ret = RangerRoleCache.getInstance().getLatestRangerRoleOrCached(serviceName, this, lastKnownRoleVersion, rangerRoleVersionInDB, supportsDeltas);
         }
 
         LOG.debug("<= RoleDBStore.getRoles() lastKnownRoleVersion= {} rangerRoleVersionInDB= {} RangerRoles= {}", lastKnownRoleVersion, rangerRoleVersionInDB, ret);
@@ -269,6 +273,13 @@ public Long getRoleVersion(String serviceName) {
         return ret;
     }
 
+    /**
+     * @return version of roles updated on every change to roles, even when roles are versioned per service
+     */
+    public Long getGlobalRoleVersion() {
+        return daoMgr.getXXGlobalState().getAppDataVersion(RANGER_GLOBAL_STATE_NAME_ROLE);
+    }
+
     @Override
     public boolean roleExists(Long id) {
         XXRole role = daoMgr.getXXRole().findByRoleId(id);
@@ -19,19 +19,24 @@
 
 package org.apache.ranger.biz;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections.MapUtils;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.SerializationUtils;
 import org.apache.commons.lang.StringUtils;
 import org.apache.hadoop.thirdparty.com.google.common.base.Joiner;
-import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellStyle;
 import org.apache.poi.ss.usermodel.Font;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.ranger.audit.provider.MiscUtil;
 import org.apache.ranger.authorization.hadoop.config.RangerAdminConfig;
 import org.apache.ranger.authorization.utils.JsonUtils;
@@ -46,6 +51,7 @@
 import org.apache.ranger.common.RangerCommonEnums;
 import org.apache.ranger.common.RangerConstants;
 import org.apache.ranger.common.RangerFactory;
+import org.apache.ranger.common.RangerPolicySearchIndex;
 import org.apache.ranger.common.RangerServicePoliciesCache;
 import org.apache.ranger.common.RangerVersionInfo;
 import org.apache.ranger.common.SearchCriteria;
@@ -184,17 +190,21 @@
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.support.TransactionTemplate;
 
 import javax.annotation.PostConstruct;
 import javax.servlet.ServletOutputStream;
 import javax.servlet.http.HttpServletResponse;
 
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
@@ -213,6 +223,9 @@
 import java.util.Set;
 import java.util.StringTokenizer;
 import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -255,6 +268,8 @@ public class ServiceDBStore extends AbstractServiceStore {
     private static final String LINE_SEPARATOR              = "\n";
     private static final String FILE_HEADER                 = "ID|Name|Resources|Roles|Groups|Users|Accesses|Service Type|Status|Policy Type|Delegate Admin|isRecursive|isExcludes|Service Name|Description|isAuditEnabled|Policy Conditions|Policy Condition Type|Masking Options|Row Filter Expr|Policy Label Name";
     private static final String COMMA_DELIMITER             = "|";
+    private static final int    EXCEL_ROW_WINDOW_SIZE       = 500;
+    private static final String EXCEL_CONTENT_TYPE          = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
 
     private static final String  DEFAULT_CSV_SANITIZATION_PATTERN = "^[=+\\-@\\t\\r]";
     private static final Pattern CSV_SANITIZATION_PATTERN = Pattern.compile(PropertiesUtil.getProperty("ranger.admin.csv.sanitization.pattern", DEFAULT_CSV_SANITIZATION_PATTERN));
@@ -271,6 +286,7 @@ public class ServiceDBStore extends AbstractServiceStore {
     public static Integer TRANSACTION_RECORDS_RETENTION_PERIOD_IN_DAYS;
     public static boolean SUPPORTS_PURGE_POLICY_EXPORT_LOGS;
     public static Integer POLICY_EXPORT_LOGS_RETENTION_PERIOD_IN_DAYS;
+    public static int     PURGE_BATCH_SIZE             = 10000;
 
     private static String  LOCAL_HOSTNAME;
     private static boolean isRolesDownloadedByService;
@@ -1981,6 +1997,7 @@ public void initStore() {
                     LOGIN_RECORDS_RETENTION_PERIOD_IN_DAYS       = config.getInt("ranger.admin.init.purge.login_records.retention.days", 0);
                     TRANSACTION_RECORDS_RETENTION_PERIOD_IN_DAYS = config.getInt("ranger.admin.init.purge.transaction_records.retention.days", 0);
                     POLICY_EXPORT_LOGS_RETENTION_PERIOD_IN_DAYS  = config.getInt("ranger.admin.init.purge.policy_export_logs.retention.days", 0);
+                    PURGE_BATCH_SIZE                             = config.getInt("ranger.admin.purge.batch.size", PURGE_BATCH_SIZE);
 
                     isRolesDownloadedByService       = config.getBoolean("ranger.support.for.service.specific.role.download", false);
                     SUPPORTS_IN_PLACE_POLICY_UPDATES = SUPPORTS_POLICY_DELTAS && config.getBoolean("ranger.admin" + RangerCommonConstants.RANGER_ADMIN_SUFFIX_IN_PLACE_POLICY_UPDATES, RangerCommonConstants.RANGER_ADMIN_SUFFIX_IN_PLACE_POLICY_UPDATES_DEFAULT);
@@ -1994,6 +2011,7 @@ public void initStore() {
                     LOG.info("TRANSACTION_RECORDS_RETENTION_PERIOD_IN_DAYS={}", TRANSACTION_RECORDS_RETENTION_PERIOD_IN_DAYS);
                     LOG.info("SUPPORTS_PURGE_POLICY_EXPORT_LOGS={}", SUPPORTS_PURGE_POLICY_EXPORT_LOGS);
                     LOG.info("POLICY_EXPORT_LOGS_RETENTION_PERIOD_IN_DAYS={}", POLICY_EXPORT_LOGS_RETENTION_PERIOD_IN_DAYS);
+                    LOG.info("PURGE_BATCH_SIZE={}", PURGE_BATCH_SIZE);
                     LOG.info("isRolesDownloadedByService={}", isRolesDownloadedByService);
                     LOG.info("SUPPORTS_IN_PLACE_POLICY_UPDATES={}", SUPPORTS_IN_PLACE_POLICY_UPDATES);
 
@@ -2315,39 +2333,37 @@ public RangerPolicy getPolicy(String guid, String serviceName, String zoneName)
         return ret;
     }
 
-    public void getPoliciesInExcel(List<RangerPolicy> policies, HttpServletResponse response) throws Exception {
+    public void getPoliciesInExcel(Iterator<RangerPolicy> policies, HttpServletResponse response) throws Exception {
         LOG.debug("==> ServiceDBStore.getPoliciesInExcel()");
 
         String timeStamp     = new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date());
-        String excelFileName = "Ranger_Policies_" + timeStamp + ".xls";
+        String excelFileName = "Ranger_Policies_" + timeStamp + ".xlsx";
 
         writeExcel(policies, excelFileName, response);
     }
 
-    public void getPoliciesInCSV(List<RangerPolicy> policies, HttpServletResponse response) throws Exception {
+    public void getPoliciesInCSV(Iterator<RangerPolicy> policies, HttpServletResponse response) throws Exception {
         LOG.debug("==> ServiceDBStore.getPoliciesInCSV()");
 
-        ServletOutputStream out         = null;
-        String              csvfilename = null;
+        Writer writer      = null;
+        String csvfilename = null;
 
         try {
             String timeStamp = new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date());
 
             csvfilename = "Ranger_Policies_" + timeStamp + ".csv";
-            out         = response.getOutputStream();
+            writer      = new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8));
 
-            StringBuilder sb = writeCSV(policies, csvfilename, response);
-
-            IOUtils.write(sb.toString(), out, "UTF-8");
+            writeCSV(policies, csvfilename, response, writer);
         } catch (Exception e) {
             LOG.error("Error while generating report file {}", csvfilename, e);
 
             e.printStackTrace();
         } finally {
             try {
-                if (out != null) {
-                    out.flush();
-                    out.close();
+                if (writer != null) {
+                    writer.flush();
+                    writer.close();
                 }
             } catch (Exception ex) {
                 // ignored
@@ -2360,19 +2376,48 @@ public <T> void getObjectInJson(List<T> objList, HttpServletResponse response, J
 
         String timeStamp = new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date());
         String jsonFileName;
+        Object exportList;
+        String listFieldName;
 
         switch (type) {
             case POLICY:
-                jsonFileName = "Ranger_Policies_" + timeStamp + ".json";
+                RangerExportPolicyList rangerExportPolicyList = new RangerExportPolicyList();
+
+                rangerExportPolicyList.setMetaDataInfo(getMetaDataInfo());
+
+                jsonFileName  = "Ranger_Policies_" + timeStamp + ".json";
+                exportList    = rangerExportPolicyList;
+                listFieldName = "policies";
                 break;
             case ROLE:
-                jsonFileName = "Ranger_Roles_" + timeStamp + ".json";
+                RangerExportRoleList rangerExportRoleList = new RangerExportRoleList();
+                Map<String, Object>  metaDataInfo         = getMetaDataInfo();
+
+                metaDataInfo.put(EXPORT_COUNT, objList.size());
+
+                rangerExportRoleList.setMetaDataInfo(metaDataInfo);
+
+                jsonFileName  = "Ranger_Roles_" + timeStamp + ".json";
+                exportList    = rangerExportRoleList;
+                listFieldName = "roles";
                 break;
             default:
                 throw restErrorUtil.createRESTException("Invalid type " + type);
         }
 
-        writeJson(objList, jsonFileName, response, type);
+        writeJson(exportList, listFieldName, objList.iterator(), jsonFileName, response);
+    }
+
+    public void getPoliciesInJson(Iterator<RangerPolicy> policies, HttpServletResponse response) throws Exception {
+        LOG.debug("==> ServiceDBStore.getPoliciesInJson()");
+
+        String                 timeStamp              = new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date());
+        String                 jsonFileName           = "Ranger_Policies_" + timeStamp + ".json";
+        RangerExportPolicyList rangerExportPolicyList = new RangerExportPolicyList();
+
+        rangerExportPolicyList.setMetaDataInfo(getMetaDataInfo());
+
+        writeJson(rangerExportPolicyList, "policies", policies, jsonFileName, response);
     }
 
     public List<RangerPolicy> noZoneFilter(List<RangerPolicy> servicePolicies) {
@@ -2607,7 +2652,15 @@ public void removeAuthSessions(int retentionInDays, List<RangerPurgeResult> resu
         if (retentionInDays > 0) {
             XXAuthSessionDao dao         = daoMgr.getXXAuthSession();
             long             rowsCount   = dao.getAllCount();
-            long             rowsDeleted = dao.deleteOlderThan(retentionInDays);
+            long             rowsDeleted;
+
+            if (PURGE_BATCH_SIZE > 0) {
+                rowsDeleted = deleteOlderThanInBatches("x_auth_sess", retentionInDays, dao::findIdsOlderThan, dao::deleteAuthSessionsByIds);
+
+                dao.clearTrxLogSessionIdsOlderThan(getOlderThanDate(retentionInDays));
+            } else {
+                rowsDeleted = dao.deleteOlderThan(retentionInDays);
+            }
 
             LOG.info("Deleted {} records from x_auth_sess that are older than {} days", rowsDeleted, retentionInDays);
 
@@ -2625,7 +2678,7 @@ public void removeTransactionLogs(int retentionInDays, List<RangerPurgeResult> r
         if (retentionInDays > 0) {
             XXTrxLogV2Dao dao         = daoMgr.getXXTrxLogV2();
             long          rowsCount   = dao.getAllCount();
-            long          rowsDeleted = dao.deleteOlderThan(retentionInDays);
+            long          rowsDeleted = PURGE_BATCH_SIZE > 0 ? deleteOlderThanInBatches("x_trx_log_v2", retentionInDays, dao::findIdsOlderThan, dao::deleteByIds) : dao.deleteOlderThan(retentionInDays);
 
             LOG.info("Deleted {} records from x_trx_log that are older than {} days", rowsDeleted, retentionInDays);
 
@@ -2643,7 +2696,7 @@ public void removePolicyExportLogs(int retentionInDays, List<RangerPurgeResult>
         if (retentionInDays > 0) {
             XXPolicyExportAuditDao dao         = daoMgr.getXXPolicyExportAudit();
             long                   rowsCount   = dao.getAllCount();
-            long                   rowsDeleted = dao.deleteOlderThan(retentionInDays);
+            long                   rowsDeleted = PURGE_BATCH_SIZE > 0 ? deleteOlderThanInBatches("x_policy_export_audit", retentionInDays, dao::findIdsOlderThan, dao::deleteByIds) : dao.deleteOlderThan(retentionInDays);
 
             LOG.info("Deleted {} records from x_policy_export_audit that are older than {} days", rowsDeleted, retentionInDays);
 
@@ -2817,6 +2870,52 @@ public void updateServiceAuditConfig(String searchUsrGrpRoleName, REMOVE_REF_TYP
         LOG.debug("<=== ServiceDBStore.updateServiceAuditConfig( searchUsrGrpRoleName : {} removeRefType : {})", searchUsrGrpRoleName, removeRefType);
     }
 
+    /*
+     * Deletes records older than retentionInDays in batches of PURGE_BATCH_SIZE records, each batch in its own
+     * transaction, so that locks are held on a bounded number of rows and only for the duration of a batch
+     */
+    long deleteOlderThanInBatches(String tableName, int retentionInDays, BiFunction<Date, Integer, List<Long>> idsFinder, Consumer<List<Long>> idsDeleter) {
+        LOG.debug("==> deleteOlderThanInBatches({}, {})", tableName, retentionInDays);
+
+        final Date                olderThan  = getOlderThanDate(retentionInDays);
+        final TransactionTemplate txTemplate = new TransactionTemplate(txManager);
+        long                      ret        = 0;
+
+        txTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        LOG.info("Deleting {} records that are older than {} days, that is, older than {}, in batches of {}", tableName, retentionInDays, olderThan, PURGE_BATCH_SIZE);
+
+        while (true) {
+            Integer deletedCount = txTemplate.execute(status -> {
+                List<Long> ids = idsFinder.apply(olderThan, PURGE_BATCH_SIZE);
+
+                if (CollectionUtils.isEmpty(ids)) {
+                    return 0;
+                }
+
+                idsDeleter.accept(ids);
+
+                return ids.size();
+            });
+
+            if (deletedCount == null || deletedCount == 0) {
+                break;
+            }
+
+            ret += deletedCount;
+
+            LOG.debug("deleteOlderThanInBatches({}): deleted {} records so far", tableName, ret);
+
+            if (deletedCount < PURGE_BATCH_SIZE) {
+                break;
+            }
+        }
+
+        LOG.debug("<== deleteOlderThanInBatches({}, {}): ret={}", tableName, retentionInDays, ret);
+
+        return ret;
+    }
+
     void createTransactionLog(RangerPolicy policy, int operationImportContext, int operationContext) {
         StackTraceElement[] trace = Thread.currentThread().getStackTrace();
 
@@ -3899,9 +3998,10 @@ private List<RangerPolicy> getServicePolicies(XXService service, SearchFilter fi
             throw new Exception("service does not exist");
         }
 
-        List<RangerPolicy>       ret;
-        ServicePolicies          servicePolicies = RangerServicePoliciesCache.getInstance().getServicePolicies(service.getName(), service.getId(), -1L, true, this);
-        final List<RangerPolicy> policies        = servicePolicies != null ? servicePolicies.getPolicies() : null;
+        List<RangerPolicy>         ret;
+        RangerServicePoliciesCache policiesCache   = RangerServicePoliciesCache.getInstance();
+        ServicePolicies            servicePolicies = policiesCache.getServicePolicies(service.getName(), service.getId(), -1L, true, this);
+        final List<RangerPolicy>   policies        = servicePolicies != null ? servicePolicies.getPolicies() : null;
 
         if (policies != null && filter != null && MapUtils.isNotEmpty(filter.getParams())) {
             Map<String, String> filterResources         = filter.getParamsWithPrefix(SearchFilter.RESOURCE_PREFIX, true);
@@ -3919,7 +4019,9 @@ private List<RangerPolicy> getServicePolicies(XXService service, SearchFilter fi
 
             LOG.debug("Using{}way of filtering service-policies", useLegacyResourceSearch ? " old " : " new ");
 
-            ret = new ArrayList<>(policies);
+            RangerPolicySearchIndex searchIndex = policiesCache.getPolicySearchIndex(servicePolicies);
+
+            ret = new ArrayList<>(searchIndex != null ? searchIndex.getCandidatePolicies(searchFilter) : policies);
 
             predicateUtil.applyFilter(ret, searchFilter);
 
@@ -4074,6 +4176,10 @@ private ServicePolicies getServicePolicies(String serviceName, Long lastKnownVer
         return ret;
     }
 
+    private static Date getOlderThanDate(int olderThanInDays) {
+        return new Date(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(olderThanInDays));
+    }
+
     private static List<RangerPolicyDelta> compressDeltas(List<RangerPolicyDelta> deltas) {
         List<RangerPolicyDelta>                  ret            = new ArrayList<>();
         final Map<Long, List<RangerPolicyDelta>> policyDeltaMap = new HashMap<>();
@@ -4278,6 +4384,14 @@ private void updatePolicyVersion(RangerService service, Integer policyDeltaType,
 
         final RangerDaoManager daoManager = daoMgr;
         final Long             serviceId  = serviceDbObj.getId();
+        final boolean          isBulkMode = RangerBizUtil.isBulkMode();
+
+        if (isBulkMode) {
+            // bulk operations, like policy import, update version of a service once per transaction instead of once per policy;
+            // a service-change in policy change-log results in plugins to download all policies instead of deltas
+            policyDeltaType = RangerPolicyDelta.CHANGE_TYPE_SERVICE_CHANGE;
+            policy          = null;
+        }
 
         // if this is a tag/gds service, update all services that refer to this service
         // so that next policy-download from plugins will get updated tag/gds policies
@@ -4289,12 +4403,12 @@ private void updatePolicyVersion(RangerService service, Integer policyDeltaType,
             for (Long referringServiceId : referringServiceIds) {
                 Runnable policyVersionUpdater = new ServiceVersionUpdater(daoManager, referringServiceId, VERSION_TYPE.POLICY_VERSION, policy != null ? policy.getZoneName() : null, policyDeltaType, policy);
 
-                transactionSynchronizationAdapter.executeOnTransactionCommit(policyVersionUpdater);
+                executeVersionUpdateOnTransactionCommit(policyVersionUpdater, referringServiceId, VERSION_TYPE.POLICY_VERSION, isBulkMode);
 
                 if (updateServiceInfoRoleVersion) {
                     Runnable roleVersionUpdater = new ServiceVersionUpdater(daoManager, referringServiceId, VERSION_TYPE.ROLE_VERSION, policy != null ? policy.getZoneName() : null, policyDeltaType, policy);
 
-                    transactionSynchronizationAdapter.executeOnTransactionCommit(roleVersionUpdater);
+                    executeVersionUpdateOnTransactionCommit(roleVersionUpdater, referringServiceId, VERSION_TYPE.ROLE_VERSION, isBulkMode);
                 }
             }
         }
@@ -4303,12 +4417,20 @@ private void updatePolicyVersion(RangerService service, Integer policyDeltaType,
 
         Runnable serviceVersionUpdater = new ServiceVersionUpdater(daoManager, serviceId, versionType, policy != null ? policy.getZoneName() : null, policyDeltaType, policy);
 
-        transactionSynchronizationAdapter.executeOnTransactionCommit(serviceVersionUpdater);
+        executeVersionUpdateOnTransactionCommit(serviceVersionUpdater, serviceId, versionType, isBulkMode);
 
         if (updateServiceInfoRoleVersion) {
             Runnable roleVersionUpdater = new ServiceVersionUpdater(daoManager, serviceId, VERSION_TYPE.ROLE_VERSION, policy != null ? policy.getZoneName() : null, policyDeltaType, policy);
 
-            transactionSynchronizationAdapter.executeOnTransactionCommit(roleVersionUpdater);
+            executeVersionUpdateOnTransactionCommit(roleVersionUpdater, serviceId, VERSION_TYPE.ROLE_VERSION, isBulkMode);
+        }
+    }
+
+    private void executeVersionUpdateOnTransactionCommit(Runnable versionUpdater, Long serviceId, VERSION_TYPE versionType, boolean isBulkMode) {
+        if (isBulkMode) {
+            transactionSynchronizationAdapter.executeOnTransactionCommitOnce("ServiceVersionUpdater:" + serviceId + ":" + versionType, versionUpdater);
+        } else {
+            transactionSynchronizationAdapter.executeOnTransactionCommit(versionUpdater);
         }
     }
 
@@ -4525,20 +4647,22 @@ private boolean isResourceInList(String resource, List<XXResourceDef> xResourceD
         return false;
     }
 
-    private void writeExcel(List<RangerPolicy> policies, String excelFileName, HttpServletResponse response) throws IOException {
-        OutputStream outStream = null;
+    private void writeExcel(Iterator<RangerPolicy> policies, String excelFileName, HttpServletResponse response) throws IOException {
+        OutputStream  outStream = null;
+        SXSSFWorkbook workbook  = new SXSSFWorkbook(EXCEL_ROW_WINDOW_SIZE); // rows beyond the window are flushed to a temporary file
 
-        try (Workbook workbook = new HSSFWorkbook()) {
+        try {
             Sheet sheet = workbook.createSheet();
 
             createHeaderRow(sheet);
 
             int rowCount = 0;
 
-            if (!CollectionUtils.isEmpty(policies)) {
+            if (policies != null) {
                 Map<String, String> svcNameToSvcType = new HashMap<>();
 
-                for (RangerPolicy policy : policies) {
+                while (policies.hasNext()) {
+                    RangerPolicy                    policy               = policies.next();
                     List<RangerPolicyItem>          policyItems          = policy.getPolicyItems();
                     List<RangerRowFilterPolicyItem> rowFilterPolicyItems = policy.getRowFilterPolicyItems();
                     List<RangerDataMaskPolicyItem>  dataMaskPolicyItems  = policy.getDataMaskPolicyItems();
@@ -4617,45 +4741,44 @@ private void writeExcel(List<RangerPolicy> policies, String excelFileName, HttpS
                 }
             }
 
-            ByteArrayOutputStream outByteStream = new ByteArrayOutputStream();
-
-            workbook.write(outByteStream);
-
-            byte[] outArray = outByteStream.toByteArray();
-
-            response.setContentType("application/ms-excel");
-            response.setContentLength(outArray.length);
+            response.setContentType(EXCEL_CONTENT_TYPE);
             response.setHeader("Expires:", "0");
             response.setHeader("Content-Disposition", "attachment; filename=" + excelFileName);
             response.setStatus(HttpServletResponse.SC_OK);
 
             outStream = response.getOutputStream();
 
-            outStream.write(outArray);
+            workbook.write(outStream);
             outStream.flush();
         } catch (IOException ex) {
             LOG.error("Failed to create report file {}", excelFileName, ex);
         } catch (Exception ex) {
             LOG.error("Error while generating report file {}", excelFileName, ex);
         } finally {
+            workbook.dispose();
+            workbook.close();
+
             if (outStream != null) {
                 outStream.close();
             }
         }
     }
 
-    private StringBuilder writeCSV(List<RangerPolicy> policies, String cSVFileName, HttpServletResponse response) {
+    private void writeCSV(Iterator<RangerPolicy> policies, String cSVFileName, HttpServletResponse response, Writer writer) throws IOException {
         response.setContentType("text/csv");
+        response.setHeader("Content-Disposition", "attachment; filename=" + cSVFileName);
+        response.setStatus(HttpServletResponse.SC_OK);
 
         StringBuilder csvBuffer = new StringBuilder();
 
-        csvBuffer.append(FILE_HEADER);
-        csvBuffer.append(LINE_SEPARATOR);
+        writer.write(FILE_HEADER);
+        writer.write(LINE_SEPARATOR);
 
-        if (!CollectionUtils.isEmpty(policies)) {
+        if (policies != null) {
             Map<String, String> svcNameToSvcType = new HashMap<>();
 
-            for (RangerPolicy policy : policies) {
+            while (policies.hasNext()) {
+                RangerPolicy                    policy               = policies.next();
                 List<RangerPolicyItem>          policyItems          = policy.getPolicyItems();
                 List<RangerRowFilterPolicyItem> rowFilterPolicyItems = policy.getRowFilterPolicyItems();
                 List<RangerDataMaskPolicyItem>  dataMaskPolicyItems  = policy.getDataMaskPolicyItems();
@@ -4715,13 +4838,12 @@ private StringBuilder writeCSV(List<RangerPolicy> policies, String cSVFileName,
                         writeCSVForPolicyItems(svcNameToSvcType, policy, policyItem, null, null, csvBuffer, POLICY_DENY_INCLUDE);
                     }
                 }
-            }
-        }
 
-        response.setHeader("Content-Disposition", "attachment; filename=" + cSVFileName);
-        response.setStatus(HttpServletResponse.SC_OK);
+                writer.append(csvBuffer); // write rows of one policy at a time, instead of buffering the entire report
 
-        return csvBuffer;
+                csvBuffer.setLength(0);
+            }
+        }
     }
 
     private void writeCSVForPolicyItems(Map<String, String> svcNameToSvcType, RangerPolicy policy, RangerPolicyItem policyItem, RangerDataMaskPolicyItem dataMaskPolicyItem, RangerRowFilterPolicyItem rowFilterPolicyItem, StringBuilder csvBuffer, String policyConditionType) {
@@ -4964,45 +5086,18 @@ private String sanitizeCell(String value) {
         return (value != null && !value.isEmpty() && CSV_SANITIZATION_PATTERN.matcher(value).find()) ? " " + value : value;
     }
 
-    private <T> void writeJson(List<T> objList, String jsonFileName, HttpServletResponse response, JSON_FILE_NAME_TYPE type) {
+    private void writeJson(Object exportList, String listFieldName, Iterator<?> objList, String jsonFileName, HttpServletResponse response) {
         response.setContentType("text/json");
         response.setHeader("Content-Disposition", "attachment; filename=" + jsonFileName);
 
         ServletOutputStream out = null;
-        String              json;
-
-        switch (type) {
-            case POLICY:
-                RangerExportPolicyList rangerExportPolicyList = new RangerExportPolicyList();
-
-                rangerExportPolicyList.setGenericPolicies(objList);
-                rangerExportPolicyList.setMetaDataInfo(getMetaDataInfo());
-
-                json = JsonUtils.objectToJson(rangerExportPolicyList);
-                break;
-            case ROLE:
-                RangerExportRoleList rangerExportRoleList = new RangerExportRoleList();
-
-                rangerExportRoleList.setGenericRoleList(objList);
-
-                Map<String, Object> metaDataInfo = getMetaDataInfo();
-
-                metaDataInfo.put(EXPORT_COUNT, rangerExportRoleList.getListSize());
-
-                rangerExportRoleList.setMetaDataInfo(metaDataInfo);
-
-                json = JsonUtils.objectToJson(rangerExportRoleList);
-                break;
-            default:
-                throw restErrorUtil.createRESTException("Invalid type " + type);
-        }
 
         try {
             out = response.getOutputStream();
 
             response.setStatus(HttpServletResponse.SC_OK);
 
-            IOUtils.write(json, out, "UTF-8");
+            writeJson(exportList, listFieldName, objList, out);
         } catch (Exception e) {
             LOG.error("Error while exporting json file {}", jsonFileName, e);
         } finally {
@@ -5017,6 +5112,41 @@ private <T> void writeJson(List<T> objList, String jsonFileName, HttpServletResp
         }
     }
 
+    /*
+     * Writes exportList as JSON, with elements of listFieldName written one at a time from objList; this avoids building
+     * the entire export in memory. Output is same as JsonUtils.objectToJson() of exportList having objList as listFieldName
+     */
+    private void writeJson(Object exportList, String listFieldName, Iterator<?> objList, OutputStream out) throws IOException {
+        ObjectMapper mapper     = JsonUtils.getMapper();
+        ObjectWriter itemWriter = mapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        JsonNode     listNode   = mapper.valueToTree(exportList); // with empty list
+
+        try (JsonGenerator generator = mapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartObject();
+
+            for (Iterator<Entry<String, JsonNode>> iter = listNode.fields(); iter.hasNext(); ) {
+                Entry<String, JsonNode> field = iter.next();
+
+                generator.writeFieldName(field.getKey());
+
+                if (StringUtils.equals(field.getKey(), listFieldName)) {
+                    generator.writeStartArray();
+
+                    while (objList.hasNext()) {
+                        itemWriter.writeValue(generator, objList.next());
+                    }
+
+                    generator.writeEndArray();
+                } else {
+                    mapper.writeTree(generator, field.getValue());
+                }
+            }
+
+            generator.writeEndObject();
+        }
+    }
+
     private void writeBookForPolicyItems(Map<String, String> svcNameToSvcType, RangerPolicy policy, RangerPolicyItem policyItem, RangerDataMaskPolicyItem dataMaskPolicyItem, RangerRowFilterPolicyItem rowFilterPolicyItem, Row row, String policyConditionType) {
         LOG.debug("policyConditionType:[{}]", policyConditionType);
 
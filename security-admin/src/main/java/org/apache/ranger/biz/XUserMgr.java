@@ -86,6 +86,7 @@
 import org.apache.ranger.service.XUgsyncAuditInfoService;
 import org.apache.ranger.ugsyncutil.model.GroupUserInfo;
 import org.apache.ranger.ugsyncutil.model.UsersGroupRoleAssignments;
+import org.apache.ranger.ugsyncutil.util.GroupUserInfoUtil;
 import org.apache.ranger.view.VXAuditMap;
 import org.apache.ranger.view.VXAuditMapList;
 import org.apache.ranger.view.VXGroup;
@@ -148,6 +149,7 @@ public class XUserMgr extends XUserMgrBase {
     private static final String GROUP                      = "Group";
     private static final int    MAX_DB_TRANSACTION_RETRIES = 5;
     private static final int    PASSWORD_LENGTH            = 16;
+    private static final int    BULK_GROUP_USERS_TX_SIZE   = PropertiesUtil.getIntProperty("ranger.admin.usersync.bulk.groupusers.transaction.size", 1000);
 
     @Autowired
     RangerBizUtil msBizUtil;
@@ -2807,15 +2809,26 @@ public Map<String, Set<String>> getUserGroups() {
     }
 
     public RangerUserStore getRangerUserStoreIfUpdated(Long lastKnownUserStoreVersion) {
-        logger.debug("==> XUserMgr.getRangerUserStoreIfUpdated(lastKnownUserStoreVersion={})", lastKnownUserStoreVersion);
+        return getRangerUserStoreIfUpdated(lastKnownUserStoreVersion, false);
+    }
+
+    public RangerUserStore getRangerUserStoreIfUpdated(Long lastKnownUserStoreVersion, boolean supportsDeltas) {
+        logger.debug("==> XUserMgr.getRangerUserStoreIfUpdated(lastKnownUserStoreVersion={}, supportsDeltas={})", lastKnownUserStoreVersion, supportsDeltas);
 
-        RangerUserStore ret = RangerUserStoreCache.getInstance().getLatestRangerUserStoreOrCached(this);
+        RangerUserStoreCache cache = RangerUserStoreCache.getInstance();
+        RangerUserStore      ret   = cache.getLatestRangerUserStoreOrCached(this);
 
         if (ret != null && Objects.equals(ret.getUserStoreVersion(), lastKnownUserStoreVersion)) {
             ret = null;
+        } else if (ret != null && supportsDeltas) {
+            RangerUserStore delta = cache.getRangerUserStoreDelta(lastKnownUserStoreVersion, ret.getUserStoreVersion());
+
+            if (delta != null) {
+                ret = delta;
+            }
         }
 
-        logger.debug("<== XUserMgr.getRangerUserStoreIfUpdated(lastKnownUserStoreVersion={}): ret={}", lastKnownUserStoreVersion, ret);
+        logger.debug("<== XUserMgr.getRangerUserStoreIfUpdated(lastKnownUserStoreVersion={}, supportsDeltas={}): ret={}", lastKnownUserStoreVersion, supportsDeltas, ret);
 
         return ret;
     }
@@ -2977,6 +2990,58 @@ public int createOrDeleteXGroupUserList(List<GroupUserInfo> groupUserInfoList) {
         return updatedGroups;
     }
 
+    /**
+     * Bulk version of createOrDeleteXGroupUserList(): group memberships are added and removed with set-based queries
+     * and batched inserts/deletes, in a transaction per chunk of ranger.admin.usersync.bulk.groupusers.transaction.size
+     * memberships; the user store version is updated once, after all the chunks.
+     *
+     * @param groupUserInfoList group memberships to add or remove
+     * @return number of group memberships added or removed
+     */
+    public int bulkCreateOrDeleteXGroupUserList(List<GroupUserInfo> groupUserInfoList) {
+        logger.debug("==> bulkCreateOrDeleteXGroupUserList(groupCount={})", groupUserInfoList != null ? groupUserInfoList.size() : 0);
+
+        checkAdminAccess();
+
+        xaBizUtil.blockAuditorRoleUser();
+
+        int ret = 0;
+
+        if (CollectionUtils.isNotEmpty(groupUserInfoList)) {
+            long                      startTimeMs = System.currentTimeMillis();
+            List<List<GroupUserInfo>> chunks      = GroupUserInfoUtil.partition(groupUserInfoList, BULK_GROUP_USERS_TX_SIZE);
+            TransactionTemplate       txTemplate  = new TransactionTemplate(txManager);
+
+            txTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+            for (List<GroupUserInfo> chunk : chunks) {
+                try {
+                    Integer updatedCount = txTemplate.execute(status -> xGroupUserService.bulkCreateOrDeleteXGroupUsers(chunk));
+
+                    ret += updatedCount != null ? updatedCount : 0;
+                } catch (Throwable excp) {
+                    logger.error("bulkCreateOrDeleteXGroupUserList(): failed to update group memberships", excp);
+
+                    throw restErrorUtil.createRESTException("Failed to create or delete group memberships", MessageEnums.ERROR_CREATING_OBJECT);
+                }
+            }
+
+            if (ret > 0) {
+                txTemplate.execute(status -> {
+                    updateUserStoreVersion("bulkCreateOrDeleteXGroupUserList(groupCount=" + groupUserInfoList.size() + ")");
+
+                    return null;
+                });
+            }
+
+            logger.info("bulkCreateOrDeleteXGroupUserList(): groupCount={}, transactionCount={}, updatedMemberships={}, timeTakenMs={}", groupUserInfoList.size(), chunks.size(), ret, System.currentTimeMillis() - startTimeMs);
+        }
+
+        logger.debug("<== bulkCreateOrDeleteXGroupUserList(groupCount={}): ret={}", groupUserInfoList != null ? groupUserInfoList.size() : 0, ret);
+
+        return ret;
+    }
+
     @Transactional(readOnly = false, propagation = Propagation.REQUIRED)
     public List<String> updateUserRoleAssignments(UsersGroupRoleAssignments ugRoleAssignments) {
         List<String>        updatedUsers      = new ArrayList<>();
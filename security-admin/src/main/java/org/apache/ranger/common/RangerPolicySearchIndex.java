@@ -0,0 +1,267 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.common;
+
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.collections.MapUtils;
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.lang.StringUtils;
+import org.apache.ranger.plugin.model.RangerPolicy;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyItem;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyResource;
+import org.apache.ranger.plugin.util.SearchFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Inverted indexes on the policies of a service version - on resource values, users, groups, roles, labels, policy name,
+ * policy type and zone. Used to find the policies that can match a search filter, without evaluating the filter on
+ * every policy of the service. The indexes only narrow down the candidates: the filter must still be applied on the
+ * returned policies, which are in the same order as in the indexed list. Instances are immutable.
+ */
+public class RangerPolicySearchIndex {
+    private static final Logger LOG = LoggerFactory.getLogger(RangerPolicySearchIndex.class);
+
+    private final List<RangerPolicy>               policies;
+    private final Long                             policyVersion;
+    private final Map<String, BitSet>              users            = new HashMap<>();
+    private final Map<String, BitSet>              groups           = new HashMap<>();
+    private final Map<String, BitSet>              roles            = new HashMap<>();
+    private final Map<String, BitSet>              labels           = new HashMap<>();
+    private final Map<String, BitSet>              policyNames      = new HashMap<>();
+    private final Map<String, BitSet>              zoneNames        = new HashMap<>();
+    private final Map<Integer, BitSet>             policyTypes      = new HashMap<>();
+    private final Map<String, ResourceValuesIndex> resources        = new HashMap<>();
+    private final BitSet                           nullTypePolicies = new BitSet();
+
+    public RangerPolicySearchIndex(List<RangerPolicy> policies, Long policyVersion) {
+        LOG.debug("==> RangerPolicySearchIndex(policyCount={}, policyVersion={})", policies.size(), policyVersion);
+
+        this.policies      = policies;
+        this.policyVersion = policyVersion;
+
+        for (int i = 0; i < policies.size(); i++) {
+            RangerPolicy policy = policies.get(i);
+
+            if (policy != null) {
+                index(policy, i);
+            }
+        }
+
+        LOG.debug("<== RangerPolicySearchIndex(policyCount={}, policyVersion={}): users={}, groups={}, roles={}, labels={}", policies.size(), policyVersion, users.size(), groups.size(), roles.size(), labels.size());
+    }
+
+    public boolean isIndexOf(List<RangerPolicy> policies, Long policyVersion) {
+        return this.policies == policies && (this.policyVersion == null ? policyVersion == null : this.policyVersion.equals(policyVersion));
+    }
+
+    /**
+     * @param filter search filter
+     * @return policies that can match the filter, in indexed order; all the indexed policies if the filter has no indexed parameter
+     */
+    public List<RangerPolicy> getCandidatePolicies(SearchFilter filter) {
+        BitSet candidates = findContaining(users, filter.getParam(SearchFilter.USER));
+
+        candidates = intersect(candidates, findContaining(groups, filter.getParam(SearchFilter.GROUP)));
+        candidates = intersect(candidates, findContaining(roles, filter.getParam(SearchFilter.ROLE)));
+        candidates = intersect(candidates, findContaining(labels, filter.getParam(SearchFilter.POLICY_LABELS_PARTIAL)));
+        candidates = intersect(candidates, findEqual(policyNames, filter.getParam(SearchFilter.POLICY_NAME)));
+        candidates = intersect(candidates, findEqual(zoneNames, filter.getParam(SearchFilter.ZONE_NAME)));
+        candidates = intersect(candidates, findPolicyType(filter.getParam(SearchFilter.POLICY_TYPE)));
+
+        Map<String, String> filterResources = filter.getParamsWithPrefix(SearchFilter.RESOURCE_PREFIX, true);
+
+        if (MapUtils.isNotEmpty(filterResources)) {
+            for (Map.Entry<String, String> entry : filterResources.entrySet()) {
+                ResourceValuesIndex valuesIndex = resources.get(entry.getKey());
+
+                candidates = intersect(candidates, valuesIndex != null ? valuesIndex.find(entry.getValue()) : new BitSet());
+            }
+        }
+
+        final List<RangerPolicy> ret;
+
+        if (candidates == null) {
+            ret = policies;
+        } else {
+            ret = new ArrayList<>(candidates.cardinality());
+
+            for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+                ret.add(policies.get(i));
+            }
+        }
+
+        LOG.debug("RangerPolicySearchIndex.getCandidatePolicies({}): policyCount={}, candidateCount={}", filter, policies.size(), ret.size());
+
+        return ret;
+    }
+
+    private void index(RangerPolicy policy, int position) {
+        List<List<? extends RangerPolicyItem>> policyItemsList = new ArrayList<>();
+
+        policyItemsList.add(policy.getPolicyItems());
+        policyItemsList.add(policy.getDenyPolicyItems());
+        policyItemsList.add(policy.getAllowExceptions());
+        policyItemsList.add(policy.getDenyExceptions());
+        policyItemsList.add(policy.getDataMaskPolicyItems());
+        policyItemsList.add(policy.getRowFilterPolicyItems());
+
+        for (List<? extends RangerPolicyItem> policyItems : policyItemsList) {
+            if (policyItems != null) {
+                for (RangerPolicyItem policyItem : policyItems) {
+                    add(users, policyItem.getUsers(), position);
+                    add(groups, policyItem.getGroups(), position);
+                    add(roles, policyItem.getRoles(), position);
+                }
+            }
+        }
+
+        add(labels, policy.getPolicyLabels(), position);
+        add(policyNames, policy.getName(), position);
+        add(zoneNames, policy.getZoneName(), position);
+
+        if (policy.getPolicyType() == null) {
+            nullTypePolicies.set(position);
+        } else {
+            policyTypes.computeIfAbsent(policy.getPolicyType(), k -> new BitSet()).set(position);
+        }
+
+        if (MapUtils.isNotEmpty(policy.getResources())) {
+            for (Map.Entry<String, RangerPolicyResource> entry : policy.getResources().entrySet()) {
+                RangerPolicyResource policyResource = entry.getValue();
+
+                if (policyResource != null && CollectionUtils.isNotEmpty(policyResource.getValues())) {
+                    ResourceValuesIndex valuesIndex = resources.computeIfAbsent(entry.getKey(), k -> new ResourceValuesIndex());
+
+                    for (String value : policyResource.getValues()) {
+                        valuesIndex.add(value, position);
+                    }
+                }
+            }
+        }
+    }
+
+    private BitSet findPolicyType(String policyType) {
+        if (StringUtils.isEmpty(policyType)) {
+            return null;
+        }
+
+        BitSet ret = (BitSet) nullTypePolicies.clone(); // policies without a type match every policyType
+
+        for (Map.Entry<Integer, BitSet> entry : policyTypes.entrySet()) {
+            if (StringUtils.equalsIgnoreCase(policyType, entry.getKey().toString())) {
+                ret.or(entry.getValue());
+            }
+        }
+
+        return ret;
+    }
+
+    private static void add(Map<String, BitSet> index, Collection<String> values, int position) {
+        if (values != null) {
+            for (String value : values) {
+                add(index, value, position);
+            }
+        }
+    }
+
+    private static void add(Map<String, BitSet> index, String value, int position) {
+        if (value != null) {
+            index.computeIfAbsent(value, k -> new BitSet()).set(position);
+        }
+    }
+
+    private static BitSet findEqual(Map<String, BitSet> index, String value) {
+        if (StringUtils.isEmpty(value)) {
+            return null;
+        }
+
+        BitSet ret = index.get(value);
+
+        return ret != null ? ret : new BitSet();
+    }
+
+    // matches names the same way as the search predicates, i.e. case-insensitive substring
+    private static BitSet findContaining(Map<String, BitSet> index, String value) {
+        if (StringUtils.isEmpty(value)) {
+            return null;
+        }
+
+        BitSet ret = new BitSet();
+
+        for (Map.Entry<String, BitSet> entry : index.entrySet()) {
+            if (StringUtils.containsIgnoreCase(entry.getKey(), value)) {
+                ret.or(entry.getValue());
+            }
+        }
+
+        return ret;
+    }
+
+    private static BitSet intersect(BitSet candidates, BitSet matches) {
+        if (matches == null) {
+            return candidates;
+        } else if (candidates == null) {
+            return (BitSet) matches.clone();
+        } else {
+            candidates.and(matches);
+
+            return candidates;
+        }
+    }
+
+    private static class ResourceValuesIndex {
+        private final Map<String, BitSet> values         = new HashMap<>();
+        private final Map<String, BitSet> wildcardValues = new HashMap<>();
+
+        void add(String value, int position) {
+            if (value != null) {
+                Map<String, BitSet> index = StringUtils.containsAny(value, "*?") ? wildcardValues : values;
+
+                index.computeIfAbsent(value, k -> new BitSet()).set(position);
+            }
+        }
+
+        // matches values the same way as the search predicates: equal to, or matching the wildcards in, a policy value
+        BitSet find(String value) {
+            BitSet ret   = new BitSet();
+            BitSet exact = values.get(value);
+
+            if (exact != null) {
+                ret.or(exact);
+            }
+
+            for (Map.Entry<String, BitSet> entry : wildcardValues.entrySet()) {
+                if (StringUtils.equals(value, entry.getKey()) || FilenameUtils.wildcardMatch(value, entry.getKey())) {
+                    ret.or(entry.getValue());
+                }
+            }
+
+            return ret;
+        }
+    }
+}
@@ -21,34 +21,49 @@
 
 import org.apache.ranger.authorization.hadoop.config.RangerAdminConfig;
 import org.apache.ranger.biz.RoleDBStore;
+import org.apache.ranger.biz.ServiceDBStore;
 import org.apache.ranger.plugin.model.RangerRole;
 import org.apache.ranger.plugin.util.RangerRoles;
+import org.apache.ranger.plugin.util.RangerRolesDeltaUtil;
 import org.apache.ranger.plugin.util.SearchFilter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * Roles downloaded by plugins of all services, along with deltas from recent versions to the latest version.
+ * As all services download the same roles, a single snapshot is kept; it is versioned by the global role version,
+ * which is updated on every change to roles. When roles are versioned per service
+ * (ranger.support.for.service.specific.role.download=true), the version known to a plugin can't be mapped to a
+ * snapshot of roles; such plugins get all roles on a change.
+ */
 public class RangerRoleCache {
     private static final Logger LOG = LoggerFactory.getLogger(RangerRoleCache.class);
 
     private static final int MAX_WAIT_TIME_FOR_UPDATE = 10;
+    private static final int MAX_DELTAS               = 10;
 
     private static volatile RangerRoleCache sInstance;
 
-    private final int           waitTimeInSeconds;
-    private final ReentrantLock lock = new ReentrantLock();
-
-    RangerRoleCacheWrapper roleCacheWrapper;
+    private final int                    waitTimeInSeconds;
+    private final int                    maxDeltas;
+    private final ReentrantLock          lock             = new ReentrantLock();
+    private final RangerRoleCacheWrapper roleCacheWrapper = new RangerRoleCacheWrapper();
 
     private RangerRoleCache() {
         RangerAdminConfig config = RangerAdminConfig.getInstance();
 
         waitTimeInSeconds = config.getInt("ranger.admin.policy.download.cache.max.waittime.for.update", MAX_WAIT_TIME_FOR_UPDATE);
+        maxDeltas         = config.getInt("ranger.admin.roles.deltas.max.count", MAX_DELTAS);
     }
 
     public static RangerRoleCache getInstance() {
@@ -69,11 +84,18 @@ public static RangerRoleCache getInstance() {
     }
 
     public RangerRoles getLatestRangerRoleOrCached(String serviceName, RoleDBStore roleDBStore, Long lastKnownRoleVersion, Long rangerRoleVersionInDB) throws Exception {
+        return getLatestRangerRoleOrCached(serviceName, roleDBStore, lastKnownRoleVersion, rangerRoleVersionInDB, false);
+    }
+
+    /**
+     * @return roles, or the changes since lastKnownRoleVersion when supportsDeltas is true and these changes are available;
+     *         null if lastKnownRoleVersion is the latest version. The returned object is not shared with other callers
+     */
+    public RangerRoles getLatestRangerRoleOrCached(String serviceName, RoleDBStore roleDBStore, Long lastKnownRoleVersion, Long rangerRoleVersionInDB, boolean supportsDeltas) throws Exception {
         final RangerRoles ret;
 
         if (lastKnownRoleVersion == null || !lastKnownRoleVersion.equals(rangerRoleVersionInDB)) {
-            roleCacheWrapper = new RangerRoleCacheWrapper();
-            ret              = roleCacheWrapper.getLatestRangerRoles(serviceName, roleDBStore, lastKnownRoleVersion, rangerRoleVersionInDB);
+            ret = roleCacheWrapper.getLatestRangerRoles(serviceName, roleDBStore, lastKnownRoleVersion, rangerRoleVersionInDB, supportsDeltas);
         } else {
             ret = null;
         }
@@ -81,13 +103,28 @@ public RangerRoles getLatestRangerRoleOrCached(String serviceName, RoleDBStore r
         return ret;
     }
 
+    private static RangerRoles copyOf(RangerRoles other, Long roleVersion) {
+        RangerRoles ret = new RangerRoles();
+
+        ret.setServiceName(other.getServiceName());
+        ret.setRoleVersion(roleVersion);
+        ret.setRoleUpdateTime(other.getRoleUpdateTime());
+        ret.setRangerRoles(other.getRangerRoles());
+        ret.setIsDelta(other.getIsDelta());
+        ret.setDeletedRoles(other.getDeletedRoles());
+
+        return ret;
+    }
+
     private class RangerRoleCacheWrapper {
-        RangerRoles roles;
-        Long        rolesVersion;
+        RangerRoles            roles;
+        Long                   rolesVersion;
+        Map<Long, RangerRoles> deltas; // deltas from earlier versions to rolesVersion
 
         RangerRoleCacheWrapper() {
             this.roles        = null;
             this.rolesVersion = -1L;
+            this.deltas       = Collections.emptyMap();
         }
 
         public RangerRoles getRoles() {
@@ -98,39 +135,57 @@ public Long getRolesVersion() {
             return this.rolesVersion;
         }
 
-        public RangerRoles getLatestRangerRoles(String serviceName, RoleDBStore roleDBStore, Long lastKnownRoleVersion, Long rolesVersionInDB) throws Exception {
+        public RangerRoles getLatestRangerRoles(String serviceName, RoleDBStore roleDBStore, Long lastKnownRoleVersion, Long rolesVersionInDB, boolean supportsDeltas) throws Exception {
             RangerRoles ret        = null;
             boolean     lockResult = false;
 
-            LOG.debug("==> RangerRoleCache.getLatestRangerRoles(ServiceName= {} lastKnownRoleVersion= {} rolesVersionInDB= {})", serviceName, lastKnownRoleVersion, rolesVersionInDB);
+            LOG.debug("==> RangerRoleCache.getLatestRangerRoles(ServiceName= {} lastKnownRoleVersion= {} rolesVersionInDB= {} supportsDeltas= {})", serviceName, lastKnownRoleVersion, rolesVersionInDB, supportsDeltas);
 
             try {
+                final boolean isVersionedByService = ServiceDBStore.isSupportsRolesDownloadByService();
+                final Long    latestRolesVersion   = isVersionedByService ? roleDBStore.getGlobalRoleVersion() : rolesVersionInDB;
+
                 lockResult = lock.tryLock(waitTimeInSeconds, TimeUnit.SECONDS);
 
                 if (lockResult) {
-                    // We are getting all the Roles to be downloaded for now. Should do downloades for each service based on what roles are there in the policies.
-                    final long            startTimeMs  = System.currentTimeMillis();
-                    SearchFilter          searchFilter = null;
-                    final Set<RangerRole> rolesInDB    = new HashSet<>(roleDBStore.getRoles(searchFilter));
-                    final long            dbLoadTimeMs = System.currentTimeMillis() - startTimeMs;
-                    Date                  updateTime   = new Date();
-
-                    if (LOG.isDebugEnabled()) {
-                        LOG.debug("loading Roles from database and it took:{} seconds", TimeUnit.MILLISECONDS.toSeconds(dbLoadTimeMs));
+                    if (roles == null || latestRolesVersion == null || !Objects.equals(rolesVersion, latestRolesVersion)) {
+                        // We are getting all the Roles to be downloaded for now. Should do downloades for each service based on what roles are there in the policies.
+                        final long            startTimeMs  = System.currentTimeMillis();
+                        SearchFilter          searchFilter = null;
+                        final Set<RangerRole> rolesInDB    = new HashSet<>(roleDBStore.getRoles(searchFilter));
+                        final long            dbLoadTimeMs = System.currentTimeMillis() - startTimeMs;
+                        Date                  updateTime   = new Date();
+
+                        if (LOG.isDebugEnabled()) {
+                            LOG.debug("loading Roles from database and it took:{} seconds", TimeUnit.MILLISECONDS.toSeconds(dbLoadTimeMs));
+                        }
+
+                        RangerRoles latestRoles = new RangerRoles();
+
+                        latestRoles.setRangerRoles(rolesInDB);
+                        latestRoles.setRoleUpdateTime(updateTime);
+                        latestRoles.setRoleVersion(latestRolesVersion);
+
+                        deltas       = updateDeltas(roles, latestRoles);
+                        rolesVersion = latestRolesVersion;
+                        roles        = latestRoles;
                     }
 
-                    ret = new RangerRoles();
-
-                    ret.setRangerRoles(rolesInDB);
-                    ret.setRoleUpdateTime(updateTime);
-                    ret.setRoleVersion(rolesVersionInDB);
+                    RangerRoles delta = supportsDeltas && !isVersionedByService && lastKnownRoleVersion != null ? deltas.get(lastKnownRoleVersion) : null;
 
-                    rolesVersion = rolesVersionInDB;
-                    roles        = ret;
+                    ret = copyOf(delta != null ? delta : roles, rolesVersionInDB);
                 } else {
                     LOG.debug("Could not get lock in [{}] seconds, returning cached RangerRoles", waitTimeInSeconds);
 
-                    ret = getRoles();
+                    RangerRoles roles = getRoles();
+
+                    if (roles != null) {
+                        if (Objects.equals(roles.getRoleVersion(), latestRolesVersion)) {
+                            ret = copyOf(roles, rolesVersionInDB);
+                        } else if (!isVersionedByService && !Objects.equals(roles.getRoleVersion(), lastKnownRoleVersion)) {
+                            ret = copyOf(roles, roles.getRoleVersion());
+                        }
+                    }
                 }
             } catch (InterruptedException exception) {
                 LOG.error("RangerRoleCache.getLatestRangerRoles:lock got interrupted..", exception);
@@ -144,5 +199,23 @@ public RangerRoles getLatestRangerRoles(String serviceName, RoleDBStore roleDBSt
 
             return ret;
         }
+
+        private Map<Long, RangerRoles> updateDeltas(RangerRoles oldRoles, RangerRoles newRoles) {
+            Map<Long, RangerRoles> ret = new HashMap<>();
+
+            if (maxDeltas > 0 && oldRoles != null && oldRoles.getRoleVersion() != null) {
+                RangerRoles delta = RangerRolesDeltaUtil.createDelta(oldRoles, newRoles);
+
+                // keep deltas from the most recent versions, each updated to lead to the new version
+                deltas.entrySet().stream()
+                        .sorted((e1, e2) -> Long.compare(e2.getKey(), e1.getKey()))
+                        .limit(maxDeltas - 1)
+                        .forEach(e -> ret.put(e.getKey(), RangerRolesDeltaUtil.mergeDeltas(e.getValue(), delta)));
+
+                ret.put(oldRoles.getRoleVersion(), delta);
+            }
+
+            return ret;
+        }
     }
 }
@@ -25,14 +25,17 @@
 import org.apache.ranger.authorization.utils.JsonUtils;
 import org.apache.ranger.plugin.model.RangerPolicy;
 import org.apache.ranger.plugin.store.ServiceStore;
+import org.apache.ranger.plugin.util.JsonUtilsV2;
 import org.apache.ranger.plugin.util.RangerPolicyDeltaUtil;
 import org.apache.ranger.plugin.util.ServicePolicies;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileFilter;
 import java.io.FileWriter;
+import java.io.IOException;
 import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Date;
@@ -41,25 +44,79 @@
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPOutputStream;
 
 public class RangerServicePoliciesCache {
     private static final Logger LOG = LoggerFactory.getLogger(RangerServicePoliciesCache.class);
 
-    private static final int MAX_WAIT_TIME_FOR_UPDATE = 10;
+    private static final int MAX_WAIT_TIME_FOR_UPDATE            = 10;
+    private static final int DEFAULT_COMPRESSION_MIN_SIZE        = 8 * 1024;
+    private static final int DEFAULT_MAX_CACHED_PAYLOADS_PER_SVC = 16;
 
     public static volatile RangerServicePoliciesCache sInstance;
 
-    private final int                                 waitTimeInSeconds;
-    private final boolean                             dedupStrings;
-    private final Map<String, ServicePoliciesWrapper> servicePoliciesMap = new HashMap<>();
+    private final int                                     waitTimeInSeconds;
+    private final boolean                                 dedupStrings;
+    private final boolean                                 compressionEnabled;
+    private final int                                     compressionMinSize;
+    private final int                                     maxCachedPayloadsPerService;
+    private final boolean                                 searchIndexEnabled;
+    private final Map<String, ServicePoliciesWrapper>     servicePoliciesMap = new HashMap<>();
+    private final Map<String, ServicePoliciesPayloadsMap> payloadsMap        = new ConcurrentHashMap<>();
+    private final Map<String, RangerPolicySearchIndex>    searchIndexMap     = new ConcurrentHashMap<>();
 
     private RangerServicePoliciesCache() {
         RangerAdminConfig config = RangerAdminConfig.getInstance();
 
-        waitTimeInSeconds = config.getInt("ranger.admin.policy.download.cache.max.waittime.for.update", MAX_WAIT_TIME_FOR_UPDATE);
-        dedupStrings      = config.getBoolean("ranger.admin.policy.dedup.strings", Boolean.TRUE);
+        waitTimeInSeconds           = config.getInt("ranger.admin.policy.download.cache.max.waittime.for.update", MAX_WAIT_TIME_FOR_UPDATE);
+        dedupStrings                = config.getBoolean("ranger.admin.policy.dedup.strings", Boolean.TRUE);
+        compressionEnabled          = config.getBoolean("ranger.admin.policy.download.compression.enabled", Boolean.TRUE);
+        compressionMinSize          = config.getInt("ranger.admin.policy.download.compression.min.size.bytes", DEFAULT_COMPRESSION_MIN_SIZE);
+        maxCachedPayloadsPerService = config.getInt("ranger.admin.policy.download.cache.max.payloads.per.service", DEFAULT_MAX_CACHED_PAYLOADS_PER_SVC);
+        searchIndexEnabled          = config.getBoolean("ranger.admin.policy.search.index.enabled", Boolean.TRUE);
+    }
+
+    public static String getETag(Long policyVersion) {
+        return "\"" + (policyVersion != null ? policyVersion : -1L) + "\"";
+    }
+
+    public static Long getPolicyVersionFromETag(String eTag) {
+        Long ret = null;
+
+        if (StringUtils.isNotBlank(eTag)) {
+            String version = StringUtils.removeStart(eTag.trim(), "W/");
+
+            version = StringUtils.removeEnd(StringUtils.removeStart(version, "\""), "\"");
+
+            try {
+                ret = Long.valueOf(version);
+            } catch (NumberFormatException excp) {
+                LOG.debug("getPolicyVersionFromETag({}): not a policy-version tag", eTag);
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * Returns the policy version known to the client: lastKnownVersion when given, else the version in If-None-Match.
+     * Clients that don't send lastKnownVersion can use If-None-Match with the ETag returned in an earlier download.
+     */
+    public static Long getLastKnownPolicyVersion(Long lastKnownVersion, String ifNoneMatch) {
+        Long ret = lastKnownVersion;
+
+        if (ret == null || ret == -1L) {
+            Long eTagVersion = getPolicyVersionFromETag(ifNoneMatch);
+
+            if (eTagVersion != null) {
+                ret = eTagVersion;
+            }
+        }
+
+        return ret;
     }
 
     public static RangerServicePoliciesCache getInstance() {
@@ -146,6 +203,60 @@ public ServicePolicies getServicePolicies(String serviceName, Long serviceId, Lo
         return ret;
     }
 
+    /**
+     * Returns the JSON serialized form of the given policies, serializing (and compressing) it only once
+     * per service/version/download-type, so that plugins polling for the same version share the payload.
+     *
+     * @param policies         policies to be returned to the plugin
+     * @param lastKnownVersion policy version known to the plugin; identifies the delta payload
+     * @return serialized payload
+     * @throws IOException if serialization fails
+     */
+    public ServicePoliciesPayload getSerializedServicePolicies(ServicePolicies policies, Long lastKnownVersion) throws IOException {
+        LOG.debug("==> RangerServicePoliciesCache.getSerializedServicePolicies({}, {})", policies.getServiceName(), lastKnownVersion);
+
+        final ServicePoliciesPayload ret;
+
+        if (StringUtils.isBlank(policies.getServiceName()) || policies.getPolicyVersion() == null) {
+            ret = new ServicePoliciesPayload(policies, compressionEnabled ? compressionMinSize : -1);
+        } else {
+            ServicePoliciesPayloadsMap payloads = payloadsMap.computeIfAbsent(policies.getServiceName(), k -> new ServicePoliciesPayloadsMap());
+
+            ret = payloads.getOrCreate(policies, lastKnownVersion);
+        }
+
+        LOG.debug("<== RangerServicePoliciesCache.getSerializedServicePolicies({}, {}): size={}", policies.getServiceName(), lastKnownVersion, ret.getJson().length);
+
+        return ret;
+    }
+
+    /**
+     * Returns the search index of policies of the given service version, building it only once per version.
+     *
+     * @param policies service policies, as returned by getServicePolicies()
+     * @return search index of policies; null if indexing is disabled or policies are not available
+     */
+    public RangerPolicySearchIndex getPolicySearchIndex(ServicePolicies policies) {
+        RangerPolicySearchIndex ret = null;
+
+        if (searchIndexEnabled && policies != null && StringUtils.isNotBlank(policies.getServiceName())) {
+            final List<RangerPolicy> servicePolicies = policies.getPolicies(); // policies are replaced, not updated, on change
+            final Long               policyVersion   = policies.getPolicyVersion();
+
+            if (servicePolicies != null) {
+                ret = searchIndexMap.get(policies.getServiceName());
+
+                if (ret == null || !ret.isIndexOf(servicePolicies, policyVersion)) {
+                    ret = new RangerPolicySearchIndex(servicePolicies, policyVersion);
+
+                    searchIndexMap.put(policies.getServiceName(), ret);
+                }
+            }
+        }
+
+        return ret;
+    }
+
     /**
      * Reset policy cache using serviceName if provided.
      * If serviceName is empty, reset everything.
@@ -158,6 +269,14 @@ public boolean resetCache(final String serviceName) {
 
         boolean ret = false;
 
+        if (StringUtils.isBlank(serviceName)) {
+            payloadsMap.clear();
+            searchIndexMap.clear();
+        } else {
+            payloadsMap.remove(serviceName.trim());
+            searchIndexMap.remove(serviceName.trim());
+        }
+
         synchronized (this) {
             if (!servicePoliciesMap.isEmpty()) {
                 if (StringUtils.isBlank(serviceName)) {
@@ -554,4 +673,102 @@ ServicePolicies getServicePolicyDeltasFromVersion(long fromVersion) {
             }
         }
     }
+
+    public static class ServicePoliciesPayload {
+        private final String eTag;
+        private final byte[] json;
+        private final byte[] gzipped;
+
+        ServicePoliciesPayload(ServicePolicies policies, int compressionMinSize) throws IOException {
+            this.eTag    = RangerServicePoliciesCache.getETag(policies.getPolicyVersion());
+            this.json    = JsonUtilsV2.getMapper().writeValueAsBytes(policies);
+            this.gzipped = (compressionMinSize >= 0 && json.length >= compressionMinSize) ? gzip(json) : null;
+        }
+
+        public String getETag() {
+            return eTag;
+        }
+
+        public byte[] getJson() {
+            return json;
+        }
+
+        public byte[] getGzipped() {
+            return gzipped;
+        }
+
+        private static byte[] gzip(byte[] data) throws IOException {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(data.length / 8, 512));
+
+            try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+                gzip.write(data);
+            }
+
+            return out.toByteArray();
+        }
+    }
+
+    private class ServicePoliciesPayloadsMap {
+        private final Map<String, ServicePoliciesPayload> payloads = new HashMap<>();
+        private       long                                policyVersion = -1L;
+
+        synchronized ServicePoliciesPayload getOrCreate(ServicePolicies policies, Long lastKnownVersion) throws IOException {
+            long version = policies.getPolicyVersion();
+
+            if (version > policyVersion) { // payloads of older versions will not be requested anymore
+                payloads.clear();
+
+                policyVersion = version;
+            } else if (version < policyVersion) { // stale request, serialize without caching
+                return new ServicePoliciesPayload(policies, compressionEnabled ? compressionMinSize : -1);
+            }
+
+            String key = getPayloadKey(policies, lastKnownVersion);
+
+            if (key == null) { // payload can't be identified, serialize without caching
+                return new ServicePoliciesPayload(policies, compressionEnabled ? compressionMinSize : -1);
+            }
+
+            ServicePoliciesPayload ret = payloads.get(key);
+
+            if (ret == null) {
+                ret = new ServicePoliciesPayload(policies, compressionEnabled ? compressionMinSize : -1);
+
+                if (payloads.size() >= maxCachedPayloadsPerService) {
+                    payloads.clear();
+                }
+
+                payloads.put(key, ret);
+            }
+
+            return ret;
+        }
+
+        // deltas are keyed by the version they are computed from, as deltas from different versions can have the same count
+        private String getPayloadKey(ServicePolicies policies, Long lastKnownVersion) {
+            StringBuilder sb = new StringBuilder("version:").append(policies.getPolicyVersion()).append(':');
+
+            if (policies.getPolicyDeltas() != null) {
+                if (lastKnownVersion == null || lastKnownVersion == -1L) {
+                    return null;
+                }
+
+                sb.append("deltas:").append(lastKnownVersion).append(':').append(policies.getPolicyDeltas().size());
+            } else {
+                sb.append("policies:").append(policies.getPolicies() != null ? policies.getPolicies().size() : -1);
+            }
+
+            ServicePolicies.TagPolicies tagPolicies = policies.getTagPolicies();
+
+            if (tagPolicies != null) {
+                sb.append(":tags:").append(tagPolicies.getPolicyVersion()).append(':').append(tagPolicies.getPolicies() != null ? tagPolicies.getPolicies().size() : -1);
+            }
+
+            if (policies.getSecurityZones() != null) {
+                sb.append(":zones:").append(policies.getSecurityZones().size());
+            }
+
+            return sb.toString();
+        }
+    }
 }
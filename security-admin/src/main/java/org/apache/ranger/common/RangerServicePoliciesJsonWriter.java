@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.common;
+
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.lang.StringUtils;
+import org.apache.ranger.common.RangerServicePoliciesCache.ServicePoliciesPayload;
+import org.apache.ranger.plugin.util.RangerRESTUtils;
+import org.apache.ranger.plugin.util.ServicePolicies;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.ws.rs.Produces;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.UriInfo;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.Provider;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * Writes ServicePolicies downloaded by plugins using the payload cached in RangerServicePoliciesCache,
+ * instead of serializing the policies for every request. The payload is sent gzip compressed when the
+ * client accepts it, along with an ETag carrying the policy version.
+ */
+@Provider
+@Produces(MediaType.APPLICATION_JSON)
+public class RangerServicePoliciesJsonWriter implements MessageBodyWriter<ServicePolicies> {
+    private static final Logger LOG = LoggerFactory.getLogger(RangerServicePoliciesJsonWriter.class);
+
+    private static final String ENCODING_GZIP = "gzip";
+
+    @Context
+    private HttpHeaders requestHeaders;
+
+    @Context
+    private UriInfo uriInfo;
+
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return ServicePolicies.class.isAssignableFrom(type);
+    }
+
+    @Override
+    public long getSize(ServicePolicies policies, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return -1;
+    }
+
+    @Override
+    public void writeTo(ServicePolicies policies, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType, MultivaluedMap<String, Object> httpHeaders, OutputStream out) throws IOException, WebApplicationException {
+        ServicePoliciesPayload payload = RangerServicePoliciesCache.getInstance().getSerializedServicePolicies(policies, getLastKnownVersion());
+        boolean                useGzip = payload.getGzipped() != null && acceptsGzip();
+
+        httpHeaders.putSingle(HttpHeaders.ETAG, payload.getETag());
+        httpHeaders.putSingle(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        if (useGzip) {
+            httpHeaders.putSingle(HttpHeaders.CONTENT_ENCODING, ENCODING_GZIP);
+        }
+
+        LOG.debug("RangerServicePoliciesJsonWriter.writeTo(serviceName={}, policyVersion={}): size={}, gzip={}", policies.getServiceName(), policies.getPolicyVersion(), payload.getJson().length, useGzip);
+
+        out.write(useGzip ? payload.getGzipped() : payload.getJson());
+    }
+
+    private boolean acceptsGzip() {
+        List<String> values = requestHeaders != null ? requestHeaders.getRequestHeader(HttpHeaders.ACCEPT_ENCODING) : null;
+
+        if (CollectionUtils.isNotEmpty(values)) {
+            for (String value : values) {
+                for (String encoding : StringUtils.split(value, ',')) {
+                    if (StringUtils.equalsIgnoreCase(StringUtils.substringBefore(encoding, ";").trim(), ENCODING_GZIP)) {
+                        return true;
+                    }
+                }
+            }
+        }
+
+        return false;
+    }
+
+    // same version as the one used by ServiceREST to compute the policies/deltas being written
+    private Long getLastKnownVersion() {
+        String value            = uriInfo != null ? uriInfo.getQueryParameters().getFirst(RangerRESTUtils.REST_PARAM_LAST_KNOWN_POLICY_VERSION) : null;
+        Long   lastKnownVersion = -1L;
+
+        try {
+            if (StringUtils.isNotBlank(value)) {
+                lastKnownVersion = Long.valueOf(value);
+            }
+        } catch (NumberFormatException excp) {
+            LOG.debug("getLastKnownVersion(): invalid {}={}", RangerRESTUtils.REST_PARAM_LAST_KNOWN_POLICY_VERSION, value);
+        }
+
+        List<String> ifNoneMatch = requestHeaders != null ? requestHeaders.getRequestHeader(HttpHeaders.IF_NONE_MATCH) : null;
+
+        return RangerServicePoliciesCache.getLastKnownPolicyVersion(lastKnownVersion, CollectionUtils.isNotEmpty(ifNoneMatch) ? ifNoneMatch.get(0) : null);
+    }
+}
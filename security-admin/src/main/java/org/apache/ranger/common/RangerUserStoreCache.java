@@ -24,9 +24,12 @@
 import org.apache.ranger.plugin.model.GroupInfo;
 import org.apache.ranger.plugin.model.UserInfo;
 import org.apache.ranger.plugin.util.RangerUserStore;
+import org.apache.ranger.plugin.util.RangerUserStoreDeltaUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
@@ -37,19 +40,23 @@ public class RangerUserStoreCache {
     private static final Logger LOG = LoggerFactory.getLogger(RangerUserStoreCache.class);
 
     private static final int MAX_WAIT_TIME_FOR_UPDATE = 10;
+    private static final int MAX_DELTAS               = 10;
 
     public static volatile RangerUserStoreCache sInstance;
 
-    private final int             waitTimeInSeconds;
-    private final boolean         dedupStrings;
-    private final ReentrantLock   lock = new ReentrantLock();
-    private       RangerUserStore rangerUserStore;
+    private final    int                        waitTimeInSeconds;
+    private final    boolean                    dedupStrings;
+    private final    int                        maxDeltas;
+    private final    ReentrantLock              lock   = new ReentrantLock();
+    private          RangerUserStore            rangerUserStore;
+    private volatile Map<Long, RangerUserStore> deltas = Collections.emptyMap(); // deltas from earlier versions to the version of rangerUserStore
 
     private RangerUserStoreCache() {
         RangerAdminConfig config = RangerAdminConfig.getInstance();
 
         this.waitTimeInSeconds = config.getInt("ranger.admin.userstore.download.cache.max.waittime.for.update", MAX_WAIT_TIME_FOR_UPDATE);
         this.dedupStrings      = config.getBoolean("ranger.admin.userstore.dedup.strings", Boolean.TRUE);
+        this.maxDeltas         = config.getInt("ranger.admin.userstore.deltas.max.count", MAX_DELTAS);
         this.rangerUserStore   = new RangerUserStore();
     }
 
@@ -108,6 +115,7 @@ public RangerUserStore getLatestRangerUserStoreOrCached(XUserMgr xUserMgr) {
                         rangerUserStore.dedupStrings();
                     }
 
+                    this.deltas          = updateDeltas(this.rangerUserStore, rangerUserStore);
                     this.rangerUserStore = rangerUserStore;
 
                     LOG.info("RangerUserStoreCache refreshed from version {} to {}: users={}, groups={}, userGroupMappings={}", cachedUserStoreVersion, dbUserStoreVersion, rangerUsersInDB.size(), rangerGroupsInDB.size(), userGroups.size());
@@ -129,4 +137,38 @@ public RangerUserStore getLatestRangerUserStoreOrCached(XUserMgr xUserMgr) {
 
         return ret;
     }
+
+    /**
+     * @return changes from lastKnownUserStoreVersion to userStoreVersion, or null if these are not available
+     */
+    public RangerUserStore getRangerUserStoreDelta(Long lastKnownUserStoreVersion, Long userStoreVersion) {
+        RangerUserStore ret = lastKnownUserStoreVersion != null ? deltas.get(lastKnownUserStoreVersion) : null;
+
+        if (ret != null && !Objects.equals(ret.getUserStoreVersion(), userStoreVersion)) {
+            ret = null;
+        }
+
+        LOG.debug("RangerUserStoreCache.getRangerUserStoreDelta(lastKnownUserStoreVersion={}, userStoreVersion={}): ret={}", lastKnownUserStoreVersion, userStoreVersion, ret != null);
+
+        return ret;
+    }
+
+    private Map<Long, RangerUserStore> updateDeltas(RangerUserStore oldUserStore, RangerUserStore newUserStore) {
+        Map<Long, RangerUserStore> ret = new HashMap<>();
+
+        if (maxDeltas > 0 && oldUserStore.getUserStoreVersion() != null && oldUserStore.getUserStoreVersion() != -1L) {
+            RangerUserStore delta = RangerUserStoreDeltaUtil.createDelta(oldUserStore, newUserStore);
+
+            // keep deltas from the most recent versions, each updated to lead to the new version
+            this.deltas.entrySet().stream()
+                    .filter(e -> Objects.equals(e.getValue().getUserStoreVersion(), oldUserStore.getUserStoreVersion()))
+                    .sorted((e1, e2) -> Long.compare(e2.getKey(), e1.getKey()))
+                    .limit(maxDeltas - 1)
+                    .forEach(e -> ret.put(e.getKey(), RangerUserStoreDeltaUtil.mergeDeltas(e.getValue(), delta)));
+
+            ret.put(oldUserStore.getUserStoreVersion(), delta);
+        }
+
+        return ret;
+    }
 }
@@ -0,0 +1,218 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.common;
+
+import org.apache.ranger.authorization.hadoop.config.RangerAdminConfig;
+import org.apache.ranger.db.RangerDaoManager;
+import org.apache.ranger.entity.XXServiceVersionInfo;
+import org.apache.ranger.plugin.util.ServiceVersions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.apache.ranger.db.XXGlobalStateDao.RANGER_GLOBAL_STATE_NAME_USER_GROUP;
+
+/**
+ * Holds plugin requests until versions of policies, tags, roles or userstore of the service change in the database.
+ * A single thread reads the versions from the database, and only while there are requests waiting; hence the
+ * versions updated by any Ranger Admin instance are notified. The number of requests held is bounded, to keep
+ * request threads available for other calls; requests beyond this limit are returned immediately.
+ */
+@Component
+public class ServiceVersionChangeNotifier {
+    private static final Logger LOG = LoggerFactory.getLogger(ServiceVersionChangeNotifier.class);
+
+    private static final String PROP_ENABLED           = "ranger.admin.service.version.change.notification.enabled";
+    private static final String PROP_CHECK_INTERVAL_MS = "ranger.admin.service.version.change.check.interval.ms";
+    private static final String PROP_MAX_WAITERS       = "ranger.admin.service.version.change.max.waiting.requests";
+    private static final String PROP_MAX_WAIT_TIME_MS  = "ranger.admin.service.version.change.max.wait.time.ms";
+
+    private final Object        lock         = new Object();
+    private final AtomicInteger waitingCount = new AtomicInteger();
+
+    @Autowired
+    RangerDaoManager daoMgr;
+
+    @Autowired
+    @Qualifier(value = "transactionManager")
+    PlatformTransactionManager txManager;
+
+    private boolean                      isEnabled;
+    private long                         checkIntervalMs;
+    private int                          maxWaitingRequests;
+    private long                         maxWaitTimeMs;
+    private TransactionTemplate          txTemplate;
+    private Thread                       versionChecker;
+    private Map<String, ServiceVersions> serviceVersions = Collections.emptyMap(); // guarded by lock
+    private long                         lastCheckTimeMs;                          // guarded by lock
+
+    @PostConstruct
+    public void init() {
+        RangerAdminConfig config = RangerAdminConfig.getInstance();
+
+        isEnabled          = config.getBoolean(PROP_ENABLED, true);
+        checkIntervalMs    = config.getLong(PROP_CHECK_INTERVAL_MS, 500L);
+        maxWaitingRequests = config.getInt(PROP_MAX_WAITERS, 100);
+        maxWaitTimeMs      = config.getLong(PROP_MAX_WAIT_TIME_MS, 60 * 1000L);
+        txTemplate         = new TransactionTemplate(txManager);
+
+        txTemplate.setReadOnly(true);
+
+        if (isEnabled) {
+            versionChecker = new Thread(this::checkVersions, "ServiceVersionChangeNotifier");
+
+            versionChecker.setDaemon(true);
+            versionChecker.start();
+        }
+
+        LOG.info("ServiceVersionChangeNotifier: enabled={}, checkIntervalMs={}, maxWaitingRequests={}, maxWaitTimeMs={}", isEnabled, checkIntervalMs, maxWaitingRequests, maxWaitTimeMs);
+    }
+
+    @PreDestroy
+    public void cleanup() {
+        Thread versionChecker = this.versionChecker;
+
+        this.versionChecker = null;
+
+        if (versionChecker != null) {
+            versionChecker.interrupt();
+        }
+    }
+
+    public boolean isEnabled() {
+        return isEnabled;
+    }
+
+    /**
+     * @param knownVersions versions known to the caller; null versions are not compared
+     * @param timeoutMs     maximum time to wait for a change
+     * @return latest versions of the service, if newer than knownVersions; knownVersions if no change was found in timeoutMs
+     *         or when the number of waiting requests exceeds the limit
+     */
+    public ServiceVersions waitForChange(ServiceVersions knownVersions, long timeoutMs) throws InterruptedException {
+        LOG.debug("==> ServiceVersionChangeNotifier.waitForChange({}, {})", knownVersions, timeoutMs);
+
+        ServiceVersions ret = knownVersions;
+
+        if (waitingCount.incrementAndGet() > maxWaitingRequests) {
+            LOG.debug("ServiceVersionChangeNotifier.waitForChange(): too many waiting requests ({}). Returning immediately", maxWaitingRequests);
+        } else {
+            try {
+                long requestTimeMs = System.currentTimeMillis();
+                long deadline      = requestTimeMs + Math.min(timeoutMs, maxWaitTimeMs);
+
+                synchronized (lock) {
+                    lock.notifyAll(); // wake up versionChecker, in case it is idle
+
+                    while (true) {
+                        ServiceVersions latest = lastCheckTimeMs >= requestTimeMs ? serviceVersions.get(knownVersions.getServiceName()) : null;
+
+                        if (latest != null && latest.isNewer(knownVersions)) {
+                            ret = latest;
+
+                            break;
+                        }
+
+                        long remainingMs = deadline - System.currentTimeMillis();
+
+                        if (remainingMs <= 0) {
+                            break;
+                        }
+
+                        lock.wait(remainingMs);
+                    }
+                }
+            } finally {
+                waitingCount.decrementAndGet();
+            }
+        }
+
+        LOG.debug("<== ServiceVersionChangeNotifier.waitForChange({}, {}): ret={}", knownVersions, timeoutMs, ret);
+
+        return ret;
+    }
+
+    private void checkVersions() {
+        LOG.info("==> ServiceVersionChangeNotifier.checkVersions()");
+
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                synchronized (lock) {
+                    while (waitingCount.get() == 0) {
+                        lock.wait();
+                    }
+                }
+
+                Map<String, ServiceVersions> latestVersions = txTemplate.execute(status -> loadVersions());
+
+                synchronized (lock) {
+                    serviceVersions = latestVersions;
+                    lastCheckTimeMs = System.currentTimeMillis();
+
+                    lock.notifyAll(); // waiting requests compare the latest versions with the ones they know
+                }
+
+                Thread.sleep(checkIntervalMs);
+            } catch (InterruptedException excp) {
+                LOG.info("ServiceVersionChangeNotifier.checkVersions(): interrupted. Exiting");
+
+                break;
+            } catch (Throwable excp) {
+                LOG.error("ServiceVersionChangeNotifier.checkVersions(): failed to load versions", excp);
+
+                try {
+                    Thread.sleep(checkIntervalMs);
+                } catch (InterruptedException ie) {
+                    break;
+                }
+            }
+        }
+
+        LOG.info("<== ServiceVersionChangeNotifier.checkVersions()");
+    }
+
+    private Map<String, ServiceVersions> loadVersions() {
+        Map<String, ServiceVersions> ret              = new HashMap<>();
+        Long                         userStoreVersion = daoMgr.getXXGlobalState().getAppDataVersion(RANGER_GLOBAL_STATE_NAME_USER_GROUP);
+        List<Object[]>               versionInfos     = daoMgr.getXXServiceVersionInfo().getAllWithServiceNames();
+
+        for (Object[] row : versionInfos) {
+            XXServiceVersionInfo versionInfo = (XXServiceVersionInfo) row[0];
+            String               serviceName = (String) row[1];
+
+            ret.put(serviceName, new ServiceVersions(serviceName, versionInfo.getPolicyVersion(), versionInfo.getTagVersion(), versionInfo.getRoleVersion(), userStoreVersion));
+        }
+
+        return ret;
+    }
+}
@@ -36,7 +36,9 @@
 import javax.persistence.OptimisticLockException;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 @Component
 public class RangerTransactionSynchronizationAdapter extends TransactionSynchronizationAdapter {
@@ -45,6 +47,7 @@ public class RangerTransactionSynchronizationAdapter extends TransactionSynchron
     private static final ThreadLocal<List<Runnable>> RUNNABLES              = new ThreadLocal<>();
     private static final ThreadLocal<List<Runnable>> RUNNABLES_ASYNC        = new ThreadLocal<>();
     private static final ThreadLocal<List<Runnable>> RUNNABLES_AFTER_COMMIT = new ThreadLocal<>();
+    private static final ThreadLocal<Set<String>>    KEYS_AFTER_COMMIT      = new ThreadLocal<>();
 
     @Autowired
     @Qualifier(value = "transactionManager")
@@ -71,6 +74,32 @@ public void executeOnTransactionCommit(Runnable runnable) {
         addRunnable(runnable, RUNNABLES_AFTER_COMMIT);
     }
 
+    /*
+     * Same as executeOnTransactionCommit(), but only the first runnable submitted with the given key in the current
+     * transaction is run; returns false if a runnable with the key was already submitted
+     */
+    public boolean executeOnTransactionCommitOnce(String key, Runnable runnable) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            Set<String> keys = KEYS_AFTER_COMMIT.get();
+
+            if (keys == null) {
+                keys = new HashSet<>();
+
+                KEYS_AFTER_COMMIT.set(keys);
+            }
+
+            if (!keys.add(key)) {
+                LOG.debug("Runnable with key {} is already submitted to run after transaction is committed. Ignoring runnable {{}}", key, runnable);
+
+                return false;
+            }
+        }
+
+        executeOnTransactionCommit(runnable);
+
+        return true;
+    }
+
     @Override
     public void afterCompletion(int status) {
         LOG.debug("==> RangerTransactionSynchronizationAdapter.afterCompletion(status={})", status == STATUS_COMMITTED ? "COMMITTED" : "ROLLED_BACK");
@@ -81,6 +110,7 @@ public void afterCompletion(int status) {
         List<Runnable> asyncRunnables               = RUNNABLES_ASYNC.get();
 
         RUNNABLES_AFTER_COMMIT.remove();
+        KEYS_AFTER_COMMIT.remove();
         RUNNABLES.remove();
         RUNNABLES_ASYNC.remove();
 
@@ -100,9 +100,18 @@ public long deleteOlderThan(int olderThanInDays) {
         long ret = getEntityManager().createNamedQuery("XXAuthSession.deleteOlderThan").setParameter("olderThan", since).executeUpdate();
         LOG.info("Deleted {} x_auth_sess records", ret);
 
-        LOG.info("Updating x_trx_log.sess_id with null which are older than {} days, that is, older than {}", olderThanInDays, since);
+        clearTrxLogSessionIdsOlderThan(since);
+        return ret;
+    }
+
+    public long clearTrxLogSessionIdsOlderThan(Date since) {
+        LOG.info("Updating x_trx_log.sess_id with null which are older than {}", since);
         long updated = getEntityManager().createNamedQuery("XXTrxLog.updateSessIdWithNull").setParameter("olderThan", since).executeUpdate();
         LOG.info("Updated {} x_trx_log records", updated);
-        return ret;
+        return updated;
+    }
+
+    public List<Long> findIdsOlderThan(Date olderThan, int maxResults) {
+        return getEntityManager().createNamedQuery("XXAuthSession.findIdsOlderThan", Long.class).setParameter("olderThan", olderThan).setMaxResults(maxResults).getResultList();
     }
 }
@@ -19,6 +19,7 @@
 
 package org.apache.ranger.db;
 
+import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.ranger.authorization.utils.JsonUtils;
 import org.apache.ranger.common.RangerCommonEnums;
@@ -32,6 +33,7 @@
 import javax.persistence.NoResultException;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -96,6 +98,22 @@ public Map<Long, String> getAllGroupIdNames() {
         return groups;
     }
 
+    public Map<String, Long> getGroupIdsByNames(Collection<String> groupNames) {
+        Map<String, Long> ret = new HashMap<>();
+
+        if (CollectionUtils.isNotEmpty(groupNames)) {
+            List<Object[]> rows = getEntityManager().createNamedQuery("XXGroup.getGroupIdsByNames", Object[].class).setParameter("names", groupNames).getResultList();
+
+            if (rows != null) {
+                for (Object[] row : rows) {
+                    ret.put((String) row[0], (Long) row[1]);
+                }
+            }
+        }
+
+        return ret;
+    }
+
     public List<GroupInfo> getAllGroupsInfo() {
         List<GroupInfo> ret = new ArrayList<>();
 
@@ -19,6 +19,7 @@
 
 package org.apache.ranger.db;
 
+import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang.StringUtils;
 import org.apache.ranger.common.db.BaseDao;
 import org.apache.ranger.entity.XXGroupUser;
@@ -29,6 +30,7 @@
 import javax.persistence.NoResultException;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -156,6 +158,20 @@ public Map<String, Set<String>> findUsersByGroupIds() {
         return groupUsers;
     }
 
+    public List<XXGroupUser> findByGroupIdsAndUserIds(Collection<Long> groupIds, Collection<Long> userIds) {
+        if (CollectionUtils.isEmpty(groupIds) || CollectionUtils.isEmpty(userIds)) {
+            return new ArrayList<>();
+        }
+
+        return getEntityManager().createNamedQuery("XXGroupUser.findByGroupIdsAndUserIds", tClass).setParameter("groupIds", groupIds).setParameter("userIds", userIds).getResultList();
+    }
+
+    public void deleteByIds(List<Long> ids) {
+        if (CollectionUtils.isNotEmpty(ids)) {
+            batchDeleteByIds("XXGroupUser.deleteByIds", ids, "ids");
+        }
+    }
+
     public Map<String, XXGroupUser> findUsersByGroupName(String groupName) {
         Map<String, XXGroupUser> users = new HashMap<>();
 
@@ -26,6 +26,7 @@
 import org.springframework.stereotype.Service;
 
 import java.util.Date;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 @Service
@@ -47,4 +48,12 @@ public long deleteOlderThan(int olderThanInDays) {
 
         return ret;
     }
+
+    public List<Long> findIdsOlderThan(Date olderThan, int maxResults) {
+        return getEntityManager().createNamedQuery("XXPolicyExportAudit.findIdsOlderThan", Long.class).setParameter("olderThan", olderThan).setMaxResults(maxResults).getResultList();
+    }
+
+    public void deleteByIds(List<Long> ids) {
+        batchDeleteByIds("XXPolicyExportAudit.deleteByIds", ids, "ids");
+    }
 }
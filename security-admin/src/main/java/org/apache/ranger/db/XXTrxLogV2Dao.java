@@ -64,4 +64,12 @@ public long deleteOlderThan(int olderThanInDays) {
 
         return ret;
     }
+
+    public List<Long> findIdsOlderThan(Date olderThan, int maxResults) {
+        return getEntityManager().createNamedQuery("XXTrxLogV2.findIdsOlderThan", Long.class).setParameter("olderThan", olderThan).setMaxResults(maxResults).getResultList();
+    }
+
+    public void deleteByIds(List<Long> ids) {
+        batchDeleteByIds("XXTrxLogV2.deleteByIds", ids, "ids");
+    }
 }
@@ -19,6 +19,7 @@
 
 package org.apache.ranger.db;
 
+import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.ranger.authorization.utils.JsonUtils;
 import org.apache.ranger.common.RangerCommonEnums;
@@ -33,6 +34,7 @@
 import javax.persistence.NoResultException;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -122,6 +124,22 @@ public Map<String, Long> getAllUserIds() {
         return users;
     }
 
+    public Map<String, Long> getUserIdsByNames(Collection<String> userNames) {
+        Map<String, Long> ret = new HashMap<>();
+
+        if (CollectionUtils.isNotEmpty(userNames)) {
+            List<Object[]> rows = getEntityManager().createNamedQuery("XXUser.getUserIdsByNames", Object[].class).setParameter("names", userNames).getResultList();
+
+            if (rows != null) {
+                for (Object[] row : rows) {
+                    ret.put((String) row[0], (Long) row[1]);
+                }
+            }
+        }
+
+        return ret;
+    }
+
     public List<Object[]> getAllUserIdNames() {
         List<Object[]> users;
 
@@ -19,6 +19,8 @@
 
 package org.apache.ranger.elasticsearch;
 
+import org.apache.ranger.AccessAuditsSearchCache;
+import org.apache.ranger.AccessAuditsSearchCache.Cursor;
 import org.apache.ranger.audit.provider.MiscUtil;
 import org.apache.ranger.common.MessageEnums;
 import org.apache.ranger.common.PropertiesUtil;
@@ -29,12 +31,21 @@
 import org.apache.ranger.entity.XXServiceDef;
 import org.apache.ranger.plugin.util.JsonUtilsV2;
 import org.apache.ranger.view.VXAccessAudit;
+import org.apache.ranger.view.VXAccessAuditAggregation;
+import org.apache.ranger.view.VXAccessAuditCount;
 import org.apache.ranger.view.VXAccessAuditList;
 import org.apache.ranger.view.VXLong;
 import org.elasticsearch.action.get.GetResponse;
 import org.elasticsearch.action.get.MultiGetItemResponse;
 import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.aggregations.AggregationBuilder;
+import org.elasticsearch.search.aggregations.AggregationBuilders;
+import org.elasticsearch.search.aggregations.Aggregations;
+import org.elasticsearch.search.aggregations.bucket.MultiBucketsAggregation;
+import org.elasticsearch.search.aggregations.bucket.terms.Terms;
+import org.elasticsearch.search.aggregations.metrics.Cardinality;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -44,6 +55,7 @@
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
 
@@ -52,12 +64,19 @@
 public class ElasticSearchAccessAuditsService extends org.apache.ranger.AccessAuditsService {
     private static final Logger LOGGER = LoggerFactory.getLogger(ElasticSearchAccessAuditsService.class);
 
+    private static final String AGG_RESULTS   = "results";
+    private static final String AGG_TOP       = "top";
+    private static final String AGG_DISTINCT  = "distinct";
+    private static final String AGG_HISTOGRAM = "histogram";
+
     @Autowired
     ElasticSearchMgr elasticSearchMgr;
 
     @Autowired
     ElasticSearchUtil elasticSearchUtil;
 
+    private final AccessAuditsSearchCache<Object[]> searchCache = new AccessAuditsSearchCache<>();
+
     public VXAccessAuditList searchXAccessAudits(SearchCriteria searchCriteria) {
         RestHighLevelClient client              = elasticSearchMgr.getClient();
         final boolean       hiveQueryVisibility = PropertiesUtil.getBooleanProperty("ranger.audit.hive.query.visibility", true);
@@ -73,20 +92,38 @@ public VXAccessAuditList searchXAccessAudits(SearchCriteria searchCriteria) {
 
         updateUserExclusion(paramList);
 
-        SearchResponse response;
+        String            queryKey = searchCache.getQueryKey(searchCriteria);
+        VXAccessAuditList ret      = searchCache.getPage(queryKey, searchCriteria.getStartIndex(), searchCriteria.getMaxRows());
+
+        if (ret != null) {
+            LOGGER.debug("searchXAccessAudits(): returning cached page for query {}", queryKey);
+
+            return ret;
+        }
+
+        boolean          useCursor = searchCache.isCursorEnabled();
+        Cursor<Object[]> cursor    = useCursor && searchCriteria.getStartIndex() > 0 ? searchCache.getCursor(queryKey, searchCriteria.getStartIndex()) : null;
+        SearchResponse   response;
 
         try {
-            response = elasticSearchUtil.searchResources(searchCriteria, searchFields, sortFields, client, elasticSearchMgr.index);
+            response = elasticSearchUtil.searchResources(searchCriteria, searchFields, sortFields, client, elasticSearchMgr.index, useCursor, cursor != null ? cursor.getValue() : null);
         } catch (IOException e) {
             LOGGER.warn("ElasticSearch query failed: {}", e.getMessage());
 
             throw restErrorUtil.createRESTException("Error querying search engine", MessageEnums.ERROR_SYSTEM);
         }
 
+        SearchHit[] hits       = response.getHits().getHits();
+        long        totalCount = cursor != null ? cursor.getTotalCount() : response.getHits().getTotalHits().value;
+
+        if (useCursor && hits.length > 0) {
+            searchCache.putCursor(queryKey, searchCriteria.getStartIndex() + hits.length, hits[hits.length - 1].getSortValues(), totalCount);
+        }
+
         MultiGetItemResponse[] docs;
 
         try {
-            docs = elasticSearchUtil.fetch(client, elasticSearchMgr.index, response.getHits().getHits());
+            docs = elasticSearchUtil.fetch(client, elasticSearchMgr.index, hits);
         } catch (IOException e) {
             LOGGER.warn("ElasticSearch fetch failed: {}", e.getMessage());
 
@@ -121,15 +158,17 @@ public VXAccessAuditList searchXAccessAudits(SearchCriteria searchCriteria) {
             xAccessAuditList.add(vXAccessAudit);
         }
 
-        VXAccessAuditList returnList = new VXAccessAuditList();
+        ret = new VXAccessAuditList();
 
-        returnList.setPageSize(searchCriteria.getMaxRows());
-        returnList.setResultSize(response.getHits().getHits().length);
-        returnList.setTotalCount(response.getHits().getTotalHits().value);
-        returnList.setStartIndex(searchCriteria.getStartIndex());
-        returnList.setVXAccessAudits(xAccessAuditList);
+        ret.setPageSize(searchCriteria.getMaxRows());
+        ret.setResultSize(hits.length);
+        ret.setTotalCount(totalCount);
+        ret.setStartIndex(searchCriteria.getStartIndex());
+        ret.setVXAccessAudits(xAccessAuditList);
 
-        return returnList;
+        searchCache.putPage(queryKey, searchCriteria.getStartIndex(), searchCriteria.getMaxRows(), ret);
+
+        return ret;
     }
 
     public void setRestErrorUtil(RESTErrorUtil restErrorUtil) {
@@ -149,6 +188,77 @@ public VXLong getXAccessAuditSearchCount(SearchCriteria searchCriteria) {
         return vXLong;
     }
 
+    /*
+     * Computes counts in ElasticSearch using aggregations, without fetching the audit documents:
+     *  - total, allowed and denied counts
+     *  - topN values of groupBy field, with allowed and denied counts, and (approximate) number of distinct values of the field
+     *  - allowed and denied counts per interval, from startDate to endDate
+     */
+    public VXAccessAuditAggregation aggregateXAccessAudits(SearchCriteria searchCriteria, String groupBy, int topN, String interval) {
+        RestHighLevelClient client = elasticSearchMgr.getClient();
+
+        if (client == null) {
+            LOGGER.warn("ElasticSearch client is null, so not running the query.");
+
+            throw restErrorUtil.createRESTException("Error connecting to search engine", MessageEnums.ERROR_SYSTEM);
+        }
+
+        updateUserExclusion(searchCriteria.getParamList());
+
+        List<AggregationBuilder> aggregations = new ArrayList<>();
+
+        aggregations.add(createResultsAggregation());
+
+        if (groupBy != null) {
+            String fieldName = getAggregationFieldName(groupBy, searchFields);
+
+            if (fieldName == null) {
+                throw restErrorUtil.createRESTException("Aggregation on " + groupBy + " is not supported", MessageEnums.INVALID_INPUT_DATA);
+            }
+
+            aggregations.add(AggregationBuilders.terms(AGG_TOP).field(fieldName).size(topN).subAggregation(createResultsAggregation()));
+            aggregations.add(AggregationBuilders.cardinality(AGG_DISTINCT).field(fieldName));
+        }
+
+        if (interval != null) {
+            Date       startDate    = (Date) searchCriteria.getParamValue("startDate");
+            Date       endDate      = getHistogramEndDate(searchCriteria);
+            List<Date> bucketStarts = getHistogramBucketStarts(startDate, endDate, AGGREGATION_INTERVALS.get(interval));
+
+            aggregations.add(elasticSearchUtil.dateRanges(AGG_HISTOGRAM, "evtTime", bucketStarts, endDate).subAggregation(createResultsAggregation()));
+        }
+
+        SearchResponse response;
+
+        try {
+            response = elasticSearchUtil.aggregate(searchCriteria, searchFields, client, elasticSearchMgr.index, aggregations);
+        } catch (IOException e) {
+            LOGGER.warn("ElasticSearch aggregation failed: {}", e.getMessage());
+
+            throw restErrorUtil.createRESTException("Error querying search engine", MessageEnums.ERROR_SYSTEM);
+        }
+
+        Aggregations             result = response.getAggregations();
+        VXAccessAuditAggregation ret    = new VXAccessAuditAggregation();
+
+        ret.setGroupBy(groupBy);
+        ret.setInterval(interval);
+        ret.setTotal(toAuditCount(null, response.getHits().getTotalHits().value, result));
+
+        if (result != null && groupBy != null) {
+            Cardinality distinct = result.get(AGG_DISTINCT);
+
+            ret.setDistinctCount(distinct != null ? distinct.getValue() : 0L);
+            ret.setTopValues(toAuditCounts(result.get(AGG_TOP)));
+        }
+
+        if (result != null && interval != null) {
+            ret.setHistogram(toAuditCounts(result.get(AGG_HISTOGRAM)));
+        }
+
+        return ret;
+    }
+
     /**
      * @param doc
      * @return
@@ -331,4 +441,35 @@ private VXAccessAudit populateViewBean(GetResponse doc) {
 
         return accessAudit;
     }
+
+    private static AggregationBuilder createResultsAggregation() {
+        return AggregationBuilders.terms(AGG_RESULTS).field("result");
+    }
+
+    private static List<VXAccessAuditCount> toAuditCounts(MultiBucketsAggregation aggregation) {
+        List<VXAccessAuditCount> ret = new ArrayList<>();
+
+        if (aggregation != null) {
+            for (MultiBucketsAggregation.Bucket bucket : aggregation.getBuckets()) {
+                ret.add(toAuditCount(bucket.getKeyAsString(), bucket.getDocCount(), bucket.getAggregations()));
+            }
+        }
+
+        return ret;
+    }
+
+    private static VXAccessAuditCount toAuditCount(String value, long count, Aggregations aggregations) {
+        VXAccessAuditCount ret     = new VXAccessAuditCount(value);
+        Terms              results = aggregations != null ? aggregations.get(AGG_RESULTS) : null;
+
+        ret.setCount(count);
+
+        if (results != null) {
+            for (Terms.Bucket bucket : results.getBuckets()) {
+                addResultCount(ret, bucket.getKey(), bucket.getDocCount());
+            }
+        }
+
+        return ret;
+    }
 }
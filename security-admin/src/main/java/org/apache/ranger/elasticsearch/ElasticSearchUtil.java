@@ -36,6 +36,9 @@
 import org.elasticsearch.index.query.QueryBuilders;
 import org.elasticsearch.index.query.RangeQueryBuilder;
 import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.aggregations.AggregationBuilder;
+import org.elasticsearch.search.aggregations.AggregationBuilders;
+import org.elasticsearch.search.aggregations.bucket.range.DateRangeAggregationBuilder;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
 import org.elasticsearch.search.fetch.subphase.FetchSourceContext;
 import org.elasticsearch.search.sort.SortOrder;
@@ -57,6 +60,8 @@
 public class ElasticSearchUtil {
     private static final Logger logger = LoggerFactory.getLogger(ElasticSearchUtil.class);
 
+    private static final String UNIQUE_KEY_FIELD = "id";
+
     @Autowired
     StringUtil stringUtil;
 
@@ -78,36 +83,58 @@ public ElasticSearchUtil() {
     }
 
     public SearchResponse searchResources(SearchCriteria searchCriteria, List<SearchField> searchFields, List<SortField> sortFields, RestHighLevelClient client, String index) throws IOException {
-        // See Also: https://www.elastic.co/guide/en/elasticsearch/client/java-rest/current/java-rest-high-query-builders.html
-        QueryAccumulator queryAccumulator = new QueryAccumulator(searchCriteria);
+        return searchResources(searchCriteria, searchFields, sortFields, client, index, false, null);
+    }
 
-        if (searchCriteria.getParamList() != null) {
-            searchFields.forEach(queryAccumulator::addQuery);
+    /*
+     * When useCursor is true, the sort includes the unique id field, so that the sort values of the last hit can be
+     * used as searchAfter to fetch the next page. When searchAfter is not null, results are fetched starting after the
+     * given sort values instead of searchCriteria.startIndex, and total hits are not counted
+     */
+    public SearchResponse searchResources(SearchCriteria searchCriteria, List<SearchField> searchFields, List<SortField> sortFields, RestHighLevelClient client, String index, boolean useCursor, Object[] searchAfter) throws IOException {
+        BoolQueryBuilder    boolQueryBuilder    = buildQuery(searchCriteria, searchFields);
+        SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
 
-            // For now assuming there is only date field where range query will
-            // be done. If we there are more than one, then we should create a
-            // hashmap for each field name
-            if (queryAccumulator.fromDate != null || queryAccumulator.toDate != null) {
-                queryAccumulator.queries.add(setDateRange(queryAccumulator.dateFieldName, queryAccumulator.fromDate, queryAccumulator.toDate));
-            }
+        setSortClause(searchCriteria, sortFields, searchSourceBuilder);
+
+        if (useCursor) {
+            searchSourceBuilder.sort(UNIQUE_KEY_FIELD, SortOrder.ASC);
+        }
+
+        if (searchAfter != null) {
+            searchSourceBuilder.searchAfter(searchAfter);
+            searchSourceBuilder.trackTotalHits(false);
+        } else {
+            searchSourceBuilder.from(searchCriteria.getStartIndex());
         }
 
-        BoolQueryBuilder boolQueryBuilder = QueryBuilders.boolQuery();
+        searchSourceBuilder.size(searchCriteria.getMaxRows());
+        searchSourceBuilder.fetchSource(true);
+
+        SearchRequest query = new SearchRequest();
+
+        query.indices(index);
+        query.source(searchSourceBuilder.query(boolQueryBuilder));
 
-        queryAccumulator.queries.stream().filter(Objects::nonNull).forEach(boolQueryBuilder::must);
+        return client.search(query, RequestOptions.DEFAULT);
+    }
 
+    /*
+     * Runs the given aggregations on documents matching searchCriteria, without fetching the documents
+     */
+    public SearchResponse aggregate(SearchCriteria searchCriteria, List<SearchField> searchFields, RestHighLevelClient client, String index, List<AggregationBuilder> aggregations) throws IOException {
         SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
 
-        setSortClause(searchCriteria, sortFields, searchSourceBuilder);
+        searchSourceBuilder.query(buildQuery(searchCriteria, searchFields));
+        searchSourceBuilder.size(0);
+        searchSourceBuilder.trackTotalHits(true);
 
-        searchSourceBuilder.from(searchCriteria.getStartIndex());
-        searchSourceBuilder.size(searchCriteria.getMaxRows());
-        searchSourceBuilder.fetchSource(true);
+        aggregations.forEach(searchSourceBuilder::aggregation);
 
         SearchRequest query = new SearchRequest();
 
         query.indices(index);
-        query.source(searchSourceBuilder.query(boolQueryBuilder));
+        query.source(searchSourceBuilder);
 
         return client.search(query, RequestOptions.DEFAULT);
     }
@@ -184,6 +211,27 @@ public QueryBuilder setDateRange(String fieldName, Date fromDate, Date toDate) {
         return rangeQueryBuilder;
     }
 
+    public String formatDate(Date date) {
+        return dateFormat.format(date);
+    }
+
+    /*
+     * Returns aggregation of counts per date range, starting at each of bucketStarts; the last range ends at endDate.
+     * Buckets are keyed by their start time in epoch milliseconds
+     */
+    public DateRangeAggregationBuilder dateRanges(String name, String fieldName, List<Date> bucketStarts, Date endDate) {
+        DateRangeAggregationBuilder ret = AggregationBuilders.dateRange(name).field(fieldName).format(dateFormateStr);
+
+        for (int i = 0; i < bucketStarts.size(); i++) {
+            String from = formatDate(bucketStarts.get(i));
+            String to   = formatDate(i + 1 < bucketStarts.size() ? bucketStarts.get(i + 1) : new Date(endDate.getTime() + 1));
+
+            ret.addRange(String.valueOf(bucketStarts.get(i).getTime()), from, to);
+        }
+
+        return ret;
+    }
+
     public MultiGetItemResponse[] fetch(RestHighLevelClient client, String index, SearchHit... hits) throws IOException {
         if (0 == hits.length) {
             return new MultiGetItemResponse[0];
@@ -202,6 +250,28 @@ public MultiGetItemResponse[] fetch(RestHighLevelClient client, String index, Se
         return client.multiGet(multiGetRequest, RequestOptions.DEFAULT).getResponses();
     }
 
+    private BoolQueryBuilder buildQuery(SearchCriteria searchCriteria, List<SearchField> searchFields) {
+        // See Also: https://www.elastic.co/guide/en/elasticsearch/client/java-rest/current/java-rest-high-query-builders.html
+        QueryAccumulator queryAccumulator = new QueryAccumulator(searchCriteria);
+
+        if (searchCriteria.getParamList() != null) {
+            searchFields.forEach(queryAccumulator::addQuery);
+
+            // For now assuming there is only date field where range query will
+            // be done. If we there are more than one, then we should create a
+            // hashmap for each field name
+            if (queryAccumulator.fromDate != null || queryAccumulator.toDate != null) {
+                queryAccumulator.queries.add(setDateRange(queryAccumulator.dateFieldName, queryAccumulator.fromDate, queryAccumulator.toDate));
+            }
+        }
+
+        BoolQueryBuilder ret = QueryBuilders.boolQuery();
+
+        queryAccumulator.queries.stream().filter(Objects::nonNull).forEach(ret::must);
+
+        return ret;
+    }
+
     private String filterText(Object value) {
         return ClientUtils.escapeQueryChars(value.toString().trim().toLowerCase());
     }
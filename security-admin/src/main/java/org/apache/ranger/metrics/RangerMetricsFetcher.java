@@ -19,6 +19,7 @@
 
 package org.apache.ranger.metrics;
 
+import org.apache.ranger.biz.RangerPolicyAdminCacheForEngineOptions;
 import org.apache.ranger.biz.ServiceDBStore;
 import org.apache.ranger.biz.XUserMgr;
 import org.apache.ranger.common.RangerConstants;
@@ -135,6 +136,10 @@ public Map<String, Long> getDenyConditionsMetrics() {
         return ret;
     }
 
+    public Map<String, Long> getPolicyAdminCacheMetrics() {
+        return RangerPolicyAdminCacheForEngineOptions.getInstance().getMetrics();
+    }
+
     public Map<String, Long> getContextEnrichersMetrics() {
         Map<String, Long> ret   = new HashMap<>();
         long              total = 0L;
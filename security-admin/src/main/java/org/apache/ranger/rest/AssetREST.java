@@ -46,6 +46,7 @@
 import org.apache.ranger.service.XPolicyService;
 import org.apache.ranger.service.XResourceService;
 import org.apache.ranger.util.RestUtil;
+import org.apache.ranger.view.VXAccessAuditAggregation;
 import org.apache.ranger.view.VXAccessAuditList;
 import org.apache.ranger.view.VXAsset;
 import org.apache.ranger.view.VXAssetList;
@@ -531,44 +532,7 @@ public VXTrxLogList getTransactionReport(@Context HttpServletRequest request, @P
     @Produces("application/json")
     @PreAuthorize("@rangerPreAuthSecurityHandler.isAPIAccessible(\"" + RangerAPIList.GET_ACCESS_LOGS + "\")")
     public VXAccessAuditList getAccessLogs(@Context HttpServletRequest request, @QueryParam("timeZone") String timeZone) {
-        SearchCriteria searchCriteria = searchUtil.extractCommonCriterias(request, xAccessAuditService.sortFields);
-
-        searchUtil.extractString(request, searchCriteria, "accessType", "Access Type", StringUtil.VALIDATION_TEXT);
-        searchUtil.extractString(request, searchCriteria, "aclEnforcer", "Access Enforcer", StringUtil.VALIDATION_TEXT);
-        searchUtil.extractString(request, searchCriteria, "agentId", "Application", StringUtil.VALIDATION_TEXT);
-        searchUtil.extractString(request, searchCriteria, "repoName", "Service Name", StringUtil.VALIDATION_TEXT);
-        searchUtil.extractString(request, searchCriteria, "sessionId", "Session ID", StringUtil.VALIDATION_TEXT);
-        searchUtil.extractStringList(request, searchCriteria, "requestUser", "Users", "requestUser", null, StringUtil.VALIDATION_TEXT);
-        searchUtil.extractStringList(request, searchCriteria, "excludeUser", "Exclude Users", "-requestUser", null, StringUtil.VALIDATION_TEXT);
-        searchUtil.extractString(request, searchCriteria, "requestData", "Request Data", StringUtil.VALIDATION_TEXT);
-        searchUtil.extractString(request, searchCriteria, "resourcePath", "Resource Name", StringUtil.VALIDATION_TEXT);
-        searchUtil.extractString(request, searchCriteria, "clientIP", "Client IP", StringUtil.VALIDATION_TEXT);
-        searchUtil.extractString(request, searchCriteria, "resourceType", "Resource Type", StringUtil.VALIDATION_TEXT);
-        searchUtil.extractString(request, searchCriteria, "excludeServiceUser", "Exclude Service User", StringUtil.VALIDATION_TEXT);
-
-        searchUtil.extractInt(request, searchCriteria, "auditType", "Audit Type");
-        searchUtil.extractInt(request, searchCriteria, "accessResult", "Result");
-        searchUtil.extractInt(request, searchCriteria, "assetId", "Asset ID");
-        searchUtil.extractLong(request, searchCriteria, "policyId", "Policy ID");
-        searchUtil.extractInt(request, searchCriteria, "repoType", "Service Type");
-        searchUtil.extractDate(request, searchCriteria, "startDate", "Start Date", "MM/dd/yyyy");
-        searchUtil.extractDate(request, searchCriteria, "endDate", "End Date", "MM/dd/yyyy");
-        searchUtil.extractString(request, searchCriteria, "tags", "tags", null);
-        searchUtil.extractString(request, searchCriteria, "cluster", "Cluster Name", StringUtil.VALIDATION_TEXT);
-        searchUtil.extractStringList(request, searchCriteria, "zoneName", "Zone Name List", "zoneName", null, null);
-        searchUtil.extractString(request, searchCriteria, "agentHost", "Agent Host Name", StringUtil.VALIDATION_TEXT);
-        searchUtil.extractString(request, searchCriteria, "eventId", "Event Id", null);
-
-        boolean      isKeyAdmin      = msBizUtil.isKeyAdmin();
-        boolean      isAuditKeyAdmin = msBizUtil.isAuditKeyAdmin();
-        XXServiceDef xxServiceDef    = daoManager.getXXServiceDef().findByName(EmbeddedServiceDefsUtil.EMBEDDED_SERVICEDEF_KMS_NAME);
-
-        if (isKeyAdmin && xxServiceDef != null || isAuditKeyAdmin && xxServiceDef != null) {
-            searchCriteria.getParamList().put("repoType", xxServiceDef.getId());
-        } else if (xxServiceDef != null) {
-            searchCriteria.getParamList().put("-repoType", xxServiceDef.getId());
-        }
-
+        SearchCriteria    searchCriteria    = extractAccessAuditSearchCriteria(request);
         VXAccessAuditList vxAccessAuditList = assetMgr.getAccessLogs(searchCriteria);
 
         if (timeZone != null && !StringUtils.isBlank(timeZone)) {
@@ -588,6 +552,27 @@ public VXAccessAuditList getAccessLogs(@Context HttpServletRequest request, @Que
         return vxAccessAuditList;
     }
 
+    /*
+     * Returns counts of access audits matching the given filters (same as /accessAudit), computed in the audit store:
+     *  - groupBy: counts for topN values of this field, like requestUser or resourcePath, and number of its distinct values
+     *  - interval: counts per minute/hour/day/week from startDate to endDate
+     * Allowed and denied counts are included for each; use accessResult filter to count only allowed or denied accesses
+     */
+    @GET
+    @Path("/accessAudit/aggregate")
+    @Produces("application/json")
+    @PreAuthorize("@rangerPreAuthSecurityHandler.isAPIAccessible(\"" + RangerAPIList.GET_ACCESS_LOGS + "\")")
+    public VXAccessAuditAggregation getAccessLogsAggregation(@Context HttpServletRequest request, @QueryParam("groupBy") String groupBy, @QueryParam("topN") Integer topN, @QueryParam("interval") String interval) {
+        logger.debug("==> AssetREST.getAccessLogsAggregation(groupBy={}, topN={}, interval={})", groupBy, topN, interval);
+
+        SearchCriteria           searchCriteria = extractAccessAuditSearchCriteria(request);
+        VXAccessAuditAggregation ret            = assetMgr.getAccessLogsAggregation(searchCriteria, StringUtils.trimToNull(groupBy), topN, StringUtils.trimToNull(interval));
+
+        logger.debug("<== AssetREST.getAccessLogsAggregation(groupBy={}, topN={}, interval={}): ret={}", groupBy, topN, interval, ret);
+
+        return ret;
+    }
+
     @POST
     @Path("/resources/grant")
     @Consumes("application/json")
@@ -682,4 +667,46 @@ public VXUgsyncAuditInfoList getUgsyncAudits(@Context HttpServletRequest request
     public VXUgsyncAuditInfoList getUgsyncAuditsBySyncSource(@PathParam("syncSource") String syncSource) {
         return assetMgr.getUgsyncAuditsBySyncSource(syncSource);
     }
+
+    private SearchCriteria extractAccessAuditSearchCriteria(HttpServletRequest request) {
+        SearchCriteria searchCriteria = searchUtil.extractCommonCriterias(request, xAccessAuditService.sortFields);
+
+        searchUtil.extractString(request, searchCriteria, "accessType", "Access Type", StringUtil.VALIDATION_TEXT);
+        searchUtil.extractString(request, searchCriteria, "aclEnforcer", "Access Enforcer", StringUtil.VALIDATION_TEXT);
+        searchUtil.extractString(request, searchCriteria, "agentId", "Application", StringUtil.VALIDATION_TEXT);
+        searchUtil.extractString(request, searchCriteria, "repoName", "Service Name", StringUtil.VALIDATION_TEXT);
+        searchUtil.extractString(request, searchCriteria, "sessionId", "Session ID", StringUtil.VALIDATION_TEXT);
+        searchUtil.extractStringList(request, searchCriteria, "requestUser", "Users", "requestUser", null, StringUtil.VALIDATION_TEXT);
+        searchUtil.extractStringList(request, searchCriteria, "excludeUser", "Exclude Users", "-requestUser", null, StringUtil.VALIDATION_TEXT);
+        searchUtil.extractString(request, searchCriteria, "requestData", "Request Data", StringUtil.VALIDATION_TEXT);
+        searchUtil.extractString(request, searchCriteria, "resourcePath", "Resource Name", StringUtil.VALIDATION_TEXT);
+        searchUtil.extractString(request, searchCriteria, "clientIP", "Client IP", StringUtil.VALIDATION_TEXT);
+        searchUtil.extractString(request, searchCriteria, "resourceType", "Resource Type", StringUtil.VALIDATION_TEXT);
+        searchUtil.extractString(request, searchCriteria, "excludeServiceUser", "Exclude Service User", StringUtil.VALIDATION_TEXT);
+
+        searchUtil.extractInt(request, searchCriteria, "auditType", "Audit Type");
+        searchUtil.extractInt(request, searchCriteria, "accessResult", "Result");
+        searchUtil.extractInt(request, searchCriteria, "assetId", "Asset ID");
+        searchUtil.extractLong(request, searchCriteria, "policyId", "Policy ID");
+        searchUtil.extractInt(request, searchCriteria, "repoType", "Service Type");
+        searchUtil.extractDate(request, searchCriteria, "startDate", "Start Date", "MM/dd/yyyy");
+        searchUtil.extractDate(request, searchCriteria, "endDate", "End Date", "MM/dd/yyyy");
+        searchUtil.extractString(request, searchCriteria, "tags", "tags", null);
+        searchUtil.extractString(request, searchCriteria, "cluster", "Cluster Name", StringUtil.VALIDATION_TEXT);
+        searchUtil.extractStringList(request, searchCriteria, "zoneName", "Zone Name List", "zoneName", null, null);
+        searchUtil.extractString(request, searchCriteria, "agentHost", "Agent Host Name", StringUtil.VALIDATION_TEXT);
+        searchUtil.extractString(request, searchCriteria, "eventId", "Event Id", null);
+
+        boolean      isKeyAdmin      = msBizUtil.isKeyAdmin();
+        boolean      isAuditKeyAdmin = msBizUtil.isAuditKeyAdmin();
+        XXServiceDef xxServiceDef    = daoManager.getXXServiceDef().findByName(EmbeddedServiceDefsUtil.EMBEDDED_SERVICEDEF_KMS_NAME);
+
+        if (isKeyAdmin && xxServiceDef != null || isAuditKeyAdmin && xxServiceDef != null) {
+            searchCriteria.getParamList().put("repoType", xxServiceDef.getId());
+        } else if (xxServiceDef != null) {
+            searchCriteria.getParamList().put("-repoType", xxServiceDef.getId());
+        }
+
+        return searchCriteria;
+    }
 }
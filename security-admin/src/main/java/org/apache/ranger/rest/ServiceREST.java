@@ -19,12 +19,12 @@
 
 package org.apache.ranger.rest;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.google.gson.JsonSyntaxException;
 import com.sun.jersey.core.header.FormDataContentDisposition;
 import com.sun.jersey.multipart.FormDataParam;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections.MapUtils;
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.ArrayUtils;
 import org.apache.commons.lang.RandomStringUtils;
 import org.apache.commons.lang.StringUtils;
@@ -39,7 +39,6 @@
 import org.apache.ranger.biz.RoleDBStore;
 import org.apache.ranger.biz.SecurityZoneDBStore;
 import org.apache.ranger.biz.ServiceDBStore;
-import org.apache.ranger.biz.ServiceDBStore.JSON_FILE_NAME_TYPE;
 import org.apache.ranger.biz.ServiceMgr;
 import org.apache.ranger.biz.TagDBStore;
 import org.apache.ranger.biz.XUserMgr;
@@ -51,8 +50,10 @@
 import org.apache.ranger.common.RESTErrorUtil;
 import org.apache.ranger.common.RangerConstants;
 import org.apache.ranger.common.RangerSearchUtil;
+import org.apache.ranger.common.RangerServicePoliciesCache;
 import org.apache.ranger.common.RangerValidatorFactory;
 import org.apache.ranger.common.ServiceUtil;
+import org.apache.ranger.common.ServiceVersionChangeNotifier;
 import org.apache.ranger.common.SortField.SORT_ORDER;
 import org.apache.ranger.common.UserSessionBase;
 import org.apache.ranger.common.db.RangerTransactionSynchronizationAdapter;
@@ -96,8 +97,10 @@
 import org.apache.ranger.plugin.util.RangerAccessRequestUtil;
 import org.apache.ranger.plugin.util.RangerPerfTracer;
 import org.apache.ranger.plugin.util.RangerPurgeResult;
+import org.apache.ranger.plugin.util.RangerServiceNotFoundException;
 import org.apache.ranger.plugin.util.SearchFilter;
 import org.apache.ranger.plugin.util.ServicePolicies;
+import org.apache.ranger.plugin.util.ServiceVersions;
 import org.apache.ranger.security.context.RangerAPIList;
 import org.apache.ranger.security.context.RangerContextHolder;
 import org.apache.ranger.security.web.filter.RangerCSRFPreventionFilter;
@@ -119,13 +122,17 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Scope;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import javax.annotation.Nonnull;
 import javax.annotation.PostConstruct;
@@ -143,6 +150,7 @@
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 
 import java.io.IOException;
@@ -150,17 +158,21 @@
 import java.security.SecureRandom;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.Callable;
 import java.util.stream.IntStream;
 
 import static org.apache.ranger.plugin.store.EmbeddedServiceDefsUtil.EMBEDDED_SERVICEDEF_GDS_NAME;
@@ -262,6 +274,13 @@ public class ServiceREST {
     @Autowired
     RangerTransactionSynchronizationAdapter rangerTransactionSynchronizationAdapter;
 
+    @Autowired
+    ServiceVersionChangeNotifier versionChangeNotifier;
+
+    @Autowired
+    @Qualifier(value = "transactionManager")
+    PlatformTransactionManager txManager;
+
     private RangerPolicyEngineOptions delegateAdminOptions;
     private RangerPolicyEngineOptions policySearchAdminOptions;
     private RangerPolicyEngineOptions defaultAdminOptions;
@@ -1989,7 +2008,7 @@ public boolean resetPolicyCacheAll() {
     @Deprecated
     @GET
     @Path("/policies/downloadExcel")
-    @Produces("application/ms-excel")
+    @Produces("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet")
     public void getPoliciesInExcel(@Context HttpServletRequest request, @Context HttpServletResponse response) {
         LOG.debug("==> ServiceREST.getPoliciesInExcel()");
 
@@ -2001,20 +2020,10 @@ public void getPoliciesInExcel(@Context HttpServletRequest request, @Context Htt
                 perf = RangerPerfTracer.getPerfTracer(PERF_LOG, "ServiceREST.getPoliciesInExcel()");
             }
 
-            List<RangerPolicy> policyLists = new ArrayList<>();
-
-            policyLists = getAllFilteredPolicyList(filter, request, policyLists);
-
-            if (CollectionUtils.isNotEmpty(policyLists)) {
-                Map<String, String> mapServiceTypeAndImplClass = new HashMap<>();
+            Iterator<RangerPolicy> policies = getPoliciesToExport(filter, request);
 
-                for (RangerPolicy rangerPolicy : policyLists) {
-                    if (rangerPolicy != null) {
-                        ensureAdminAndAuditAccess(rangerPolicy, mapServiceTypeAndImplClass);
-                    }
-                }
-
-                svcStore.getPoliciesInExcel(policyLists, response);
+            if (policies.hasNext()) {
+                svcStore.getPoliciesInExcel(policies, response);
             } else {
                 response.setStatus(HttpServletResponse.SC_NO_CONTENT);
 
@@ -2054,20 +2063,10 @@ public void getPoliciesInCsv(@Context HttpServletRequest request, @Context HttpS
                 perf = RangerPerfTracer.getPerfTracer(PERF_LOG, "ServiceREST.getPoliciesInCsv()");
             }
 
-            List<RangerPolicy> policyLists = new ArrayList<>();
-
-            policyLists = getAllFilteredPolicyList(filter, request, policyLists);
+            Iterator<RangerPolicy> policies = getPoliciesToExport(filter, request);
 
-            if (CollectionUtils.isNotEmpty(policyLists)) {
-                Map<String, String> mapServiceTypeAndImplClass = new HashMap<>();
-
-                for (RangerPolicy rangerPolicy : policyLists) {
-                    if (rangerPolicy != null) {
-                        ensureAdminAndAuditAccess(rangerPolicy, mapServiceTypeAndImplClass);
-                    }
-                }
-
-                svcStore.getPoliciesInCSV(policyLists, response);
+            if (policies.hasNext()) {
+                svcStore.getPoliciesInCSV(policies, response);
             } else {
                 response.setStatus(HttpServletResponse.SC_NO_CONTENT);
 
@@ -2112,22 +2111,12 @@ public void getPoliciesInJson(@Context HttpServletRequest request, @Context Http
                 checkPoliciesExists = false;
             }
 
-            List<RangerPolicy> policyLists = new ArrayList<>();
-
-            policyLists = getAllFilteredPolicyList(filter, request, policyLists);
-
-            if (CollectionUtils.isNotEmpty(policyLists)) {
-                Map<String, String> mapServiceTypeAndImplClass = new HashMap<>();
-
-                for (RangerPolicy rangerPolicy : policyLists) {
-                    if (rangerPolicy != null) {
-                        ensureAdminAndAuditAccess(rangerPolicy, mapServiceTypeAndImplClass);
-                    }
-                }
+            Iterator<RangerPolicy> policies = getPoliciesToExport(filter, request);
 
+            if (policies.hasNext()) {
                 bizUtil.blockAuditorRoleUser();
 
-                svcStore.getObjectInJson(policyLists, response, JSON_FILE_NAME_TYPE.POLICY);
+                svcStore.getPoliciesInJson(policies, response);
             } else {
                 checkPoliciesExists = true;
 
@@ -2510,6 +2499,8 @@ public RangerPolicyList getServicePoliciesByName(@PathParam("name") String servi
     public ServicePolicies getServicePoliciesIfUpdated(@PathParam("serviceName") String serviceName, @DefaultValue("-1") @QueryParam("lastKnownVersion") Long lastKnownVersion, @DefaultValue("0") @QueryParam("lastActivationTime") Long lastActivationTime, @QueryParam("pluginId") String pluginId, @DefaultValue("") @QueryParam("clusterName") String clusterName, @DefaultValue("") @QueryParam("zoneName") String zoneName, @DefaultValue("false") @QueryParam("supportsPolicyDeltas") Boolean supportsPolicyDeltas, @DefaultValue("") @QueryParam("pluginCapabilities") String pluginCapabilities, @Context HttpServletRequest request) throws Exception {
         LOG.debug("==> ServiceREST.getServicePoliciesIfUpdated({}, {}, {}, {}, {}, {})", serviceName, lastKnownVersion, lastActivationTime, pluginId, clusterName, supportsPolicyDeltas);
 
+        lastKnownVersion = getLastKnownPolicyVersion(lastKnownVersion, request);
+
         ServicePolicies  ret               = null;
         int              httpCode          = HttpServletResponse.SC_OK;
         String           logMsg            = null;
@@ -2574,13 +2565,12 @@ public ServicePolicies getServicePoliciesIfUpdated(@PathParam("serviceName") Str
     public ServicePolicies getSecureServicePoliciesIfUpdated(@PathParam("serviceName") String serviceName, @DefaultValue("-1") @QueryParam("lastKnownVersion") Long lastKnownVersion, @DefaultValue("0") @QueryParam("lastActivationTime") Long lastActivationTime, @QueryParam("pluginId") String pluginId, @DefaultValue("") @QueryParam("clusterName") String clusterName, @DefaultValue("") @QueryParam("zoneName") String zoneName, @DefaultValue("false") @QueryParam("supportsPolicyDeltas") Boolean supportsPolicyDeltas, @DefaultValue("") @QueryParam("pluginCapabilities") String pluginCapabilities, @Context HttpServletRequest request) throws Exception {
         LOG.debug("==> ServiceREST.getSecureServicePoliciesIfUpdated({}, {}, {}, {}, {}, {})", serviceName, lastKnownVersion, lastActivationTime, pluginId, clusterName, supportsPolicyDeltas);
 
+        lastKnownVersion = getLastKnownPolicyVersion(lastKnownVersion, request);
+
         ServicePolicies  ret               = null;
         int              httpCode          = HttpServletResponse.SC_OK;
         String           logMsg            = null;
         RangerPerfTracer perf              = null;
-        boolean          isAllowed         = false;
-        boolean          isAdmin           = bizUtil.isAdmin();
-        boolean          isKeyAdmin        = bizUtil.isKeyAdmin();
         Long             downloadedVersion = null;
         boolean          isValid           = false;
 
@@ -2602,41 +2592,7 @@ public ServicePolicies getSecureServicePoliciesIfUpdated(@PathParam("serviceName
                     perf = RangerPerfTracer.getPerfTracer(PERF_LOG, "ServiceREST.getSecureServicePoliciesIfUpdated(serviceName=" + serviceName + ",lastKnownVersion=" + lastKnownVersion + ",lastActivationTime=" + lastActivationTime + ")");
                 }
 
-                XXService     xService      = daoManager.getXXService().findByName(serviceName);
-                XXServiceDef  xServiceDef   = daoManager.getXXServiceDef().getById(xService.getType());
-                RangerService rangerService;
-
-                if (StringUtils.equals(xServiceDef.getImplclassname(), EmbeddedServiceDefsUtil.KMS_IMPL_CLASS_NAME)) {
-                    rangerService = svcStore.getServiceByNameForDP(serviceName);
-
-                    if (isKeyAdmin) {
-                        isAllowed = true;
-                    } else {
-                        if (rangerService != null) {
-                            isAllowed = bizUtil.isUserAllowed(rangerService, Allowed_User_List_For_Download);
-
-                            if (!isAllowed) {
-                                isAllowed = bizUtil.isUserAllowed(rangerService, Allowed_User_List_For_Grant_Revoke);
-                            }
-                        }
-                    }
-                } else {
-                    rangerService = svcStore.getServiceByName(serviceName);
-
-                    if (isAdmin) {
-                        isAllowed = true;
-                    } else {
-                        if (rangerService != null) {
-                            isAllowed = bizUtil.isUserAllowed(rangerService, Allowed_User_List_For_Download);
-
-                            if (!isAllowed) {
-                                isAllowed = bizUtil.isUserAllowed(rangerService, Allowed_User_List_For_Grant_Revoke);
-                            }
-                        }
-                    }
-                }
-
-                if (isAllowed) {
+                if (isPolicyDownloadAllowed(serviceName)) {
                     ret = svcStore.getServicePoliciesIfUpdated(serviceName, lastKnownVersion, !supportsPolicyDeltas);
 
                     if (ret == null) {
@@ -2677,6 +2633,56 @@ public ServicePolicies getSecureServicePoliciesIfUpdated(@PathParam("serviceName
         return ret;
     }
 
+    @GET
+    @Path("/policies/changes/{serviceName}")
+    @Produces("application/json")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ServiceVersions waitForServiceVersionChange(@PathParam("serviceName") String serviceName, @QueryParam("lastKnownVersion") Long lastKnownVersion, @QueryParam("lastKnownTagVersion") Long lastKnownTagVersion, @QueryParam("lastKnownRoleVersion") Long lastKnownRoleVersion, @QueryParam("lastKnownUserStoreVersion") Long lastKnownUserStoreVersion, @DefaultValue("30000") @QueryParam("timeoutMs") Long timeoutMs, @QueryParam("pluginId") String pluginId, @Context HttpServletRequest request) throws Exception {
+        LOG.debug("==> ServiceREST.waitForServiceVersionChange({}, {}, {}, {}, {}, {}, {})", serviceName, lastKnownVersion, lastKnownTagVersion, lastKnownRoleVersion, lastKnownUserStoreVersion, timeoutMs, pluginId);
+
+        ServiceVersions knownVersions = new ServiceVersions(serviceName, lastKnownVersion, lastKnownTagVersion, lastKnownRoleVersion, lastKnownUserStoreVersion);
+        boolean         isValid       = validateServiceVersionChangeRequest(knownVersions, () -> {
+            bizUtil.failUnauthenticatedDownloadIfNotAllowed();
+
+            return serviceUtil.isValidateHttpsAuthentication(serviceName, request);
+        });
+
+        ServiceVersions ret = isValid ? waitForServiceVersionChange(knownVersions, timeoutMs) : null;
+
+        LOG.debug("<== ServiceREST.waitForServiceVersionChange({}, {}, {}, {}, {}, {}, {}): ret={}", serviceName, lastKnownVersion, lastKnownTagVersion, lastKnownRoleVersion, lastKnownUserStoreVersion, timeoutMs, pluginId, ret);
+
+        return ret;
+    }
+
+    @GET
+    @Path("/secure/policies/changes/{serviceName}")
+    @Produces("application/json")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ServiceVersions waitForSecureServiceVersionChange(@PathParam("serviceName") String serviceName, @QueryParam("lastKnownVersion") Long lastKnownVersion, @QueryParam("lastKnownTagVersion") Long lastKnownTagVersion, @QueryParam("lastKnownRoleVersion") Long lastKnownRoleVersion, @QueryParam("lastKnownUserStoreVersion") Long lastKnownUserStoreVersion, @DefaultValue("30000") @QueryParam("timeoutMs") Long timeoutMs, @QueryParam("pluginId") String pluginId, @Context HttpServletRequest request) throws Exception {
+        LOG.debug("==> ServiceREST.waitForSecureServiceVersionChange({}, {}, {}, {}, {}, {}, {})", serviceName, lastKnownVersion, lastKnownTagVersion, lastKnownRoleVersion, lastKnownUserStoreVersion, timeoutMs, pluginId);
+
+        request.setAttribute("downloadPolicy", "secure");
+
+        ServiceVersions knownVersions = new ServiceVersions(serviceName, lastKnownVersion, lastKnownTagVersion, lastKnownRoleVersion, lastKnownUserStoreVersion);
+        boolean         isValid       = validateServiceVersionChangeRequest(knownVersions, () -> {
+            boolean ret = serviceUtil.isValidService(serviceName, request);
+
+            if (ret && !isPolicyDownloadAllowed(serviceName)) {
+                LOG.error("waitForSecureServiceVersionChange({}) failed as User doesn't have permission to download Policy", serviceName);
+
+                throw restErrorUtil.createRESTException(HttpServletResponse.SC_FORBIDDEN, "User doesn't have permission to download policy", true);
+            }
+
+            return ret;
+        });
+
+        ServiceVersions ret = isValid ? waitForServiceVersionChange(knownVersions, timeoutMs) : null;
+
+        LOG.debug("<== ServiceREST.waitForSecureServiceVersionChange({}, {}, {}, {}, {}, {}, {}): ret={}", serviceName, lastKnownVersion, lastKnownTagVersion, lastKnownRoleVersion, lastKnownUserStoreVersion, timeoutMs, pluginId, ret);
+
+        return ret;
+    }
+
     @DELETE
     @Path("/server/policydeltas")
     @PreAuthorize("hasRole('ROLE_SYS_ADMIN')")
@@ -3450,14 +3456,15 @@ private List<RangerPolicy> getPoliciesFromProvidedJson(RangerExportPolicyList ra
     }
 
     private RangerExportPolicyList processPolicyInputJsonForMetaData(InputStream uploadedInputStream, RangerExportPolicyList rangerExportPolicyList) throws Exception {
-        String policiesString = IOUtils.toString(uploadedInputStream).trim();
-
-        if (StringUtils.isNotEmpty(policiesString)) {
-            rangerExportPolicyList = JsonUtilsV2.jsonToObj(policiesString, RangerExportPolicyList.class);
-        } else {
-            LOG.error("Provided json file is empty!!");
+        // parse directly from the uploaded stream, instead of first reading the entire file into a string
+        try (JsonParser parser = JsonUtilsV2.getMapper().getFactory().createParser(uploadedInputStream)) {
+            if (parser.nextToken() != null) {
+                rangerExportPolicyList = JsonUtilsV2.getMapper().readValue(parser, RangerExportPolicyList.class);
+            } else {
+                LOG.error("Provided json file is empty!!");
 
-            throw restErrorUtil.createRESTException("Provided json file is empty!!");
+                throw restErrorUtil.createRESTException("Provided json file is empty!!");
+            }
         }
 
         return rangerExportPolicyList;
@@ -3592,116 +3599,60 @@ private void processZoneMapping(Map<String, String> zoneMappingMap, List<String>
         }
     }
 
-    private List<RangerPolicy> getAllFilteredPolicyList(SearchFilter filter, HttpServletRequest request, List<RangerPolicy> policyLists) {
-        String       serviceNames                 = null;
-        String       serviceType                  = null;
-        List<String> serviceNameList              = null;
-        List<String> serviceTypeList              = null;
-        List<String> serviceNameInServiceTypeList = new ArrayList<>();
-        boolean      isServiceExists;
+    /*
+     * Returns policies to export, loaded one service at a time as the returned iterator is consumed; this lets the
+     * export be written as policies are loaded, instead of collecting policies of all services before writing.
+     */
+    private Iterator<RangerPolicy> getPoliciesToExport(SearchFilter filter, HttpServletRequest request) {
+        List<String> serviceNames = getServiceNamesToExport(request);
 
-        if (request.getParameter(PARAM_SERVICE_NAME) != null) {
-            serviceNames = request.getParameter(PARAM_SERVICE_NAME);
+        if (filter == null || serviceNames.isEmpty()) {
+            return Collections.emptyIterator();
         }
 
-        if (StringUtils.isNotEmpty(serviceNames)) {
-            serviceNameList = new ArrayList<>(Arrays.asList(serviceNames.split(",")));
-        }
+        filter.setStartIndex(0);
+        filter.setMaxRows(Integer.MAX_VALUE);
 
-        if (request.getParameter(PARAM_SERVICE_TYPE) != null) {
-            serviceType = request.getParameter(PARAM_SERVICE_TYPE);
+        if (filter.getParam(PARAM_SERVICE_TYPE) != null) {
+            filter.removeParam(PARAM_SERVICE_TYPE);
         }
 
-        if (StringUtils.isNotEmpty(serviceType)) {
-            serviceTypeList = new ArrayList<>(Arrays.asList(serviceType.split(",")));
-        }
-
-        List<RangerPolicy> policyList;
-        List<RangerPolicy> policyListByServiceName = new ArrayList<>();
-
-        if (filter != null) {
-            filter.setStartIndex(0);
-            filter.setMaxRows(Integer.MAX_VALUE);
-
-            if (!CollectionUtils.isEmpty(serviceTypeList)) {
-                for (String s : serviceTypeList) {
-                    filter.removeParam(PARAM_SERVICE_TYPE);
-
-                    if (request.getParameter(PARAM_SERVICE_NAME) != null) {
-                        filter.removeParam(PARAM_SERVICE_NAME);
-                    }
-
-                    filter.setParam(PARAM_SERVICE_TYPE, s.trim());
-
-                    policyList = getPolicies(filter);
-
-                    policyLists.addAll(policyList);
-                }
-                if (!CollectionUtils.sizeIsEmpty(policyLists)) {
-                    for (RangerPolicy rangerPolicy : policyLists) {
-                        if (StringUtils.isNotEmpty(rangerPolicy.getService())) {
-                            serviceNameInServiceTypeList.add(rangerPolicy.getService());
-                        }
-                    }
-                }
-            }
-            if (!CollectionUtils.isEmpty(serviceNameList) && !CollectionUtils.isEmpty(serviceTypeList)) {
-                isServiceExists = serviceNameInServiceTypeList.containsAll(serviceNameList);
-
-                if (isServiceExists) {
-                    for (String s : serviceNameList) {
-                        filter.removeParam(PARAM_SERVICE_NAME);
-                        filter.removeParam(PARAM_SERVICE_TYPE);
-                        filter.setParam(PARAM_SERVICE_NAME, s.trim());
-
-                        policyList = getPolicies(filter);
+        return new ExportPolicyIterator(filter, request, serviceNames.iterator());
+    }
 
-                        policyListByServiceName.addAll(policyList);
-                    }
+    private List<String> getServiceNamesToExport(HttpServletRequest request) {
+        List<String> serviceNames = new ArrayList<>();
+        List<String> serviceTypes = new ArrayList<>();
 
-                    policyLists = policyListByServiceName;
-                } else {
-                    policyLists = new ArrayList<>();
-                }
-            } else if (CollectionUtils.isEmpty(serviceNameList) && CollectionUtils.isEmpty(serviceTypeList)) {
-                policyLists = getPolicies(filter);
+        if (StringUtils.isNotEmpty(request.getParameter(PARAM_SERVICE_NAME))) {
+            for (String serviceName : request.getParameter(PARAM_SERVICE_NAME).split(",")) {
+                serviceNames.add(serviceName.trim());
             }
-            if (!CollectionUtils.isEmpty(serviceNameList) && CollectionUtils.isEmpty(serviceTypeList)) {
-                for (String s : serviceNameList) {
-                    filter.removeParam(PARAM_SERVICE_NAME);
-                    filter.setParam(PARAM_SERVICE_NAME, s.trim());
-
-                    policyList = getPolicies(filter);
+        }
 
-                    policyLists.addAll(policyList);
-                }
+        if (StringUtils.isNotEmpty(request.getParameter(PARAM_SERVICE_TYPE))) {
+            for (String serviceType : request.getParameter(PARAM_SERVICE_TYPE).split(",")) {
+                serviceTypes.add(serviceType.trim());
             }
         }
 
-        if (StringUtils.isNotEmpty(request.getParameter("resourceMatch")) && "full".equalsIgnoreCase(request.getParameter("resourceMatch"))) {
-            policyLists = serviceUtil.getMatchingPoliciesForResource(request, policyLists);
+        if (!serviceNames.isEmpty() && serviceTypes.isEmpty()) {
+            return serviceNames;
         }
 
-        Map<Long, RangerPolicy> orderedPolicies = new TreeMap<>();
+        List<String> ret = new ArrayList<>();
 
-        if (!CollectionUtils.isEmpty(policyLists)) {
-            for (RangerPolicy policy : policyLists) {
-                if (policy != null) {
-                    //set createTime & updateTime Time as null since exported policies dont need this
-                    policy.setCreateTime(null);
-                    policy.setUpdateTime(null);
-
-                    orderedPolicies.put(policy.getId(), policy);
-                }
+        for (RangerServiceHeaderInfo serviceHeader : daoManager.getXXService().findServiceHeaders()) {
+            if (serviceTypes.isEmpty() || serviceTypes.contains(serviceHeader.getType())) {
+                ret.add(serviceHeader.getName());
             }
-            if (!orderedPolicies.isEmpty()) {
-                policyLists.clear();
+        }
 
-                policyLists.addAll(orderedPolicies.values());
-            }
+        if (!serviceNames.isEmpty()) { // export only if all given services are of the given service types
+            ret = ret.containsAll(serviceNames) ? serviceNames : new ArrayList<>();
         }
 
-        return policyLists;
+        return ret;
     }
 
     private void deletePoliciesProvidedInServiceMap(List<String> sourceServices, List<String> destinationServices, String zoneName) throws Exception {
@@ -3870,6 +3821,81 @@ private RangerPolicyList getServicePolicies(String serviceName, SearchFilter fil
         }
     }
 
+    /*
+     * Validates the request in a short transaction of its own, as the endpoints waiting for version change are not
+     * transactional: a transaction, and the database connection it uses, must not be held while the request waits.
+     */
+    private boolean validateServiceVersionChangeRequest(ServiceVersions knownVersions, Callable<Boolean> validator) {
+        if (!versionChangeNotifier.isEnabled()) {
+            throw restErrorUtil.createRESTException(HttpServletResponse.SC_NOT_FOUND, "service version change notification is disabled", false);
+        }
+
+        TransactionTemplate txTemplate = new TransactionTemplate(txManager);
+
+        txTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        txTemplate.setReadOnly(true);
+
+        Boolean ret = txTemplate.execute(status -> {
+            boolean isValid;
+
+            try {
+                isValid = validator.call();
+            } catch (WebApplicationException webException) {
+                throw webException;
+            } catch (Exception e) {
+                throw restErrorUtil.createRESTException(HttpServletResponse.SC_BAD_REQUEST, e.getMessage(), true);
+            }
+
+            if (isValid && daoManager.getXXService().findByName(knownVersions.getServiceName()) == null) {
+                throw restErrorUtil.createRESTException(HttpServletResponse.SC_NOT_FOUND, RangerServiceNotFoundException.buildExceptionMsg(knownVersions.getServiceName()), false);
+            }
+
+            return isValid;
+        });
+
+        return Boolean.TRUE.equals(ret);
+    }
+
+    private boolean isPolicyDownloadAllowed(String serviceName) throws Exception {
+        XXService xService = daoManager.getXXService().findByName(serviceName);
+
+        if (xService == null) {
+            return false;
+        }
+
+        XXServiceDef  xServiceDef = daoManager.getXXServiceDef().getById(xService.getType());
+        boolean       ret;
+        RangerService rangerService;
+
+        if (StringUtils.equals(xServiceDef.getImplclassname(), EmbeddedServiceDefsUtil.KMS_IMPL_CLASS_NAME)) {
+            ret           = bizUtil.isKeyAdmin();
+            rangerService = ret ? null : svcStore.getServiceByNameForDP(serviceName);
+        } else {
+            ret           = bizUtil.isAdmin();
+            rangerService = ret ? null : svcStore.getServiceByName(serviceName);
+        }
+
+        if (!ret && rangerService != null) {
+            ret = bizUtil.isUserAllowed(rangerService, Allowed_User_List_For_Download) || bizUtil.isUserAllowed(rangerService, Allowed_User_List_For_Grant_Revoke);
+        }
+
+        return ret;
+    }
+
+    private ServiceVersions waitForServiceVersionChange(ServiceVersions knownVersions, Long timeoutMs) throws InterruptedException {
+        ServiceVersions ret = versionChangeNotifier.waitForChange(knownVersions, timeoutMs != null ? timeoutMs : 0);
+
+        if (ret == knownVersions) {
+            throw restErrorUtil.createRESTException(HttpServletResponse.SC_NOT_MODIFIED, "No change since last update", false);
+        }
+
+        return ret;
+    }
+
+    private Long getLastKnownPolicyVersion(Long lastKnownVersion, HttpServletRequest request) {
+        return RangerServicePoliciesCache.getLastKnownPolicyVersion(lastKnownVersion, request != null ? request.getHeader(HttpHeaders.IF_NONE_MATCH) : null);
+    }
+
     private void createPolicyDownloadAudit(String serviceName, Long lastKnownVersion, String pluginId, int httpRespCode, String clusterName, String zoneName, HttpServletRequest request) {
         try {
             String ipAddress = request.getHeader("X-FORWARDED-FOR");
@@ -4653,4 +4679,66 @@ private void doLinkService() {
             LOG.debug("<== doLinkTagService()");
         }
     }
+
+    private class ExportPolicyIterator implements Iterator<RangerPolicy> {
+        private final SearchFilter           filter;
+        private final HttpServletRequest     request;
+        private final Iterator<String>       serviceNames;
+        private final Set<Long>              exportedPolicyIds          = new HashSet<>();
+        private final Map<String, String>    mapServiceTypeAndImplClass = new HashMap<>();
+        private       Iterator<RangerPolicy> servicePolicies            = Collections.emptyIterator();
+
+        ExportPolicyIterator(SearchFilter filter, HttpServletRequest request, Iterator<String> serviceNames) {
+            this.filter       = filter;
+            this.request      = request;
+            this.serviceNames = serviceNames;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!servicePolicies.hasNext() && serviceNames.hasNext()) {
+                servicePolicies = loadServicePolicies(serviceNames.next());
+            }
+
+            return servicePolicies.hasNext();
+        }
+
+        @Override
+        public RangerPolicy next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            return servicePolicies.next();
+        }
+
+        private Iterator<RangerPolicy> loadServicePolicies(String serviceName) {
+            filter.setParam(PARAM_SERVICE_NAME, serviceName);
+
+            List<RangerPolicy> policies = getPolicies(filter);
+
+            if ("full".equalsIgnoreCase(request.getParameter("resourceMatch"))) {
+                policies = serviceUtil.getMatchingPoliciesForResource(request, policies);
+            }
+
+            Map<Long, RangerPolicy> orderedPolicies = new TreeMap<>();
+
+            if (policies != null) {
+                for (RangerPolicy policy : policies) {
+                    // tag policies are returned with each of the resource services sharing the tag service; export them only once
+                    if (policy != null && exportedPolicyIds.add(policy.getId())) {
+                        ensureAdminAndAuditAccess(policy, mapServiceTypeAndImplClass);
+
+                        //set createTime & updateTime Time as null since exported policies dont need this
+                        policy.setCreateTime(null);
+                        policy.setUpdateTime(null);
+
+                        orderedPolicies.put(policy.getId(), policy);
+                    }
+                }
+            }
+
+            return orderedPolicies.values().iterator();
+        }
+    }
 }
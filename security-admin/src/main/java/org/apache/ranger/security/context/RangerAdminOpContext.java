@@ -20,12 +20,15 @@
 package org.apache.ranger.security.context;
 
 import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
 
 public class RangerAdminOpContext implements Serializable {
     private static final long serialVersionUID = 1L;
 
-    private boolean bulkModeContext;
-    private Boolean createPrincipalsIfAbsent;
+    private final Map<String, Long> bulkModeIdCache = new HashMap<>();
+    private       boolean           bulkModeContext;
+    private       Boolean           createPrincipalsIfAbsent;
 
     public boolean isBulkModeContext() {
         return bulkModeContext;
@@ -42,4 +45,11 @@ public Boolean getCreatePrincipalsIfAbsent() {
     public void setCreatePrincipalsIfAbsent(Boolean createPrincipalsIfAbsent) {
         this.createPrincipalsIfAbsent = createPrincipalsIfAbsent;
     }
+
+    /**
+     * @return ids of principals and service-def elements looked up during the bulk operation in this context, keyed by type and name
+     */
+    public Map<String, Long> getBulkModeIdCache() {
+        return bulkModeIdCache;
+    }
 }
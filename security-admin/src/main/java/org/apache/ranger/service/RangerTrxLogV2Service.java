@@ -31,6 +31,7 @@
 import org.apache.ranger.plugin.store.PList;
 import org.apache.ranger.plugin.util.JsonUtilsV2;
 import org.apache.ranger.view.VXTrxLogV2;
+import org.apache.ranger.view.VXTrxLogV2.AttributeChangeInfo;
 import org.apache.ranger.view.VXTrxLogV2.ObjectChangeInfo;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -41,18 +42,29 @@
 import javax.persistence.EntityManager;
 import javax.persistence.Query;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 @Service
 @Scope("singleton")
 public class RangerTrxLogV2Service {
     private static final Logger LOG = LoggerFactory.getLogger(RangerTrxLogV2Service.class);
 
+    private static final String COMPRESSED_VALUE_PREFIX = "{gz}";
+
     private final List<SortField>   sortFields   = new ArrayList<>();
     private final List<SearchField> searchFields = new ArrayList<>();
 
@@ -185,6 +197,76 @@ private List<XXTrxLogV2> searchTrxLogs(SearchCriteria searchCriteria, PList<VXTr
         return ret;
     }
 
+    /*
+     * Replaces old/new attribute values of at least minValueLength characters in the given change-info json with
+     * their gzip+base64 encoded form. Attribute names are left as is, so that search by attributeName continues to work
+     */
+    public static String compressChangeInfo(String changeInfo, int minValueLength) {
+        String ret = changeInfo;
+
+        if (changeInfo != null && changeInfo.length() >= minValueLength) {
+            try {
+                ObjectChangeInfo objChangeInfo = JsonUtilsV2.jsonToObj(changeInfo, ObjectChangeInfo.class);
+                boolean          isCompressed  = false;
+
+                if (objChangeInfo != null && objChangeInfo.getAttributes() != null) {
+                    for (AttributeChangeInfo attrChangeInfo : objChangeInfo.getAttributes()) {
+                        if (attrChangeInfo.getOldValue() != null && attrChangeInfo.getOldValue().length() >= minValueLength) {
+                            attrChangeInfo.setOldValue(compressValue(attrChangeInfo.getOldValue()));
+
+                            isCompressed = true;
+                        }
+
+                        if (attrChangeInfo.getNewValue() != null && attrChangeInfo.getNewValue().length() >= minValueLength) {
+                            attrChangeInfo.setNewValue(compressValue(attrChangeInfo.getNewValue()));
+
+                            isCompressed = true;
+                        }
+                    }
+                }
+
+                if (isCompressed) {
+                    ret = JsonUtilsV2.objToJson(objChangeInfo);
+                }
+            } catch (Exception excp) {
+                LOG.warn("compressChangeInfo(): failed to compress change-info. Will be stored uncompressed", excp);
+            }
+        }
+
+        return ret;
+    }
+
+    static String compressValue(String value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (OutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        return COMPRESSED_VALUE_PREFIX + Base64.getEncoder().encodeToString(bytes.toByteArray());
+    }
+
+    static String decompressValue(String value) {
+        String ret = value;
+
+        if (value != null && value.startsWith(COMPRESSED_VALUE_PREFIX)) {
+            try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(Base64.getDecoder().decode(value.substring(COMPRESSED_VALUE_PREFIX.length()))))) {
+                ByteArrayOutputStream bytes  = new ByteArrayOutputStream();
+                byte[]                buffer = new byte[8192];
+
+                for (int len = in.read(buffer); len != -1; len = in.read(buffer)) {
+                    bytes.write(buffer, 0, len);
+                }
+
+                ret = new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+            } catch (Exception excp) {
+                LOG.debug("decompressValue(): value is not compressed; returning as is", excp);
+            }
+        }
+
+        return ret;
+    }
+
     private Query createQuery(String searchString, String sortString, SearchCriteria searchCriteria, List<SearchField> searchFieldList, boolean isCountQuery) {
         EntityManager em = daoManager.getEntityManager();
 
@@ -243,6 +325,13 @@ private ObjectChangeInfo toObjectChangeInfo(String json) {
 
         try {
             ret = JsonUtilsV2.jsonToObj(json, ObjectChangeInfo.class);
+
+            if (ret != null && ret.getAttributes() != null) {
+                for (AttributeChangeInfo attrChangeInfo : ret.getAttributes()) {
+                    attrChangeInfo.setOldValue(decompressValue(attrChangeInfo.getOldValue()));
+                    attrChangeInfo.setNewValue(decompressValue(attrChangeInfo.getNewValue()));
+                }
+            }
         } catch (Exception excp) {
             // ignore
         }
@@ -20,7 +20,9 @@
 package org.apache.ranger.service;
 
 import org.apache.commons.lang.StringUtils;
+import org.apache.ranger.AccessAuditsService;
 import org.apache.ranger.authorization.hadoop.constants.RangerHadoopConstants;
+import org.apache.ranger.common.MessageEnums;
 import org.apache.ranger.common.PropertiesUtil;
 import org.apache.ranger.common.SearchCriteria;
 import org.apache.ranger.common.SearchField;
@@ -32,13 +34,20 @@
 import org.apache.ranger.entity.XXService;
 import org.apache.ranger.entity.XXServiceDef;
 import org.apache.ranger.view.VXAccessAudit;
+import org.apache.ranger.view.VXAccessAuditAggregation;
+import org.apache.ranger.view.VXAccessAuditCount;
 import org.apache.ranger.view.VXAccessAuditList;
 import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Service;
 
+import javax.persistence.Query;
+
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @Scope("singleton")
@@ -118,6 +127,111 @@ public VXAccessAuditList searchXAccessAudits(SearchCriteria searchCriteria) {
         return returnList;
     }
 
+    /*
+     * Computes counts in the database using GROUP BY queries, without fetching the audit records:
+     *  - total, allowed and denied counts
+     *  - topN values of groupBy field, with allowed and denied counts, and number of distinct values of the field
+     *  - allowed and denied counts per interval, from startDate to endDate; one query per interval
+     */
+    public VXAccessAuditAggregation aggregateXAccessAudits(SearchCriteria searchCriteria, String groupBy, int topN, String interval) {
+        VXAccessAuditAggregation ret = new VXAccessAuditAggregation();
+
+        ret.setGroupBy(groupBy);
+        ret.setInterval(interval);
+        ret.setTotal(getResultCounts(null, searchCriteria));
+
+        if (groupBy != null) {
+            String fieldName = AccessAuditsService.getAggregationFieldName(groupBy, searchFields);
+
+            if (fieldName == null) {
+                throw restErrorUtil.createRESTException("Aggregation on " + groupBy + " is not supported", MessageEnums.INVALID_INPUT_DATA);
+            }
+
+            Query distinctQuery = createQuery("SELECT COUNT(DISTINCT " + fieldName + ") FROM " + className + " obj ", null, searchCriteria, searchFields, true);
+            Long  distinctCount = getDao().executeCountQueryInSecurityContext(tEntityClass, distinctQuery);
+
+            ret.setDistinctCount(distinctCount != null ? distinctCount : 0L);
+            ret.setTopValues(getTopValueCounts(fieldName, topN, searchCriteria));
+        }
+
+        if (interval != null) {
+            Map<String, Object> paramList = searchCriteria.getParamList();
+            Object              startDate = paramList.get("startDate");
+            Object              endDate   = paramList.get("endDate");
+            Date                histEnd   = AccessAuditsService.getHistogramEndDate(searchCriteria);
+            List<Date>          starts    = AccessAuditsService.getHistogramBucketStarts((Date) startDate, histEnd, AccessAuditsService.AGGREGATION_INTERVALS.get(interval));
+
+            try {
+                for (int i = 0; i < starts.size(); i++) {
+                    Date bucketEnd = i + 1 < starts.size() ? new Date(starts.get(i + 1).getTime() - 1) : histEnd;
+
+                    paramList.put("startDate", starts.get(i));
+                    paramList.put("endDate", bucketEnd);
+
+                    ret.getHistogram().add(getResultCounts(String.valueOf(starts.get(i).getTime()), searchCriteria));
+                }
+            } finally {
+                paramList.put("startDate", startDate);
+                paramList.put("endDate", endDate);
+            }
+        }
+
+        return ret;
+    }
+
+    private VXAccessAuditCount getResultCounts(String value, SearchCriteria searchCriteria) {
+        VXAccessAuditCount ret   = new VXAccessAuditCount(value);
+        Query              query = createQuery("SELECT obj.accessResult, COUNT(obj) FROM " + className + " obj ", " GROUP BY obj.accessResult", searchCriteria, searchFields, true);
+
+        for (Object row : query.getResultList()) {
+            Object[] cols  = (Object[]) row;
+            long     count = ((Number) cols[1]).longValue();
+
+            ret.setCount(ret.getCount() + count);
+
+            AccessAuditsService.addResultCount(ret, cols[0], count);
+        }
+
+        return ret;
+    }
+
+    private List<VXAccessAuditCount> getTopValueCounts(String fieldName, int topN, SearchCriteria searchCriteria) {
+        Map<Object, VXAccessAuditCount> counts   = new LinkedHashMap<>();
+        Query                           topQuery = createQuery("SELECT " + fieldName + ", COUNT(obj) AS cnt FROM " + className + " obj ", " GROUP BY " + fieldName + " ORDER BY cnt DESC", searchCriteria, searchFields, true);
+
+        topQuery.setMaxResults(topN);
+
+        for (Object row : topQuery.getResultList()) {
+            Object[]           cols       = (Object[]) row;
+            VXAccessAuditCount valueCount = new VXAccessAuditCount(cols[0] != null ? String.valueOf(cols[0]) : null);
+
+            valueCount.setCount(((Number) cols[1]).longValue());
+
+            counts.put(cols[0], valueCount);
+        }
+
+        List<Object> topValues = new ArrayList<>(counts.keySet());
+
+        topValues.remove(null);
+
+        if (!topValues.isEmpty()) {
+            Query resultsQuery = createQuery("SELECT " + fieldName + ", obj.accessResult, COUNT(obj) FROM " + className + " obj ", " AND " + fieldName + " IN :topValues GROUP BY " + fieldName + ", obj.accessResult", searchCriteria, searchFields, true);
+
+            resultsQuery.setParameter("topValues", topValues);
+
+            for (Object row : resultsQuery.getResultList()) {
+                Object[]           cols       = (Object[]) row;
+                VXAccessAuditCount valueCount = counts.get(cols[0]);
+
+                if (valueCount != null) {
+                    AccessAuditsService.addResultCount(valueCount, cols[1], ((Number) cols[2]).longValue());
+                }
+            }
+        }
+
+        return new ArrayList<>(counts.values());
+    }
+
     protected XXAccessAudit mapViewToEntityBean(VXAccessAudit vObj, XXAccessAudit mObj, int operationContext) {
         mObj.setId(vObj.getId());
         mObj.setAuditType(vObj.getAuditType());
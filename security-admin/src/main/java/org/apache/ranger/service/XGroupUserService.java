@@ -33,6 +33,10 @@
 import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -150,6 +154,101 @@ public void createOrDeleteXGroupUsers(GroupUserInfo groupUserInfo, Map<String, L
         }
     }
 
+    /**
+     * Adds and removes the group memberships in groupUserInfoList with a few set-based queries and batched inserts/deletes,
+     * instead of queries and a transaction per membership as in createOrDeleteXGroupUsers(). Must be called within a
+     * transaction; names of groups and users are used in IN clauses, hence callers should limit the size of the list.
+     *
+     * @param groupUserInfoList group memberships to add or remove
+     * @return number of group memberships added or removed
+     */
+    public int bulkCreateOrDeleteXGroupUsers(List<GroupUserInfo> groupUserInfoList) {
+        logger.debug("==> bulkCreateOrDeleteXGroupUsers(groupCount={})", groupUserInfoList.size());
+
+        Set<String> groupNames = new HashSet<>();
+        Set<String> userNames  = new HashSet<>();
+
+        for (GroupUserInfo groupUserInfo : groupUserInfoList) {
+            groupNames.add(groupUserInfo.getGroupName());
+
+            if (groupUserInfo.getAddUsers() != null) {
+                userNames.addAll(groupUserInfo.getAddUsers());
+            }
+
+            if (groupUserInfo.getDelUsers() != null) {
+                userNames.addAll(groupUserInfo.getDelUsers());
+            }
+        }
+
+        Map<String, Long> groupIds             = daoManager.getXXGroup().getGroupIdsByNames(groupNames);
+        Map<String, Long> userIds              = daoManager.getXXUser().getUserIdsByNames(userNames);
+        Map<String, Long> groupUserIds         = new HashMap<>(); // groupId:userId => id of XXGroupUser; null for mappings added here
+        List<XXGroupUser> groupUsersToAdd      = new ArrayList<>();
+        List<Long>        groupUserIdsToDelete = new ArrayList<>();
+        boolean           isCreatorValid       = daoManager.getXXPortalUser().getById(createdByUserId) != null;
+
+        for (XXGroupUser groupUser : daoManager.getXXGroupUser().findByGroupIdsAndUserIds(groupIds.values(), userIds.values())) {
+            groupUserIds.put(groupUser.getParentGroupId() + ":" + groupUser.getUserId(), groupUser.getId());
+        }
+
+        for (GroupUserInfo groupUserInfo : groupUserInfoList) {
+            String groupName = groupUserInfo.getGroupName();
+            Long   groupId   = groupIds.get(groupName);
+
+            if (groupId == null) {
+                logger.debug("bulkCreateOrDeleteXGroupUsers(): groupName = {} doesn't exist in database. Hence ignoring group membership updates", groupName);
+
+                continue;
+            }
+
+            if (CollectionUtils.isNotEmpty(groupUserInfo.getAddUsers())) {
+                for (String userName : groupUserInfo.getAddUsers()) {
+                    Long   userId = userIds.get(userName); // add group user mapping only if the user exists in x_user table
+                    String key    = groupId + ":" + userId;
+
+                    if (userId != null && !groupUserIds.containsKey(key)) {
+                        XXGroupUser groupUser = new XXGroupUser();
+
+                        groupUser.setName(groupName);
+                        groupUser.setParentGroupId(groupId);
+                        groupUser.setUserId(userId);
+
+                        if (isCreatorValid) {
+                            groupUser.setAddedByUserId(createdByUserId);
+                            groupUser.setUpdatedByUserId(createdByUserId);
+                        }
+
+                        groupUsersToAdd.add(groupUser);
+                        groupUserIds.put(key, null);
+                    }
+                }
+            }
+
+            if (CollectionUtils.isNotEmpty(groupUserInfo.getDelUsers())) {
+                for (String userName : groupUserInfo.getDelUsers()) {
+                    String key         = groupId + ":" + userIds.get(userName);
+                    Long   groupUserId = groupUserIds.remove(key);
+
+                    if (groupUserId != null) {
+                        groupUserIdsToDelete.add(groupUserId);
+                    }
+                }
+            }
+        }
+
+        daoManager.getXXGroupUser().deleteByIds(groupUserIdsToDelete);
+
+        if (!groupUsersToAdd.isEmpty()) {
+            getDao().batchCreate(groupUsersToAdd);
+        }
+
+        int ret = groupUsersToAdd.size() + groupUserIdsToDelete.size();
+
+        logger.debug("<== bulkCreateOrDeleteXGroupUsers(groupCount={}): added={}, deleted={}", groupUserInfoList.size(), groupUsersToAdd.size(), groupUserIdsToDelete.size());
+
+        return ret;
+    }
+
     public VXGroupUser readResourceWithOutLogin(Long id) {
         XXGroupUser resource = getDao().getById(id);
 
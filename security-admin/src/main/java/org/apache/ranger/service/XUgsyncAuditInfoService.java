@@ -19,6 +19,7 @@
 
 package org.apache.ranger.service;
 
+import org.apache.commons.collections.MapUtils;
 import org.apache.ranger.common.ContextUtil;
 import org.apache.ranger.common.DateUtil;
 import org.apache.ranger.common.JSONUtil;
@@ -36,7 +37,9 @@
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @Scope("singleton")
@@ -123,6 +126,15 @@ public VXUgsyncAuditInfo createUgsyncAuditInfo(VXUgsyncAuditInfo vxUgsyncAuditIn
             vxUgsyncAuditInfo.setSyncSourceInfo(jsonUtil.jsonToMap(vxUgsyncAuditInfo.getLdapSyncSourceInfo().toString()));
         }
 
+        // upload throughput reported by usersync is saved along with the sync source information
+        if (MapUtils.isNotEmpty(vxUgsyncAuditInfo.getUploadStats())) {
+            Map<String, String> syncSourceInfo = vxUgsyncAuditInfo.getSyncSourceInfo() != null ? new HashMap<>(vxUgsyncAuditInfo.getSyncSourceInfo()) : new HashMap<>();
+
+            syncSourceInfo.putAll(vxUgsyncAuditInfo.getUploadStats());
+
+            vxUgsyncAuditInfo.setSyncSourceInfo(syncSourceInfo);
+        }
+
         return createResource(vxUgsyncAuditInfo);
     }
 
@@ -19,8 +19,11 @@
 
 package org.apache.ranger.solr;
 
+import org.apache.ranger.AccessAuditsSearchCache;
+import org.apache.ranger.AccessAuditsSearchCache.Cursor;
 import org.apache.ranger.AccessAuditsService;
 import org.apache.ranger.audit.provider.MiscUtil;
+import org.apache.ranger.authorization.utils.JsonUtils;
 import org.apache.ranger.common.MessageEnums;
 import org.apache.ranger.common.PropertiesUtil;
 import org.apache.ranger.common.SearchCriteria;
@@ -28,12 +31,18 @@
 import org.apache.ranger.entity.XXServiceDef;
 import org.apache.ranger.plugin.util.JsonUtilsV2;
 import org.apache.ranger.view.VXAccessAudit;
+import org.apache.ranger.view.VXAccessAuditAggregation;
+import org.apache.ranger.view.VXAccessAuditCount;
 import org.apache.ranger.view.VXAccessAuditList;
 import org.apache.ranger.view.VXLong;
 import org.apache.solr.client.solrj.SolrClient;
 import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.client.solrj.response.json.BucketBasedJsonFacet;
+import org.apache.solr.client.solrj.response.json.BucketJsonFacet;
+import org.apache.solr.client.solrj.response.json.NestableJsonFacet;
 import org.apache.solr.common.SolrDocument;
 import org.apache.solr.common.SolrDocumentList;
+import org.apache.solr.common.params.CursorMarkParams;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -42,6 +51,8 @@
 
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -50,12 +61,19 @@
 public class SolrAccessAuditsService extends AccessAuditsService {
     private static final Logger LOGGER = LoggerFactory.getLogger(SolrAccessAuditsService.class);
 
+    private static final String FACET_RESULTS   = "results";
+    private static final String FACET_TOP       = "top";
+    private static final String FACET_DISTINCT  = "distinct";
+    private static final String FACET_HISTOGRAM = "histogram";
+
     @Autowired
     SolrMgr solrMgr;
 
     @Autowired
     SolrUtil solrUtil;
 
+    private final AccessAuditsSearchCache<String> searchCache = new AccessAuditsSearchCache<>();
+
     public VXAccessAuditList searchXAccessAudits(SearchCriteria searchCriteria) {
         // Make call to Solr
         SolrClient    solrClient          = solrMgr.getSolrClient();
@@ -77,9 +95,34 @@ public VXAccessAuditList searchXAccessAudits(SearchCriteria searchCriteria) {
 
         updateUserExclusion(paramList);
 
-        QueryResponse    response = solrUtil.searchResources(searchCriteria, searchFields, sortFields, solrClient);
+        String            queryKey = searchCache.getQueryKey(searchCriteria);
+        VXAccessAuditList ret      = searchCache.getPage(queryKey, searchCriteria.getStartIndex(), searchCriteria.getMaxRows());
+
+        if (ret != null) {
+            LOGGER.debug("searchXAccessAudits(): returning cached page for query {}", queryKey);
+
+            return ret;
+        }
+
+        String cursorMark = null;
+
+        if (searchCache.isCursorEnabled()) {
+            if (searchCriteria.getStartIndex() == 0) {
+                cursorMark = CursorMarkParams.CURSOR_MARK_START;
+            } else {
+                Cursor<String> cursor = searchCache.getCursor(queryKey, searchCriteria.getStartIndex());
+
+                cursorMark = cursor != null ? cursor.getValue() : null;
+            }
+        }
+
+        QueryResponse    response = solrUtil.searchResources(searchCriteria, searchFields, sortFields, solrClient, cursorMark);
         SolrDocumentList docs     = response.getResults();
 
+        if (cursorMark != null) {
+            searchCache.putCursor(queryKey, searchCriteria.getStartIndex() + docs.size(), response.getNextCursorMark(), docs.getNumFound());
+        }
+
         for (SolrDocument doc : docs) {
             VXAccessAudit vXAccessAudit = populateViewBean(doc);
 
@@ -102,15 +145,17 @@ public VXAccessAuditList searchXAccessAudits(SearchCriteria searchCriteria) {
             xAccessAuditList.add(vXAccessAudit);
         }
 
-        VXAccessAuditList returnList = new VXAccessAuditList();
+        ret = new VXAccessAuditList();
 
-        returnList.setPageSize(searchCriteria.getMaxRows());
-        returnList.setResultSize(docs.size());
-        returnList.setTotalCount((int) docs.getNumFound());
-        returnList.setStartIndex((int) docs.getStart());
-        returnList.setVXAccessAudits(xAccessAuditList);
+        ret.setPageSize(searchCriteria.getMaxRows());
+        ret.setResultSize(docs.size());
+        ret.setTotalCount((int) docs.getNumFound());
+        ret.setStartIndex(searchCriteria.getStartIndex());
+        ret.setVXAccessAudits(xAccessAuditList);
 
-        return returnList;
+        searchCache.putPage(queryKey, searchCriteria.getStartIndex(), searchCriteria.getMaxRows(), ret);
+
+        return ret;
     }
 
     /**
@@ -126,6 +171,78 @@ public VXLong getXAccessAuditSearchCount(SearchCriteria searchCriteria) {
         return vXLong;
     }
 
+    /*
+     * Computes counts in Solr using JSON facets, without fetching the audit documents:
+     *  - total, allowed and denied counts
+     *  - topN values of groupBy field, with allowed and denied counts, and number of distinct values of the field
+     *  - allowed and denied counts per interval, from startDate to endDate
+     */
+    public VXAccessAuditAggregation aggregateXAccessAudits(SearchCriteria searchCriteria, String groupBy, int topN, String interval) {
+        SolrClient solrClient = solrMgr.getSolrClient();
+
+        if (solrClient == null) {
+            LOGGER.warn("Solr client is null, so not running the query.");
+
+            throw restErrorUtil.createRESTException("Error connecting to search engine", MessageEnums.ERROR_SYSTEM);
+        }
+
+        updateUserExclusion(searchCriteria.getParamList());
+
+        Map<String, Object> facets       = new HashMap<>();
+        Map<String, Object> resultsFacet = createTermsFacet("result", -1, null);
+
+        facets.put(FACET_RESULTS, resultsFacet);
+
+        if (groupBy != null) {
+            String fieldName = getAggregationFieldName(groupBy, searchFields);
+
+            if (fieldName == null) {
+                throw restErrorUtil.createRESTException("Aggregation on " + groupBy + " is not supported", MessageEnums.INVALID_INPUT_DATA);
+            }
+
+            facets.put(FACET_TOP, createTermsFacet(fieldName, topN, resultsFacet));
+            facets.put(FACET_DISTINCT, "unique(" + fieldName + ")");
+        }
+
+        if (interval != null) {
+            Map<String, Object> histogramFacet = new HashMap<>();
+            Map<String, Object> subFacets      = new HashMap<>();
+
+            subFacets.put(FACET_RESULTS, resultsFacet);
+
+            histogramFacet.put("type", "range");
+            histogramFacet.put("field", "evtTime");
+            histogramFacet.put("start", solrUtil.formatDate((Date) searchCriteria.getParamValue("startDate")));
+            histogramFacet.put("end", solrUtil.formatDate(getHistogramEndDate(searchCriteria)));
+            histogramFacet.put("gap", "+" + AGGREGATION_INTERVALS.get(interval) + "MILLISECONDS");
+            histogramFacet.put("hardend", true);
+            histogramFacet.put("facet", subFacets);
+
+            facets.put(FACET_HISTOGRAM, histogramFacet);
+        }
+
+        QueryResponse            response = solrUtil.aggregate(searchCriteria, searchFields, solrClient, JsonUtils.mapToJson(facets));
+        NestableJsonFacet        result   = response.getJsonFacetingResponse();
+        VXAccessAuditAggregation ret      = new VXAccessAuditAggregation();
+
+        ret.setGroupBy(groupBy);
+        ret.setInterval(interval);
+        ret.setTotal(toAuditCount(null, result));
+
+        if (result != null && groupBy != null) {
+            Number distinctCount = result.getStatValue(FACET_DISTINCT) instanceof Number ? (Number) result.getStatValue(FACET_DISTINCT) : null;
+
+            ret.setDistinctCount(distinctCount != null ? distinctCount.longValue() : 0L);
+            ret.setTopValues(toAuditCounts(result.getBucketBasedFacets(FACET_TOP)));
+        }
+
+        if (result != null && interval != null) {
+            ret.setHistogram(toAuditCounts(result.getBucketBasedFacets(FACET_HISTOGRAM)));
+        }
+
+        return ret;
+    }
+
     /**
      * @param doc
      * @return
@@ -300,4 +417,54 @@ private VXAccessAudit populateViewBean(SolrDocument doc) {
 
         return accessAudit;
     }
+
+    private static Map<String, Object> createTermsFacet(String fieldName, int limit, Map<String, Object> resultsFacet) {
+        Map<String, Object> ret = new HashMap<>();
+
+        ret.put("type", "terms");
+        ret.put("field", fieldName);
+        ret.put("limit", limit);
+
+        if (resultsFacet != null) {
+            Map<String, Object> subFacets = new HashMap<>();
+
+            subFacets.put(FACET_RESULTS, resultsFacet);
+
+            ret.put("facet", subFacets);
+        }
+
+        return ret;
+    }
+
+    private static List<VXAccessAuditCount> toAuditCounts(BucketBasedJsonFacet facet) {
+        List<VXAccessAuditCount> ret = new ArrayList<>();
+
+        if (facet != null) {
+            for (BucketJsonFacet bucket : facet.getBuckets()) {
+                Object value = bucket.getVal();
+
+                ret.add(toAuditCount(value instanceof Date ? String.valueOf(((Date) value).getTime()) : String.valueOf(value), bucket));
+            }
+        }
+
+        return ret;
+    }
+
+    private static VXAccessAuditCount toAuditCount(String value, NestableJsonFacet facet) {
+        VXAccessAuditCount ret = new VXAccessAuditCount(value);
+
+        if (facet != null) {
+            BucketBasedJsonFacet results = facet.getBucketBasedFacets(FACET_RESULTS);
+
+            ret.setCount(facet.getCount());
+
+            if (results != null) {
+                for (BucketJsonFacet bucket : results.getBuckets()) {
+                    addResultCount(ret, bucket.getVal(), bucket.getCount());
+                }
+            }
+        }
+
+        return ret;
+    }
 }
@@ -34,6 +34,7 @@
 import org.apache.solr.client.solrj.request.QueryRequest;
 import org.apache.solr.client.solrj.response.QueryResponse;
 import org.apache.solr.client.solrj.util.ClientUtils;
+import org.apache.solr.common.params.CursorMarkParams;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -49,6 +50,8 @@
 public class SolrUtil {
     private static final Logger logger = LoggerFactory.getLogger(SolrUtil.class);
 
+    private static final String UNIQUE_KEY_FIELD = "id";
+
     @Autowired
     RESTErrorUtil restErrorUtil;
 
@@ -96,95 +99,53 @@ public QueryResponse runQuery(SolrClient solrClient, SolrQuery solrQuery) throws
     }
 
     public QueryResponse searchResources(SearchCriteria searchCriteria, List<SearchField> searchFields, List<SortField> sortFieldList, SolrClient solrClient) {
+        return searchResources(searchCriteria, searchFields, sortFieldList, solrClient, null);
+    }
+
+    /*
+     * When cursorMark is not null, results are fetched starting at the given cursor instead of searchCriteria.startIndex;
+     * the cursor for the next page is available in response.getNextCursorMark()
+     */
+    public QueryResponse searchResources(SearchCriteria searchCriteria, List<SearchField> searchFields, List<SortField> sortFieldList, SolrClient solrClient, String cursorMark) {
         SolrQuery query = new SolrQuery();
 
         query.setQuery("*:*");
 
-        if (searchCriteria.getParamList() != null) {
-            // For now assuming there is only date field where range query will
-            // be done. If we there are more than one, then we should create a
-            // hashmap for each field name
-            Date   fromDate      = null;
-            Date   toDate        = null;
-            String dateFieldName = null;
+        addFilterQueries(searchCriteria, searchFields, query);
 
-            for (SearchField searchField : searchFields) {
-                Object paramValue = searchCriteria.getParamValue(searchField.getClientFieldName());
-
-                if (paramValue == null || paramValue.toString().isEmpty()) {
-                    continue;
-                }
-
-                String fieldName = searchField.getFieldName();
-
-                if (paramValue instanceof Collection) {
-                    String fq = orList(fieldName, (Collection<?>) paramValue);
-
-                    if (fq != null) {
-                        query.addFilterQuery(fq);
-                    }
-                } else if (searchField.getDataType() == SearchField.DATA_TYPE.DATE) {
-                    if (!(paramValue instanceof Date)) {
-                        logger.error("Search field is not a Java Date Object, paramValue = {}", paramValue);
-                    } else {
-                        if (searchField.getSearchType() == SEARCH_TYPE.GREATER_EQUAL_THAN || searchField.getSearchType() == SEARCH_TYPE.GREATER_THAN) {
-                            fromDate      = (Date) paramValue;
-                            dateFieldName = fieldName;
-                        } else if (searchField.getSearchType() == SEARCH_TYPE.LESS_EQUAL_THAN || searchField.getSearchType() == SEARCH_TYPE.LESS_THAN) {
-                            toDate        = (Date) paramValue;
-                            dateFieldName = fieldName;
-                        }
-                    }
-                } else if (searchField.getSearchType() == SEARCH_TYPE.GREATER_EQUAL_THAN || searchField.getSearchType() == SEARCH_TYPE.GREATER_THAN || searchField.getSearchType() == SEARCH_TYPE.LESS_EQUAL_THAN || searchField.getSearchType() == SEARCH_TYPE.LESS_THAN) { //NOPMD
-                    // TODO: Need to handle range here
-                } else {
-                    String fq = setField(fieldName, paramValue);
-
-                    if (searchField.getSearchType() == SEARCH_TYPE.PARTIAL) {
-                        fq = setFieldForPartialSearch(fieldName, paramValue);
-                    }
-
-                    if (fq != null) {
-                        query.addFilterQuery(fq);
-                    }
-                }
-            }
-
-            if (fromDate != null || toDate != null) {
-                String fq = setDateRange(dateFieldName, fromDate, toDate);
+        setSortClause(searchCriteria, sortFieldList, query);
 
-                if (fq != null) {
-                    query.addFilterQuery(fq);
-                }
-            }
+        if (cursorMark != null) {
+            // cursorMark requires the sort to include the uniqueKey field
+            query.addSort(UNIQUE_KEY_FIELD, ORDER.asc);
+            query.setStart(0);
+            query.set(CursorMarkParams.CURSOR_MARK_PARAM, cursorMark);
+        } else {
+            query.setStart(searchCriteria.getStartIndex());
         }
 
-        setSortClause(searchCriteria, sortFieldList, query);
-
-        query.setStart(searchCriteria.getStartIndex());
         query.setRows(searchCriteria.getMaxRows());
 
         // Fields to get
         // query.setFields("myClassType", "id", "score", "globalId");
-        logger.debug("SOLR QUERY = {}", query);
-
-        QueryResponse response = null;
+        return executeQuery(solrClient, query);
+    }
 
-        try {
-            response = runQuery(solrClient, query);
-        } catch (Throwable e) {
-            logger.error("Error running solr query. Query = {}, response = {}", query, response);
+    /*
+     * Runs the given JSON facet request on documents matching searchCriteria, without fetching the documents; facet
+     * results are available in response.getJsonFacetingResponse()
+     */
+    public QueryResponse aggregate(SearchCriteria searchCriteria, List<SearchField> searchFields, SolrClient solrClient, String jsonFacet) {
+        SolrQuery query = new SolrQuery();
 
-            throw restErrorUtil.createRESTException("Error running solr query, please check solr configs. " + e.getMessage(), MessageEnums.ERROR_SYSTEM);
-        }
+        query.setQuery("*:*");
 
-        if (response == null || response.getStatus() != 0) {
-            logger.error("Error running solr query. Query = {}, response = {}", query, response);
+        addFilterQueries(searchCriteria, searchFields, query);
 
-            throw restErrorUtil.createRESTException("Unable to connect to Audit store !!", MessageEnums.ERROR_SYSTEM);
-        }
+        query.setRows(0);
+        query.set("json.facet", jsonFacet);
 
-        return response;
+        return executeQuery(solrClient, query);
     }
 
     public String setField(String fieldName, Object value) {
@@ -210,6 +171,10 @@ public String setDateRange(String fieldName, Date fromDate, Date toDate) {
         return fieldName + ":[" + fromStr + " TO " + toStr + "]";
     }
 
+    public String formatDate(Date date) {
+        return dateFormat.format(date);
+    }
+
     public String orList(String fieldName, Collection<?> valueList) {
         if (valueList == null || valueList.isEmpty()) {
             return null;
@@ -305,6 +270,89 @@ public void setSortClause(SearchCriteria searchCriteria, List<SortField> sortFie
         }
     }
 
+    private void addFilterQueries(SearchCriteria searchCriteria, List<SearchField> searchFields, SolrQuery query) {
+        if (searchCriteria.getParamList() != null) {
+            // For now assuming there is only date field where range query will
+            // be done. If we there are more than one, then we should create a
+            // hashmap for each field name
+            Date   fromDate      = null;
+            Date   toDate        = null;
+            String dateFieldName = null;
+
+            for (SearchField searchField : searchFields) {
+                Object paramValue = searchCriteria.getParamValue(searchField.getClientFieldName());
+
+                if (paramValue == null || paramValue.toString().isEmpty()) {
+                    continue;
+                }
+
+                String fieldName = searchField.getFieldName();
+
+                if (paramValue instanceof Collection) {
+                    String fq = orList(fieldName, (Collection<?>) paramValue);
+
+                    if (fq != null) {
+                        query.addFilterQuery(fq);
+                    }
+                } else if (searchField.getDataType() == SearchField.DATA_TYPE.DATE) {
+                    if (!(paramValue instanceof Date)) {
+                        logger.error("Search field is not a Java Date Object, paramValue = {}", paramValue);
+                    } else {
+                        if (searchField.getSearchType() == SEARCH_TYPE.GREATER_EQUAL_THAN || searchField.getSearchType() == SEARCH_TYPE.GREATER_THAN) {
+                            fromDate      = (Date) paramValue;
+                            dateFieldName = fieldName;
+                        } else if (searchField.getSearchType() == SEARCH_TYPE.LESS_EQUAL_THAN || searchField.getSearchType() == SEARCH_TYPE.LESS_THAN) {
+                            toDate        = (Date) paramValue;
+                            dateFieldName = fieldName;
+                        }
+                    }
+                } else if (searchField.getSearchType() == SEARCH_TYPE.GREATER_EQUAL_THAN || searchField.getSearchType() == SEARCH_TYPE.GREATER_THAN || searchField.getSearchType() == SEARCH_TYPE.LESS_EQUAL_THAN || searchField.getSearchType() == SEARCH_TYPE.LESS_THAN) { //NOPMD
+                    // TODO: Need to handle range here
+                } else {
+                    String fq = setField(fieldName, paramValue);
+
+                    if (searchField.getSearchType() == SEARCH_TYPE.PARTIAL) {
+                        fq = setFieldForPartialSearch(fieldName, paramValue);
+                    }
+
+                    if (fq != null) {
+                        query.addFilterQuery(fq);
+                    }
+                }
+            }
+
+            if (fromDate != null || toDate != null) {
+                String fq = setDateRange(dateFieldName, fromDate, toDate);
+
+                if (fq != null) {
+                    query.addFilterQuery(fq);
+                }
+            }
+        }
+    }
+
+    private QueryResponse executeQuery(SolrClient solrClient, SolrQuery query) {
+        logger.debug("SOLR QUERY = {}", query);
+
+        QueryResponse response = null;
+
+        try {
+            response = runQuery(solrClient, query);
+        } catch (Throwable e) {
+            logger.error("Error running solr query. Query = {}, response = {}", query, response);
+
+            throw restErrorUtil.createRESTException("Error running solr query, please check solr configs. " + e.getMessage(), MessageEnums.ERROR_SYSTEM);
+        }
+
+        if (response == null || response.getStatus() != 0) {
+            logger.error("Error running solr query. Query = {}, response = {}", query, response);
+
+            throw restErrorUtil.createRESTException("Unable to connect to Audit store !!", MessageEnums.ERROR_SYSTEM);
+        }
+
+        return response;
+    }
+
     private String setFieldForPartialSearch(String fieldName, Object value) {
         if (value == null || value.toString().trim().isEmpty()) {
             return null;
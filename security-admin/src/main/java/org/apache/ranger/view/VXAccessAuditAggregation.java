@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.view;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Counts of access audits matching a search: overall, top values of a field and per time interval
+ */
+@JsonAutoDetect(getterVisibility = Visibility.NONE, setterVisibility = Visibility.NONE, fieldVisibility = Visibility.ANY)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class VXAccessAuditAggregation implements java.io.Serializable {
+    private static final long serialVersionUID = 1L;
+
+    protected String                   groupBy;
+    protected String                   interval;
+    protected VXAccessAuditCount       total;
+    protected Long                     distinctCount;
+    protected List<VXAccessAuditCount> topValues = new ArrayList<>();
+    protected List<VXAccessAuditCount> histogram = new ArrayList<>();
+
+    /**
+     * Default constructor. This will set all the attributes to default value.
+     */
+    public VXAccessAuditAggregation() {
+    }
+
+    /**
+     * @return the groupBy: name of the field whose top values are counted
+     */
+    public String getGroupBy() {
+        return groupBy;
+    }
+
+    /**
+     * @param groupBy the groupBy to set
+     */
+    public void setGroupBy(String groupBy) {
+        this.groupBy = groupBy;
+    }
+
+    /**
+     * @return the interval of histogram buckets
+     */
+    public String getInterval() {
+        return interval;
+    }
+
+    /**
+     * @param interval the interval to set
+     */
+    public void setInterval(String interval) {
+        this.interval = interval;
+    }
+
+    /**
+     * @return the total counts
+     */
+    public VXAccessAuditCount getTotal() {
+        return total;
+    }
+
+    /**
+     * @param total the total to set
+     */
+    public void setTotal(VXAccessAuditCount total) {
+        this.total = total;
+    }
+
+    /**
+     * @return the distinctCount: number of distinct values of groupBy field
+     */
+    public Long getDistinctCount() {
+        return distinctCount;
+    }
+
+    /**
+     * @param distinctCount the distinctCount to set
+     */
+    public void setDistinctCount(Long distinctCount) {
+        this.distinctCount = distinctCount;
+    }
+
+    /**
+     * @return the topValues of groupBy field, in descending order of count
+     */
+    public List<VXAccessAuditCount> getTopValues() {
+        return topValues;
+    }
+
+    /**
+     * @param topValues the topValues to set
+     */
+    public void setTopValues(List<VXAccessAuditCount> topValues) {
+        this.topValues = topValues;
+    }
+
+    /**
+     * @return the histogram: counts per interval, in ascending order of time
+     */
+    public List<VXAccessAuditCount> getHistogram() {
+        return histogram;
+    }
+
+    /**
+     * @param histogram the histogram to set
+     */
+    public void setHistogram(List<VXAccessAuditCount> histogram) {
+        this.histogram = histogram;
+    }
+
+    @Override
+    public String toString() {
+        return "VXAccessAuditAggregation={groupBy=" + groupBy + ", interval=" + interval + ", total=" + total + ", distinctCount=" + distinctCount + ", topValues=" + topValues + ", histogram=" + histogram + "}";
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.view;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonAutoDetect(getterVisibility = Visibility.NONE, setterVisibility = Visibility.NONE, fieldVisibility = Visibility.ANY)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class VXAccessAuditCount implements java.io.Serializable {
+    private static final long serialVersionUID = 1L;
+
+    protected String value;
+    protected long   count;
+    protected long   allowedCount;
+    protected long   deniedCount;
+
+    /**
+     * Default constructor. This will set all the attributes to default value.
+     */
+    public VXAccessAuditCount() {
+    }
+
+    public VXAccessAuditCount(String value) {
+        this.value = value;
+    }
+
+    /**
+     * @return the value: value of the aggregated field, or start time of the histogram bucket in epoch milliseconds
+     */
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * @param value the value to set
+     */
+    public void setValue(String value) {
+        this.value = value;
+    }
+
+    /**
+     * @return the count
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @param count the count to set
+     */
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    /**
+     * @return the allowedCount
+     */
+    public long getAllowedCount() {
+        return allowedCount;
+    }
+
+    /**
+     * @param allowedCount the allowedCount to set
+     */
+    public void setAllowedCount(long allowedCount) {
+        this.allowedCount = allowedCount;
+    }
+
+    /**
+     * @return the deniedCount
+     */
+    public long getDeniedCount() {
+        return deniedCount;
+    }
+
+    /**
+     * @param deniedCount the deniedCount to set
+     */
+    public void setDeniedCount(long deniedCount) {
+        this.deniedCount = deniedCount;
+    }
+
+    @Override
+    public String toString() {
+        return "VXAccessAuditCount={value=" + value + ", count=" + count + ", allowedCount=" + allowedCount + ", deniedCount=" + deniedCount + "}";
+    }
+}
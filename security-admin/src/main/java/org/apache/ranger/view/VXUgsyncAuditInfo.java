@@ -54,6 +54,7 @@ public class VXUgsyncAuditInfo extends VXDataObject implements java.io.Serializa
     private VXLdapSyncSourceInfo ldapSyncSourceInfo;
     private VXFileSyncSourceInfo fileSyncSourceInfo;
     private VXUnixSyncSourceInfo unixSyncSourceInfo;
+    private Map<String, String>  uploadStats;
 
     public VXUgsyncAuditInfo() {
     }
@@ -153,4 +154,12 @@ public Map<String, String> getSyncSourceInfo() {
     public void setSyncSourceInfo(Map<String, String> syncSourceInfo) {
         this.syncSourceInfo = syncSourceInfo == null ? new HashMap<>() : syncSourceInfo;
     }
+
+    public Map<String, String> getUploadStats() {
+        return uploadStats;
+    }
+
+    public void setUploadStats(Map<String, String> uploadStats) {
+        this.uploadStats = uploadStats;
+    }
 }
@@ -0,0 +1,175 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger;
+
+import org.apache.ranger.common.SearchCriteria;
+import org.apache.ranger.view.VXAccessAudit;
+import org.apache.ranger.view.VXAccessAuditList;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TestAccessAuditsSearchCache {
+    @Test
+    public void testQueryKeyIgnoresPageAndParamOrder() {
+        AccessAuditsSearchCache<String> cache     = new AccessAuditsSearchCache<>(1000, 1000, 10);
+        SearchCriteria                  criteria1 = createSearchCriteria(0);
+        SearchCriteria                  criteria2 = createSearchCriteria(25);
+
+        criteria2.getParamList().put("requestUser", Arrays.asList("user2", "user1"));
+
+        assertEquals(cache.getQueryKey(criteria1), cache.getQueryKey(criteria2));
+
+        criteria2.setSortType("asc");
+
+        assertNotEquals(cache.getQueryKey(criteria1), cache.getQueryKey(criteria2));
+
+        criteria2.setSortType("desc");
+        criteria2.getParamList().put("startDate", new Date(2000L));
+
+        assertNotEquals(cache.getQueryKey(criteria1), cache.getQueryKey(criteria2));
+    }
+
+    @Test
+    public void testPagesAndCursors() throws Exception {
+        AccessAuditsSearchCache<String> cache    = new AccessAuditsSearchCache<>(1000, 1000, 10);
+        String                          queryKey = cache.getQueryKey(createSearchCriteria(0));
+        VXAccessAuditList               page     = createPage("2024-01-01 10:00:00 UTC");
+
+        assertTrue(cache.isCursorEnabled());
+        assertNull(cache.getPage(queryKey, 0, 25));
+
+        cache.putPage(queryKey, 0, 25, page);
+        cache.putCursor(queryKey, 25, "cursor-25", 1000L);
+
+        assertEquals("2024-01-01 10:00:00 UTC", cache.getPage(queryKey, 0, 25).getVXAccessAudits().get(0).getZonedEventTime());
+        assertNull(cache.getPage(queryKey, 0, 50));
+        assertEquals("cursor-25", cache.getCursor(queryKey, 25).getValue());
+        assertEquals(1000L, cache.getCursor(queryKey, 25).getTotalCount());
+        assertNull(cache.getCursor(queryKey, 50));
+    }
+
+    @Test
+    public void testPagesAreCopied() {
+        AccessAuditsSearchCache<String> cache    = new AccessAuditsSearchCache<>(1000, 1000, 10);
+        String                          queryKey = cache.getQueryKey(createSearchCriteria(0));
+        VXAccessAuditList               page     = createPage("2024-01-01 10:00:00 UTC");
+
+        cache.putPage(queryKey, 0, 25, page);
+
+        // updates to the stored page, or to a returned page, must not be seen by other requests
+        page.getVXAccessAudits().get(0).setZonedEventTime("2024-01-01 15:30:00 IST");
+
+        VXAccessAuditList page1 = cache.getPage(queryKey, 0, 25);
+
+        page1.getVXAccessAudits().get(0).setZonedEventTime("2024-01-01 02:00:00 PST");
+
+        VXAccessAuditList page2 = cache.getPage(queryKey, 0, 25);
+
+        assertNotSame(page1, page2);
+        assertEquals(1, page2.getListSize());
+        assertEquals("2024-01-01 10:00:00 UTC", page2.getVXAccessAudits().get(0).getZonedEventTime());
+    }
+
+    @Test
+    public void testPageCacheDisabledByDefault() {
+        AccessAuditsSearchCache<String> cache    = new AccessAuditsSearchCache<>();
+        String                          queryKey = cache.getQueryKey(createSearchCriteria(0));
+
+        cache.putPage(queryKey, 0, 25, createPage("2024-01-01 10:00:00 UTC"));
+
+        assertNull(cache.getPage(queryKey, 0, 25));
+    }
+
+    @Test
+    public void testExpiryAndDisabled() throws Exception {
+        AccessAuditsSearchCache<String> cache    = new AccessAuditsSearchCache<>(1, 1, 10);
+        String                          queryKey = cache.getQueryKey(createSearchCriteria(0));
+
+        cache.putPage(queryKey, 0, 25, new VXAccessAuditList());
+        cache.putCursor(queryKey, 25, "cursor-25", 1000L);
+
+        Thread.sleep(5);
+
+        assertNull(cache.getPage(queryKey, 0, 25));
+        assertNull(cache.getCursor(queryKey, 25));
+
+        AccessAuditsSearchCache<String> disabled = new AccessAuditsSearchCache<>(0, 0, 10);
+
+        disabled.putPage(queryKey, 0, 25, new VXAccessAuditList());
+        disabled.putCursor(queryKey, 25, "cursor-25", 1000L);
+
+        assertFalse(disabled.isCursorEnabled());
+        assertNull(disabled.getPage(queryKey, 0, 25));
+        assertNull(disabled.getCursor(queryKey, 25));
+    }
+
+    @Test
+    public void testMaxEntries() {
+        AccessAuditsSearchCache<String> cache    = new AccessAuditsSearchCache<>(1000, 1000, 2);
+        String                          queryKey = cache.getQueryKey(createSearchCriteria(0));
+
+        cache.putCursor(queryKey, 25, "cursor-25", 1000L);
+        cache.putCursor(queryKey, 50, "cursor-50", 1000L);
+        cache.getCursor(queryKey, 25);
+        cache.putCursor(queryKey, 75, "cursor-75", 1000L);
+
+        assertEquals("cursor-25", cache.getCursor(queryKey, 25).getValue());
+        assertNull(cache.getCursor(queryKey, 50));
+        assertEquals("cursor-75", cache.getCursor(queryKey, 75).getValue());
+    }
+
+    private static VXAccessAuditList createPage(String zonedEventTime) {
+        VXAccessAudit     audit = new VXAccessAudit();
+        VXAccessAuditList ret   = new VXAccessAuditList();
+
+        audit.setId(1L);
+        audit.setEventTime(new Date(1000L));
+        audit.setZonedEventTime(zonedEventTime);
+
+        ret.setVXAccessAudits(new ArrayList<>(Collections.singletonList(audit)));
+
+        return ret;
+    }
+
+    private static SearchCriteria createSearchCriteria(int startIndex) {
+        SearchCriteria ret = new SearchCriteria();
+
+        ret.setStartIndex(startIndex);
+        ret.setMaxRows(25);
+        ret.setSortBy("eventTime");
+        ret.setSortType("desc");
+        ret.getParamList().put("startDate", new Date(1000L));
+        ret.getParamList().put("requestUser", Arrays.asList("user1", "user2"));
+        ret.getParamList().put("repoName", "dev_hdfs");
+
+        return ret;
+    }
+}
@@ -18,19 +18,23 @@
 
 import org.apache.ranger.common.AppConstants;
 import org.apache.ranger.common.ContextUtil;
+import org.apache.ranger.common.GUIDUtil;
 import org.apache.ranger.common.MessageEnums;
 import org.apache.ranger.common.RESTErrorUtil;
 import org.apache.ranger.common.RangerConstants;
 import org.apache.ranger.common.StringUtil;
 import org.apache.ranger.common.UserSessionBase;
+import org.apache.ranger.common.db.RangerTransactionSynchronizationAdapter;
 import org.apache.ranger.db.RangerDaoManager;
 import org.apache.ranger.db.XXAssetDao;
 import org.apache.ranger.db.XXPortalUserDao;
 import org.apache.ranger.db.XXResourceDao;
+import org.apache.ranger.db.XXTrxLogV2Dao;
 import org.apache.ranger.db.XXUserDao;
 import org.apache.ranger.entity.XXAsset;
 import org.apache.ranger.entity.XXPortalUser;
 import org.apache.ranger.entity.XXResource;
+import org.apache.ranger.entity.XXTrxLogV2;
 import org.apache.ranger.entity.XXUser;
 import org.apache.ranger.security.context.RangerContextHolder;
 import org.apache.ranger.security.context.RangerSecurityContext;
@@ -44,16 +48,21 @@
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import javax.servlet.http.HttpServletResponse;
 import javax.ws.rs.WebApplicationException;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -80,6 +89,10 @@ public class TestRangerBizUtil {
     RESTErrorUtil restErrorUtil;
     @Mock
     VXResponse vXResponse;
+    @Mock
+    GUIDUtil guidUtil;
+    @Mock
+    RangerTransactionSynchronizationAdapter transactionSynchronizationAdapter;
     private final Long   id           = 1L;
     private final String resourceName = "hadoopdev";
 
@@ -622,4 +635,106 @@ public void testBlockAuditorRoleUserSuccess() {
         rangerBizUtilMock.blockAuditorRoleUser();
         Mockito.verify(rangerBizUtilMock).blockAuditorRoleUser();
     }
+
+    @Test
+    public void testCreateTrxLog() {
+        XXTrxLogV2Dao trxLogDao = Mockito.mock(XXTrxLogV2Dao.class);
+        XXTrxLogV2    trxLog    = new XXTrxLogV2(AppConstants.CLASS_TYPE_RANGER_POLICY, 1L, "policy-1", "create");
+
+        Mockito.when(daoManager.getXXTrxLogV2()).thenReturn(trxLogDao);
+        Mockito.when(guidUtil.genLong()).thenReturn(10L);
+
+        rangerBizUtil.createTrxLog(Collections.singletonList(trxLog));
+
+        Assert.assertEquals("10", trxLog.getTransactionId());
+        Mockito.verify(trxLogDao).create(trxLog);
+        Mockito.verifyZeroInteractions(transactionSynchronizationAdapter);
+    }
+
+    @Test
+    public void testCreateTrxLogAfterCommit() {
+        XXTrxLogV2Dao trxLogDao = Mockito.mock(XXTrxLogV2Dao.class);
+        XXTrxLogV2    trxLog1   = new XXTrxLogV2(AppConstants.CLASS_TYPE_RANGER_POLICY, 1L, "policy-1", "create");
+        XXTrxLogV2    trxLog2   = new XXTrxLogV2(AppConstants.CLASS_TYPE_RANGER_POLICY, 2L, "policy-2", "create");
+        XXTrxLogV2    trxLog3   = new XXTrxLogV2(AppConstants.CLASS_TYPE_RANGER_POLICY, 3L, "policy-3", "create");
+
+        Mockito.when(daoManager.getXXTrxLogV2()).thenReturn(trxLogDao);
+        Mockito.when(guidUtil.genLong()).thenReturn(10L);
+
+        rangerBizUtil.writeTrxLogAfterCommit = true;
+
+        TransactionSynchronizationManager.initSynchronization();
+
+        try {
+            rangerBizUtil.createTrxLog(Collections.singletonList(trxLog1));
+            rangerBizUtil.createTrxLog(Arrays.asList(trxLog2, trxLog3));
+
+            Mockito.verify(trxLogDao, Mockito.never()).create(Mockito.any());
+
+            ArgumentCaptor<Runnable> writer = ArgumentCaptor.forClass(Runnable.class);
+
+            Mockito.verify(transactionSynchronizationAdapter, Mockito.times(1)).executeOnTransactionCommit(writer.capture());
+
+            writer.getValue().run();
+
+            Mockito.verify(trxLogDao).batchCreate(Arrays.asList(trxLog1, trxLog2, trxLog3));
+
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+
+            rangerBizUtil.writeTrxLogAfterCommit = false;
+        }
+
+        XXTrxLogV2 trxLog4 = new XXTrxLogV2(AppConstants.CLASS_TYPE_RANGER_POLICY, 4L, "policy-4", "create");
+
+        rangerBizUtil.createTrxLog(Collections.singletonList(trxLog4));
+
+        Mockito.verify(trxLogDao).create(trxLog4);
+    }
+
+    @Test
+    public void testCreateTrxLogAfterCommitWithFailingWrite() {
+        XXTrxLogV2Dao trxLogDao = Mockito.mock(XXTrxLogV2Dao.class);
+        XXTrxLogV2    trxLog    = new XXTrxLogV2(AppConstants.CLASS_TYPE_RANGER_POLICY, 1L, "policy-1", "create");
+
+        Mockito.when(daoManager.getXXTrxLogV2()).thenReturn(trxLogDao);
+        Mockito.when(guidUtil.genLong()).thenReturn(10L);
+        Mockito.doThrow(new IllegalStateException("batchCreate failed")).when(trxLogDao).batchCreate(Mockito.anyList());
+
+        rangerBizUtil.writeTrxLogAfterCommit = true;
+        rangerBizUtil.trxLogWriteMaxAttempts = 3;
+
+        TransactionSynchronizationManager.initSynchronization();
+
+        try {
+            rangerBizUtil.createTrxLog(Collections.singletonList(trxLog));
+
+            ArgumentCaptor<Runnable> writer = ArgumentCaptor.forClass(Runnable.class);
+
+            Mockito.verify(transactionSynchronizationAdapter).executeOnTransactionCommit(writer.capture());
+
+            // retry like RangerTransactionSynchronizationAdapter does, until the runnable completes
+            int runCount = 0;
+
+            for (boolean isDone = false; !isDone && runCount < 10; runCount++) {
+                try {
+                    writer.getValue().run();
+
+                    isDone = true;
+                } catch (IllegalStateException excp) {
+                    // retry
+                }
+            }
+
+            Assert.assertEquals(4, runCount);
+            Mockito.verify(trxLogDao, Mockito.times(3)).batchCreate(Collections.singletonList(trxLog));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+
+            rangerBizUtil.writeTrxLogAfterCommit = false;
+        }
+    }
 }
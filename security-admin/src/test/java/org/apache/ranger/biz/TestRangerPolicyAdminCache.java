@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.biz;
+
+import org.apache.ranger.plugin.model.RangerServiceDef;
+import org.apache.ranger.plugin.policyengine.RangerPolicyEngineOptions;
+import org.apache.ranger.plugin.store.RoleStore;
+import org.apache.ranger.plugin.store.SecurityZoneStore;
+import org.apache.ranger.plugin.store.ServiceStore;
+import org.apache.ranger.plugin.util.ServicePolicies;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class TestRangerPolicyAdminCache {
+    private static final String SERVICE_NAME = "svc1";
+
+    private final List<Runnable>            rebuildTasks = new ArrayList<>();
+    private final RangerPolicyEngineOptions options      = new RangerPolicyEngineOptions();
+    private       ServiceStore              svcStore;
+    private       RoleStore                 roleStore;
+    private       SecurityZoneStore         zoneStore;
+
+    @Before
+    public void setup() throws Exception {
+        svcStore  = Mockito.mock(ServiceStore.class);
+        roleStore = Mockito.mock(RoleStore.class);
+        zoneStore = Mockito.mock(SecurityZoneStore.class);
+
+        Mockito.when(svcStore.serviceExists(SERVICE_NAME)).thenReturn(true);
+
+        rebuildTasks.clear();
+    }
+
+    @Test
+    public void testRebuildInBackground() throws Exception {
+        RangerPolicyAdminCache cache = new RangerPolicyAdminCache(true, rebuildTasks::add);
+
+        Mockito.when(svcStore.getServicePoliciesIfUpdated(Mockito.eq(SERVICE_NAME), Mockito.eq(-1L), Mockito.anyBoolean())).thenReturn(createServicePolicies(1L));
+
+        RangerPolicyAdmin admin1 = cache.getServicePoliciesAdmin(SERVICE_NAME, svcStore, roleStore, zoneStore, options);
+
+        assertNotNull(admin1);
+        assertEquals(1L, admin1.getPolicyVersion());
+        assertEquals(0, rebuildTasks.size()); // first build is done in the caller thread
+
+        Mockito.when(svcStore.getServicePoliciesIfUpdated(Mockito.eq(SERVICE_NAME), Mockito.eq(1L), Mockito.anyBoolean())).thenReturn(createServicePolicies(2L));
+
+        assertSame(admin1, cache.getServicePoliciesAdmin(SERVICE_NAME, svcStore, roleStore, zoneStore, options));
+        assertSame(admin1, cache.getServicePoliciesAdmin(SERVICE_NAME, svcStore, roleStore, zoneStore, options));
+        assertEquals(1, rebuildTasks.size()); // single rebuild, while last built policy-admin is served
+
+        Mockito.verify(svcStore, Mockito.times(1)).getServicePoliciesIfUpdated(Mockito.eq(SERVICE_NAME), Mockito.eq(1L), Mockito.anyBoolean());
+
+        rebuildTasks.get(0).run();
+
+        RangerPolicyAdmin admin2 = cache.getServicePoliciesAdmin(SERVICE_NAME, svcStore, roleStore, zoneStore, options);
+
+        assertEquals(2L, admin2.getPolicyVersion());
+
+        Map<String, Long> metrics = cache.getMetrics();
+
+        assertEquals(Long.valueOf(2), metrics.get("RebuildCount"));
+        assertEquals(Long.valueOf(2), metrics.get("StaleServedCount"));
+        assertEquals(Long.valueOf(0), metrics.get("RebuildInProgressCount"));
+        assertEquals(Long.valueOf(1), metrics.get("CachedCount"));
+    }
+
+    @Test
+    public void testRebuildInCallerThreadWhenAsyncDisabled() throws Exception {
+        RangerPolicyAdminCache cache = new RangerPolicyAdminCache(false, rebuildTasks::add);
+
+        Mockito.when(svcStore.getServicePoliciesIfUpdated(Mockito.eq(SERVICE_NAME), Mockito.eq(-1L), Mockito.anyBoolean())).thenReturn(createServicePolicies(1L));
+        Mockito.when(svcStore.getServicePoliciesIfUpdated(Mockito.eq(SERVICE_NAME), Mockito.eq(1L), Mockito.anyBoolean())).thenReturn(createServicePolicies(2L));
+
+        assertEquals(1L, cache.getServicePoliciesAdmin(SERVICE_NAME, svcStore, roleStore, zoneStore, options).getPolicyVersion());
+        assertEquals(2L, cache.getServicePoliciesAdmin(SERVICE_NAME, svcStore, roleStore, zoneStore, options).getPolicyVersion());
+        assertEquals(0, rebuildTasks.size());
+    }
+
+    @Test
+    public void testDeletedService() throws Exception {
+        RangerPolicyAdminCache cache = new RangerPolicyAdminCache(true, rebuildTasks::add);
+
+        Mockito.when(svcStore.getServicePoliciesIfUpdated(Mockito.eq(SERVICE_NAME), Mockito.eq(-1L), Mockito.anyBoolean())).thenReturn(createServicePolicies(1L));
+
+        assertNotNull(cache.getServicePoliciesAdmin(SERVICE_NAME, svcStore, roleStore, zoneStore, options));
+
+        Mockito.when(svcStore.serviceExists(SERVICE_NAME)).thenReturn(false);
+
+        assertNull(cache.getServicePoliciesAdmin(SERVICE_NAME, svcStore, roleStore, zoneStore, options));
+        assertEquals(Long.valueOf(0), cache.getMetrics().get("CachedCount"));
+    }
+
+    private static ServicePolicies createServicePolicies(long policyVersion) {
+        ServicePolicies  ret        = new ServicePolicies();
+        RangerServiceDef serviceDef = new RangerServiceDef();
+
+        serviceDef.setId(1L);
+        serviceDef.setName("test");
+
+        ret.setServiceName(SERVICE_NAME);
+        ret.setServiceId(1L);
+        ret.setPolicyVersion(policyVersion);
+        ret.setServiceDef(serviceDef);
+        ret.setPolicies(new ArrayList<>());
+
+        return ret;
+    }
+}
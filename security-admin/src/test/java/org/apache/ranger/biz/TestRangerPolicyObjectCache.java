@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.biz;
+
+import org.apache.ranger.authorization.utils.JsonUtils;
+import org.apache.ranger.entity.XXPolicy;
+import org.apache.ranger.plugin.model.RangerPolicy;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerDataMaskPolicyItem;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyItem;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyItemAccess;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyItemCondition;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyItemDataMaskInfo;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyItemRowFilterInfo;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyResource;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerRowFilterPolicyItem;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+
+public class TestRangerPolicyObjectCache {
+    @Test
+    public void testCopyIsEqualAndIndependent() {
+        RangerPolicy policy = createPolicy(1L);
+        RangerPolicy copy   = RangerPolicyObjectCache.copyOf(policy);
+        String       json   = JsonUtils.objectToJson(policy);
+
+        assertEquals(json, JsonUtils.objectToJson(copy));
+
+        copy.getResources().get("database").getValues().add("db2");
+        copy.getPolicyItems().get(0).getUsers().add("user2");
+        copy.getPolicyItems().get(0).getAccesses().get(0).setType("update");
+        copy.getDataMaskPolicyItems().get(0).getDataMaskInfo().setDataMaskType("MASK_NULL");
+        copy.getRowFilterPolicyItems().get(0).getRowFilterInfo().setFilterExpr("1 = 0");
+        copy.getConditions().get(0).getValues().add("10.0.0.0/8");
+
+        assertEquals(json, JsonUtils.objectToJson(policy));
+    }
+
+    @Test
+    public void testPoliciesAreDeserializedOncePerVersion() {
+        RangerPolicyObjectCache cache     = new RangerPolicyObjectCache(true, 100, 4, 2);
+        List<XXPolicy>          xPolicies = new ArrayList<>();
+
+        for (long i = 1; i <= 10; i++) {
+            xPolicies.add(createXXPolicy(createPolicy(i), 1L));
+        }
+
+        cache.preload(xPolicies);
+
+        assertEquals(10, cache.size());
+
+        RangerPolicy policy1 = cache.getPolicy(xPolicies.get(0));
+        RangerPolicy policy2 = cache.getPolicy(xPolicies.get(0));
+
+        assertNotSame(policy1, policy2);
+        assertEquals(JsonUtils.objectToJson(policy1), JsonUtils.objectToJson(policy2));
+
+        policy1.setName("updated-name");
+
+        assertEquals("policy-1", cache.getPolicy(xPolicies.get(0)).getName());
+
+        RangerPolicy updated = createPolicy(1L);
+
+        updated.setName("policy-1-v2");
+
+        XXPolicy xUpdated = createXXPolicy(updated, 2L);
+
+        xPolicies.set(0, xUpdated);
+
+        assertEquals("policy-1-v2", cache.getPolicy(xUpdated).getName());
+        assertEquals(10, cache.size());
+    }
+
+    @Test
+    public void testCacheIsClearedAtMaxSize() {
+        RangerPolicyObjectCache cache = new RangerPolicyObjectCache(true, 5, 1, 1);
+
+        for (long i = 1; i <= 6; i++) {
+            cache.getPolicy(createXXPolicy(createPolicy(i), 1L));
+        }
+
+        assertEquals(1, cache.size());
+    }
+
+    private static XXPolicy createXXPolicy(RangerPolicy policy, Long version) {
+        XXPolicy ret = new XXPolicy();
+
+        ret.setId(policy.getId());
+        ret.setVersion(version);
+        ret.setUpdateTime(new Date(version * 1000));
+        ret.setPolicyText(JsonUtils.objectToJson(policy));
+
+        return ret;
+    }
+
+    private static RangerPolicy createPolicy(Long id) {
+        RangerPolicy                      ret       = new RangerPolicy();
+        Map<String, RangerPolicyResource> resources = new HashMap<>();
+        Map<String, Object>               options   = new HashMap<>();
+
+        resources.put("database", new RangerPolicyResource(new ArrayList<>(Collections.singletonList("db1")), false, false));
+        resources.put("table", new RangerPolicyResource(new ArrayList<>(Arrays.asList("t1", "t2")), true, false));
+        options.put("key", "value");
+
+        ret.setId(id);
+        ret.setName("policy-" + id);
+        ret.setService("svc1");
+        ret.setServiceType("hive");
+        ret.setPolicyType(RangerPolicy.POLICY_TYPE_ACCESS);
+        ret.setPolicyPriority(RangerPolicy.POLICY_PRIORITY_NORMAL);
+        ret.setDescription("description");
+        ret.setIsAuditEnabled(true);
+        ret.setResources(resources);
+        ret.setAdditionalResources(new ArrayList<>(Collections.singletonList(new HashMap<>(resources))));
+        ret.setConditions(new ArrayList<>(Collections.singletonList(new RangerPolicyItemCondition("ip-range", new ArrayList<>(Collections.singletonList("192.168.0.0/16"))))));
+        ret.setPolicyItems(new ArrayList<>(Collections.singletonList(createPolicyItem())));
+        ret.setDenyPolicyItems(new ArrayList<>(Collections.singletonList(createPolicyItem())));
+        ret.setAllowExceptions(new ArrayList<>(Collections.singletonList(createPolicyItem())));
+        ret.setDenyExceptions(new ArrayList<>(Collections.singletonList(createPolicyItem())));
+        ret.setDataMaskPolicyItems(new ArrayList<>(Collections.singletonList(new RangerDataMaskPolicyItem(createAccesses(), new RangerPolicyItemDataMaskInfo("MASK", null, null), createList("user1"), createList("group1"), createList("role1"), null, false))));
+        ret.setRowFilterPolicyItems(new ArrayList<>(Collections.singletonList(new RangerRowFilterPolicyItem(new RangerPolicyItemRowFilterInfo("id > 10"), createAccesses(), createList("user1"), createList("group1"), createList("role1"), null, false))));
+        ret.setOptions(options);
+        ret.setPolicyLabels(createList("label1"));
+        ret.setZoneName("zone1");
+        ret.setIsDenyAllElse(false);
+
+        return ret;
+    }
+
+    private static RangerPolicyItem createPolicyItem() {
+        return new RangerPolicyItem(createAccesses(), createList("user1"), createList("group1"), createList("role1"), new ArrayList<>(Collections.singletonList(new RangerPolicyItemCondition("expr", createList("true")))), true);
+    }
+
+    private static List<RangerPolicyItemAccess> createAccesses() {
+        return new ArrayList<>(Collections.singletonList(new RangerPolicyItemAccess("select", true)));
+    }
+
+    private static List<String> createList(String value) {
+        return new ArrayList<>(Collections.singletonList(value));
+    }
+}
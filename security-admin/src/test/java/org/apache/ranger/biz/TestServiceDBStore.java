@@ -18,6 +18,8 @@
 package org.apache.ranger.biz;
 
 import org.apache.commons.collections.ListUtils;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.ranger.authorization.utils.JsonUtils;
 import org.apache.ranger.common.ContextUtil;
 import org.apache.ranger.common.GUIDUtil;
 import org.apache.ranger.common.JSONUtil;
@@ -53,6 +55,7 @@
 import org.apache.ranger.db.XXServiceDao;
 import org.apache.ranger.db.XXServiceDefDao;
 import org.apache.ranger.db.XXServiceVersionInfoDao;
+import org.apache.ranger.db.XXTrxLogV2Dao;
 import org.apache.ranger.db.XXUserDao;
 import org.apache.ranger.entity.XXAccessTypeDef;
 import org.apache.ranger.entity.XXAccessTypeDefGrants;
@@ -97,6 +100,7 @@
 import org.apache.ranger.plugin.model.RangerServiceDef.RangerServiceConfigDef;
 import org.apache.ranger.plugin.store.PList;
 import org.apache.ranger.plugin.store.ServicePredicateUtil;
+import org.apache.ranger.plugin.util.RangerPurgeResult;
 import org.apache.ranger.plugin.util.SearchFilter;
 import org.apache.ranger.plugin.util.ServicePolicies;
 import org.apache.ranger.security.context.RangerContextHolder;
@@ -109,6 +113,7 @@
 import org.apache.ranger.service.RangerServiceWithAssignedIdService;
 import org.apache.ranger.service.XGroupService;
 import org.apache.ranger.service.XUserService;
+import org.apache.ranger.view.RangerExportPolicyList;
 import org.apache.ranger.view.RangerPolicyList;
 import org.apache.ranger.view.RangerServiceDefList;
 import org.apache.ranger.view.RangerServiceList;
@@ -128,8 +133,18 @@
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -2355,6 +2370,85 @@ public void test53GetPolicyByGUIDAndZoneName() throws Exception {
         Mockito.verify(policyService).getPopulatedViewObject(xPolicy);
     }
 
+    @Test
+    public void test54GetPoliciesInJson() throws Exception {
+        ByteArrayOutputStream out      = new ByteArrayOutputStream();
+        HttpServletResponse   response = mockResponse(out);
+        List<RangerPolicy>    policies = exportPolicies(3);
+
+        serviceDBStore.getPoliciesInJson(policies.iterator(), response);
+
+        String                 json       = out.toString(StandardCharsets.UTF_8.name());
+        RangerExportPolicyList exportList = JsonUtils.jsonToObject(json, RangerExportPolicyList.class);
+
+        Assert.assertNotNull(exportList);
+        Assert.assertEquals(3, exportList.getPolicies().size());
+        Assert.assertEquals(JsonUtils.getMapper().readTree(JsonUtils.objectToJson(policies)), JsonUtils.getMapper().readTree(json).get("policies"));
+        Assert.assertTrue(exportList.getMetaDataInfo().containsKey("Ranger apache version"));
+    }
+
+    @Test
+    public void test55GetPoliciesInCSV() throws Exception {
+        ByteArrayOutputStream out      = new ByteArrayOutputStream();
+        HttpServletResponse   response = mockResponse(out);
+
+        serviceDBStore.getPoliciesInCSV(exportPolicies(3).iterator(), response);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8.name()).split("\n");
+
+        Assert.assertEquals(4, lines.length);
+        Assert.assertTrue(lines[0].startsWith("ID|Name|Resources"));
+        Assert.assertTrue(lines[3].startsWith("3|policy-3|"));
+    }
+
+    @Test
+    public void test56GetPoliciesInExcel() throws Exception {
+        ByteArrayOutputStream out      = new ByteArrayOutputStream();
+        HttpServletResponse   response = mockResponse(out);
+
+        serviceDBStore.getPoliciesInExcel(exportPolicies(1000).iterator(), response);
+
+        Mockito.verify(response).setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            Assert.assertEquals(1000, workbook.getSheetAt(0).getLastRowNum());
+            Assert.assertEquals("policy-1000", workbook.getSheetAt(0).getRow(1000).getCell(1).getStringCellValue());
+        }
+    }
+
+    @Test
+    public void test57RemoveTransactionLogsInBatches() {
+        XXTrxLogV2Dao              trxLogDao     = Mockito.mock(XXTrxLogV2Dao.class);
+        PlatformTransactionManager txManager     = Mockito.mock(PlatformTransactionManager.class);
+        List<RangerPurgeResult>    result        = new ArrayList<>();
+        int                        origBatchSize = ServiceDBStore.PURGE_BATCH_SIZE;
+
+        Mockito.when(daoManager.getXXTrxLogV2()).thenReturn(trxLogDao);
+        Mockito.when(trxLogDao.getAllCount()).thenReturn(10L);
+        Mockito.when(trxLogDao.findIdsOlderThan(Mockito.any(Date.class), Mockito.eq(3))).thenReturn(Arrays.asList(1L, 2L, 3L), Arrays.asList(4L, 5L, 6L), Collections.singletonList(7L));
+
+        ServiceDBStore.PURGE_BATCH_SIZE = 3;
+        serviceDBStore.txManager        = txManager;
+
+        try {
+            serviceDBStore.removeTransactionLogs(30, result);
+        } finally {
+            ServiceDBStore.PURGE_BATCH_SIZE = origBatchSize;
+            serviceDBStore.txManager        = null;
+        }
+
+        Mockito.verify(trxLogDao, Mockito.times(3)).findIdsOlderThan(Mockito.any(Date.class), Mockito.eq(3));
+        Mockito.verify(trxLogDao).deleteByIds(Arrays.asList(1L, 2L, 3L));
+        Mockito.verify(trxLogDao).deleteByIds(Arrays.asList(4L, 5L, 6L));
+        Mockito.verify(trxLogDao).deleteByIds(Collections.singletonList(7L));
+        Mockito.verify(trxLogDao, Mockito.never()).deleteOlderThan(Mockito.anyInt());
+        Mockito.verify(txManager, Mockito.times(3)).commit(Mockito.any());
+
+        Assert.assertEquals(1, result.size());
+        Assert.assertEquals(Long.valueOf(10), result.get(0).getTotalRecordCount());
+        Assert.assertEquals(Long.valueOf(7), result.get(0).getPurgedRecordCount());
+    }
+
     private VXGroup vxGroup() {
         VXGroup vXGroup = new VXGroup();
         vXGroup.setId(Id);
@@ -2513,6 +2607,46 @@ private RangerPolicy rangerPolicy() {
         return policy;
     }
 
+    private List<RangerPolicy> exportPolicies(int count) {
+        List<RangerPolicy> ret = new ArrayList<>();
+
+        for (long i = 1; i <= count; i++) {
+            RangerPolicy policy = rangerPolicy();
+
+            policy.setId(i);
+            policy.setName("policy-" + i);
+            policy.setServiceType("hdfs");
+            policy.setPolicyType(RangerPolicy.POLICY_TYPE_ACCESS);
+            policy.getResources().put("path", new RangerPolicyResource("/data/" + i));
+
+            ret.add(policy);
+        }
+
+        return ret;
+    }
+
+    private HttpServletResponse mockResponse(ByteArrayOutputStream out) throws Exception {
+        HttpServletResponse response = Mockito.mock(HttpServletResponse.class);
+
+        Mockito.when(response.getOutputStream()).thenReturn(new ServletOutputStream() {
+            @Override
+            public void write(int b) {
+                out.write(b);
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+            }
+        });
+
+        return response;
+    }
+
     private XXServiceDef serviceDef() {
         XXServiceDef xServiceDef = new XXServiceDef();
         xServiceDef.setAddedByUserId(Id);
@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.common;
+
+import org.apache.ranger.plugin.model.RangerPolicy;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyItem;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyResource;
+import org.apache.ranger.plugin.store.ServicePredicateUtil;
+import org.apache.ranger.plugin.util.SearchFilter;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TestRangerPolicySearchIndex {
+    private final ServicePredicateUtil predicateUtil = new ServicePredicateUtil(null);
+
+    @Test
+    public void testCandidatesMatchFilteredPolicies() {
+        List<RangerPolicy>      policies = createPolicies(200);
+        RangerPolicySearchIndex index    = new RangerPolicySearchIndex(policies, 10L);
+
+        verify(policies, index, filter(SearchFilter.USER, "user-1"));
+        verify(policies, index, filter(SearchFilter.USER, "USER-17"));
+        verify(policies, index, filter(SearchFilter.GROUP, "group-3"));
+        verify(policies, index, filter(SearchFilter.ROLE, "role-"));
+        verify(policies, index, filter(SearchFilter.POLICY_LABELS_PARTIAL, "label-2"));
+        verify(policies, index, filter(SearchFilter.POLICY_NAME, "policy-42"));
+        verify(policies, index, filter(SearchFilter.ZONE_NAME, "zone-1"));
+        verify(policies, index, filter(SearchFilter.POLICY_TYPE, "1"));
+        verify(policies, index, filter(SearchFilter.RESOURCE_PREFIX + "database", "db-5"));
+        verify(policies, index, filter(SearchFilter.RESOURCE_PREFIX + "database", "finance_db"));
+        verify(policies, index, filter(SearchFilter.RESOURCE_PREFIX + "table", "tbl-1"));
+        verify(policies, index, filter(SearchFilter.RESOURCE_PREFIX + "column", "unknown"));
+
+        SearchFilter filter = filter(SearchFilter.USER, "user-1");
+
+        filter.setParam(SearchFilter.GROUP, "group-2");
+        filter.setParam(SearchFilter.RESOURCE_PREFIX + "database", "db-1");
+
+        verify(policies, index, filter);
+    }
+
+    @Test
+    public void testUnindexedFilterReturnsAllPolicies() {
+        List<RangerPolicy>      policies = createPolicies(10);
+        RangerPolicySearchIndex index    = new RangerPolicySearchIndex(policies, 10L);
+
+        assertSame(policies, index.getCandidatePolicies(filter(SearchFilter.IS_ENABLED, "true")));
+    }
+
+    @Test
+    public void testIsIndexOf() {
+        List<RangerPolicy>      policies = createPolicies(10);
+        RangerPolicySearchIndex index    = new RangerPolicySearchIndex(policies, 10L);
+
+        assertTrue(index.isIndexOf(policies, 10L));
+        assertFalse(index.isIndexOf(policies, 11L));
+        assertFalse(index.isIndexOf(new ArrayList<>(policies), 10L));
+    }
+
+    private void verify(List<RangerPolicy> policies, RangerPolicySearchIndex index, SearchFilter filter) {
+        List<RangerPolicy> expected   = new ArrayList<>(policies);
+        List<RangerPolicy> candidates = new ArrayList<>(index.getCandidatePolicies(filter));
+
+        predicateUtil.applyFilter(expected, filter);
+        predicateUtil.applyFilter(candidates, filter);
+
+        assertEquals(filter.toString(), expected, candidates);
+    }
+
+    private static SearchFilter filter(String name, String value) {
+        SearchFilter ret = new SearchFilter();
+
+        ret.setParam(name, value);
+
+        return ret;
+    }
+
+    private static List<RangerPolicy> createPolicies(int count) {
+        List<RangerPolicy> ret = new ArrayList<>();
+
+        for (int i = 0; i < count; i++) {
+            RangerPolicy     policy = new RangerPolicy();
+            RangerPolicyItem item   = new RangerPolicyItem();
+
+            item.setUsers(Arrays.asList("user-" + i, "user-" + (i % 7)));
+            item.setGroups(Collections.singletonList("group-" + (i % 5)));
+            item.setRoles(i % 3 == 0 ? Collections.singletonList("role-" + i) : Collections.emptyList());
+
+            policy.setId((long) i);
+            policy.setName("policy-" + i);
+            policy.setPolicyType(i % 4 == 0 ? null : i % 3);
+            policy.setZoneName(i % 2 == 0 ? "zone-" + (i % 3) : null);
+            policy.setPolicyLabels(Collections.singletonList("label-" + (i % 11)));
+            policy.getResources().put("database", new RangerPolicyResource(i % 10 == 0 ? "*" : (i % 9 == 0 ? "fin*" : "db-" + (i % 6))));
+            policy.getResources().put("table", new RangerPolicyResource("tbl-" + (i % 4)));
+
+            if (i % 2 == 0) {
+                policy.getPolicyItems().add(item);
+            } else {
+                policy.getDenyPolicyItems().add(item);
+            }
+
+            ret.add(policy);
+        }
+
+        return ret;
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.common;
+
+import org.apache.ranger.biz.RoleDBStore;
+import org.apache.ranger.plugin.model.RangerRole;
+import org.apache.ranger.plugin.util.RangerRoles;
+import org.apache.ranger.plugin.util.SearchFilter;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TestRangerRoleCache {
+    @Test
+    public void testRolesAndDeltasSharedByServices() throws Exception {
+        RangerRoleCache cache = RangerRoleCache.getInstance();
+        RoleDBStore     store = Mockito.mock(RoleDBStore.class);
+        RangerRole      role1 = createRole(1L, "role1");
+        RangerRole      role2 = createRole(2L, "role2");
+
+        Mockito.when(store.getRoles((SearchFilter) null)).thenReturn(Collections.singletonList(role1), Arrays.asList(role1, role2));
+
+        RangerRoles svc1Roles = cache.getLatestRangerRoleOrCached("svc1", store, -1L, 1000L, true);
+        RangerRoles svc2Roles = cache.getLatestRangerRoleOrCached("svc2", store, -1L, 1000L, true);
+
+        // roles are loaded once for all services; each caller gets its own object
+        Mockito.verify(store, Mockito.times(1)).getRoles((SearchFilter) null);
+        assertNotSame(svc1Roles, svc2Roles);
+        assertEquals(Long.valueOf(1000L), svc2Roles.getRoleVersion());
+        assertEquals(1, svc2Roles.getRangerRoles().size());
+        assertFalse(Boolean.TRUE.equals(svc2Roles.getIsDelta()));
+
+        // a change to roles is loaded once, and the delta is served to plugins of all services
+        RangerRoles svc1Delta = cache.getLatestRangerRoleOrCached("svc1", store, 1000L, 1001L, true);
+        RangerRoles svc2Delta = cache.getLatestRangerRoleOrCached("svc2", store, 1000L, 1001L, true);
+
+        Mockito.verify(store, Mockito.times(2)).getRoles((SearchFilter) null);
+
+        for (RangerRoles delta : Arrays.asList(svc1Delta, svc2Delta)) {
+            assertTrue(delta.getIsDelta());
+            assertEquals(Long.valueOf(1001L), delta.getRoleVersion());
+            assertEquals(Collections.singleton(role2), delta.getRangerRoles());
+        }
+
+        // plugins without a known version, or not supporting deltas, get all roles
+        RangerRoles svc3Roles = cache.getLatestRangerRoleOrCached("svc3", store, 1000L, 1001L, false);
+
+        assertFalse(Boolean.TRUE.equals(svc3Roles.getIsDelta()));
+        assertEquals(2, svc3Roles.getRangerRoles().size());
+
+        assertNull(cache.getLatestRangerRoleOrCached("svc1", store, 1001L, 1001L, true));
+        Mockito.verify(store, Mockito.times(2)).getRoles((SearchFilter) null);
+    }
+
+    private static RangerRole createRole(Long id, String name) {
+        RangerRole ret = new RangerRole(name, null, null, Collections.emptyList(), Collections.emptyList());
+
+        ret.setId(id);
+
+        return ret;
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.common;
+
+import org.apache.ranger.common.RangerServicePoliciesCache.ServicePoliciesPayload;
+import org.apache.ranger.plugin.model.RangerPolicy;
+import org.apache.ranger.plugin.model.RangerPolicyDelta;
+import org.apache.ranger.plugin.util.JsonUtilsV2;
+import org.apache.ranger.plugin.util.ServicePolicies;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class TestRangerServicePoliciesCache {
+    @Test
+    public void testETag() {
+        assertEquals("\"10\"", RangerServicePoliciesCache.getETag(10L));
+        assertEquals(Long.valueOf(10L), RangerServicePoliciesCache.getPolicyVersionFromETag("\"10\""));
+        assertEquals(Long.valueOf(10L), RangerServicePoliciesCache.getPolicyVersionFromETag("W/\"10\""));
+        assertNull(RangerServicePoliciesCache.getPolicyVersionFromETag("*"));
+        assertNull(RangerServicePoliciesCache.getPolicyVersionFromETag(null));
+
+        assertEquals(Long.valueOf(7L), RangerServicePoliciesCache.getLastKnownPolicyVersion(7L, "\"10\""));
+        assertEquals(Long.valueOf(10L), RangerServicePoliciesCache.getLastKnownPolicyVersion(-1L, "\"10\""));
+        assertEquals(Long.valueOf(-1L), RangerServicePoliciesCache.getLastKnownPolicyVersion(-1L, null));
+    }
+
+    @Test
+    public void testDeltaPayloadsOfClientsAtDifferentVersions() throws Exception {
+        RangerServicePoliciesCache cache        = RangerServicePoliciesCache.getInstance();
+        ServicePolicies            fromVersion8 = createServicePolicyDeltas("test_delta_svc", 10L, 8L, 2);
+        ServicePolicies            fromVersion9 = createServicePolicyDeltas("test_delta_svc", 10L, 9L, 2);
+
+        // same target version and number of deltas, but different deltas
+        ServicePoliciesPayload payload8 = cache.getSerializedServicePolicies(fromVersion8, 8L);
+        ServicePoliciesPayload payload9 = cache.getSerializedServicePolicies(fromVersion9, 9L);
+
+        assertNotSame(payload8, payload9);
+        assertSame(payload8, cache.getSerializedServicePolicies(fromVersion8, 8L));
+        assertSame(payload9, cache.getSerializedServicePolicies(fromVersion9, 9L));
+        assertEquals(Long.valueOf(8L), JsonUtilsV2.getMapper().readValue(payload8.getJson(), ServicePolicies.class).getPolicyDeltas().get(0).getPoliciesVersion());
+        assertEquals(Long.valueOf(9L), JsonUtilsV2.getMapper().readValue(payload9.getJson(), ServicePolicies.class).getPolicyDeltas().get(0).getPoliciesVersion());
+
+        // deltas of an unknown from-version are not cached
+        assertNotSame(cache.getSerializedServicePolicies(fromVersion8, -1L), cache.getSerializedServicePolicies(fromVersion8, -1L));
+
+        cache.resetCache("test_delta_svc");
+    }
+
+    @Test
+    public void testSerializedPayloadIsShared() throws Exception {
+        RangerServicePoliciesCache cache    = RangerServicePoliciesCache.getInstance();
+        ServicePolicies            policies = createServicePolicies("test_payload_svc", 5L, 500);
+
+        ServicePoliciesPayload payload1 = cache.getSerializedServicePolicies(policies, -1L);
+        ServicePoliciesPayload payload2 = cache.getSerializedServicePolicies(policies, -1L);
+
+        assertSame(payload1, payload2);
+        assertEquals("\"5\"", payload1.getETag());
+
+        ServicePolicies deserialized = JsonUtilsV2.getMapper().readValue(payload1.getJson(), ServicePolicies.class);
+
+        assertEquals(policies.getPolicyVersion(), deserialized.getPolicyVersion());
+        assertEquals(policies.getPolicies().size(), deserialized.getPolicies().size());
+
+        assertNotNull(payload1.getGzipped());
+        assertArrayEquals(payload1.getJson(), gunzip(payload1.getGzipped()));
+
+        policies.setPolicyVersion(6L);
+
+        ServicePoliciesPayload payload3 = cache.getSerializedServicePolicies(policies, -1L);
+
+        assertNotSame(payload1, payload3);
+        assertEquals("\"6\"", payload3.getETag());
+
+        cache.resetCache("test_payload_svc");
+
+        assertNotSame(payload3, cache.getSerializedServicePolicies(policies, -1L));
+    }
+
+    private static ServicePolicies createServicePolicies(String serviceName, long version, int policyCount) {
+        ServicePolicies    ret      = new ServicePolicies();
+        List<RangerPolicy> policies = new ArrayList<>();
+
+        for (long i = 0; i < policyCount; i++) {
+            RangerPolicy policy = new RangerPolicy();
+
+            policy.setId(i);
+            policy.setName("policy-" + i);
+            policy.setService(serviceName);
+
+            policies.add(policy);
+        }
+
+        ret.setServiceName(serviceName);
+        ret.setPolicyVersion(version);
+        ret.setPolicies(policies);
+
+        return ret;
+    }
+
+    private static ServicePolicies createServicePolicyDeltas(String serviceName, long version, long fromVersion, int deltaCount) {
+        ServicePolicies         ret    = new ServicePolicies();
+        List<RangerPolicyDelta> deltas = new ArrayList<>();
+
+        for (long i = 0; i < deltaCount; i++) {
+            RangerPolicy policy = new RangerPolicy();
+
+            policy.setId(fromVersion * 100 + i);
+            policy.setName("policy-" + policy.getId());
+            policy.setService(serviceName);
+
+            deltas.add(new RangerPolicyDelta(policy.getId(), RangerPolicyDelta.CHANGE_TYPE_POLICY_UPDATE, fromVersion, policy));
+        }
+
+        ret.setServiceName(serviceName);
+        ret.setPolicyVersion(version);
+        ret.setPolicyDeltas(deltas);
+
+        return ret;
+    }
+
+    private static byte[] gunzip(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(data))) {
+            byte[] buf = new byte[4096];
+
+            for (int len = in.read(buf); len > 0; len = in.read(buf)) {
+                out.write(buf, 0, len);
+            }
+        }
+
+        return out.toByteArray();
+    }
+}
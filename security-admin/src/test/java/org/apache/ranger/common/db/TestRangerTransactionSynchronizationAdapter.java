@@ -20,6 +20,7 @@
 import org.junit.Test;
 import org.mockito.Mockito;
 import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
 import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.concurrent.atomic.AtomicInteger;
@@ -42,4 +43,26 @@ public void testNestedRunnableAfterCompletion() {
             TransactionSynchronizationManager.clear();
         }
     }
+
+    @Test
+    public void testRunOnceAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            RangerTransactionSynchronizationAdapter rtsa = new RangerTransactionSynchronizationAdapter();
+            rtsa.txManager = Mockito.mock(PlatformTransactionManager.class);
+            AtomicInteger count = new AtomicInteger(0);
+            Assert.assertTrue(rtsa.executeOnTransactionCommitOnce("key1", count::incrementAndGet));
+            Assert.assertFalse(rtsa.executeOnTransactionCommitOnce("key1", count::incrementAndGet));
+            Assert.assertTrue(rtsa.executeOnTransactionCommitOnce("key2", count::incrementAndGet));
+            rtsa.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+            Assert.assertEquals(2, count.get());
+
+            // keys are reset after transaction completion
+            Assert.assertTrue(rtsa.executeOnTransactionCommitOnce("key1", count::incrementAndGet));
+            rtsa.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+            Assert.assertEquals(3, count.get());
+        } finally {
+            TransactionSynchronizationManager.clear();
+        }
+    }
 }
@@ -45,6 +45,7 @@
 import org.apache.ranger.service.XPolicyExportAuditService;
 import org.apache.ranger.service.XResourceService;
 import org.apache.ranger.view.VXAccessAudit;
+import org.apache.ranger.view.VXAccessAuditAggregation;
 import org.apache.ranger.view.VXAccessAuditList;
 import org.apache.ranger.view.VXAsset;
 import org.apache.ranger.view.VXAssetList;
@@ -579,6 +580,24 @@ public void testGetAccessLogsForKms() {
         Mockito.verifyNoMoreInteractions(searchUtil, assetMgr, daoManager);
     }
 
+    @Test
+    public void testGetAccessLogsAggregation() {
+        SearchCriteria           searchCriteria = new SearchCriteria();
+        VXAccessAuditAggregation aggregation    = new VXAccessAuditAggregation();
+        Mockito.when(searchUtil.extractCommonCriterias(Mockito.any(), Mockito.any())).thenReturn(searchCriteria);
+        Mockito.when(msBizUtil.isKeyAdmin()).thenReturn(false);
+        Mockito.when(daoManager.getXXServiceDef()).thenReturn(xxServiceDefDao);
+        XXServiceDef xServiceDef = new XXServiceDef();
+        xServiceDef.setId(Id);
+        Mockito.when(xxServiceDefDao.findByName(EmbeddedServiceDefsUtil.EMBEDDED_SERVICEDEF_KMS_NAME)).thenReturn(xServiceDef);
+        Mockito.when(assetMgr.getAccessLogsAggregation(searchCriteria, "requestUser", 5, "day")).thenReturn(aggregation);
+        VXAccessAuditAggregation ret = assetREST.getAccessLogsAggregation(request, " requestUser ", 5, "day");
+        Assert.assertSame(aggregation, ret);
+        Assert.assertEquals(Id, searchCriteria.getParamValue("-repoType"));
+        Mockito.verify(assetMgr).getAccessLogsAggregation(searchCriteria, "requestUser", 5, "day");
+        Mockito.verify(assetMgr, Mockito.never()).getAccessLogs(Mockito.any());
+    }
+
     @Test
     public void testGrantPermission() {
         RangerPolicy       policy          = rangerPolicy(Id);
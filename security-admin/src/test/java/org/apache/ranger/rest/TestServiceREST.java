@@ -27,7 +27,6 @@
 import org.apache.ranger.biz.RangerPolicyAdmin;
 import org.apache.ranger.biz.SecurityZoneDBStore;
 import org.apache.ranger.biz.ServiceDBStore;
-import org.apache.ranger.biz.ServiceDBStore.JSON_FILE_NAME_TYPE;
 import org.apache.ranger.biz.ServiceMgr;
 import org.apache.ranger.biz.TagDBStore;
 import org.apache.ranger.biz.XUserMgr;
@@ -37,6 +36,7 @@
 import org.apache.ranger.common.RangerSearchUtil;
 import org.apache.ranger.common.RangerValidatorFactory;
 import org.apache.ranger.common.ServiceUtil;
+import org.apache.ranger.common.ServiceVersionChangeNotifier;
 import org.apache.ranger.common.StringUtil;
 import org.apache.ranger.common.UserSessionBase;
 import org.apache.ranger.common.db.RangerTransactionSynchronizationAdapter;
@@ -69,6 +69,7 @@
 import org.apache.ranger.plugin.model.RangerServiceDef.RangerPolicyConditionDef;
 import org.apache.ranger.plugin.model.RangerServiceDef.RangerResourceDef;
 import org.apache.ranger.plugin.model.RangerServiceDef.RangerServiceConfigDef;
+import org.apache.ranger.plugin.model.RangerServiceHeaderInfo;
 import org.apache.ranger.plugin.model.ServiceDeleteResponse;
 import org.apache.ranger.plugin.model.validation.RangerPolicyValidator;
 import org.apache.ranger.plugin.model.validation.RangerServiceDefValidator;
@@ -83,6 +84,7 @@
 import org.apache.ranger.plugin.util.RangerPluginCapability;
 import org.apache.ranger.plugin.util.SearchFilter;
 import org.apache.ranger.plugin.util.ServicePolicies;
+import org.apache.ranger.plugin.util.ServiceVersions;
 import org.apache.ranger.security.context.RangerContextHolder;
 import org.apache.ranger.security.context.RangerSecurityContext;
 import org.apache.ranger.service.RangerAuditFields;
@@ -111,12 +113,18 @@
 import org.junit.runner.RunWith;
 import org.junit.runners.MethodSorters;
 import org.mockito.Answers;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -126,11 +134,13 @@
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -217,6 +227,10 @@ public class TestServiceREST {
     RangerPolicyAdmin policyAdmin;
     @Mock
     RangerTransactionSynchronizationAdapter rangerTransactionSynchronizationAdapter;
+    @Mock
+    ServiceVersionChangeNotifier versionChangeNotifier;
+    @Mock
+    PlatformTransactionManager txManager;
     private String capabilityVector;
 
     public void setup() {
@@ -1424,6 +1438,7 @@ public void test44getPolicyLabels() {
         Mockito.verify(searchUtil).getSearchFilter(request, policyLabelsService.sortFields);
     }
 
+    @SuppressWarnings("unchecked")
     @Test
     public void test45exportPoliciesInJSON() throws Exception {
         HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
@@ -1450,15 +1465,26 @@ public void test45exportPoliciesInJSON() throws Exception {
         Mockito.when(bizUtil.isAuditAdmin()).thenReturn(false);
         Mockito.when(bizUtil.isAuditKeyAdmin()).thenReturn(false);
         Mockito.when(daoManager.getXXService()).thenReturn(xServiceDao);
+        Mockito.when(xServiceDao.findServiceHeaders()).thenReturn(Collections.singletonList(new RangerServiceHeaderInfo(xService.getId(), xService.getName(), xService.getName(), "hdfs")));
 
         Mockito.when(daoManager.getXXServiceDef()).thenReturn(xServiceDefDao);
         Mockito.when(daoManager.getXXService().findByName("HDFS_1-1-20150316062453")).thenReturn(xService);
         Mockito.when(daoManager.getXXServiceDef().getById(xService.getType())).thenReturn(xServiceDef);
         serviceREST.getPoliciesInJson(request, response, false);
 
-        Mockito.verify(svcStore).getObjectInJson(rangerPolicyList, response, JSON_FILE_NAME_TYPE.POLICY);
+        ArgumentCaptor<Iterator<RangerPolicy>> policies = ArgumentCaptor.forClass(Iterator.class);
+
+        Mockito.verify(svcStore).getPoliciesInJson(policies.capture(), Mockito.eq(response));
+
+        List<RangerPolicy> exportedPolicies = new ArrayList<>();
+
+        policies.getValue().forEachRemaining(exportedPolicies::add);
+
+        Assert.assertEquals(rangerPolicyList, exportedPolicies);
+        Assert.assertEquals(xService.getName(), filter.getParam("serviceName"));
     }
 
+    @SuppressWarnings("unchecked")
     @Test
     public void test46exportPoliciesInCSV() throws Exception {
         HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
@@ -1485,6 +1511,7 @@ public void test46exportPoliciesInCSV() throws Exception {
         Mockito.when(bizUtil.isAuditAdmin()).thenReturn(false);
         Mockito.when(bizUtil.isAuditKeyAdmin()).thenReturn(false);
         Mockito.when(daoManager.getXXService()).thenReturn(xServiceDao);
+        Mockito.when(xServiceDao.findServiceHeaders()).thenReturn(Collections.singletonList(new RangerServiceHeaderInfo(xService.getId(), xService.getName(), xService.getName(), "hdfs")));
 
         Mockito.when(daoManager.getXXServiceDef()).thenReturn(xServiceDefDao);
 
@@ -1492,9 +1519,19 @@ public void test46exportPoliciesInCSV() throws Exception {
         Mockito.when(daoManager.getXXServiceDef().getById(xService.getType())).thenReturn(xServiceDef);
         serviceREST.getPoliciesInCsv(request, response);
 
-        Mockito.verify(svcStore).getPoliciesInCSV(rangerPolicyList, response);
+        ArgumentCaptor<Iterator<RangerPolicy>> policies = ArgumentCaptor.forClass(Iterator.class);
+
+        Mockito.verify(svcStore).getPoliciesInCSV(policies.capture(), Mockito.eq(response));
+
+        List<RangerPolicy> exportedPolicies = new ArrayList<>();
+
+        policies.getValue().forEachRemaining(exportedPolicies::add);
+
+        Assert.assertEquals(rangerPolicyList, exportedPolicies);
+        Assert.assertEquals(xService.getName(), filter.getParam("serviceName"));
     }
 
+    @SuppressWarnings("unchecked")
     @Test
     public void test48exportPoliciesInExcel() throws Exception {
         HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
@@ -1520,13 +1557,23 @@ public void test48exportPoliciesInExcel() throws Exception {
         Mockito.when(bizUtil.isAuditAdmin()).thenReturn(false);
         Mockito.when(bizUtil.isAuditKeyAdmin()).thenReturn(false);
         Mockito.when(daoManager.getXXService()).thenReturn(xServiceDao);
+        Mockito.when(xServiceDao.findServiceHeaders()).thenReturn(Collections.singletonList(new RangerServiceHeaderInfo(xService.getId(), xService.getName(), xService.getName(), "hdfs")));
 
         Mockito.when(daoManager.getXXServiceDef()).thenReturn(xServiceDefDao);
 
         Mockito.when(daoManager.getXXService().findByName("HDFS_1-1-20150316062453")).thenReturn(xService);
         Mockito.when(daoManager.getXXServiceDef().getById(xService.getType())).thenReturn(xServiceDef);
         serviceREST.getPoliciesInExcel(request, response);
-        Mockito.verify(svcStore).getPoliciesInExcel(rangerPolicyList, response);
+        ArgumentCaptor<Iterator<RangerPolicy>> policies = ArgumentCaptor.forClass(Iterator.class);
+
+        Mockito.verify(svcStore).getPoliciesInExcel(policies.capture(), Mockito.eq(response));
+
+        List<RangerPolicy> exportedPolicies = new ArrayList<>();
+
+        policies.getValue().forEachRemaining(exportedPolicies::add);
+
+        Assert.assertEquals(rangerPolicyList, exportedPolicies);
+        Assert.assertEquals(xService.getName(), filter.getParam("serviceName"));
     }
 
     @SuppressWarnings("unchecked")
@@ -2478,6 +2525,80 @@ public void test81GetPolicyByNameAndServiceNameWithZoneNameIsNull() {
         Assert.assertEquals(dbRangerPolicy.getName(), rangerPolicy.getName());
     }
 
+    @Test
+    public void test82WaitForServiceVersionChangeHoldsNoTransaction() throws Exception {
+        HttpServletRequest request        = Mockito.mock(HttpServletRequest.class);
+        TransactionStatus  txStatus       = Mockito.mock(TransactionStatus.class);
+        XXService          xService       = xService();
+        XXServiceDefDao    xServiceDefDao = Mockito.mock(XXServiceDefDao.class);
+        String             serviceName    = rangerService().getName();
+
+        // endpoints must not be run in the transaction started for ServiceREST methods, which would be held while waiting
+        for (String methodName : new String[] {"waitForServiceVersionChange", "waitForSecureServiceVersionChange"}) {
+            Method method = ServiceREST.class.getMethod(methodName, String.class, Long.class, Long.class, Long.class, Long.class, Long.class, String.class, HttpServletRequest.class);
+
+            Assert.assertEquals(Propagation.NOT_SUPPORTED, method.getAnnotation(Transactional.class).propagation());
+        }
+
+        Mockito.when(versionChangeNotifier.isEnabled()).thenReturn(true);
+        Mockito.when(txManager.getTransaction(Mockito.any())).thenReturn(txStatus);
+        Mockito.when(serviceUtil.isValidService(serviceName, request)).thenReturn(true);
+        Mockito.when(daoManager.getXXService()).thenReturn(xServiceDao);
+        Mockito.when(xServiceDao.findByName(serviceName)).thenReturn(xService);
+        Mockito.when(daoManager.getXXServiceDef()).thenReturn(xServiceDefDao);
+        Mockito.when(xServiceDefDao.getById(xService.getType())).thenReturn(serviceDef());
+        Mockito.when(bizUtil.isAdmin()).thenReturn(true);
+        Mockito.when(versionChangeNotifier.waitForChange(Mockito.any(), Mockito.anyLong())).thenAnswer(invocation -> {
+            // validation transaction must be complete before waiting
+            Mockito.verify(txManager).commit(txStatus);
+
+            return new ServiceVersions(serviceName, 2L, null, null, null);
+        });
+
+        ServiceVersions ret = serviceREST.waitForSecureServiceVersionChange(serviceName, 1L, null, null, null, 1000L, "pluginId", request);
+
+        Assert.assertEquals(Long.valueOf(2L), ret.getPolicyVersion());
+
+        InOrder inOrder = Mockito.inOrder(txManager, serviceUtil, versionChangeNotifier);
+
+        inOrder.verify(txManager).getTransaction(Mockito.any());
+        inOrder.verify(serviceUtil).isValidService(serviceName, request);
+        inOrder.verify(txManager).commit(txStatus);
+        inOrder.verify(versionChangeNotifier).waitForChange(Mockito.any(), Mockito.eq(1000L));
+    }
+
+    @Test
+    public void test83WaitForSecureServiceVersionChangeNotAllowed() throws Exception {
+        HttpServletRequest request        = Mockito.mock(HttpServletRequest.class);
+        XXService          xService       = xService();
+        XXServiceDefDao    xServiceDefDao = Mockito.mock(XXServiceDefDao.class);
+        String             serviceName    = xService.getName();
+        RangerService      rs             = rangerService();
+
+        Mockito.when(versionChangeNotifier.isEnabled()).thenReturn(true);
+        Mockito.when(txManager.getTransaction(Mockito.any())).thenReturn(Mockito.mock(TransactionStatus.class));
+        Mockito.when(serviceUtil.isValidService(serviceName, request)).thenReturn(true);
+        Mockito.when(daoManager.getXXService()).thenReturn(xServiceDao);
+        Mockito.when(xServiceDao.findByName(serviceName)).thenReturn(xService);
+        Mockito.when(daoManager.getXXServiceDef()).thenReturn(xServiceDefDao);
+        Mockito.when(xServiceDefDao.getById(xService.getType())).thenReturn(serviceDef());
+        Mockito.when(bizUtil.isAdmin()).thenReturn(false);
+        Mockito.when(svcStore.getServiceByName(serviceName)).thenReturn(rs);
+        Mockito.when(bizUtil.isUserAllowed(rs, ServiceREST.Allowed_User_List_For_Download)).thenReturn(false);
+        Mockito.when(bizUtil.isUserAllowed(rs, ServiceREST.Allowed_User_List_For_Grant_Revoke)).thenReturn(false);
+        Mockito.when(restErrorUtil.createRESTException(Mockito.eq(HttpServletResponse.SC_FORBIDDEN), Mockito.anyString(), Mockito.anyBoolean())).thenReturn(new WebApplicationException(HttpServletResponse.SC_FORBIDDEN));
+
+        try {
+            serviceREST.waitForSecureServiceVersionChange(serviceName, 1L, null, null, null, 1000L, "pluginId", request);
+
+            Assert.fail("user not in download users must not be allowed to wait for service version change");
+        } catch (WebApplicationException excp) {
+            Assert.assertEquals(HttpServletResponse.SC_FORBIDDEN, excp.getResponse().getStatus());
+        }
+
+        Mockito.verify(versionChangeNotifier, Mockito.never()).waitForChange(Mockito.any(), Mockito.anyLong());
+    }
+
     RangerPolicy rangerPolicy() {
         List<RangerPolicyItemAccess>    accesses         = new ArrayList<>();
         List<String>                    users            = new ArrayList<>();
@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.service;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.ranger.plugin.util.JsonUtilsV2;
+import org.apache.ranger.view.VXTrxLogV2.AttributeChangeInfo;
+import org.apache.ranger.view.VXTrxLogV2.ObjectChangeInfo;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TestRangerTrxLogV2Service {
+    @Test
+    public void testCompressChangeInfo() throws Exception {
+        String           largeValue    = "{\"policyItems\":[" + StringUtils.repeat("{\"users\":[\"user1\"],\"accesses\":[\"read\"]}", ",", 500) + "]}";
+        ObjectChangeInfo objChangeInfo = new ObjectChangeInfo();
+
+        objChangeInfo.addAttribute("Policy Items", null, largeValue);
+        objChangeInfo.addAttribute("Policy Name", "policy-1", "policy-2");
+
+        String changeInfo           = JsonUtilsV2.objToJson(objChangeInfo);
+        String compressedChangeInfo = RangerTrxLogV2Service.compressChangeInfo(changeInfo, 1024);
+
+        assertTrue(compressedChangeInfo.length() < changeInfo.length() / 4);
+        assertTrue(compressedChangeInfo.contains("\"Policy Items\""));
+        assertFalse(compressedChangeInfo.contains("user1"));
+
+        ObjectChangeInfo    decompressed = JsonUtilsV2.jsonToObj(compressedChangeInfo, ObjectChangeInfo.class);
+        AttributeChangeInfo policyItems  = decompressed.getAttributes().get(0);
+        AttributeChangeInfo policyName   = decompressed.getAttributes().get(1);
+
+        assertEquals(largeValue, RangerTrxLogV2Service.decompressValue(policyItems.getNewValue()));
+        assertEquals(null, RangerTrxLogV2Service.decompressValue(policyItems.getOldValue()));
+        assertEquals("policy-1", RangerTrxLogV2Service.decompressValue(policyName.getOldValue()));
+        assertEquals("policy-2", RangerTrxLogV2Service.decompressValue(policyName.getNewValue()));
+    }
+
+    @Test
+    public void testSmallChangeInfoIsNotCompressed() throws Exception {
+        ObjectChangeInfo objChangeInfo = new ObjectChangeInfo();
+
+        objChangeInfo.addAttribute("Policy Name", "policy-1", "policy-2");
+
+        String changeInfo = JsonUtilsV2.objToJson(objChangeInfo);
+
+        assertSame(changeInfo, RangerTrxLogV2Service.compressChangeInfo(changeInfo, 1024));
+        assertEquals("{gz}not-base64", RangerTrxLogV2Service.decompressValue("{gz}not-base64"));
+    }
+}
@@ -30,17 +30,26 @@
 import org.apache.ranger.entity.XXGroupUser;
 import org.apache.ranger.entity.XXPortalUser;
 import org.apache.ranger.entity.XXUser;
+import org.apache.ranger.ugsyncutil.model.GroupUserInfo;
 import org.apache.ranger.view.VXGroupUser;
+import org.junit.Assert;
 import org.junit.FixMethodOrder;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.MethodSorters;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 
 import static org.apache.ranger.service.RangerBaseModelService.OPERATION_CREATE_CONTEXT;
 
@@ -129,6 +138,57 @@ public void test3GetTransactionLog() {
         xGroupUserService.createTransactionLog(vObj, null, OPERATION_CREATE_CONTEXT);
     }
 
+    @Test
+    public void test4BulkCreateOrDeleteXGroupUsers() {
+        GroupUserInfo groupUserInfo1 = new GroupUserInfo();
+        GroupUserInfo groupUserInfo2 = new GroupUserInfo();
+        XXGroupUser   existingUser1  = createXXGroupUser();
+        XXGroupUser   existingUser4  = createXXGroupUser();
+
+        groupUserInfo1.setGroupName("group1");
+        groupUserInfo1.setAddUsers(new HashSet<>(Arrays.asList("user1", "user2", "user3")));
+        groupUserInfo1.setDelUsers(new HashSet<>(Collections.singletonList("user4")));
+        groupUserInfo2.setGroupName("group2");
+        groupUserInfo2.setAddUsers(new HashSet<>(Collections.singletonList("user2")));
+
+        existingUser1.setId(100L);
+        existingUser1.setParentGroupId(10L);
+        existingUser1.setUserId(1L);
+        existingUser4.setId(101L);
+        existingUser4.setParentGroupId(10L);
+        existingUser4.setUserId(4L);
+
+        Map<String, Long> userIds = new HashMap<>();
+
+        userIds.put("user1", 1L);
+        userIds.put("user2", 2L);
+        userIds.put("user4", 4L);
+
+        Mockito.when(daoManager.getXXGroup()).thenReturn(xXGroupDao);
+        Mockito.when(daoManager.getXXUser()).thenReturn(xXUserDao);
+        Mockito.when(daoManager.getXXGroupUser()).thenReturn(xXGroupUserDao);
+        Mockito.when(daoManager.getXXPortalUser()).thenReturn(xXPortalUserDao);
+        Mockito.when(xXGroupDao.getGroupIdsByNames(Mockito.anyCollection())).thenReturn(Collections.singletonMap("group1", 10L));
+        Mockito.when(xXUserDao.getUserIdsByNames(Mockito.anyCollection())).thenReturn(userIds);
+        Mockito.when(xXPortalUserDao.getById(1L)).thenReturn(tUser);
+        Mockito.when(xXGroupUserDao.findByGroupIdsAndUserIds(Mockito.anyCollection(), Mockito.anyCollection())).thenReturn(Arrays.asList(existingUser1, existingUser4));
+
+        int ret = xGroupUserService.bulkCreateOrDeleteXGroupUsers(Arrays.asList(groupUserInfo1, groupUserInfo2));
+
+        ArgumentCaptor<List> createdCaptor = ArgumentCaptor.forClass(List.class);
+
+        Mockito.verify(xXGroupUserDao).deleteByIds(Collections.singletonList(101L));
+        Mockito.verify(entityDao).batchCreate(createdCaptor.capture());
+
+        List<XXGroupUser> created = createdCaptor.getValue();
+
+        Assert.assertEquals(2, ret);
+        Assert.assertEquals(1, created.size());
+        Assert.assertEquals(Long.valueOf(10L), created.get(0).getParentGroupId());
+        Assert.assertEquals(Long.valueOf(2L), created.get(0).getUserId());
+        Assert.assertEquals("group1", created.get(0).getName());
+    }
+
     private XXGroup createXXGroup() {
         XXGroup xXGroup = new XXGroup();
         Date    date    = new Date();
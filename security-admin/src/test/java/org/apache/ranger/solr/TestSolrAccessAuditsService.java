@@ -0,0 +1,176 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.solr;
+
+import org.apache.ranger.common.SearchCriteria;
+import org.apache.ranger.view.VXAccessAuditAggregation;
+import org.apache.ranger.view.VXAccessAuditCount;
+import org.apache.ranger.view.VXAccessAuditList;
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.client.solrj.response.json.NestableJsonFacet;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
+import org.apache.solr.common.params.CursorMarkParams;
+import org.apache.solr.common.util.NamedList;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.util.Arrays;
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TestSolrAccessAuditsService {
+    private final SolrAccessAuditsService auditsService = new SolrAccessAuditsService();
+
+    @Before
+    public void setup() {
+        auditsService.solrMgr  = Mockito.mock(SolrMgr.class);
+        auditsService.solrUtil = Mockito.mock(SolrUtil.class);
+
+        Mockito.when(auditsService.solrMgr.getSolrClient()).thenReturn(Mockito.mock(SolrClient.class));
+    }
+
+    @Test
+    public void testNextPageIsFetchedWithCursor() {
+        QueryResponse page1 = createResponse(0, "cursor-2");
+        QueryResponse page2 = createResponse(2, "cursor-4");
+        QueryResponse page6 = createResponse(10, null);
+
+        Mockito.when(auditsService.solrUtil.searchResources(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.eq(CursorMarkParams.CURSOR_MARK_START))).thenReturn(page1);
+        Mockito.when(auditsService.solrUtil.searchResources(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.eq("cursor-2"))).thenReturn(page2);
+        Mockito.when(auditsService.solrUtil.searchResources(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.isNull())).thenReturn(page6);
+
+        VXAccessAuditList result1 = auditsService.searchXAccessAudits(createSearchCriteria(0));
+        VXAccessAuditList result2 = auditsService.searchXAccessAudits(createSearchCriteria(2));
+
+        assertEquals(0, result1.getStartIndex());
+        assertEquals(2, result2.getStartIndex());
+        assertEquals("audit-2", result2.getVXAccessAudits().get(0).getEventId());
+        assertEquals(5, result2.getTotalCount());
+
+        assertSame(result2, auditsService.searchXAccessAudits(createSearchCriteria(2)));
+
+        Mockito.verify(auditsService.solrUtil, Mockito.times(1)).searchResources(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.eq("cursor-2"));
+
+        // no cursor for a page that doesn't follow an earlier fetched page
+        auditsService.searchXAccessAudits(createSearchCriteria(10));
+
+        Mockito.verify(auditsService.solrUtil, Mockito.times(1)).searchResources(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.isNull());
+    }
+
+    @Test
+    public void testAggregationIsComputedWithFacets() {
+        QueryResponse     response = Mockito.mock(QueryResponse.class);
+        NamedList<Object> facets   = new NamedList<>();
+
+        facets.add("count", 5L);
+        facets.add("results", createBuckets(createBucket(1, 3L, null), createBucket(0, 2L, null)));
+        facets.add("top", createBuckets(createBucket("user1", 4L, createBuckets(createBucket(1, 3L, null), createBucket(0, 1L, null))), createBucket("user2", 1L, createBuckets(createBucket(0, 1L, null)))));
+        facets.add("distinct", 2L);
+        facets.add("histogram", createBuckets(createBucket(new Date(1000L), 5L, createBuckets(createBucket(1, 3L, null), createBucket(0, 2L, null)))));
+
+        Mockito.when(response.getJsonFacetingResponse()).thenReturn(new NestableJsonFacet(facets));
+        Mockito.when(auditsService.solrUtil.aggregate(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyString())).thenReturn(response);
+
+        SearchCriteria searchCriteria = createSearchCriteria(0);
+
+        searchCriteria.getParamList().put("startDate", new Date(1000L));
+
+        VXAccessAuditAggregation ret = auditsService.aggregateXAccessAudits(searchCriteria, "requestUser", 2, "day");
+
+        assertEquals(5L, ret.getTotal().getCount());
+        assertEquals(3L, ret.getTotal().getAllowedCount());
+        assertEquals(2L, ret.getTotal().getDeniedCount());
+        assertEquals(Long.valueOf(2), ret.getDistinctCount());
+        assertEquals(2, ret.getTopValues().size());
+
+        VXAccessAuditCount user2 = ret.getTopValues().get(1);
+
+        assertEquals("user2", user2.getValue());
+        assertEquals(0L, user2.getAllowedCount());
+        assertEquals(1L, user2.getDeniedCount());
+        assertEquals(1, ret.getHistogram().size());
+        assertEquals("1000", ret.getHistogram().get(0).getValue());
+
+        ArgumentCaptor<String> jsonFacet = ArgumentCaptor.forClass(String.class);
+
+        Mockito.verify(auditsService.solrUtil).aggregate(Mockito.eq(searchCriteria), Mockito.any(), Mockito.any(), jsonFacet.capture());
+
+        assertTrue(jsonFacet.getValue().contains("unique(reqUser)"));
+        assertTrue(jsonFacet.getValue().contains("+86400000MILLISECONDS"));
+    }
+
+    private static QueryResponse createResponse(int startId, String nextCursorMark) {
+        QueryResponse    ret  = Mockito.mock(QueryResponse.class);
+        SolrDocumentList docs = new SolrDocumentList();
+
+        for (int i = startId; i < startId + 2; i++) {
+            SolrDocument doc = new SolrDocument();
+
+            doc.setField("id", "audit-" + i);
+
+            docs.add(doc);
+        }
+
+        docs.setNumFound(5);
+
+        Mockito.when(ret.getResults()).thenReturn(docs);
+        Mockito.when(ret.getNextCursorMark()).thenReturn(nextCursorMark);
+
+        return ret;
+    }
+
+    private static SearchCriteria createSearchCriteria(int startIndex) {
+        SearchCriteria ret = new SearchCriteria();
+
+        ret.setStartIndex(startIndex);
+        ret.setMaxRows(2);
+        ret.getParamList().put("repoName", "dev_hdfs");
+
+        return ret;
+    }
+
+    private static NamedList<Object> createBuckets(NamedList<?>... buckets) {
+        NamedList<Object> ret = new NamedList<>();
+
+        ret.add("buckets", Arrays.asList(buckets));
+
+        return ret;
+    }
+
+    private static NamedList<Object> createBucket(Object val, long count, NamedList<Object> results) {
+        NamedList<Object> ret = new NamedList<>();
+
+        ret.add("val", val);
+        ret.add("count", count);
+
+        if (results != null) {
+            ret.add("results", results);
+        }
+
+        return ret;
+    }
+}
@@ -19,17 +19,20 @@
 
 package org.apache.ranger.ugsyncutil.model;
 
+import java.util.Map;
+
 public class UgsyncAuditInfo {
-    private String             userName;
-    private Long               noOfNewUsers;
-    private Long               noOfNewGroups;
-    private Long               noOfModifiedUsers;
-    private Long               noOfModifiedGroups;
-    private String             syncSource;
-    private String             sessionId;
-    private LdapSyncSourceInfo ldapSyncSourceInfo;
-    private UnixSyncSourceInfo unixSyncSourceInfo;
-    private FileSyncSourceInfo fileSyncSourceInfo;
+    private String              userName;
+    private Long                noOfNewUsers;
+    private Long                noOfNewGroups;
+    private Long                noOfModifiedUsers;
+    private Long                noOfModifiedGroups;
+    private String              syncSource;
+    private String              sessionId;
+    private LdapSyncSourceInfo  ldapSyncSourceInfo;
+    private UnixSyncSourceInfo  unixSyncSourceInfo;
+    private FileSyncSourceInfo  fileSyncSourceInfo;
+    private Map<String, String> uploadStats;
 
     public Long getNoOfNewUsers() {
         return noOfNewUsers;
@@ -111,6 +114,14 @@ public void setSessionId(String sessionId) {
         this.sessionId = sessionId;
     }
 
+    public Map<String, String> getUploadStats() {
+        return uploadStats;
+    }
+
+    public void setUploadStats(Map<String, String> uploadStats) {
+        this.uploadStats = uploadStats;
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
@@ -127,6 +138,7 @@ public StringBuilder toString(StringBuilder sb) {
         sb.append(", ldapSyncSourceInfo= ").append(ldapSyncSourceInfo);
         sb.append(", unixSyncSourceInfo= ").append(unixSyncSourceInfo);
         sb.append(", fileSyncSourceInfo= ").append(fileSyncSourceInfo);
+        sb.append(", uploadStats= ").append(uploadStats);
         sb.append("]");
         return sb;
     }
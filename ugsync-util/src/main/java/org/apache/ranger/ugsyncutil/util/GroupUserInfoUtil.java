@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.ugsyncutil.util;
+
+import org.apache.ranger.ugsyncutil.model.GroupUserInfo;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class GroupUserInfoUtil {
+    private GroupUserInfoUtil() {
+        // to block instantiation
+    }
+
+    public static int getMembershipCount(GroupUserInfo groupUserInfo) {
+        return size(groupUserInfo.getAddUsers()) + size(groupUserInfo.getDelUsers());
+    }
+
+    /*
+    Splits groupUserInfoList into chunks having at most maxMemberships added and deleted users each. A group having more
+    than maxMemberships users is split across chunks; groupUserInfoList is not modified
+     */
+    public static List<List<GroupUserInfo>> partition(List<GroupUserInfo> groupUserInfoList, int maxMemberships) {
+        List<List<GroupUserInfo>> ret             = new ArrayList<>();
+        List<GroupUserInfo>       chunk           = new ArrayList<>();
+        int                       chunkMembership = 0;
+
+        if (maxMemberships <= 0) {
+            maxMemberships = Integer.MAX_VALUE;
+        }
+
+        for (GroupUserInfo groupUserInfo : groupUserInfoList) {
+            int membershipCount = getMembershipCount(groupUserInfo);
+
+            if (membershipCount == 0) {
+                continue;
+            }
+
+            if (chunkMembership + membershipCount <= maxMemberships) {
+                chunk.add(groupUserInfo);
+
+                chunkMembership += membershipCount;
+            } else {
+                List<String> addUsers = toList(groupUserInfo.getAddUsers());
+                List<String> delUsers = toList(groupUserInfo.getDelUsers());
+                int          addIdx   = 0;
+                int          delIdx   = 0;
+
+                while (addIdx < addUsers.size() || delIdx < delUsers.size()) {
+                    if (chunkMembership >= maxMemberships) {
+                        ret.add(chunk);
+
+                        chunk           = new ArrayList<>();
+                        chunkMembership = 0;
+                    }
+
+                    int           available = maxMemberships - chunkMembership;
+                    GroupUserInfo part      = new GroupUserInfo();
+                    int           addCount  = Math.min(available, addUsers.size() - addIdx);
+                    int           delCount  = Math.min(available - addCount, delUsers.size() - delIdx);
+
+                    part.setGroupName(groupUserInfo.getGroupName());
+                    part.setAddUsers(new HashSet<>(addUsers.subList(addIdx, addIdx + addCount)));
+                    part.setDelUsers(new HashSet<>(delUsers.subList(delIdx, delIdx + delCount)));
+
+                    chunk.add(part);
+
+                    addIdx          += addCount;
+                    delIdx          += delCount;
+                    chunkMembership += addCount + delCount;
+                }
+            }
+
+            if (chunkMembership >= maxMemberships) {
+                ret.add(chunk);
+
+                chunk           = new ArrayList<>();
+                chunkMembership = 0;
+            }
+        }
+
+        if (!chunk.isEmpty()) {
+            ret.add(chunk);
+        }
+
+        return ret;
+    }
+
+    private static int size(Set<String> users) {
+        return users != null ? users.size() : 0;
+    }
+
+    private static List<String> toList(Set<String> users) {
+        return users != null ? new ArrayList<>(users) : new ArrayList<>();
+    }
+}
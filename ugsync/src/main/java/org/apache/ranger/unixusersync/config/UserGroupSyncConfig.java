@@ -202,6 +202,8 @@ public class UserGroupSyncConfig {
     private static final String SYNC_POLICY_MGR_USERNAME                                             = "ranger.usersync.policymgr.username";
     private static final String SYNC_POLICY_MGR_MAX_RETRY_ATTEMPTS                                   = "ranger.usersync.policymgr.max.retry.attempts";
     private static final String SYNC_POLICY_MGR_RETRY_INTERVAL_MS                                    = "ranger.usersync.policymgr.retry.interval.ms";
+    private static final String SYNC_POLICY_MGR_GROUP_USERS_BULK_UPLOAD_ENABLED                      = "ranger.usersync.policymgr.groupusers.bulk.upload.enabled";
+    private static final String SYNC_POLICY_MGR_GROUP_USERS_BULK_UPLOAD_SIZE                         = "ranger.usersync.policymgr.groupusers.bulk.upload.size";
     private static final String DEFAULT_POLICYMGR_USERNAME                                           = "rangerusersync";
 
     /* Other Configs */
@@ -1081,6 +1083,17 @@ public int getPolicyMgrRetryIntervalMs() {
         return getIntProperty(prop, SYNC_POLICY_MGR_RETRY_INTERVAL_MS, 1_000);
     }
 
+    public boolean isGroupUsersBulkUploadEnabled() {
+        String val = prop.getProperty(SYNC_POLICY_MGR_GROUP_USERS_BULK_UPLOAD_ENABLED);
+
+        return val == null || Boolean.parseBoolean(val.trim());
+    }
+
+    // max number of group memberships sent in one bulk upload call
+    public int getGroupUsersBulkUploadSize() {
+        return getIntProperty(prop, SYNC_POLICY_MGR_GROUP_USERS_BULK_UPLOAD_SIZE, 10_000);
+    }
+
     public String getSyncSource() {
         String syncSource = null;
 
@@ -30,6 +30,7 @@
 import org.apache.ranger.ugsyncutil.model.UsersGroupRoleAssignments;
 import org.apache.ranger.ugsyncutil.model.XGroupInfo;
 import org.apache.ranger.ugsyncutil.model.XUserInfo;
+import org.apache.ranger.ugsyncutil.util.GroupUserInfoUtil;
 import org.apache.ranger.ugsyncutil.util.UgsyncCommonConstants;
 import org.apache.ranger.unixusersync.config.UserGroupSyncConfig;
 import org.apache.ranger.unixusersync.model.GetXGroupListResponse;
@@ -65,6 +66,7 @@ public class PolicyMgrUserGroupBuilder extends AbstractUserGroupSource implement
     private static final String PM_ADD_USERS_URI                   = "/service/xusers/ugsync/users";
     private static final String PM_ADD_GROUPS_URI                  = "/service/xusers/ugsync/groups/";
     private static final String PM_ADD_GROUP_USER_LIST_URI         = "/service/xusers/ugsync/groupusers";
+    private static final String PM_BULK_ADD_GROUP_USER_LIST_URI    = "/service/xusers/ugsync/groupusers/bulk";
     private static final String PM_AUDIT_INFO_URI                  = "/service/xusers/ugsync/auditinfo/";
     private static final String PM_UPDATE_DELETED_USERS_URI        = "/service/xusers/ugsync/users/visibility";
     private static final String PM_UPDATE_DELETED_GROUPS_URI       = "/service/xusers/ugsync/groups/visibility";
@@ -115,6 +117,7 @@ public class PolicyMgrUserGroupBuilder extends AbstractUserGroupSource implement
     private Map<String, Set<String>> deltaGroupUsers;
     private Map<String, XGroupInfo>  deletedGroups;
     private Map<String, XUserInfo>   deletedUsers;
+    private Map<String, String>      uploadStats;
     private int     noOfNewUsers;
     private int     noOfNewGroups;
     private int     noOfModifiedUsers;
@@ -129,6 +132,8 @@ public class PolicyMgrUserGroupBuilder extends AbstractUserGroupSource implement
     private boolean isRangerCookieEnabled;
     private boolean isUserSyncNameValidationEnabled;
     private boolean isSyncSourceValidationEnabled;
+    private boolean isGroupUsersBulkUploadEnabled;
+    private int     groupUsersBulkUploadSize;
     private String  recordsToPullPerCall = "10";
     private String  currentSyncSource;
     private String  ldapUrl;
@@ -177,6 +182,8 @@ public static void main(String[] args) throws Throwable {
     public synchronized void init() throws Throwable {
         isUserSyncNameValidationEnabled = config.isUserSyncNameValidationEnabled();
         isSyncSourceValidationEnabled   = config.isSyncSourceValidationEnabled();
+        isGroupUsersBulkUploadEnabled   = config.isGroupUsersBulkUploadEnabled();
+        groupUsersBulkUploadSize        = config.getGroupUsersBulkUploadSize();
         recordsToPullPerCall            = config.getMaxRecordsPerAPICall();
         policyMgrBaseUrl                = config.getPolicyManagerBaseURL();
         isMockRun                       = config.isMockRunEnabled();
@@ -248,6 +255,7 @@ public void postUserGroupAuditInfo(UgsyncAuditInfo ugsyncAuditInfo) {
         ugsyncAuditInfo.setNoOfNewGroups(Integer.toUnsignedLong(noOfNewGroups));
         ugsyncAuditInfo.setNoOfModifiedUsers(Integer.toUnsignedLong(noOfModifiedUsers));
         ugsyncAuditInfo.setNoOfModifiedGroups(Integer.toUnsignedLong(noOfModifiedGroups));
+        ugsyncAuditInfo.setUploadStats(uploadStats);
 
         int noOfCachedUsers  = userCache.size();
         int noOfCachedGroups = groupCache.size();
@@ -290,6 +298,7 @@ public void addOrUpdateUsersGroups(Map<String, Map<String, String>> sourceGroups
         noOfModifiedUsers    = 0;
         noOfModifiedGroups   = 0;
         computeRolesForUsers = new HashSet<>();
+        uploadStats          = new LinkedHashMap<>();
 
         if (!isStartupFlag && computeDeletes) {
             LOG.info("Computing deleted users/groups");
@@ -620,6 +629,8 @@ private void addOrUpdateUsers(Map<String, Map<String, String>> sourceUsers) thro
         computeUserDelta(sourceUsers);
 
         if (MapUtils.isNotEmpty(deltaUsers)) {
+            long startTimeMs = System.currentTimeMillis();
+
             if (addOrUpdateDeltaUsers() == 0) {
                 String msg = "Failed to addorUpdate users to ranger admin";
 
@@ -627,6 +638,8 @@ private void addOrUpdateUsers(Map<String, Map<String, String>> sourceUsers) thro
 
                 throw new Exception(msg);
             }
+
+            recordUploadStats("users", deltaUsers.size(), startTimeMs);
         }
     }
 
@@ -634,6 +647,8 @@ private void addOrUpdateGroups(Map<String, Map<String, String>> sourceGroups) th
         computeGroupDelta(sourceGroups);
 
         if (MapUtils.isNotEmpty(deltaGroups)) {
+            long startTimeMs = System.currentTimeMillis();
+
             if (addOrUpdateDeltaGroups() == 0) {
                 String msg = "Failed to addorUpdate groups to ranger admin";
 
@@ -641,6 +656,8 @@ private void addOrUpdateGroups(Map<String, Map<String, String>> sourceGroups) th
 
                 throw new Exception(msg);
             }
+
+            recordUploadStats("groups", deltaGroups.size(), startTimeMs);
         }
     }
 
@@ -648,6 +665,9 @@ private void addOrUpdateGroupUsers(Map<String, Set<String>> sourceGroupUsers) th
         List<GroupUserInfo> groupUserInfoList = computeGroupUsersDelta(sourceGroupUsers);
 
         if (CollectionUtils.isNotEmpty(groupUserInfoList)) {
+            long startTimeMs     = System.currentTimeMillis();
+            int  membershipCount = 0;
+
             noOfModifiedGroups += groupUserInfoList.size();
 
             if (addOrUpdateDeltaGroupUsers(groupUserInfoList) == 0) {
@@ -657,9 +677,26 @@ private void addOrUpdateGroupUsers(Map<String, Set<String>> sourceGroupUsers) th
 
                 throw new Exception(msg);
             }
+
+            for (GroupUserInfo groupUserInfo : groupUserInfoList) {
+                membershipCount += GroupUserInfoUtil.getMembershipCount(groupUserInfo);
+            }
+
+            recordUploadStats("groupUsers", membershipCount, startTimeMs);
         }
     }
 
+    private void recordUploadStats(String entityType, int count, long startTimeMs) {
+        long timeTakenMs = System.currentTimeMillis() - startTimeMs;
+        long ratePerSec  = timeTakenMs > 0 ? (count * 1000L) / timeTakenMs : count;
+
+        uploadStats.put(entityType + "Uploaded", Integer.toString(count));
+        uploadStats.put(entityType + "UploadTimeMs", Long.toString(timeTakenMs));
+        uploadStats.put(entityType + "UploadRatePerSec", Long.toString(ratePerSec));
+
+        LOG.info("Uploaded {} {} to ranger admin in {} ms ({} per second)", count, entityType, timeTakenMs, ratePerSec);
+    }
+
     private void updateUserRoles() throws Throwable {
         UsersGroupRoleAssignments ugRoleAssignments = new UsersGroupRoleAssignments();
         List<String>              allUsers          = new ArrayList<>(computeRolesForUsers);
@@ -1212,6 +1249,14 @@ private int addOrUpdateDeltaGroupUsers(List<GroupUserInfo> groupUserInfoList) th
     }
 
     private int getGroupUsers(List<GroupUserInfo> groupUserInfoList) throws Throwable {
+        if (isGroupUsersBulkUploadEnabled) {
+            int ret = bulkUploadGroupUsers(groupUserInfoList);
+
+            if (ret != -1) {
+                return ret;
+            }
+        }
+
         LOG.debug("==> PolicyMgrUserGroupBuilder.getGroupUsers()");
 
         int ret           = 0;
@@ -1247,6 +1292,47 @@ private int getGroupUsers(List<GroupUserInfo> groupUserInfoList) throws Throwabl
         return ret;
     }
 
+    /*
+    Uploads group memberships in chunks of groupUsersBulkUploadSize memberships to the bulk API of ranger admin.
+    Returns number of groups uploaded, or -1 if ranger admin doesn't support the bulk API
+     */
+    private int bulkUploadGroupUsers(List<GroupUserInfo> groupUserInfoList) throws Throwable {
+        LOG.debug("==> PolicyMgrUserGroupBuilder.bulkUploadGroupUsers()");
+
+        int ret           = 0;
+        int uploadedCount = 0;
+
+        for (List<GroupUserInfo> chunk : GroupUserInfoUtil.partition(groupUserInfoList, groupUsersBulkUploadSize)) {
+            checkStatus();
+
+            String response = StringUtils.trim(getDataFromLdap(PM_BULK_ADD_GROUP_USER_LIST_URI, chunk));
+
+            if (StringUtils.isEmpty(response) || !StringUtils.isNumeric(response)) {
+                if (uploadedCount == 0) {
+                    LOG.warn("Bulk upload of group memberships failed, response={}. Using {} to upload group memberships", response, PM_ADD_GROUP_USER_LIST_URI);
+
+                    return -1;
+                }
+
+                LOG.error("Failed to bulk upload group memberships {}", uploadedCount);
+
+                throw new Exception("Failed to bulk upload group memberships " + uploadedCount);
+            }
+
+            for (GroupUserInfo groupUserInfo : chunk) {
+                uploadedCount += GroupUserInfoUtil.getMembershipCount(groupUserInfo);
+            }
+
+            ret += Integer.parseInt(response);
+
+            LOG.info("API returned: {}, No. of group memberships uploaded to ranger admin = {}", response, uploadedCount);
+        }
+
+        LOG.debug("<== PolicyMgrUserGroupBuilder.bulkUploadGroupUsers(): updatedMemberships={}", ret);
+
+        return groupUserInfoList.size();
+    }
+
     private String updateRoles(UsersGroupRoleAssignments ugRoleAssignments) {
         LOG.debug("==> PolicyMgrUserGroupBuilder.updateUserRole({})", ugRoleAssignments.getUsers());
 